@@ -16,6 +16,9 @@ package io.trino.benchto.driver;
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.trino.benchto.driver.concurrent.ArrivalDistribution;
+import io.trino.benchto.driver.concurrent.ExecutorType;
+import io.trino.benchto.driver.execution.ResultsOrder;
 
 import java.time.Duration;
 import java.util.List;
@@ -39,6 +42,7 @@ public class Benchmark
     private int suitePrewarmRuns;
     private int benchmarkPrewarmRuns;
     private int concurrency;
+    private ExecutorType executorType;
     private List<String> beforeBenchmarkMacros;
     private List<String> afterBenchmarkMacros;
     private List<String> beforeExecutionMacros;
@@ -47,7 +51,19 @@ public class Benchmark
     private String uniqueName;
     private Optional<Duration> frequency;
     private boolean throughputTest;
+    private Optional<Double> arrivalRate = Optional.empty();
+    private ArrivalDistribution arrivalDistribution = ArrivalDistribution.CONSTANT;
+    private Optional<Duration> expectedQueryInterval = Optional.empty();
+    private Optional<Double> targetPrecision = Optional.empty();
+    private int maxRuns;
+    private Optional<Duration> timeBudget = Optional.empty();
+    private double confidenceLevel = 0.95;
+    private List<Integer> concurrencySweep = ImmutableList.of();
+    private Duration sweepStepDuration = Duration.ofMinutes(1);
+    private double sweepKneeThreshold = 0.1;
+    private Optional<Double> queryTimeoutFactor = Optional.empty();
     private Optional<String> queryResults;
+    private ResultsOrder queryResultsOrder = ResultsOrder.ORDERED;
 
     private Benchmark()
     {
@@ -108,6 +124,11 @@ public class Benchmark
         return concurrency;
     }
 
+    public ExecutorType getExecutorType()
+    {
+        return executorType;
+    }
+
     public boolean isConcurrent()
     {
         return concurrency > 1;
@@ -160,11 +181,104 @@ public class Benchmark
         return throughputTest;
     }
 
+    /**
+     * Number of queries per second started by an open-loop throughput test, regardless of completion of previous queries.
+     */
+    public Optional<Double> getArrivalRate()
+    {
+        return arrivalRate;
+    }
+
+    public ArrivalDistribution getArrivalDistribution()
+    {
+        return arrivalDistribution;
+    }
+
+    /**
+     * Expected interval between queries of a single closed-loop throughput test worker, used to correct latencies
+     * for coordinated omission.
+     */
+    public Optional<Duration> getExpectedQueryInterval()
+    {
+        return expectedQueryInterval;
+    }
+
+    /**
+     * Target relative half-width of the confidence interval of query durations. If present, queries are repeated
+     * until the target is reached, up to {@link #getMaxRuns()} runs or until {@link #getTimeBudget()} is exhausted.
+     */
+    public Optional<Double> getTargetPrecision()
+    {
+        return targetPrecision;
+    }
+
+    public boolean isAdaptive()
+    {
+        return targetPrecision.isPresent();
+    }
+
+    public int getMaxRuns()
+    {
+        return maxRuns;
+    }
+
+    public Optional<Duration> getTimeBudget()
+    {
+        return timeBudget;
+    }
+
+    public double getConfidenceLevel()
+    {
+        return confidenceLevel;
+    }
+
+    /**
+     * Increasing numbers of concurrent workers of a throughput test, each run for {@link #getSweepStepDuration()}.
+     * Empty if throughput test runs with constant concurrency.
+     */
+    public List<Integer> getConcurrencySweep()
+    {
+        return concurrencySweep;
+    }
+
+    public boolean isConcurrencySweep()
+    {
+        return !concurrencySweep.isEmpty();
+    }
+
+    public Duration getSweepStepDuration()
+    {
+        return sweepStepDuration;
+    }
+
+    /**
+     * Concurrency sweep stops when throughput gained per added worker falls below this fraction of the throughput
+     * per worker of the first step.
+     */
+    public double getSweepKneeThreshold()
+    {
+        return sweepKneeThreshold;
+    }
+
+    /**
+     * If present, queries without a timeout property are cancelled after running longer than this factor
+     * times the 99th percentile of durations of previous successful executions of the benchmark.
+     */
+    public Optional<Double> getQueryTimeoutFactor()
+    {
+        return queryTimeoutFactor;
+    }
+
     public Optional<String> getQueryResults()
     {
         return queryResults;
     }
 
+    public ResultsOrder getQueryResultsOrder()
+    {
+        return queryResultsOrder;
+    }
+
     @Override
     public String toString()
     {
@@ -181,13 +295,26 @@ public class Benchmark
                 .add("suitePrewarmRuns", suitePrewarmRuns)
                 .add("benchmarkPrewarmRuns", benchmarkPrewarmRuns)
                 .add("concurrency", concurrency)
+                .add("executorType", executorType)
                 .add("throughputTest", throughputTest)
+                .add("arrivalRate", arrivalRate)
+                .add("arrivalDistribution", arrivalDistribution)
+                .add("expectedQueryInterval", expectedQueryInterval)
+                .add("targetPrecision", targetPrecision)
+                .add("maxRuns", maxRuns)
+                .add("timeBudget", timeBudget)
+                .add("confidenceLevel", confidenceLevel)
+                .add("concurrencySweep", concurrencySweep)
+                .add("sweepStepDuration", sweepStepDuration)
+                .add("sweepKneeThreshold", sweepKneeThreshold)
+                .add("queryTimeoutFactor", queryTimeoutFactor)
                 .add("frequency", frequency)
                 .add("beforeBenchmarkMacros", beforeBenchmarkMacros)
                 .add("afterBenchmarkMacros", afterBenchmarkMacros)
                 .add("beforeExecutionMacros", beforeExecutionMacros)
                 .add("afterExecutionMacros", afterExecutionMacros)
                 .add("query-results", queryResults)
+                .add("query-results-order", queryResultsOrder)
                 .add("variables", variables)
                 .toString();
     }
@@ -206,6 +333,7 @@ public class Benchmark
                 Objects.equal(suitePrewarmRuns, benchmark.suitePrewarmRuns) &&
                 Objects.equal(benchmarkPrewarmRuns, benchmark.benchmarkPrewarmRuns) &&
                 Objects.equal(concurrency, benchmark.concurrency) &&
+                Objects.equal(executorType, benchmark.executorType) &&
                 Objects.equal(name, benchmark.name) &&
                 Objects.equal(sequenceId, benchmark.sequenceId) &&
                 Objects.equal(dataSource, benchmark.dataSource) &&
@@ -218,7 +346,19 @@ public class Benchmark
                 Objects.equal(variables, benchmark.variables) &&
                 Objects.equal(frequency, benchmark.frequency) &&
                 Objects.equal(throughputTest, benchmark.throughputTest) &&
-                Objects.equal(queryResults, benchmark.queryResults);
+                Objects.equal(arrivalRate, benchmark.arrivalRate) &&
+                Objects.equal(arrivalDistribution, benchmark.arrivalDistribution) &&
+                Objects.equal(expectedQueryInterval, benchmark.expectedQueryInterval) &&
+                Objects.equal(targetPrecision, benchmark.targetPrecision) &&
+                Objects.equal(maxRuns, benchmark.maxRuns) &&
+                Objects.equal(timeBudget, benchmark.timeBudget) &&
+                Objects.equal(confidenceLevel, benchmark.confidenceLevel) &&
+                Objects.equal(concurrencySweep, benchmark.concurrencySweep) &&
+                Objects.equal(sweepStepDuration, benchmark.sweepStepDuration) &&
+                Objects.equal(sweepKneeThreshold, benchmark.sweepKneeThreshold) &&
+                Objects.equal(queryTimeoutFactor, benchmark.queryTimeoutFactor) &&
+                Objects.equal(queryResults, benchmark.queryResults) &&
+                Objects.equal(queryResultsOrder, benchmark.queryResultsOrder);
     }
 
     @Override
@@ -233,6 +373,7 @@ public class Benchmark
                 suitePrewarmRuns,
                 benchmarkPrewarmRuns,
                 concurrency,
+                executorType,
                 beforeBenchmarkMacros,
                 afterBenchmarkMacros,
                 beforeExecutionMacros,
@@ -240,7 +381,19 @@ public class Benchmark
                 variables,
                 frequency,
                 throughputTest,
-                queryResults);
+                arrivalRate,
+                arrivalDistribution,
+                expectedQueryInterval,
+                targetPrecision,
+                maxRuns,
+                timeBudget,
+                confidenceLevel,
+                concurrencySweep,
+                sweepStepDuration,
+                sweepKneeThreshold,
+                queryTimeoutFactor,
+                queryResults,
+                queryResultsOrder);
     }
 
     public static class BenchmarkBuilder
@@ -266,13 +419,26 @@ public class Benchmark
             this.benchmark.suitePrewarmRuns = that.getSuitePrewarmRuns();
             this.benchmark.benchmarkPrewarmRuns = that.getBenchmarkPrewarmRuns();
             this.benchmark.concurrency = that.getConcurrency();
+            this.benchmark.executorType = that.getExecutorType();
             this.benchmark.frequency = that.getFrequency();
             this.benchmark.throughputTest = that.isThroughputTest();
+            this.benchmark.arrivalRate = that.getArrivalRate();
+            this.benchmark.arrivalDistribution = that.getArrivalDistribution();
+            this.benchmark.expectedQueryInterval = that.getExpectedQueryInterval();
+            this.benchmark.targetPrecision = that.getTargetPrecision();
+            this.benchmark.maxRuns = that.getMaxRuns();
+            this.benchmark.timeBudget = that.getTimeBudget();
+            this.benchmark.confidenceLevel = that.getConfidenceLevel();
+            this.benchmark.concurrencySweep = that.getConcurrencySweep();
+            this.benchmark.sweepStepDuration = that.getSweepStepDuration();
+            this.benchmark.sweepKneeThreshold = that.getSweepKneeThreshold();
+            this.benchmark.queryTimeoutFactor = that.getQueryTimeoutFactor();
             this.benchmark.beforeBenchmarkMacros = ImmutableList.copyOf(that.getBeforeBenchmarkMacros());
             this.benchmark.afterBenchmarkMacros = ImmutableList.copyOf(that.getAfterBenchmarkMacros());
             this.benchmark.beforeExecutionMacros = ImmutableList.copyOf(that.getBeforeExecutionMacros());
             this.benchmark.afterExecutionMacros = ImmutableList.copyOf(that.getAfterExecutionMacros());
             this.benchmark.queryResults = that.getQueryResults();
+            this.benchmark.queryResultsOrder = that.getQueryResultsOrder();
             this.benchmark.variables = ImmutableMap.copyOf(that.getVariables());
         }
 
@@ -314,6 +480,12 @@ public class Benchmark
             return this;
         }
 
+        public BenchmarkBuilder withExecutorType(ExecutorType executorType)
+        {
+            this.benchmark.executorType = executorType;
+            return this;
+        }
+
         public BenchmarkBuilder withBeforeBenchmarkMacros(List<String> beforeBenchmarkMacros)
         {
             this.benchmark.beforeBenchmarkMacros = ImmutableList.copyOf(beforeBenchmarkMacros);
@@ -344,6 +516,12 @@ public class Benchmark
             return this;
         }
 
+        public BenchmarkBuilder withQueryResultsOrder(ResultsOrder queryResultsOrder)
+        {
+            this.benchmark.queryResultsOrder = queryResultsOrder;
+            return this;
+        }
+
         public BenchmarkBuilder withVariables(Map<String, String> variables)
         {
             this.benchmark.variables = ImmutableMap.copyOf(variables);
@@ -362,6 +540,82 @@ public class Benchmark
             return this;
         }
 
+        public BenchmarkBuilder withArrivalRate(Optional<Double> arrivalRate)
+        {
+            arrivalRate.ifPresent(rate -> checkArgument(rate > 0, "Arrival rate must be positive"));
+            this.benchmark.arrivalRate = arrivalRate;
+            return this;
+        }
+
+        public BenchmarkBuilder withArrivalDistribution(ArrivalDistribution arrivalDistribution)
+        {
+            this.benchmark.arrivalDistribution = arrivalDistribution;
+            return this;
+        }
+
+        public BenchmarkBuilder withExpectedQueryInterval(Optional<Duration> expectedQueryInterval)
+        {
+            this.benchmark.expectedQueryInterval = expectedQueryInterval;
+            return this;
+        }
+
+        public BenchmarkBuilder withTargetPrecision(Optional<Double> targetPrecision)
+        {
+            targetPrecision.ifPresent(precision -> checkArgument(precision > 0, "Target precision must be positive"));
+            this.benchmark.targetPrecision = targetPrecision;
+            return this;
+        }
+
+        public BenchmarkBuilder withMaxRuns(int maxRuns)
+        {
+            this.benchmark.maxRuns = maxRuns;
+            return this;
+        }
+
+        public BenchmarkBuilder withTimeBudget(Optional<Duration> timeBudget)
+        {
+            this.benchmark.timeBudget = timeBudget;
+            return this;
+        }
+
+        public BenchmarkBuilder withConfidenceLevel(double confidenceLevel)
+        {
+            checkArgument(confidenceLevel > 0 && confidenceLevel < 1, "Confidence level must be between 0 and 1");
+            this.benchmark.confidenceLevel = confidenceLevel;
+            return this;
+        }
+
+        public BenchmarkBuilder withConcurrencySweep(List<Integer> concurrencySweep)
+        {
+            for (int step = 0; step < concurrencySweep.size(); step++) {
+                checkArgument(concurrencySweep.get(step) > (step == 0 ? 0 : concurrencySweep.get(step - 1)),
+                        "Concurrency sweep must consist of positive, increasing numbers of workers: %s", concurrencySweep);
+            }
+            this.benchmark.concurrencySweep = ImmutableList.copyOf(concurrencySweep);
+            return this;
+        }
+
+        public BenchmarkBuilder withSweepStepDuration(Duration sweepStepDuration)
+        {
+            checkArgument(!sweepStepDuration.isNegative() && !sweepStepDuration.isZero(), "Sweep step duration must be positive");
+            this.benchmark.sweepStepDuration = sweepStepDuration;
+            return this;
+        }
+
+        public BenchmarkBuilder withSweepKneeThreshold(double sweepKneeThreshold)
+        {
+            checkArgument(sweepKneeThreshold >= 0 && sweepKneeThreshold < 1, "Sweep knee threshold must be between 0 and 1");
+            this.benchmark.sweepKneeThreshold = sweepKneeThreshold;
+            return this;
+        }
+
+        public BenchmarkBuilder withQueryTimeoutFactor(Optional<Double> queryTimeoutFactor)
+        {
+            queryTimeoutFactor.ifPresent(factor -> checkArgument(factor >= 1, "Query timeout factor must not be lower than 1"));
+            this.benchmark.queryTimeoutFactor = queryTimeoutFactor;
+            return this;
+        }
+
         public Benchmark build()
         {
             return benchmark;
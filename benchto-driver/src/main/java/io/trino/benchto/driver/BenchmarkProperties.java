@@ -16,6 +16,7 @@ package io.trino.benchto.driver;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.concurrent.ExecutorType;
 import io.trino.benchto.driver.graphite.GraphiteProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -56,6 +57,20 @@ public class BenchmarkProperties
     @Value("${benchmark-service.url}")
     private String serviceUrl;
 
+    /**
+     * Directory of the spool of requests to the benchmark service. If this property is set, requests reporting results
+     * are sent to the service in background and survive service outages and driver restarts.
+     */
+    @Value("${benchmark-service.spool-dir:#{null}}")
+    private String serviceSpoolDir;
+
+    /**
+     * Directory of results of offline runs. If this property is set, the benchmark service is not used and results are
+     * written to CSV files in this directory instead.
+     */
+    @Value("${offline-results-dir:#{null}}")
+    private String offlineResultsDir;
+
     @Value("${overrides:#{null}}")
     private String overridesPath;
 
@@ -86,6 +101,12 @@ public class BenchmarkProperties
     @Value("${queryRepetitionScope:BENCHMARK}")
     private QueryRepetitionScope queryRepetitionScope;
 
+    /**
+     * Default type of threads running benchmark queries, can be overridden by benchmark descriptor.
+     */
+    @Value("${executorType:PLATFORM}")
+    private ExecutorType executorType;
+
     @Value("${macroExecutions.beforeAll:#{null}}")
     private String beforeAllMacros;
 
@@ -95,6 +116,12 @@ public class BenchmarkProperties
     @Value("${timeLimit:#{null}}")
     private String timeLimit;
 
+    /**
+     * Maximum number of benchmark groups executed at the same time, groups run concurrently only when they use different data sources.
+     */
+    @Value("${maxParallelBenchmarkGroups:1}")
+    private int maxParallelBenchmarkGroups;
+
     @Value("${frequencyCheckEnabled:true}")
     private String frequencyCheckEnabled;
 
@@ -104,6 +131,9 @@ public class BenchmarkProperties
     @Value("${warmup:false}")
     private String warmup;
 
+    @Value("${generate-query-results:false}")
+    private String generateQueryResults;
+
     @Autowired
     private GraphiteProperties graphiteProperties;
 
@@ -122,6 +152,16 @@ public class BenchmarkProperties
         return serviceUrl;
     }
 
+    public Optional<Path> getServiceSpoolDir()
+    {
+        return Optional.ofNullable(serviceSpoolDir).map(Paths::get);
+    }
+
+    public Optional<Path> getOfflineResultsDir()
+    {
+        return Optional.ofNullable(offlineResultsDir).map(Paths::get);
+    }
+
     public String getPrestoURL()
     {
         return prestoURL;
@@ -181,16 +221,31 @@ public class BenchmarkProperties
         return Optional.ofNullable(timeLimit).map(Duration::parse);
     }
 
+    public int getMaxParallelBenchmarkGroups()
+    {
+        return maxParallelBenchmarkGroups;
+    }
+
     public Path getQueryResultsDir()
     {
         return Paths.get(queryResultsDir);
     }
 
+    public boolean isGenerateQueryResults()
+    {
+        return parseBoolean(generateQueryResults);
+    }
+
     public QueryRepetitionScope getQueryRepetitionScope()
     {
         return queryRepetitionScope;
     }
 
+    public ExecutorType getExecutorType()
+    {
+        return executorType;
+    }
+
     @Override
     public String toString()
     {
@@ -200,14 +255,19 @@ public class BenchmarkProperties
                 .add("executionSequenceId", executionSequenceId)
                 .add("environmentName", environmentName)
                 .add("graphiteProperties", graphiteProperties)
+                .add("executorType", executorType)
+                .add("maxParallelBenchmarkGroups", maxParallelBenchmarkGroups)
                 .add("frequencyCheck", frequencyCheckEnabled)
-                .add("queryResultsDir", queryResultsDir);
+                .add("queryResultsDir", queryResultsDir)
+                .add("generateQueryResults", generateQueryResults);
         addForToStringOptionalField(toStringHelper, "activeBenchmarks", getActiveBenchmarks());
         addForToStringOptionalField(toStringHelper, "activeVariables", getActiveVariables());
         addForToStringOptionalField(toStringHelper, "beforeAllMacros", getBeforeAllMacros());
         addForToStringOptionalField(toStringHelper, "afterAllMacros", getAfterAllMacros());
         addForToStringOptionalField(toStringHelper, "healthCheckMacros", getHealthCheckMacros());
         addForToStringOptionalField(toStringHelper, "timeLimit", getTimeLimit());
+        addForToStringOptionalField(toStringHelper, "serviceSpoolDir", getServiceSpoolDir());
+        addForToStringOptionalField(toStringHelper, "offlineResultsDir", getOfflineResultsDir());
         return toStringHelper.toString();
     }
 
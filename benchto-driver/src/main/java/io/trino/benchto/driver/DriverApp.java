@@ -117,12 +117,17 @@ public class DriverApp
         addOption(options, "activeVariables", "VARIABLE_NAME=VARIABLE_VALUE,...", "list of active variables", "no filtering by variables");
         addOption(options, "executionSequenceId", "SEQUENCE_ID,...", "list of sequence ids of benchmark execution", "generated");
         addOption(options, "timeLimit", "DURATION", "amount of time while benchmarks will be executed", "unlimited");
+        addOption(options, "maxParallelBenchmarkGroups", "NUMBER", "maximum number of benchmark groups using different data sources executed at the same time", "1");
         addOption(options, "profile", "PROFILE", "configuration profile", "none");
         addOption(options, "profiles.directory", "PROFILES_DIRECTORY", "configuration profiles directory", "none");
         addOption(options, "frequencyCheckEnabled", "boolean", "if set no fresh benchmark will be executed", "true");
         addOption(options, "benchmark-service.url", "String", "URL of Benchto Service", "http://localhost:8080");
+        addOption(options, "benchmark-service.spool-dir", "DIR", "directory of spool of results sent to Benchto Service in background", "none");
+        addOption(options, "offline-results-dir", "DIR", "directory where results are written instead of sending them to Benchto Service", "none");
         addOption(options, "query-results-dir", "RESULTS_DIR", "directory for query results", "results");
         addOption(options, "warmup", "boolean", "if set no benchmark results will be saved", "false");
+        addOption(options, "generate-query-results", "boolean", "if set query results digest files are generated instead of verified", "false");
+        addOption(options, "executorType", "PLATFORM|VIRTUAL", "type of threads running benchmark queries", "PLATFORM");
         options.addOption("h", "help", false, "Display help message.");
         return options;
     }
@@ -182,8 +187,8 @@ public class DriverApp
     }
 
     @Bean
-    public QueryExecutionDriver queryExecutionDriver()
+    public QueryExecutionDriver queryExecutionDriver(BenchmarkProperties properties)
     {
-        return new QueryExecutionDriver();
+        return new QueryExecutionDriver(properties.isGenerateQueryResults());
     }
 }
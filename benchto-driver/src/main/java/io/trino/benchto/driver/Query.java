@@ -13,6 +13,8 @@
  */
 package io.trino.benchto.driver;
 
+import com.google.common.collect.ImmutableMap;
+
 import java.util.Map;
 import java.util.Optional;
 
@@ -29,7 +31,7 @@ public class Query
     {
         this.name = requireNonNull(name);
         this.sqlTemplate = requireNonNull(sqlTemplate);
-        this.properties = requireNonNull(properties);
+        this.properties = ImmutableMap.copyOf(requireNonNull(properties));
     }
 
     public String getName()
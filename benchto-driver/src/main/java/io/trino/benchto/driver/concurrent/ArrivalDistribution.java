@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.concurrent;
+
+import java.util.Random;
+
+import static java.util.Locale.ENGLISH;
+
+public enum ArrivalDistribution
+{
+    /**
+     * Queries arrive at fixed intervals.
+     */
+    CONSTANT {
+        @Override
+        double nextInterval(double meanInterval, Random random)
+        {
+            return meanInterval;
+        }
+    },
+    /**
+     * Queries arrive as Poisson process, i.e. intervals are exponentially distributed.
+     */
+    POISSON {
+        @Override
+        double nextInterval(double meanInterval, Random random)
+        {
+            return -Math.log(1.0 - random.nextDouble()) * meanInterval;
+        }
+    };
+
+    abstract double nextInterval(double meanInterval, Random random);
+
+    public static ArrivalDistribution fromString(String value)
+    {
+        return valueOf(value.trim().toUpperCase(ENGLISH));
+    }
+}
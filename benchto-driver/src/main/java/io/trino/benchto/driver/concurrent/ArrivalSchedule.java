@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.concurrent;
+
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Generates intended start times (in {@link System#nanoTime()} units) of an open-loop load,
+ * independently of when previously started queries complete.
+ */
+public class ArrivalSchedule
+{
+    private final ArrivalDistribution distribution;
+    private final double meanIntervalNanos;
+    private final Random random;
+    private final long startNanos;
+    // accumulated as double so that rounding of every interval does not skew the rate
+    private double offsetNanos;
+
+    public ArrivalSchedule(ArrivalDistribution distribution, double arrivalRate, long startNanos, Random random)
+    {
+        checkArgument(arrivalRate > 0, "arrivalRate must be positive");
+        this.distribution = requireNonNull(distribution, "distribution is null");
+        this.meanIntervalNanos = SECONDS.toNanos(1) / arrivalRate;
+        this.random = requireNonNull(random, "random is null");
+        this.startNanos = startNanos;
+    }
+
+    public long nextArrival()
+    {
+        long arrival = startNanos + (long) offsetNanos;
+        offsetNanos += distribution.nextInterval(meanIntervalNanos, random);
+        return arrival;
+    }
+}
@@ -16,14 +16,27 @@ package io.trino.benchto.driver.concurrent;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ThreadFactory;
+
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
 @Component
 public class ExecutorServiceFactory
 {
-    public ListeningExecutorService create(int concurrency)
+    public ListeningExecutorService create(int concurrency, ExecutorType executorType)
+    {
+        return switch (executorType) {
+            case PLATFORM -> listeningDecorator(newFixedThreadPool(concurrency));
+            // pool size still bounds the number of concurrently running queries, only the threads become virtual
+            case VIRTUAL -> listeningDecorator(newFixedThreadPool(concurrency, virtualThreadFactory()));
+        };
+    }
+
+    private static ThreadFactory virtualThreadFactory()
     {
-        return listeningDecorator(newFixedThreadPool(concurrency));
+        return Thread.ofVirtual()
+                .name("benchmark-worker-", 0)
+                .factory();
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.concurrent;
+
+import static java.util.Locale.ENGLISH;
+
+public enum ExecutorType
+{
+    /**
+     * Every concurrent worker is backed by its own platform thread.
+     */
+    PLATFORM,
+    /**
+     * Every concurrent worker is backed by a virtual thread, so high concurrency levels do not
+     * require a platform thread (and its stack) per connection.
+     */
+    VIRTUAL;
+
+    public static ExecutorType fromString(String value)
+    {
+        return valueOf(value.trim().toUpperCase(ENGLISH));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.Query;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Decides if queries of a benchmark need more runs, so that the relative half-width of the confidence interval
+ * of their durations drops below the benchmark target precision.
+ */
+class AdaptiveRuns
+{
+    enum StopReason
+    {
+        CONVERGED,
+        MAX_RUNS,
+        TIME_BUDGET,
+        TIME_LIMIT,
+        QUERY_FAILED
+    }
+
+    private final Benchmark benchmark;
+    private final double targetPrecision;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final Map<String, SummaryStatistics> durations = new HashMap<>();
+    private boolean failed;
+    private Optional<StopReason> stopReason = Optional.empty();
+    private double precision = Double.POSITIVE_INFINITY;
+
+    AdaptiveRuns(Benchmark benchmark)
+    {
+        this(benchmark, System::nanoTime);
+    }
+
+    AdaptiveRuns(Benchmark benchmark, LongSupplier nanoTime)
+    {
+        checkArgument(benchmark.isAdaptive(), "Benchmark %s does not have target precision", benchmark.getName());
+        this.benchmark = benchmark;
+        this.targetPrecision = benchmark.getTargetPrecision().get();
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+    }
+
+    synchronized void record(QueryExecutionResult result)
+    {
+        if (!result.isSuccessful()) {
+            failed = true;
+            return;
+        }
+        record(result.getQueryName(), result.getQueryDuration());
+    }
+
+    synchronized void record(String queryName, Duration duration)
+    {
+        durations.computeIfAbsent(queryName, name -> new SummaryStatistics())
+                .addValue(duration.toNanos());
+    }
+
+    /**
+     * Returns queries which should be run once more, or an empty list if benchmark should stop.
+     */
+    synchronized List<Query> nextQueries()
+    {
+        if (stopReason.isPresent()) {
+            return ImmutableList.of();
+        }
+        if (failed) {
+            stop(StopReason.QUERY_FAILED);
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<Query> unconverged = ImmutableList.builder();
+        boolean allConverged = true;
+        precision = 0;
+        for (Query query : benchmark.getQueries()) {
+            SummaryStatistics statistics = durations.getOrDefault(query.getName(), new SummaryStatistics());
+            double queryPrecision = relativeHalfWidth(statistics, benchmark.getConfidenceLevel());
+            precision = Math.max(precision, queryPrecision);
+            if (queryPrecision > targetPrecision) {
+                allConverged = false;
+                if (statistics.getN() < benchmark.getMaxRuns()) {
+                    unconverged.add(query);
+                }
+            }
+        }
+
+        List<Query> queries = unconverged.build();
+        if (allConverged) {
+            stop(StopReason.CONVERGED);
+            return ImmutableList.of();
+        }
+        if (queries.isEmpty()) {
+            stop(StopReason.MAX_RUNS);
+            return ImmutableList.of();
+        }
+        if (benchmark.getTimeBudget().isPresent() && nanoTime.getAsLong() - startNanos >= benchmark.getTimeBudget().get().toNanos()) {
+            stop(StopReason.TIME_BUDGET);
+            return ImmutableList.of();
+        }
+        return queries;
+    }
+
+    synchronized void stop(StopReason reason)
+    {
+        if (stopReason.isEmpty()) {
+            stopReason = Optional.of(reason);
+        }
+    }
+
+    synchronized Optional<StopReason> getStopReason()
+    {
+        return stopReason;
+    }
+
+    /**
+     * Highest relative half-width of the confidence interval among benchmark queries.
+     */
+    synchronized double getPrecision()
+    {
+        return precision;
+    }
+
+    synchronized Map<String, String> getAttributes()
+    {
+        long runs = durations.values().stream().mapToLong(SummaryStatistics::getN).max().orElse(0);
+        return ImmutableMap.of(
+                "adaptive_runs_stop_reason", stopReason.map(reason -> reason.name().toLowerCase(ENGLISH)).orElse("unknown"),
+                "adaptive_runs_precision", format(ENGLISH, "%.6f", precision),
+                "adaptive_runs", String.valueOf(runs));
+    }
+
+    static double relativeHalfWidth(SummaryStatistics statistics, double confidenceLevel)
+    {
+        if (statistics.getN() < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (statistics.getMean() == 0) {
+            return statistics.getStandardDeviation() == 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        double criticalValue = new TDistribution(statistics.getN() - 1).inverseCumulativeProbability(1 - (1 - confidenceLevel) / 2);
+        double halfWidth = criticalValue * statistics.getStandardDeviation() / Math.sqrt(statistics.getN());
+        return halfWidth / statistics.getMean();
+    }
+}
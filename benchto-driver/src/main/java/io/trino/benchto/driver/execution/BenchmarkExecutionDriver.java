@@ -13,6 +13,8 @@
  */
 package io.trino.benchto.driver.execution;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -20,9 +22,11 @@ import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.BenchmarkExecutionException;
 import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.concurrent.ArrivalSchedule;
 import io.trino.benchto.driver.concurrent.ExecutorServiceFactory;
 import io.trino.benchto.driver.execution.BenchmarkExecutionResult.BenchmarkExecutionResultBuilder;
 import io.trino.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.trino.benchto.driver.jdbc.ConnectionPoolManager;
 import io.trino.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.trino.benchto.driver.loader.SqlStatementGenerator;
 import io.trino.benchto.driver.macro.MacroService;
@@ -38,14 +42,18 @@ import javax.sql.DataSource;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -53,9 +61,11 @@ import java.util.stream.IntStream;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.newArrayList;
+import static io.trino.benchto.driver.utils.QueryUtils.isDigestFile;
 import static io.trino.benchto.driver.utils.QueryUtils.isSelectQuery;
 import static io.trino.benchto.driver.utils.TimeUtils.nowUtc;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -89,6 +99,12 @@ public class BenchmarkExecutionDriver
     @Autowired
     private SqlStatementGenerator sqlStatementGenerator;
 
+    @Autowired
+    private ConnectionPoolManager connectionPoolManager;
+
+    @Autowired
+    private QueryTimeouts queryTimeouts;
+
     public List<BenchmarkExecutionResult> execute(List<Benchmark> benchmarks, int benchmarkOrdinalNumber, int benchmarkTotalCount, Optional<ZonedDateTime> executionTimeLimit)
     {
         checkState(benchmarks.size() != 0, "List of benchmarks to execute cannot be empty.");
@@ -107,11 +123,17 @@ public class BenchmarkExecutionDriver
                 "All benchmarks in a group must have the same number of runs and suite-prewarm-runs.");
         checkState(
                 benchmarks.stream().allMatch(benchmark -> benchmark.getConcurrency() == firstBenchmark.getConcurrency() &&
-                        benchmark.isThroughputTest() == firstBenchmark.isThroughputTest()),
-                "All benchmarks in a group must have the same concurrency and either test throughput or not.");
+                        benchmark.getConcurrencySweep().equals(firstBenchmark.getConcurrencySweep()) &&
+                        benchmark.getExecutorType() == firstBenchmark.getExecutorType() &&
+                        benchmark.isThroughputTest() == firstBenchmark.isThroughputTest() &&
+                        benchmark.getArrivalRate().equals(firstBenchmark.getArrivalRate()) &&
+                        benchmark.getArrivalDistribution() == firstBenchmark.getArrivalDistribution()),
+                "All benchmarks in a group must have the same concurrency, executor type, arrival rate and either test throughput or not.");
 
         try {
             macroService.runBenchmarkMacros(firstBenchmark.getBeforeBenchmarkMacros(), firstBenchmark);
+            prepareConnectionPools(benchmarks);
+            queryTimeouts.prepare(benchmarks);
         }
         catch (Exception e) {
             return List.of(failedBenchmarkResult(firstBenchmark, e));
@@ -137,6 +159,16 @@ public class BenchmarkExecutionDriver
         return benchmarkExecutionResults;
     }
 
+    private void prepareConnectionPools(List<Benchmark> benchmarks)
+            throws SQLException
+    {
+        // all benchmarks of a group share a single executor, so there are never more queries running at the same time than the concurrency
+        int concurrency = benchmarks.get(0).getConcurrency();
+        for (String dataSource : benchmarks.stream().map(Benchmark::getDataSource).distinct().collect(toList())) {
+            connectionPoolManager.prepare(dataSource, concurrency);
+        }
+    }
+
     private List<BenchmarkExecutionResult> warmupBenchmarks(List<Benchmark> benchmarks, Optional<ZonedDateTime> executionTimeLimit)
     {
         Benchmark firstBenchmark = benchmarks.get(0);
@@ -145,7 +177,7 @@ public class BenchmarkExecutionDriver
                 benchmark -> new BenchmarkExecutionResultBuilder(benchmark).withExecutions(List.of())));
         List<QueryExecutionResult> executions;
         try {
-            executions = executeQueries(benchmarks, firstBenchmark.getSuitePrewarmRuns(), true, executionTimeLimit);
+            executions = executeQueries(benchmarks, firstBenchmark.getSuitePrewarmRuns(), true, executionTimeLimit, ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of());
         }
         catch (Exception e) {
             return results.values().stream()
@@ -174,7 +206,7 @@ public class BenchmarkExecutionDriver
                 benchmark -> new BenchmarkExecutionResultBuilder(benchmark).withExecutions(List.of())));
         List<QueryExecutionResult> executions;
         try {
-            executions = executeQueries(benchmarks, firstBenchmark.getSuitePrewarmRuns(), true, executionTimeLimit);
+            executions = executeQueries(benchmarks, firstBenchmark.getSuitePrewarmRuns(), true, executionTimeLimit, ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of());
         }
         catch (Exception e) {
             return results.values().stream()
@@ -197,8 +229,17 @@ public class BenchmarkExecutionDriver
             }
         }
 
+        Map<Benchmark, LatencyRecorder> latencyRecorders = validBenchmarks.stream()
+                .filter(Benchmark::isThroughputTest)
+                .collect(toMap(Function.identity(), LatencyRecorder::new));
+        Map<Benchmark, AdaptiveRuns> adaptiveRuns = validBenchmarks.stream()
+                .filter(Benchmark::isAdaptive)
+                .collect(toMap(Function.identity(), AdaptiveRuns::new));
+        Map<Benchmark, ConcurrencySweep> concurrencySweeps = validBenchmarks.stream()
+                .filter(Benchmark::isConcurrencySweep)
+                .collect(toMap(Function.identity(), ConcurrencySweep::new));
         try {
-            executions = executeQueries(validBenchmarks, firstBenchmark.getRuns(), false, executionTimeLimit);
+            executions = executeQueries(validBenchmarks, firstBenchmark.getRuns(), false, executionTimeLimit, latencyRecorders, adaptiveRuns, concurrencySweeps);
         }
         catch (Exception e) {
             return results.values().stream()
@@ -207,10 +248,16 @@ public class BenchmarkExecutionDriver
         }
         Map<Benchmark, List<QueryExecutionResult>> groups = executions.stream().collect(groupingBy(QueryExecutionResult::getBenchmark, LinkedHashMap::new, toList()));
         groups.forEach((key, value) -> results.get(key).withExecutions(value).endTimer());
+        latencyRecorders.forEach((benchmark, latencyRecorder) -> results.get(benchmark).withLatencyHistogram(latencyRecorder.merge()));
+        adaptiveRuns.forEach((benchmark, benchmarkAdaptiveRuns) -> results.get(benchmark).withAttributes(benchmarkAdaptiveRuns.getAttributes()));
+        concurrencySweeps.forEach((benchmark, concurrencySweep) -> results.get(benchmark)
+                .withConcurrencySweepSteps(concurrencySweep.getSteps())
+                .withAttributes(concurrencySweep.getAttributes()));
 
         return results.values().stream()
                 .map(builder -> {
                     BenchmarkExecutionResult result = builder.build();
+                    executionSynchronizer.awaitAfterBenchmarkExecutionAndBeforeResultReport(result.getBenchmark());
                     statusReporter.reportBenchmarkFinished(result);
                     return result;
                 })
@@ -240,17 +287,38 @@ public class BenchmarkExecutionDriver
     }
 
     @SuppressWarnings("unchecked")
-    private List<QueryExecutionResult> executeQueries(List<Benchmark> benchmarks, int runs, boolean warmup, Optional<ZonedDateTime> executionTimeLimit)
+    private List<QueryExecutionResult> executeQueries(
+            List<Benchmark> benchmarks,
+            int runs,
+            boolean warmup,
+            Optional<ZonedDateTime> executionTimeLimit,
+            Map<Benchmark, LatencyRecorder> latencyRecorders,
+            Map<Benchmark, AdaptiveRuns> adaptiveRuns,
+            Map<Benchmark, ConcurrencySweep> concurrencySweeps)
     {
         if (benchmarks.size() == 0) {
             return List.of();
         }
         Benchmark firstBenchmark = benchmarks.get(0);
-        ListeningExecutorService executorService = executorServiceFactory.create(firstBenchmark.getConcurrency());
+        ListeningExecutorService executorService = executorServiceFactory.create(firstBenchmark.getConcurrency(), firstBenchmark.getExecutorType());
         try {
-            if (firstBenchmark.isThroughputTest()) {
+            if (firstBenchmark.isThroughputTest() && firstBenchmark.getArrivalRate().isPresent() && !warmup) {
+                ImmutableList.Builder<QueryExecutionResult> queryExecutionResults = ImmutableList.builder();
+                for (Benchmark benchmark : benchmarks) {
+                    queryExecutionResults.addAll(executeOpenLoopQueries(benchmark, runs, executorService, executionTimeLimit, latencyRecorders.get(benchmark)));
+                }
+                return queryExecutionResults.build();
+            }
+            else if (firstBenchmark.isThroughputTest() && firstBenchmark.isConcurrencySweep() && !warmup) {
+                ImmutableList.Builder<QueryExecutionResult> queryExecutionResults = ImmutableList.builder();
+                for (Benchmark benchmark : benchmarks) {
+                    queryExecutionResults.addAll(executeConcurrencySweep(benchmark, executorService, executionTimeLimit, latencyRecorders.get(benchmark), concurrencySweeps.get(benchmark)));
+                }
+                return queryExecutionResults.build();
+            }
+            else if (firstBenchmark.isThroughputTest()) {
                 List<Callable<List<QueryExecutionResult>>> queryExecutionCallables = benchmarks.stream()
-                        .flatMap(benchmark -> buildConcurrencyQueryExecutionCallables(benchmark, runs, warmup, executionTimeLimit).stream())
+                        .flatMap(benchmark -> buildConcurrencyQueryExecutionCallables(benchmark, runs, warmup, executionTimeLimit, Optional.ofNullable(latencyRecorders.get(benchmark))).stream())
                         .collect(toImmutableList());
                 List<ListenableFuture<List<QueryExecutionResult>>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
                 return Futures.allAsList(executionFutures).get().stream()
@@ -263,10 +331,12 @@ public class BenchmarkExecutionDriver
                 List<Callable<QueryExecutionResult>> queryExecutionCallables = IntStream.rangeClosed(1, numberOfBenchmarkRuns)
                         .boxed()
                         .flatMap(run -> benchmarks.stream()
-                                .flatMap(benchmark -> buildQueryExecutionCallables(benchmark, run, warmup, numberOfQueryRuns).stream()))
+                                .flatMap(benchmark -> buildQueryExecutionCallables(benchmark, run, warmup, numberOfQueryRuns, Optional.ofNullable(adaptiveRuns.get(benchmark))).stream()))
                         .collect(toList());
                 List<ListenableFuture<QueryExecutionResult>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
-                return Futures.allAsList(executionFutures).get();
+                List<QueryExecutionResult> queryExecutionResults = new ArrayList<>(Futures.allAsList(executionFutures).get());
+                queryExecutionResults.addAll(executeAdaptiveRuns(runs, executorService, executionTimeLimit, adaptiveRuns));
+                return queryExecutionResults;
             }
         }
         catch (InterruptedException | ExecutionException e) {
@@ -277,40 +347,92 @@ public class BenchmarkExecutionDriver
         }
     }
 
-    private List<Callable<QueryExecutionResult>> buildQueryExecutionCallables(Benchmark benchmark, int benchmarkRun, boolean suiteWarmup, int queryRuns)
+    /**
+     * Repeats queries of adaptive benchmarks, one run of every query which did not reach target precision at a time.
+     */
+    @SuppressWarnings("unchecked")
+    private List<QueryExecutionResult> executeAdaptiveRuns(
+            int runs,
+            ListeningExecutorService executorService,
+            Optional<ZonedDateTime> executionTimeLimit,
+            Map<Benchmark, AdaptiveRuns> adaptiveRuns)
+            throws InterruptedException, ExecutionException
+    {
+        List<QueryExecutionResult> queryExecutionResults = new ArrayList<>();
+        for (int run = runs + 1; ; run++) {
+            List<Callable<QueryExecutionResult>> queryExecutionCallables = new ArrayList<>();
+            for (Map.Entry<Benchmark, AdaptiveRuns> entry : adaptiveRuns.entrySet()) {
+                for (Query query : entry.getValue().nextQueries()) {
+                    queryExecutionCallables.add(buildQueryExecutionCallable(entry.getKey(), query, false, run, Optional.of(entry.getValue())));
+                }
+            }
+            if (queryExecutionCallables.isEmpty()) {
+                break;
+            }
+            if (isTimeLimitExceeded(executionTimeLimit)) {
+                adaptiveRuns.values().forEach(benchmarkAdaptiveRuns -> benchmarkAdaptiveRuns.stop(AdaptiveRuns.StopReason.TIME_LIMIT));
+                break;
+            }
+            LOG.info("Running adaptive run {} of {} queries", run, queryExecutionCallables.size());
+            List<ListenableFuture<QueryExecutionResult>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
+            queryExecutionResults.addAll(Futures.allAsList(executionFutures).get());
+        }
+        adaptiveRuns.forEach((benchmark, benchmarkAdaptiveRuns) -> LOG.info("Adaptive runs of benchmark {} stopped: {}, precision {}",
+                benchmark.getUniqueName(), benchmarkAdaptiveRuns.getStopReason().orElseThrow(), benchmarkAdaptiveRuns.getPrecision()));
+        return queryExecutionResults;
+    }
+
+    private List<Callable<QueryExecutionResult>> buildQueryExecutionCallables(
+            Benchmark benchmark,
+            int benchmarkRun,
+            boolean suiteWarmup,
+            int queryRuns,
+            Optional<AdaptiveRuns> adaptiveRuns)
     {
         List<Callable<QueryExecutionResult>> executionCallables = newArrayList();
         for (Query query : benchmark.getQueries()) {
             // warmup locally, but skip local warmup during global warmup
             if (!suiteWarmup) {
                 for (int queryRun = 1; queryRun <= benchmark.getBenchmarkPrewarmRuns(); queryRun++) {
-                    executionCallables.add(buildQueryExecutionCallable(benchmark, query, true, queryRun));
+                    executionCallables.add(buildQueryExecutionCallable(benchmark, query, true, queryRun, Optional.empty()));
                 }
             }
             // real benchmark
             for (int queryRun = 1; queryRun <= queryRuns; queryRun++) {
                 int run = properties.getQueryRepetitionScope() == BenchmarkProperties.QueryRepetitionScope.BENCHMARK ? queryRun : benchmarkRun;
-                executionCallables.add(buildQueryExecutionCallable(benchmark, query, suiteWarmup, run));
+                executionCallables.add(buildQueryExecutionCallable(benchmark, query, suiteWarmup, run, adaptiveRuns));
             }
         }
         return executionCallables;
     }
 
-    private Callable<QueryExecutionResult> buildQueryExecutionCallable(Benchmark benchmark, Query query, boolean warmup, int run)
+    private Callable<QueryExecutionResult> buildQueryExecutionCallable(Benchmark benchmark, Query query, boolean warmup, int run, Optional<AdaptiveRuns> adaptiveRuns)
     {
         QueryExecution queryExecution = new QueryExecution(benchmark, query, run, sqlStatementGenerator);
         Optional<Path> resultFile = benchmark.getQueryResults()
-                // only check result of the first warmup run or all runs of non-select statements
-                .filter(dir -> (warmup && run == 1) || (!isSelectQuery(query.getSqlTemplate())))
-                .map(queryResult -> properties.getQueryResultsDir().resolve(queryResult));
+                .map(queryResult -> properties.getQueryResultsDir().resolve(queryResult))
+                // only check result of the first warmup run or all runs of non-select statements,
+                // digests are cheap to compute, so they are checked for all runs
+                .filter(path -> (warmup && run == 1) || !isSelectQuery(query.getSqlTemplate()) || isDigestFile(path));
         return () -> {
+            long connectionRequested = System.nanoTime();
             try (Connection connection = getConnectionFor(queryExecution)) {
-                return executeSingleQuery(queryExecution, benchmark, connection, warmup, Optional.empty(), resultFile);
+                Duration connectionAcquisitionTime = Duration.ofNanos(System.nanoTime() - connectionRequested);
+                QueryExecutionResult queryExecutionResult = executeSingleQuery(queryExecution, benchmark, connection, warmup, Optional.empty(), resultFile, Optional.of(connectionAcquisitionTime));
+                if (!warmup) {
+                    adaptiveRuns.ifPresent(runs -> runs.record(queryExecutionResult));
+                }
+                return queryExecutionResult;
             }
         };
     }
 
-    private List<Callable<List<QueryExecutionResult>>> buildConcurrencyQueryExecutionCallables(Benchmark benchmark, int runs, boolean warmup, Optional<ZonedDateTime> executionTimeLimit)
+    private List<Callable<List<QueryExecutionResult>>> buildConcurrencyQueryExecutionCallables(
+            Benchmark benchmark,
+            int runs,
+            boolean warmup,
+            Optional<ZonedDateTime> executionTimeLimit,
+            Optional<LatencyRecorder> latencyRecorder)
     {
         List<Callable<List<QueryExecutionResult>>> executionCallables = newArrayList();
         for (int thread = 0; thread < benchmark.getConcurrency(); thread++) {
@@ -318,7 +440,7 @@ public class BenchmarkExecutionDriver
             executionCallables.add(() -> {
                 LOG.info("Running throughput test: {} queries, {} runs", benchmark.getQueries().size(), runs);
                 int[] queryOrder = PermutationUtils.preparePermutation(benchmark.getQueries().size(), finalThread);
-                List<QueryExecutionResult> queryExecutionResults = executeConcurrentQueries(benchmark, runs, warmup, executionTimeLimit, finalThread, queryOrder);
+                List<QueryExecutionResult> queryExecutionResults = executeConcurrentQueries(benchmark, runs, warmup, executionTimeLimit, finalThread, queryOrder, latencyRecorder);
                 if (!warmup) {
                     statusReporter.reportConcurrencyTestExecutionFinished(queryExecutionResults);
                 }
@@ -328,7 +450,14 @@ public class BenchmarkExecutionDriver
         return executionCallables;
     }
 
-    private List<QueryExecutionResult> executeConcurrentQueries(Benchmark benchmark, int runs, boolean warmup, Optional<ZonedDateTime> executionTimeLimit, int threadNumber, int[] queryOrder)
+    private List<QueryExecutionResult> executeConcurrentQueries(
+            Benchmark benchmark,
+            int runs,
+            boolean warmup,
+            Optional<ZonedDateTime> executionTimeLimit,
+            int threadNumber,
+            int[] queryOrder,
+            Optional<LatencyRecorder> latencyRecorder)
             throws SQLException
     {
         boolean firstQuery = true;
@@ -360,7 +489,9 @@ public class BenchmarkExecutionDriver
                     try {
                         // We want to skip a reporting for concurrency benchmarks because it is unnecessary overhead.
                         // In concurrency benchmarks we are not interested in result for specific query
-                        queryExecutionResults.add(executeSingleQuery(queryExecution, benchmark, connection, true, executionTimeLimit));
+                        QueryExecutionResult queryExecutionResult = executeSingleQuery(queryExecution, benchmark, connection, true, executionTimeLimit);
+                        latencyRecorder.ifPresent(recorder -> recorder.record(queryExecutionResult));
+                        queryExecutionResults.add(queryExecutionResult);
                     }
                     catch (TimeLimitException e) {
                         LOG.warn("Interrupting benchmark {} due to time limit exceeded", benchmark.getName());
@@ -372,6 +503,169 @@ public class BenchmarkExecutionDriver
         return queryExecutionResults;
     }
 
+    /**
+     * Runs closed-loop throughput test with increasing number of workers, each step for the sweep step duration,
+     * until throughput stops scaling with added workers.
+     */
+    @SuppressWarnings("unchecked")
+    private List<QueryExecutionResult> executeConcurrencySweep(
+            Benchmark benchmark,
+            ListeningExecutorService executorService,
+            Optional<ZonedDateTime> executionTimeLimit,
+            LatencyRecorder latencyRecorder,
+            ConcurrencySweep concurrencySweep)
+            throws InterruptedException, ExecutionException
+    {
+        ImmutableList.Builder<QueryExecutionResult> queryExecutionResults = ImmutableList.builder();
+        AtomicInteger sequenceId = new AtomicInteger();
+        boolean nextStep = true;
+        while (nextStep) {
+            int concurrency = concurrencySweep.nextConcurrency();
+            LOG.info("Running concurrency sweep of benchmark {}: {} workers for {}", benchmark.getName(), concurrency, benchmark.getSweepStepDuration());
+            LatencyRecorder stepLatencyRecorder = new LatencyRecorder(benchmark);
+            long stepStart = System.nanoTime();
+            long stepEnd = stepStart + benchmark.getSweepStepDuration().toNanos();
+            List<ListenableFuture<List<QueryExecutionResult>>> workerFutures = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                int finalWorker = worker;
+                workerFutures.add(executorService.submit(() -> executeSweepWorker(benchmark, finalWorker, stepEnd, sequenceId, executionTimeLimit, latencyRecorder, stepLatencyRecorder)));
+            }
+            List<QueryExecutionResult> stepResults = Futures.allAsList(workerFutures).get().stream()
+                    .flatMap(List::stream)
+                    .collect(toImmutableList());
+            Duration stepDuration = Duration.ofNanos(System.nanoTime() - stepStart);
+            queryExecutionResults.addAll(stepResults);
+
+            long successfulQueries = stepResults.stream().filter(QueryExecutionResult::isSuccessful).count();
+            nextStep = concurrencySweep.recordStep(successfulQueries, stepDuration, stepLatencyRecorder.merge());
+            if (nextStep && isTimeLimitExceeded(executionTimeLimit)) {
+                LOG.warn("Interrupting concurrency sweep of benchmark {} due to time limit exceeded", benchmark.getName());
+                concurrencySweep.stop(ConcurrencySweep.StopReason.TIME_LIMIT);
+                nextStep = false;
+            }
+        }
+        LOG.info("Concurrency sweep of benchmark {} finished ({}), knee concurrency: {}, steps: {}",
+                benchmark.getName(), concurrencySweep.getStopReason().orElseThrow(), concurrencySweep.getKneeConcurrency(), concurrencySweep.getSteps());
+        return queryExecutionResults.build();
+    }
+
+    private List<QueryExecutionResult> executeSweepWorker(
+            Benchmark benchmark,
+            int worker,
+            long stepEnd,
+            AtomicInteger sequenceId,
+            Optional<ZonedDateTime> executionTimeLimit,
+            LatencyRecorder latencyRecorder,
+            LatencyRecorder stepLatencyRecorder)
+            throws SQLException
+    {
+        List<Query> queries = benchmark.getQueries();
+        int[] queryOrder = PermutationUtils.preparePermutation(queries.size(), worker);
+        List<QueryExecutionResult> queryExecutionResults = newArrayList();
+        try (Connection connection = getConnectionFor(new QueryExecution(benchmark, queries.get(0), 0, sqlStatementGenerator))) {
+            for (int queryIndex = 0; System.nanoTime() < stepEnd; queryIndex++) {
+                Query query = queries.get(queryOrder[queryIndex % queries.size()]);
+                QueryExecution queryExecution = new QueryExecution(benchmark, query, sequenceId.getAndIncrement(), sqlStatementGenerator);
+                if (queryIndex == 0) {
+                    statusReporter.reportExecutionStarted(queryExecution);
+                }
+                try {
+                    // same as in closed-loop throughput tests, results of specific queries are not reported
+                    QueryExecutionResult queryExecutionResult = executeSingleQuery(queryExecution, benchmark, connection, true, executionTimeLimit);
+                    latencyRecorder.record(queryExecutionResult);
+                    stepLatencyRecorder.record(queryExecutionResult);
+                    queryExecutionResults.add(queryExecutionResult);
+                }
+                catch (TimeLimitException e) {
+                    break;
+                }
+            }
+        }
+        statusReporter.reportConcurrencyTestExecutionFinished(queryExecutionResults);
+        return queryExecutionResults;
+    }
+
+    /**
+     * Starts queries at the rate defined by benchmark arrival distribution, regardless of completion of previously started queries.
+     * Benchmark concurrency limits the number of queries running at the same time, queries which could not start on time
+     * are reported with non-zero schedule delay.
+     */
+    private List<QueryExecutionResult> executeOpenLoopQueries(
+            Benchmark benchmark,
+            int runs,
+            ListeningExecutorService executorService,
+            Optional<ZonedDateTime> executionTimeLimit,
+            LatencyRecorder latencyRecorder)
+            throws InterruptedException, ExecutionException
+    {
+        List<Query> queries = benchmark.getQueries();
+        int concurrency = benchmark.getConcurrency();
+        LOG.info("Running open-loop throughput test: {} queries, {} runs, {} queries per second with {} arrivals",
+                queries.size(), runs, benchmark.getArrivalRate().get(), benchmark.getArrivalDistribution());
+        // every stream of queries has the same order as a thread of closed-loop throughput test
+        List<int[]> queryOrders = IntStream.range(0, concurrency)
+                .mapToObj(stream -> PermutationUtils.preparePermutation(queries.size(), stream))
+                .collect(toList());
+        ArrivalSchedule arrivalSchedule = new ArrivalSchedule(
+                benchmark.getArrivalDistribution(),
+                benchmark.getArrivalRate().get(),
+                System.nanoTime(),
+                new Random(benchmark.getName().hashCode()));
+
+        List<ListenableFuture<Optional<QueryExecutionResult>>> executionFutures = new ArrayList<>();
+        dispatch:
+        for (int run = 1; run <= runs; run++) {
+            for (int queryIndex = 0; queryIndex < queries.size(); queryIndex++) {
+                for (int stream = 0; stream < concurrency; stream++) {
+                    if (isTimeLimitExceeded(executionTimeLimit)) {
+                        LOG.warn("Interrupting benchmark {} due to time limit exceeded", benchmark.getName());
+                        break dispatch;
+                    }
+                    long intendedStart = arrivalSchedule.nextArrival();
+                    Query query = queries.get(queryOrders.get(stream)[queryIndex]);
+                    int sequenceId = queryIndex
+                            + stream * queries.size()
+                            + (run - 1) * concurrency * queries.size();
+                    QueryExecution queryExecution = new QueryExecution(benchmark, query, sequenceId, sqlStatementGenerator, OptionalLong.of(intendedStart));
+                    if (executionFutures.isEmpty()) {
+                        statusReporter.reportExecutionStarted(queryExecution);
+                    }
+                    NANOSECONDS.sleep(intendedStart - System.nanoTime());
+                    executionFutures.add(executorService.submit(() -> executeScheduledQuery(queryExecution, executionTimeLimit, latencyRecorder)));
+                }
+            }
+        }
+
+        List<QueryExecutionResult> queryExecutionResults = Futures.allAsList(executionFutures).get().stream()
+                .flatMap(Optional::stream)
+                .collect(toImmutableList());
+        statusReporter.reportConcurrencyTestExecutionFinished(queryExecutionResults);
+        return queryExecutionResults;
+    }
+
+    private Optional<QueryExecutionResult> executeScheduledQuery(QueryExecution queryExecution, Optional<ZonedDateTime> executionTimeLimit, LatencyRecorder latencyRecorder)
+            throws SQLException
+    {
+        long connectionRequested = System.nanoTime();
+        try (Connection connection = getConnectionFor(queryExecution)) {
+            Duration connectionAcquisitionTime = Duration.ofNanos(System.nanoTime() - connectionRequested);
+            // same as in closed-loop throughput tests, results of specific queries are not reported
+            QueryExecutionResult queryExecutionResult = executeSingleQuery(
+                    queryExecution,
+                    queryExecution.getBenchmark(),
+                    connection,
+                    true,
+                    executionTimeLimit,
+                    Optional.empty(),
+                    Optional.of(connectionAcquisitionTime));
+            latencyRecorder.record(queryExecutionResult);
+            return Optional.of(queryExecutionResult);
+        }
+        catch (TimeLimitException e) {
+            return Optional.empty();
+        }
+    }
+
     private QueryExecutionResult executeSingleQuery(
             QueryExecution queryExecution,
             Benchmark benchmark,
@@ -380,7 +674,7 @@ public class BenchmarkExecutionDriver
             Optional<ZonedDateTime> executionTimeLimit)
             throws TimeLimitException
     {
-        return executeSingleQuery(queryExecution, benchmark, connection, skipReport, executionTimeLimit, Optional.empty());
+        return executeSingleQuery(queryExecution, benchmark, connection, skipReport, executionTimeLimit, Optional.empty(), Optional.empty());
     }
 
     private QueryExecutionResult executeSingleQuery(
@@ -389,12 +683,15 @@ public class BenchmarkExecutionDriver
             Connection connection,
             boolean skipReport,
             Optional<ZonedDateTime> executionTimeLimit,
-            Optional<Path> outputFile)
+            Optional<Path> outputFile,
+            Optional<Duration> connectionAcquisitionTime)
             throws TimeLimitException
     {
         LOG.info("Execute query, query=%s, skipReport=%s".formatted(benchmark.getQueries().get(0).getName(), skipReport));
         QueryExecutionResult result;
+        long macrosStarted = System.nanoTime();
         macroService.runBenchmarkMacros(benchmark.getBeforeExecutionMacros(), benchmark, connection);
+        Duration macroTime = Duration.ofNanos(System.nanoTime() - macrosStarted);
 
         if (!skipReport) {
             statusReporter.reportExecutionStarted(queryExecution);
@@ -402,7 +699,14 @@ public class BenchmarkExecutionDriver
         QueryExecutionResultBuilder failureResult = new QueryExecutionResultBuilder(queryExecution)
                 .startTimer();
         try {
-            result = queryExecutionDriver.execute(queryExecution, connection, outputFile);
+            result = queryExecutionDriver.execute(queryExecution, connection, outputFile, getQueryTimeout(queryExecution, executionTimeLimit));
+        }
+        catch (QueryTimeoutException e) {
+            LOG.warn(format("Query Execution timed out for benchmark %s query %s: %s", benchmark.getName(), queryExecution.getQueryName(), e.getMessage()));
+            result = failureResult
+                    .endTimer()
+                    .failed(e)
+                    .build();
         }
         catch (Exception e) {
             LOG.error(format("Query Execution failed for benchmark %s query %s", benchmark.getName(), queryExecution.getQueryName()), e);
@@ -411,11 +715,16 @@ public class BenchmarkExecutionDriver
                     .failed(e)
                     .build();
         }
+        connectionAcquisitionTime.ifPresent(result::setConnectionAcquisitionTime);
+        if (!benchmark.getBeforeExecutionMacros().isEmpty()) {
+            result.setMacroTime(macroTime);
+        }
         if (isTimeLimitExceeded(executionTimeLimit)) {
             throw new TimeLimitException(benchmark, queryExecution);
         }
 
         if (!skipReport) {
+            executionSynchronizer.awaitAfterQueryExecutionAndBeforeResultReport(result);
             statusReporter.reportExecutionFinished(result);
         }
 
@@ -423,6 +732,22 @@ public class BenchmarkExecutionDriver
         return result;
     }
 
+    /**
+     * Queries still running when the execution time limit is reached are cancelled too.
+     */
+    private Optional<Duration> getQueryTimeout(QueryExecution queryExecution, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        Optional<Duration> timeout = queryTimeouts.getTimeout(queryExecution);
+        if (executionTimeLimit.isEmpty()) {
+            return timeout;
+        }
+        Duration remainingTime = Duration.between(nowUtc(), executionTimeLimit.get());
+        Duration timeLimitTimeout = remainingTime.isNegative() ? Duration.ZERO : remainingTime;
+        return Optional.of(timeout
+                .filter(queryTimeout -> queryTimeout.compareTo(timeLimitTimeout) < 0)
+                .orElse(timeLimitTimeout));
+    }
+
     private Connection getConnectionFor(QueryExecution queryExecution)
             throws SQLException
     {
@@ -13,10 +13,13 @@
  */
 package io.trino.benchto.driver.execution;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.Measurable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -30,6 +33,9 @@ public class BenchmarkExecutionResult
     private final Benchmark benchmark;
     private Optional<Exception> failure = Optional.empty();
     private List<QueryExecutionResult> executions;
+    private Optional<LatencyHistogram> latencyHistogram = Optional.empty();
+    private Map<String, String> attributes = ImmutableMap.of();
+    private List<ConcurrencySweepStep> concurrencySweepSteps = ImmutableList.of();
 
     private BenchmarkExecutionResult(Benchmark benchmark)
     {
@@ -53,6 +59,30 @@ public class BenchmarkExecutionResult
         return executions;
     }
 
+    /**
+     * Distribution of query latencies, available for throughput tests only.
+     */
+    public Optional<LatencyHistogram> getLatencyHistogram()
+    {
+        return latencyHistogram;
+    }
+
+    /**
+     * Steps of concurrency sweep, empty unless benchmark is a throughput test with concurrency sweep.
+     */
+    public List<ConcurrencySweepStep> getConcurrencySweepSteps()
+    {
+        return concurrencySweepSteps;
+    }
+
+    /**
+     * Additional attributes describing how the benchmark was executed.
+     */
+    public Map<String, String> getAttributes()
+    {
+        return attributes;
+    }
+
     @Override
     public boolean isSuccessful()
     {
@@ -100,6 +130,24 @@ public class BenchmarkExecutionResult
             return this;
         }
 
+        public BenchmarkExecutionResultBuilder withLatencyHistogram(LatencyHistogram latencyHistogram)
+        {
+            object.latencyHistogram = Optional.of(latencyHistogram);
+            return this;
+        }
+
+        public BenchmarkExecutionResultBuilder withConcurrencySweepSteps(List<ConcurrencySweepStep> concurrencySweepSteps)
+        {
+            object.concurrencySweepSteps = ImmutableList.copyOf(concurrencySweepSteps);
+            return this;
+        }
+
+        public BenchmarkExecutionResultBuilder withAttributes(Map<String, String> attributes)
+        {
+            object.attributes = ImmutableMap.copyOf(attributes);
+            return this;
+        }
+
         @Override
         public BenchmarkExecutionResult build()
         {
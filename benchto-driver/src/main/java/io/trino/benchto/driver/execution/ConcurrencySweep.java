@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.benchto.driver.Benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Tracks steps of a concurrency sweep of a throughput test and detects the knee of the throughput curve, after which
+ * adding more workers does not increase throughput enough.
+ */
+class ConcurrencySweep
+{
+    enum StopReason
+    {
+        KNEE,
+        LAST_STEP,
+        TIME_LIMIT
+    }
+
+    private final List<Integer> concurrencies;
+    private final double kneeThreshold;
+    private final List<ConcurrencySweepStep> steps = new ArrayList<>();
+    private Optional<Integer> kneeConcurrency = Optional.empty();
+    private Optional<StopReason> stopReason = Optional.empty();
+
+    ConcurrencySweep(Benchmark benchmark)
+    {
+        checkArgument(benchmark.isConcurrencySweep(), "Benchmark %s does not have concurrency sweep", benchmark.getName());
+        this.concurrencies = benchmark.getConcurrencySweep();
+        this.kneeThreshold = benchmark.getSweepKneeThreshold();
+    }
+
+    /**
+     * Records throughput and latency of the next step, returns true if the sweep should continue with next step.
+     */
+    boolean recordStep(long queries, Duration duration, LatencyHistogram latencyHistogram)
+    {
+        checkArgument(stopReason.isEmpty() && steps.size() < concurrencies.size(), "Concurrency sweep is already finished");
+        int concurrency = concurrencies.get(steps.size());
+        ConcurrencySweepStep step = new ConcurrencySweepStep(steps.size() + 1, concurrency, queries, duration, latencyHistogram);
+        steps.add(step);
+
+        if (steps.size() > 1) {
+            ConcurrencySweepStep first = steps.get(0);
+            ConcurrencySweepStep previous = steps.get(steps.size() - 2);
+            double throughputPerWorker = first.getThroughput() / first.getConcurrency();
+            double marginalThroughput = (step.getThroughput() - previous.getThroughput()) / (step.getConcurrency() - previous.getConcurrency());
+            if (marginalThroughput < kneeThreshold * throughputPerWorker) {
+                kneeConcurrency = Optional.of(previous.getConcurrency());
+                stop(StopReason.KNEE);
+                return false;
+            }
+        }
+        if (steps.size() == concurrencies.size()) {
+            stop(StopReason.LAST_STEP);
+            return false;
+        }
+        return true;
+    }
+
+    int nextConcurrency()
+    {
+        return concurrencies.get(steps.size());
+    }
+
+    void stop(StopReason reason)
+    {
+        if (stopReason.isEmpty()) {
+            stopReason = Optional.of(reason);
+        }
+    }
+
+    Optional<StopReason> getStopReason()
+    {
+        return stopReason;
+    }
+
+    /**
+     * Highest concurrency before throughput stopped scaling, empty if knee was not reached.
+     */
+    Optional<Integer> getKneeConcurrency()
+    {
+        return kneeConcurrency;
+    }
+
+    List<ConcurrencySweepStep> getSteps()
+    {
+        return ImmutableList.copyOf(steps);
+    }
+
+    Map<String, String> getAttributes()
+    {
+        return ImmutableMap.of(
+                "sweep_stop_reason", stopReason.map(reason -> reason.name().toLowerCase(ENGLISH)).orElse("unknown"),
+                "sweep_knee_concurrency", kneeConcurrency.map(String::valueOf).orElse("none"),
+                "sweep_steps", String.valueOf(steps.size()));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import java.time.Duration;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Throughput and latency measured at a single concurrency level of a concurrency sweep.
+ */
+public class ConcurrencySweepStep
+{
+    private final int step;
+    private final int concurrency;
+    private final long queries;
+    private final Duration duration;
+    private final LatencyHistogram latencyHistogram;
+
+    public ConcurrencySweepStep(int step, int concurrency, long queries, Duration duration, LatencyHistogram latencyHistogram)
+    {
+        this.step = step;
+        this.concurrency = concurrency;
+        this.queries = queries;
+        this.duration = requireNonNull(duration, "duration is null");
+        this.latencyHistogram = requireNonNull(latencyHistogram, "latencyHistogram is null");
+    }
+
+    /**
+     * Number of the step, starting from 1.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+
+    /**
+     * Number of queries successfully completed during the step.
+     */
+    public long getQueries()
+    {
+        return queries;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * Queries per second.
+     */
+    public double getThroughput()
+    {
+        return duration.isZero() ? 0 : queries * 1_000_000_000.0 / duration.toNanos();
+    }
+
+    public LatencyHistogram getLatencyHistogram()
+    {
+        return latencyHistogram;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("step", step)
+                .add("concurrency", concurrency)
+                .add("queries", queries)
+                .add("duration", duration)
+                .add("throughput", getThroughput())
+                .toString();
+    }
+}
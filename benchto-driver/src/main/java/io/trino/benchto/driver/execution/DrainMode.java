@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Query;
+
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Defines how rows of a select query result are consumed by the driver.
+ */
+public enum DrainMode
+{
+    /**
+     * All values are fetched and first rows are logged.
+     */
+    NONE,
+    /**
+     * Rows are only counted, values are not read.
+     */
+    COUNT,
+    /**
+     * Rows are counted and sizes of their values, binary ones as bytes and the rest as UTF-8 text, are summed up. Every
+     * value is read to get its size, so the client does more work than in other modes.
+     */
+    BYTES;
+
+    public static final String DRAIN_KEY = "drain";
+
+    public static DrainMode forQuery(Query query)
+    {
+        return query.getProperty(DRAIN_KEY).map(DrainMode::fromString).orElse(NONE);
+    }
+
+    public static DrainMode fromString(String value)
+    {
+        return valueOf(value.trim().toUpperCase(ENGLISH));
+    }
+}
@@ -13,9 +13,12 @@
  */
 package io.trino.benchto.driver.execution;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.FailedBenchmarkExecutionException;
+import io.trino.benchto.driver.graphite.GraphiteProperties;
 import io.trino.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.trino.benchto.driver.loader.BenchmarkLoader;
 import io.trino.benchto.driver.macro.MacroService;
@@ -27,16 +30,29 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Lists.newArrayList;
 import static io.trino.benchto.driver.utils.TimeUtils.nowUtc;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 @Component
 public class ExecutionDriver
@@ -59,10 +75,20 @@ public class ExecutionDriver
     @Autowired
     private MacroService macroService;
 
+    @Autowired
+    private GraphiteProperties graphiteProperties;
+
     private final ZonedDateTime startTime = nowUtc();
 
+    // health checks verify the whole environment, so groups executed concurrently run them one at a time
+    private final Object healthCheckLock = new Object();
+
     public void execute()
     {
+        // Graphite metrics expressions and waits between runs are shared by all benchmarks, metrics of concurrently executed groups would be mixed
+        checkState(properties.getMaxParallelBenchmarkGroups() <= 1 || !graphiteProperties.isGraphiteMetricsCollectionEnabled(),
+                "Graphite metrics collection cannot be enabled when maxParallelBenchmarkGroups is greater than 1");
+
         List<Benchmark> benchmarks = loadBenchmarks();
         if (benchmarks.isEmpty()) {
             LOG.warn("No benchmarks selected, exiting...");
@@ -123,7 +149,10 @@ public class ExecutionDriver
     {
         // use a LinkedHashMap to preserve order
         Map<String, List<Benchmark>> groups = benchmarks.stream().collect(groupingBy(Benchmark::getName, LinkedHashMap::new, toList()));
-        List<BenchmarkExecutionResult> benchmarkExecutionResults = executeBenchmarkGroups(groups, benchmarks.size());
+        int maxParallelBenchmarkGroups = properties.getMaxParallelBenchmarkGroups();
+        List<BenchmarkExecutionResult> benchmarkExecutionResults = maxParallelBenchmarkGroups > 1
+                ? executeBenchmarkGroupsConcurrently(groups, benchmarks.size(), maxParallelBenchmarkGroups)
+                : executeBenchmarkGroups(groups, benchmarks.size());
 
         List<BenchmarkExecutionResult> failedBenchmarkResults = benchmarkExecutionResults.stream()
                 .filter(benchmarkExecutionResult -> !benchmarkExecutionResult.isSuccessful())
@@ -157,6 +186,82 @@ public class ExecutionDriver
         return benchmarkExecutionResults;
     }
 
+    /**
+     * Groups using disjoint sets of data sources are executed concurrently, while groups sharing a data source are executed
+     * in the order of benchmarks. Time limit is accounted separately for each data source, from the start of its first group.
+     * Health checks are run once for every data source of a group, as they check the environment rather than a benchmark.
+     */
+    private List<BenchmarkExecutionResult> executeBenchmarkGroupsConcurrently(Map<String, List<Benchmark>> groups, int numberOfBenchmarks, int maxParallelism)
+    {
+        LOG.info("Executing benchmark groups using different data sources concurrently, at most {} at a time", maxParallelism);
+        ExecutorService executor = newFixedThreadPool(maxParallelism, new ThreadFactoryBuilder().setNameFormat("benchmark-group-%d").build());
+        Map<String, ZonedDateTime> dataSourceStartTimes = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<?>> lastGroupOfDataSource = new HashMap<>();
+        List<CompletableFuture<List<BenchmarkExecutionResult>>> groupResults = newArrayList();
+        int benchmarkOrdinalNumber = 1;
+        try {
+            for (List<Benchmark> group : groups.values()) {
+                Set<String> dataSources = group.stream()
+                        .map(Benchmark::getDataSource)
+                        .collect(toImmutableSet());
+                CompletableFuture<?>[] previousGroups = dataSources.stream()
+                        .map(lastGroupOfDataSource::get)
+                        .filter(Objects::nonNull)
+                        .toArray(CompletableFuture<?>[]::new);
+                int groupOrdinalNumber = benchmarkOrdinalNumber;
+                CompletableFuture<List<BenchmarkExecutionResult>> groupResult = CompletableFuture.allOf(previousGroups)
+                        .thenApplyAsync(ignored -> executeBenchmarkGroup(group, dataSources, dataSourceStartTimes, groupOrdinalNumber, numberOfBenchmarks), executor);
+                dataSources.forEach(dataSource -> lastGroupOfDataSource.put(dataSource, groupResult));
+                groupResults.add(groupResult);
+                benchmarkOrdinalNumber += group.size();
+            }
+
+            // wait for groups on other data sources to finish before failing
+            CompletableFuture.allOf(groupResults.toArray(CompletableFuture<?>[]::new)).join();
+        }
+        catch (CompletionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return groupResults.stream()
+                .flatMap(groupResult -> groupResult.join().stream())
+                .collect(toList());
+    }
+
+    private List<BenchmarkExecutionResult> executeBenchmarkGroup(
+            List<Benchmark> group,
+            Set<String> dataSources,
+            Map<String, ZonedDateTime> dataSourceStartTimes,
+            int benchmarkOrdinalNumber,
+            int numberOfBenchmarks)
+    {
+        ZonedDateTime now = nowUtc();
+        dataSources.forEach(dataSource -> dataSourceStartTimes.putIfAbsent(dataSource, now));
+        Optional<ZonedDateTime> executionTimeLimit = properties.getTimeLimit()
+                .map(timeLimit -> dataSources.stream()
+                        .map(dataSource -> dataSourceStartTimes.get(dataSource).plus(timeLimit))
+                        .min(ZonedDateTime::compareTo)
+                        .orElseThrow());
+
+        if (executionTimeLimit.isPresent() && executionTimeLimit.get().isBefore(nowUtc())) {
+            LOG.warn("Time limit for running benchmarks on data sources {} has run out", dataSources);
+            return ImmutableList.of();
+        }
+        Map<String, Benchmark> firstBenchmarkOfDataSource = group.stream()
+                .collect(toMap(Benchmark::getDataSource, identity(), (first, second) -> first, LinkedHashMap::new));
+        synchronized (healthCheckLock) {
+            firstBenchmarkOfDataSource.values().forEach(this::executeHealthCheck);
+        }
+
+        List<BenchmarkExecutionResult> benchmarkExecutionResults = benchmarkExecutionDriver.execute(group, benchmarkOrdinalNumber, numberOfBenchmarks, executionTimeLimit);
+        benchmarkStatusReporter.processCompletedFutures();
+        return benchmarkExecutionResults;
+    }
+
     private boolean isTimeLimitEnded()
     {
         Optional<Duration> timeLimit = properties.getTimeLimit();
@@ -13,6 +13,7 @@
  */
 package io.trino.benchto.driver.execution;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.graphite.GraphiteProperties;
 import io.trino.benchto.driver.utils.TimeUtils;
@@ -20,6 +21,7 @@ import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -30,7 +32,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -40,7 +44,9 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * is enabled. Graphite collects metrics with predefined resolution, ex. 10 s.
  * <p>
  * After query/benchmark is finished we should wait at least 2 resolutions before we execute
- * next query/benchmark, so runs does not interfere with each other.
+ * next query/benchmark, so runs does not interfere with each other. With bucket aligned waits
+ * enabled, we only wait until the next resolution boundary, so next query/benchmark starts in
+ * a bucket of its own.
  * <p>
  * Graphite metrics loading should be delayed at least 1 resolution to make sure that last
  * probe was stored in graphite.
@@ -58,12 +64,23 @@ public class ExecutionSynchronizer
     @Autowired
     private GraphiteProperties properties;
 
+    @Value("${graphite.bucket-aligned-wait.enabled:false}")
+    private boolean bucketAlignedWait;
+
+    private final AtomicLong waitedMillis = new AtomicLong();
+    private final AtomicLong savedMillis = new AtomicLong();
+
     private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
 
     @PreDestroy
     public void shutdown()
             throws InterruptedException
     {
+        if (waitedMillis.get() > 0 || savedMillis.get() > 0) {
+            LOGGER.info("Waited {} between runs for Graphite metrics, {} less than with fixed waits",
+                    Duration.ofMillis(waitedMillis.get()), Duration.ofMillis(savedMillis.get()));
+        }
+
         /*
          * Request shutdown but let the planned ones complete.
          */
@@ -87,9 +104,7 @@ public class ExecutionSynchronizer
     public void awaitAfterQueryExecutionAndBeforeResultReport(QueryExecutionResult queryExecutionResult)
     {
         if (properties.isGraphiteMetricsCollectionEnabled() && queryExecutionResult.getBenchmark().isSerial()) {
-            int waitSecondsBetweenRuns = waitSecondsBetweenRuns();
-            LOGGER.info("Waiting {}s between queries - thread ({})", waitSecondsBetweenRuns, currThreadName());
-            TimeUtils.sleep(waitSecondsBetweenRuns, SECONDS);
+            awaitBetweenRuns(queryExecutionResult.getUtcEnd().toInstant(), "queries");
         }
     }
 
@@ -100,9 +115,7 @@ public class ExecutionSynchronizer
     public void awaitAfterBenchmarkExecutionAndBeforeResultReport(Benchmark benchmark)
     {
         if (properties.isGraphiteMetricsCollectionEnabled() && benchmark.isConcurrent()) {
-            int waitSecondsBetweenRuns = waitSecondsBetweenRuns();
-            LOGGER.info("Waiting {}s between benchmarks - thread ({})", waitSecondsBetweenRuns, currThreadName());
-            TimeUtils.sleep(waitSecondsBetweenRuns, SECONDS);
+            awaitBetweenRuns(Instant.now(), "benchmarks");
         }
     }
 
@@ -140,6 +153,33 @@ public class ExecutionSynchronizer
         return future;
     }
 
+    private void awaitBetweenRuns(Instant runEnd, String runs)
+    {
+        long fixedWaitMillis = SECONDS.toMillis(waitSecondsBetweenRuns());
+        long waitMillis = fixedWaitMillis;
+        if (bucketAlignedWait) {
+            waitMillis = Math.max(0, Instant.now().until(nextBucketBoundary(runEnd), ChronoUnit.MILLIS));
+        }
+        LOGGER.info("Waiting {} between {} - thread ({})", Duration.ofMillis(waitMillis), runs, currThreadName());
+        TimeUtils.sleep(waitMillis, MILLISECONDS);
+        waitedMillis.addAndGet(waitMillis);
+        savedMillis.addAndGet(fixedWaitMillis - waitMillis);
+    }
+
+    @VisibleForTesting
+    Instant nextBucketBoundary(Instant instant)
+    {
+        long resolutionMillis = SECONDS.toMillis(properties.getGraphiteResolutionSeconds());
+        checkState(resolutionMillis > 0, "graphite.resolution.seconds must be set for bucket aligned waits");
+        return Instant.ofEpochMilli((instant.toEpochMilli() / resolutionMillis + 1) * resolutionMillis);
+    }
+
+    @VisibleForTesting
+    long getSavedMillis()
+    {
+        return savedMillis.get();
+    }
+
     private int waitSecondsBetweenRuns()
     {
         return (int) (properties.getGraphiteResolutionSeconds() * GRAPHITE_WAIT_BETWEEN_REPORTING_RESOLUTION_COUNT);
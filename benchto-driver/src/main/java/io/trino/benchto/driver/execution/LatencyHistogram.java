@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import java.time.Duration;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Log-linear histogram of latencies in microseconds. Every power of two range is split into
+ * {@value #SUB_BUCKETS} buckets, which bounds relative error of recorded values by 1/{@value #SUB_BUCKETS}.
+ * <p>
+ * Histogram is not thread safe, it is meant to be written by a single thread and merged with others after recording is done.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // about 19 hours
+    private static final long MAX_VALUE = (1L << 36) - 1;
+    private static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long maxValue;
+
+    public void record(Duration latency)
+    {
+        record(toMicros(latency));
+    }
+
+    /**
+     * Records latency and, if it is longer than expected interval between queries, also latencies of queries
+     * which would be issued in the meantime, but were not due to waiting for this query (coordinated omission).
+     */
+    public void recordWithExpectedInterval(Duration latency, Duration expectedInterval)
+    {
+        long value = toMicros(latency);
+        long interval = toMicros(expectedInterval);
+        record(value);
+        if (interval <= 0) {
+            return;
+        }
+        for (long missingValue = value - interval; missingValue >= interval; missingValue -= interval) {
+            record(missingValue);
+        }
+    }
+
+    private void record(long value)
+    {
+        checkArgument(value >= 0, "Latency cannot be negative: %s", value);
+        long clampedValue = min(value, MAX_VALUE);
+        counts[bucketIndex(clampedValue)]++;
+        totalCount++;
+        maxValue = max(maxValue, clampedValue);
+    }
+
+    public void add(LatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = max(maxValue, other.maxValue);
+    }
+
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    public Duration getMax()
+    {
+        return Duration.ofNanos(maxValue * 1000);
+    }
+
+    /**
+     * @param percentile value between 0 and 100
+     */
+    public Duration getValueAtPercentile(double percentile)
+    {
+        checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100: %s", percentile);
+        if (totalCount == 0) {
+            return Duration.ZERO;
+        }
+        long rank = max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(min(bucketMiddle(i), maxValue) * 1000);
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketIndex(long value)
+    {
+        int shift = max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long bucketMiddle(int index)
+    {
+        int shift = max(0, index / SUB_BUCKETS - 1);
+        long lowerBound = (long) (index - shift * SUB_BUCKETS) << shift;
+        return lowerBound + ((1L << shift) >> 1);
+    }
+
+    private static long toMicros(Duration duration)
+    {
+        return duration.toNanos() / 1000;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("totalCount", totalCount)
+                .add("p50", getValueAtPercentile(50))
+                .add("p99", getValueAtPercentile(99))
+                .add("max", getMax())
+                .toString();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records latencies of benchmark queries to per-thread histograms, which are merged after all queries are done.
+ * Failed and timed out queries are recorded at the time they took to fail, so slow failures are not hidden from percentiles.
+ */
+class LatencyRecorder
+{
+    private final Optional<Duration> expectedQueryInterval;
+    private final Queue<LatencyHistogram> histograms = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<LatencyHistogram> threadHistogram = ThreadLocal.withInitial(() -> {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histograms.add(histogram);
+        return histogram;
+    });
+
+    LatencyRecorder(Benchmark benchmark)
+    {
+        this.expectedQueryInterval = benchmark.getExpectedQueryInterval();
+    }
+
+    void record(QueryExecutionResult result)
+    {
+        LatencyHistogram histogram = threadHistogram.get();
+        Optional<Duration> scheduleDelay = result.getScheduleDelay();
+        if (scheduleDelay.isPresent()) {
+            // latency of open-loop queries is measured from their intended start, so it is not affected by coordinated omission
+            histogram.record(result.getQueryDuration().plus(scheduleDelay.get()));
+        }
+        else if (expectedQueryInterval.isPresent()) {
+            histogram.recordWithExpectedInterval(result.getQueryDuration(), expectedQueryInterval.get());
+        }
+        else {
+            histogram.record(result.getQueryDuration());
+        }
+    }
+
+    /**
+     * Must be called after all recording threads are done.
+     */
+    LatencyHistogram merge()
+    {
+        LatencyHistogram merged = new LatencyHistogram();
+        histograms.forEach(merged::add);
+        return merged;
+    }
+}
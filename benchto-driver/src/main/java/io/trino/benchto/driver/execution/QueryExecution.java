@@ -20,6 +20,7 @@ import io.trino.benchto.driver.loader.SqlStatementGenerator;
 
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
@@ -34,11 +35,20 @@ public class QueryExecution
 
     private final String statement;
 
+    // System.nanoTime() based start time assigned by open-loop load generator
+    private final OptionalLong intendedStart;
+
     public QueryExecution(Benchmark benchmark, Query query, int sequenceId, SqlStatementGenerator sqlStatementGenerator)
+    {
+        this(benchmark, query, sequenceId, sqlStatementGenerator, OptionalLong.empty());
+    }
+
+    public QueryExecution(Benchmark benchmark, Query query, int sequenceId, SqlStatementGenerator sqlStatementGenerator, OptionalLong intendedStart)
     {
         this.benchmark = requireNonNull(benchmark);
         this.query = requireNonNull(query);
         this.sequenceId = sequenceId;
+        this.intendedStart = requireNonNull(intendedStart);
 
         this.statement = generateQuerySqlStatement(sqlStatementGenerator);
     }
@@ -68,6 +78,11 @@ public class QueryExecution
         return statement;
     }
 
+    public OptionalLong getIntendedStart()
+    {
+        return intendedStart;
+    }
+
     @Override
     public String toString()
     {
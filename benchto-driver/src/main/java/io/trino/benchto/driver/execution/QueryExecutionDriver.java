@@ -13,6 +13,9 @@
  */
 package io.trino.benchto.driver.execution;
 
+import com.google.common.base.Utf8;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.benchto.driver.Query;
 import io.trino.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
 import io.trino.jdbc.TrinoResultSet;
 import io.trino.jdbc.TrinoStatement;
@@ -22,21 +25,69 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static io.trino.benchto.driver.execution.DrainMode.NONE;
 import static io.trino.benchto.driver.utils.QueryUtils.compareCount;
+import static io.trino.benchto.driver.utils.QueryUtils.compareDigest;
 import static io.trino.benchto.driver.utils.QueryUtils.compareRows;
+import static io.trino.benchto.driver.utils.QueryUtils.compareRowsUnordered;
 import static io.trino.benchto.driver.utils.QueryUtils.fetchRows;
+import static io.trino.benchto.driver.utils.QueryUtils.isDigestFile;
 import static io.trino.benchto.driver.utils.QueryUtils.isSelectQuery;
+import static io.trino.benchto.driver.utils.QueryUtils.writeDigest;
+import static java.lang.String.format;
+import static java.sql.Types.BINARY;
+import static java.sql.Types.BLOB;
+import static java.sql.Types.LONGVARBINARY;
+import static java.sql.Types.VARBINARY;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class QueryExecutionDriver
 {
     private static final Logger LOG = LoggerFactory.getLogger(QueryExecutionDriver.class);
 
+    public static final String FETCH_SIZE_KEY = "fetch-size";
+    private static final int DEFAULT_DRAIN_FETCH_SIZE = 10_000;
+
+    private final boolean generateQueryResults;
+    private final ScheduledExecutorService cancellationExecutor = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("query-cancellation-%d")
+            .setDaemon(true)
+            .build());
+
+    public QueryExecutionDriver()
+    {
+        this(false);
+    }
+
+    /**
+     * @param generateQueryResults if set, result digest files are written instead of being verified
+     */
+    public QueryExecutionDriver(boolean generateQueryResults)
+    {
+        this.generateQueryResults = generateQueryResults;
+    }
+
     public QueryExecutionResult execute(QueryExecution queryExecution, Connection connection, Optional<Path> resultFile)
             throws SQLException
+    {
+        return execute(queryExecution, connection, resultFile, Optional.empty());
+    }
+
+    /**
+     * @param timeout if present, statement is cancelled when query runs longer, which fails it with {@link QueryTimeoutException}
+     */
+    public QueryExecutionResult execute(QueryExecution queryExecution, Connection connection, Optional<Path> resultFile, Optional<Duration> timeout)
+            throws SQLException
     {
         QueryExecutionResultBuilder queryExecutionResultBuilder = new QueryExecutionResultBuilder(queryExecution)
                 .startTimer();
@@ -44,66 +95,239 @@ public class QueryExecutionDriver
         String sqlStatement = queryExecution.getStatement();
 
         if (isSelectQuery(sqlStatement)) {
-            return executeSelectQuery(connection, queryExecutionResultBuilder, sqlStatement, resultFile);
+            return executeSelectQuery(connection, queryExecutionResultBuilder, queryExecution, sqlStatement, resultFile, timeout);
         }
         else {
-            return executeUpdateQuery(connection, queryExecutionResultBuilder, sqlStatement, resultFile);
+            return executeUpdateQuery(connection, queryExecutionResultBuilder, queryExecution, sqlStatement, resultFile, timeout);
         }
     }
 
     private QueryExecutionResult executeSelectQuery(
             Connection connection,
             QueryExecutionResultBuilder queryExecutionResultBuilder,
+            QueryExecution queryExecution,
+            String sqlStatement,
+            Optional<Path> resultFile,
+            Optional<Duration> timeout)
+            throws SQLException
+    {
+        DrainMode drainMode = DrainMode.forQuery(queryExecution.getQuery());
+        try (Statement statement = createSelectStatement(connection, queryExecution.getQuery(), drainMode)) {
+            monitorProgress(statement, queryExecutionResultBuilder, false);
+            return cancelAfterTimeout(statement, queryExecution, timeout, () -> {
+                try (ResultSet resultSet = statement.executeQuery(sqlStatement)) {
+                    queryExecutionResultBuilder.markStatementSubmitted();
+                    return readResults(connection, queryExecutionResultBuilder, queryExecution, sqlStatement, resultFile, drainMode, resultSet);
+                }
+            });
+        }
+    }
+
+    private QueryExecutionResult readResults(
+            Connection connection,
+            QueryExecutionResultBuilder queryExecutionResultBuilder,
+            QueryExecution queryExecution,
             String sqlStatement,
-            Optional<Path> resultFile)
+            Optional<Path> resultFile,
+            DrainMode drainMode,
+            ResultSet resultSet)
             throws SQLException
     {
-        try (Statement statement = connection.createStatement();
-                ResultSet resultSet = statement.executeQuery(sqlStatement)) {
-            int rowsCount;
-            if (resultFile.isPresent()) {
-                // load results from file and compare
-                rowsCount = compareRows(resultFile.get(), resultSet);
+        Runnable onFirstRow = queryExecutionResultBuilder::markFirstRowReceived;
+        int rowsCount;
+        if (resultFile.isPresent() && isDigestFile(resultFile.get())) {
+            if (generateQueryResults) {
+                rowsCount = writeDigest(resultFile.get(), resultSet, queryExecution.getBenchmark().getQueryResultsOrder(), onFirstRow);
             }
             else {
-                // ignore results
-                rowsCount = fetchRows(sqlStatement, resultSet);
+                rowsCount = compareDigest(resultFile.get(), resultSet, onFirstRow);
             }
+        }
+        else if (resultFile.isPresent() && queryExecution.getBenchmark().getQueryResultsOrder() == ResultsOrder.UNORDERED) {
+            rowsCount = compareRowsUnordered(resultFile.get(), resultSet, onFirstRow);
+        }
+        else if (resultFile.isPresent()) {
+            // load results from file and compare
+            rowsCount = compareRows(resultFile.get(), resultSet, onFirstRow);
+        }
+        else if (drainMode != NONE) {
+            rowsCount = drainRows(resultSet, drainMode, queryExecutionResultBuilder);
+        }
+        else {
+            // ignore results
+            rowsCount = fetchRows(sqlStatement, resultSet, onFirstRow);
+        }
+        queryExecutionResultBuilder.markResultsFetched();
+
+        try {
+            if (resultSet.isWrapperFor(TrinoResultSet.class)) {
+                TrinoResultSet trinoResultSet = resultSet.unwrap(TrinoResultSet.class);
+                queryExecutionResultBuilder.setPrestoQueryId(trinoResultSet.getQueryId());
+                queryExecutionResultBuilder.setPrestoQueryStats(trinoResultSet.getStats());
+            }
+        }
+        catch (AbstractMethodError | Exception e) {
+            // this error is caught by the compiler, but some drivers (hsqldb, hive, ...?) sucks
+            LOG.warn("Driver ({}) does not support isWrapperFor/unwrap method", connection);
+        }
 
+        return queryExecutionResultBuilder
+                .setRowsCount(rowsCount)
+                .endTimer()
+                .build();
+    }
+
+    /**
+     * Cancels the statement when it runs longer than the timeout, which kills the query on the server.
+     */
+    private <T> T cancelAfterTimeout(Statement statement, QueryExecution queryExecution, Optional<Duration> timeout, StatementAction<T> action)
+            throws SQLException
+    {
+        if (timeout.isEmpty()) {
+            return action.run();
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ScheduledFuture<?> cancellation = cancellationExecutor.schedule(() -> {
+            cancelled.set(true);
+            LOG.warn("Cancelling query {} after timeout of {}", queryExecution.getQueryName(), timeout.get());
             try {
-                if (resultSet.isWrapperFor(TrinoResultSet.class)) {
-                    TrinoResultSet trinoResultSet = resultSet.unwrap(TrinoResultSet.class);
-                    queryExecutionResultBuilder.setPrestoQueryId(trinoResultSet.getQueryId());
-                    queryExecutionResultBuilder.setPrestoQueryStats(trinoResultSet.getStats());
-                }
+                statement.cancel();
+            }
+            catch (SQLException | RuntimeException e) {
+                LOG.warn("Could not cancel query {}", queryExecution.getQueryName(), e);
             }
-            catch (AbstractMethodError | Exception e) {
-                // this error is caught by the compiler, but some drivers (hsqldb, hive, ...?) sucks
-                LOG.warn("Driver ({}) does not support isWrapperFor/unwrap method", connection);
+        }, timeout.get().toNanos(), NANOSECONDS);
+        try {
+            return action.run();
+        }
+        catch (SQLException | RuntimeException e) {
+            if (cancelled.get()) {
+                throw new QueryTimeoutException(format("Query %s was cancelled after timeout of %s", queryExecution.getQueryName(), timeout.get()), e);
             }
+            throw e;
+        }
+        finally {
+            cancellation.cancel(false);
+        }
+    }
 
-            return queryExecutionResultBuilder
-                    .setRowsCount(rowsCount)
-                    .endTimer()
-                    .build();
+    private interface StatementAction<T>
+    {
+        T run()
+                throws SQLException;
+    }
+
+    /**
+     * Samples progress of Trino queries. Update queries have no result set to read final stats from, so the last
+     * progress is also used as their stats.
+     */
+    private static void monitorProgress(Statement statement, QueryExecutionResultBuilder queryExecutionResultBuilder, boolean keepStats)
+            throws SQLException
+    {
+        if (!statement.isWrapperFor(TrinoStatement.class)) {
+            return;
+        }
+        QueryProgressRecorder progress = new QueryProgressRecorder();
+        queryExecutionResultBuilder.setProgress(progress);
+        statement.unwrap(TrinoStatement.class).setProgressMonitor(stats -> {
+            progress.record(stats);
+            if (keepStats) {
+                queryExecutionResultBuilder.setPrestoQueryId(stats.getQueryId())
+                        .setPrestoQueryStats(stats);
+            }
+        });
+    }
+
+    private Statement createSelectStatement(Connection connection, Query query, DrainMode drainMode)
+            throws SQLException
+    {
+        Statement statement = connection.createStatement();
+        Optional<Integer> fetchSize = query.getProperty(FETCH_SIZE_KEY).map(Integer::parseInt);
+        if (fetchSize.isEmpty() && drainMode != NONE) {
+            fetchSize = Optional.of(DEFAULT_DRAIN_FETCH_SIZE);
+        }
+        if (fetchSize.isPresent()) {
+            statement.setFetchSize(fetchSize.get());
+        }
+        return statement;
+    }
+
+    /**
+     * Consumes result rows. In {@link DrainMode#COUNT} mode no values are read, so that measured time is dominated by
+     * the engine and the transfer of results instead of decoding them on the client. {@link DrainMode#BYTES} mode reads
+     * every value to sum up their sizes.
+     */
+    private int drainRows(ResultSet resultSet, DrainMode drainMode, QueryExecutionResultBuilder queryExecutionResultBuilder)
+            throws SQLException
+    {
+        int rowsCount = 0;
+        if (drainMode == DrainMode.COUNT) {
+            if (resultSet.next()) {
+                queryExecutionResultBuilder.markFirstRowReceived();
+                rowsCount++;
+            }
+            while (resultSet.next()) {
+                rowsCount++;
+            }
+            return rowsCount;
+        }
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        boolean[] binaryColumns = new boolean[columnCount + 1];
+        for (int column = 1; column <= columnCount; column++) {
+            binaryColumns[column] = isBinary(metaData.getColumnType(column));
         }
+        long receivedBytes = 0;
+        while (resultSet.next()) {
+            if (rowsCount == 0) {
+                queryExecutionResultBuilder.markFirstRowReceived();
+            }
+            for (int column = 1; column <= columnCount; column++) {
+                receivedBytes += binaryColumns[column] ? binaryLength(resultSet, column) : textLength(resultSet, column);
+            }
+            rowsCount++;
+        }
+        queryExecutionResultBuilder.setReceivedBytes(receivedBytes);
+        return rowsCount;
+    }
+
+    private static boolean isBinary(int columnType)
+    {
+        return columnType == BINARY || columnType == VARBINARY || columnType == LONGVARBINARY || columnType == BLOB;
+    }
+
+    private static long binaryLength(ResultSet resultSet, int column)
+            throws SQLException
+    {
+        byte[] value = resultSet.getBytes(column);
+        return value == null ? 0 : value.length;
+    }
+
+    /**
+     * Size of the value encoded as UTF-8, which is how results are transferred as text.
+     */
+    private static long textLength(ResultSet resultSet, int column)
+            throws SQLException
+    {
+        String value = resultSet.getString(column);
+        return value == null ? 0 : Utf8.encodedLength(value);
     }
 
     private QueryExecutionResult executeUpdateQuery(
             Connection connection,
             QueryExecutionResultBuilder queryExecutionResultBuilder,
+            QueryExecution queryExecution,
             String sqlStatement,
-            Optional<Path> resultFile)
+            Optional<Path> resultFile,
+            Optional<Duration> timeout)
             throws SQLException
     {
         try (Statement statement = connection.createStatement()) {
-            if (statement.isWrapperFor(TrinoStatement.class)) {
-                TrinoStatement trinoStatement = statement.unwrap(TrinoStatement.class);
-                trinoStatement.setProgressMonitor(stats -> queryExecutionResultBuilder.setPrestoQueryId(stats.getQueryId())
-                        .setPrestoQueryStats(stats));
-            }
+            monitorProgress(statement, queryExecutionResultBuilder, true);
 
-            int rowCount = statement.executeUpdate(sqlStatement);
+            // executeUpdate returns only when the statement is done, so updates have no separate submission phase
+            int rowCount = cancelAfterTimeout(statement, queryExecution, timeout, () -> statement.executeUpdate(sqlStatement));
             resultFile.ifPresent(path -> compareCount(path, rowCount));
 
             return queryExecutionResultBuilder
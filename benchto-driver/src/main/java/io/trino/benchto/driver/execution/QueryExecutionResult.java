@@ -17,6 +17,8 @@ import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.Measurable;
 import io.trino.jdbc.QueryStats;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -27,10 +29,19 @@ public class QueryExecutionResult
     private final QueryExecution queryExecution;
     private int rowsCount;
     private Exception failureCause;
+    private Optional<Duration> connectionAcquisitionTime = Optional.empty();
+    private Optional<Duration> macroTime = Optional.empty();
+    private Optional<Long> receivedBytes = Optional.empty();
+
+    // System.nanoTime() based timestamps of query phases, 0 if the phase was not reached
+    private long statementSubmitted;
+    private long firstRowReceived;
+    private long resultsFetched;
 
     // presto specific
     private Optional<String> prestoQueryId = Optional.empty();
     private Optional<QueryStats> prestoQueryStats = Optional.empty();
+    private Optional<QueryProgressRecorder> progress = Optional.empty();
 
     public QueryExecutionResult(QueryExecution queryExecution)
     {
@@ -60,11 +71,27 @@ public class QueryExecutionResult
         return failureCause == null;
     }
 
+    /**
+     * Query was cancelled because it ran longer than its timeout.
+     */
+    public boolean isTimedOut()
+    {
+        return failureCause instanceof QueryTimeoutException;
+    }
+
     public int getRowsCount()
     {
         return rowsCount;
     }
 
+    /**
+     * Approximate size of received rows, available only for queries draining results in {@link DrainMode#BYTES} mode.
+     */
+    public Optional<Long> getReceivedBytes()
+    {
+        return receivedBytes;
+    }
+
     public Exception getFailureCause()
     {
         return failureCause;
@@ -80,6 +107,83 @@ public class QueryExecutionResult
         return prestoQueryStats;
     }
 
+    public Optional<QueryProgressRecorder> getProgress()
+    {
+        return progress;
+    }
+
+    /**
+     * Time between start intended by open-loop load generator and actual start of the query.
+     */
+    public Optional<Duration> getScheduleDelay()
+    {
+        if (queryExecution.getIntendedStart().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(start - queryExecution.getIntendedStart().getAsLong()));
+    }
+
+    public Optional<ZonedDateTime> getUtcIntendedStart()
+    {
+        return getScheduleDelay().map(utcStart::minus);
+    }
+
+    /**
+     * Time spent waiting for a connection from the data source, it is not included in the query duration.
+     */
+    public Optional<Duration> getConnectionAcquisitionTime()
+    {
+        return connectionAcquisitionTime;
+    }
+
+    void setConnectionAcquisitionTime(Duration connectionAcquisitionTime)
+    {
+        this.connectionAcquisitionTime = Optional.of(connectionAcquisitionTime);
+    }
+
+    /**
+     * Time spent running before execution macros, it is not included in the query duration.
+     */
+    public Optional<Duration> getMacroTime()
+    {
+        return macroTime;
+    }
+
+    void setMacroTime(Duration macroTime)
+    {
+        this.macroTime = Optional.of(macroTime);
+    }
+
+    /**
+     * Time between the start of the query and the return from statement execution, which for Trino covers
+     * submission of the query and waiting for its first response.
+     */
+    public Optional<Duration> getSubmissionTime()
+    {
+        return phaseDuration(start, statementSubmitted);
+    }
+
+    public Optional<Duration> getTimeToFirstRow()
+    {
+        return phaseDuration(start, firstRowReceived);
+    }
+
+    /**
+     * Time between receiving the first row (or submission, if there were no rows) and consuming the last one.
+     */
+    public Optional<Duration> getFetchTime()
+    {
+        return phaseDuration(firstRowReceived != 0 ? firstRowReceived : statementSubmitted, resultsFetched);
+    }
+
+    private static Optional<Duration> phaseDuration(long from, long to)
+    {
+        if (from == 0 || to == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(to - from));
+    }
+
     public String getQueryName()
     {
         return queryExecution.getQueryName();
@@ -92,8 +196,15 @@ public class QueryExecutionResult
                 .add("queryExecution", queryExecution)
                 .add("successful", isSuccessful())
                 .add("rowsCount", rowsCount)
+                .add("receivedBytes", receivedBytes)
                 .add("failureCause", failureCause)
                 .add("queryDuration", getQueryDuration().toMillis() + " ms")
+                .add("scheduleDelay", getScheduleDelay())
+                .add("connectionAcquisitionTime", connectionAcquisitionTime)
+                .add("macroTime", macroTime)
+                .add("submissionTime", getSubmissionTime())
+                .add("timeToFirstRow", getTimeToFirstRow())
+                .add("fetchTime", getFetchTime())
                 .add("prestoQueryId", prestoQueryId)
                 .add("prestoQueryStats", prestoQueryStats)
                 .toString();
@@ -119,6 +230,30 @@ public class QueryExecutionResult
             return this;
         }
 
+        public QueryExecutionResultBuilder setReceivedBytes(long receivedBytes)
+        {
+            object.receivedBytes = Optional.of(receivedBytes);
+            return this;
+        }
+
+        public QueryExecutionResultBuilder markStatementSubmitted()
+        {
+            object.statementSubmitted = System.nanoTime();
+            return this;
+        }
+
+        public QueryExecutionResultBuilder markFirstRowReceived()
+        {
+            object.firstRowReceived = System.nanoTime();
+            return this;
+        }
+
+        public QueryExecutionResultBuilder markResultsFetched()
+        {
+            object.resultsFetched = System.nanoTime();
+            return this;
+        }
+
         public QueryExecutionResultBuilder setPrestoQueryId(String prestoQueryId)
         {
             object.prestoQueryId = Optional.of(prestoQueryId);
@@ -130,5 +265,11 @@ public class QueryExecutionResult
             object.prestoQueryStats = Optional.of(prestoQueryStats);
             return this;
         }
+
+        public QueryExecutionResultBuilder setProgress(QueryProgressRecorder progress)
+        {
+            object.progress = Optional.of(progress);
+            return this;
+        }
     }
 }
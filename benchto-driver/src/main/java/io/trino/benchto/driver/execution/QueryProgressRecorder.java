@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.jdbc.QueryStats;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compact time series of Trino query progress, sampled from statement progress callbacks. Samples are kept in
+ * primitive arrays, so that recording does not allocate except when the arrays grow.
+ */
+public class QueryProgressRecorder
+{
+    public static final Duration DEFAULT_SAMPLING_INTERVAL = Duration.ofMillis(100);
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double SPLIT_COMPLETION_TAIL = 0.9;
+
+    private final long samplingIntervalNanos;
+
+    private int size;
+    // System.nanoTime() based
+    private long[] times = new long[INITIAL_CAPACITY];
+    private long[] processedRows = new long[INITIAL_CAPACITY];
+    private long[] processedBytes = new long[INITIAL_CAPACITY];
+    private long[] cpuTimeMillis = new long[INITIAL_CAPACITY];
+    private int[] completedSplits = new int[INITIAL_CAPACITY];
+    private int[] totalSplits = new int[INITIAL_CAPACITY];
+
+    public QueryProgressRecorder()
+    {
+        this(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    public QueryProgressRecorder(Duration samplingInterval)
+    {
+        checkArgument(!samplingInterval.isNegative() && !samplingInterval.isZero(), "samplingInterval must be positive");
+        this.samplingIntervalNanos = samplingInterval.toNanos();
+    }
+
+    public void record(QueryStats stats)
+    {
+        record(System.nanoTime(), stats.getProcessedRows(), stats.getProcessedBytes(), stats.getCpuTimeMillis(), stats.getCompletedSplits(), stats.getTotalSplits());
+    }
+
+    /**
+     * Samples are kept at least sampling interval apart, except for the last one, which is replaced by newer samples
+     * until the interval elapses, so that the series always ends with the latest progress.
+     */
+    synchronized void record(long time, long rows, long bytes, long cpuMillis, int completed, int total)
+    {
+        if (size >= 2 && times[size - 1] - times[size - 2] < samplingIntervalNanos) {
+            size--;
+        }
+        if (size == times.length) {
+            grow();
+        }
+        times[size] = time;
+        processedRows[size] = rows;
+        processedBytes[size] = bytes;
+        cpuTimeMillis[size] = cpuMillis;
+        completedSplits[size] = completed;
+        totalSplits[size] = total;
+        size++;
+    }
+
+    public synchronized int getSamplesCount()
+    {
+        return size;
+    }
+
+    /**
+     * Highest rate of processed bytes between two consecutive samples, in bytes per second.
+     */
+    public synchronized OptionalDouble getPeakScanRate()
+    {
+        OptionalDouble peak = OptionalDouble.empty();
+        for (int i = 1; i < size; i++) {
+            long elapsed = times[i] - times[i - 1];
+            // the last sample can be closer to the previous one, rates over such short periods are not reliable
+            if (elapsed >= samplingIntervalNanos) {
+                double rate = ratePerSecond(processedBytes[i] - processedBytes[i - 1], elapsed);
+                if (peak.isEmpty() || rate > peak.getAsDouble()) {
+                    peak = OptionalDouble.of(rate);
+                }
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Rate of processed bytes between the first and the last sample, in bytes per second.
+     */
+    public synchronized OptionalDouble getAverageScanRate()
+    {
+        if (size < 2 || times[size - 1] == times[0]) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(ratePerSecond(processedBytes[size - 1] - processedBytes[0], times[size - 1] - times[0]));
+    }
+
+    /**
+     * Fraction of the split processing time spent on completing the last 10% of splits. Values close to 0.1 mean
+     * splits complete evenly, values close to 1 mean a few straggling splits dominate the query.
+     */
+    public synchronized OptionalDouble getSplitCompletionSkew()
+    {
+        if (size < 2 || totalSplits[size - 1] == 0 || completedSplits[size - 1] < totalSplits[size - 1]) {
+            return OptionalDouble.empty();
+        }
+        int total = totalSplits[size - 1];
+        int first = -1;
+        int tail = -1;
+        int last = -1;
+        for (int i = 0; i < size && last < 0; i++) {
+            if (first < 0 && completedSplits[i] > 0) {
+                first = i;
+            }
+            if (tail < 0 && completedSplits[i] >= SPLIT_COMPLETION_TAIL * total) {
+                tail = i;
+            }
+            if (completedSplits[i] == total) {
+                last = i;
+            }
+        }
+        // splits started being completed some time before the first sample which observed it
+        long start = times[Math.max(first - 1, 0)];
+        if (times[last] == start) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of((double) (times[last] - times[tail]) / (times[last] - start));
+    }
+
+    /**
+     * Samples formatted as CSV with a header, time is in milliseconds since the first sample.
+     */
+    public synchronized Optional<String> toCsv()
+    {
+        if (size == 0) {
+            return Optional.empty();
+        }
+        StringBuilder csv = new StringBuilder("elapsed_ms,processed_rows,processed_bytes,cpu_ms,completed_splits,total_splits\n");
+        for (int i = 0; i < size; i++) {
+            csv.append(Duration.ofNanos(times[i] - times[0]).toMillis()).append(',')
+                    .append(processedRows[i]).append(',')
+                    .append(processedBytes[i]).append(',')
+                    .append(cpuTimeMillis[i]).append(',')
+                    .append(completedSplits[i]).append(',')
+                    .append(totalSplits[i]).append('\n');
+        }
+        return Optional.of(csv.toString());
+    }
+
+    private void grow()
+    {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        processedRows = Arrays.copyOf(processedRows, capacity);
+        processedBytes = Arrays.copyOf(processedBytes, capacity);
+        cpuTimeMillis = Arrays.copyOf(cpuTimeMillis, capacity);
+        completedSplits = Arrays.copyOf(completedSplits, capacity);
+        totalSplits = Arrays.copyOf(totalSplits, capacity);
+    }
+
+    private static double ratePerSecond(long amount, long elapsedNanos)
+    {
+        return amount * 1_000_000_000.0 / elapsedNanos;
+    }
+}
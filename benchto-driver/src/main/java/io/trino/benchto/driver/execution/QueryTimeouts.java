@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.service.BenchmarkServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Decides how long a query may run before it is cancelled. Timeout is either set by the {@value #TIMEOUT_KEY} query
+ * property or derived from durations of previous executions of the benchmark, see {@link Benchmark#getQueryTimeoutFactor()}.
+ */
+@Component
+public class QueryTimeouts
+{
+    private static final Logger LOG = LoggerFactory.getLogger(QueryTimeouts.class);
+
+    public static final String TIMEOUT_KEY = "timeout";
+    private static final double HISTORICAL_DURATION_PERCENTILE = 99;
+
+    @Autowired
+    private BenchmarkServiceClient benchmarkServiceClient;
+
+    private final Map<String, Optional<Duration>> historicalDurations = new ConcurrentHashMap<>();
+
+    /**
+     * Fetches durations of previous executions of benchmarks which derive query timeouts from them.
+     */
+    public void prepare(List<Benchmark> benchmarks)
+    {
+        List<String> uniqueNames = benchmarks.stream()
+                .filter(benchmark -> benchmark.getQueryTimeoutFactor().isPresent())
+                .map(Benchmark::getUniqueName)
+                .filter(uniqueName -> !historicalDurations.containsKey(uniqueName))
+                .distinct()
+                .collect(toList());
+        if (uniqueNames.isEmpty()) {
+            return;
+        }
+        List<Optional<Duration>> durations = benchmarkServiceClient.getBenchmarkSuccessfulExecutionDurationPercentiles(uniqueNames, HISTORICAL_DURATION_PERCENTILE);
+        for (int i = 0; i < uniqueNames.size(); i++) {
+            LOG.info("Historical p99 duration of benchmark {}: {}", uniqueNames.get(i), durations.get(i).map(Duration::toString).orElse("unknown"));
+            historicalDurations.put(uniqueNames.get(i), durations.get(i));
+        }
+    }
+
+    public Optional<Duration> getTimeout(QueryExecution queryExecution)
+    {
+        Optional<Duration> timeout = queryExecution.getQuery().getProperty(TIMEOUT_KEY).map(Duration::parse);
+        if (timeout.isPresent()) {
+            return timeout;
+        }
+        Benchmark benchmark = queryExecution.getBenchmark();
+        if (benchmark.getQueryTimeoutFactor().isEmpty()) {
+            return Optional.empty();
+        }
+        double factor = benchmark.getQueryTimeoutFactor().get();
+        return historicalDurations.getOrDefault(benchmark.getUniqueName(), Optional.empty())
+                .map(duration -> Duration.ofNanos(Math.round(duration.toNanos() * factor)));
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import com.google.common.base.Splitter;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compact digest of a query result, computed incrementally over typed column values while the result set is consumed.
+ * <p>
+ * Rows are hashed independently. For {@link ResultsOrder#ORDERED} results row hashes are chained, so the digest depends on
+ * the order of rows. For {@link ResultsOrder#UNORDERED} results row hashes are summed up, so the digest depends only on
+ * the multiset of rows.
+ */
+public final class ResultDigest
+{
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final Splitter SPLITTER = Splitter.on(' ').trimResults().omitEmptyStrings();
+
+    private final ResultsOrder order;
+    private final long rowsCount;
+    private final HashCode hash;
+
+    public ResultDigest(ResultsOrder order, long rowsCount, HashCode hash)
+    {
+        this.order = requireNonNull(order, "order is null");
+        this.rowsCount = rowsCount;
+        this.hash = requireNonNull(hash, "hash is null");
+    }
+
+    public static ResultDigest compute(ResultSet resultSet, ResultsOrder order)
+            throws SQLException
+    {
+        return compute(resultSet, order, () -> {});
+    }
+
+    /**
+     * @param onFirstRow run when the first row is received
+     */
+    public static ResultDigest compute(ResultSet resultSet, ResultsOrder order, Runnable onFirstRow)
+            throws SQLException
+    {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int[] columnTypes = new int[metaData.getColumnCount()];
+        for (int i = 0; i < columnTypes.length; i++) {
+            columnTypes[i] = metaData.getColumnType(i + 1);
+        }
+
+        Hasher orderedHasher = HASH_FUNCTION.newHasher();
+        long unorderedLow = 0;
+        long unorderedHigh = 0;
+        long rowsCount = 0;
+        while (resultSet.next()) {
+            if (rowsCount == 0) {
+                onFirstRow.run();
+            }
+            Hasher rowHasher = HASH_FUNCTION.newHasher();
+            for (int column = 0; column < columnTypes.length; column++) {
+                putValue(rowHasher, resultSet, column + 1, columnTypes[column]);
+            }
+            HashCode rowHash = rowHasher.hash();
+            if (order == ResultsOrder.ORDERED) {
+                orderedHasher.putBytes(rowHash.asBytes());
+            }
+            else {
+                ByteBuffer buffer = ByteBuffer.wrap(rowHash.asBytes()).order(LITTLE_ENDIAN);
+                unorderedLow += buffer.getLong();
+                unorderedHigh += buffer.getLong();
+            }
+            rowsCount++;
+        }
+
+        HashCode hash;
+        if (order == ResultsOrder.ORDERED) {
+            hash = orderedHasher.hash();
+        }
+        else {
+            hash = HashCode.fromBytes(ByteBuffer.allocate(16).order(LITTLE_ENDIAN)
+                    .putLong(unorderedLow)
+                    .putLong(unorderedHigh)
+                    .array());
+        }
+        return new ResultDigest(order, rowsCount, hash);
+    }
+
+    private static void putValue(Hasher hasher, ResultSet resultSet, int column, int type)
+            throws SQLException
+    {
+        switch (type) {
+            case Types.BIT, Types.BOOLEAN -> {
+                boolean value = resultSet.getBoolean(column);
+                if (!putNull(hasher, resultSet)) {
+                    hasher.putBoolean(value);
+                }
+            }
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> {
+                long value = resultSet.getLong(column);
+                if (!putNull(hasher, resultSet)) {
+                    hasher.putLong(value);
+                }
+            }
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> {
+                double value = resultSet.getDouble(column);
+                if (!putNull(hasher, resultSet)) {
+                    hasher.putDouble(value);
+                }
+            }
+            case Types.DECIMAL, Types.NUMERIC -> {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                if (!putNull(hasher, resultSet)) {
+                    // equal values with different scale must have the same hash
+                    hasher.putString(value.stripTrailingZeros().toPlainString(), UTF_8);
+                }
+            }
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> {
+                byte[] value = resultSet.getBytes(column);
+                if (!putNull(hasher, resultSet)) {
+                    hasher.putInt(value.length);
+                    hasher.putBytes(value);
+                }
+            }
+            default -> {
+                String value = resultSet.getString(column);
+                if (!putNull(hasher, resultSet)) {
+                    hasher.putInt(value.length());
+                    hasher.putString(value, UTF_8);
+                }
+            }
+        }
+    }
+
+    private static boolean putNull(Hasher hasher, ResultSet resultSet)
+            throws SQLException
+    {
+        boolean isNull = resultSet.wasNull();
+        hasher.putBoolean(isNull);
+        return isNull;
+    }
+
+    /**
+     * Parses digest in the format written by {@link #toString()}.
+     */
+    public static ResultDigest parse(String value)
+    {
+        List<String> parts = SPLITTER.splitToList(value);
+        checkArgument(parts.size() == 3, "Invalid result digest: %s", value);
+        return new ResultDigest(ResultsOrder.fromString(parts.get(0)), Long.parseLong(parts.get(1)), HashCode.fromString(parts.get(2)));
+    }
+
+    public ResultsOrder getOrder()
+    {
+        return order;
+    }
+
+    public long getRowsCount()
+    {
+        return rowsCount;
+    }
+
+    public HashCode getHash()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ResultDigest that = (ResultDigest) o;
+        return order == that.order &&
+                rowsCount == that.rowsCount &&
+                hash.equals(that.hash);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(order, rowsCount, hash);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("%s %d %s", order.name().toLowerCase(ENGLISH), rowsCount, hash);
+    }
+}
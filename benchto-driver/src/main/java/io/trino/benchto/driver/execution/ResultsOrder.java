@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import static java.util.Locale.ENGLISH;
+
+public enum ResultsOrder
+{
+    /**
+     * Results are expected in the same order, for example for queries with ORDER BY clause.
+     */
+    ORDERED,
+    /**
+     * Results are compared as multisets of rows.
+     */
+    UNORDERED;
+
+    public static ResultsOrder fromString(String value)
+    {
+        return valueOf(value.trim().toUpperCase(ENGLISH));
+    }
+}
@@ -35,9 +35,12 @@ import java.net.URI;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.trino.benchto.driver.graphite.GraphiteClient.GraphiteRenderResponseItem.DATA_POINT_TIMESTAMP_INDEX;
 import static io.trino.benchto.driver.graphite.GraphiteClient.GraphiteRenderResponseItem.DATA_POINT_VALUE_INDEX;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -71,6 +74,34 @@ public class GraphiteClient
 
     @Retryable(value = {RestClientException.class, IncompleteDataException.class}, backoff = @Backoff(delay = 5000, multiplier = 2), maxAttempts = 4)
     public Map<String, double[]> loadMetrics(Map<String, String> metrics, long fromEpochSecond, long toEpochSecond)
+    {
+        return Arrays.stream(render(metrics, fromEpochSecond, toEpochSecond)).collect(toMap(
+                GraphiteRenderResponseItem::getTarget,
+                responseItem -> parseDataPoints(responseItem.datapoints)));
+    }
+
+    /**
+     * Loads data points of metrics without failing on incomplete data.
+     *
+     * @return data points of every metric by their epoch second, without null data points
+     */
+    @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
+    public Map<String, SortedMap<Long, Double>> loadDataPoints(Map<String, String> metrics, long fromEpochSecond, long toEpochSecond)
+    {
+        return Arrays.stream(render(metrics, fromEpochSecond, toEpochSecond)).collect(toMap(
+                GraphiteRenderResponseItem::getTarget,
+                responseItem -> {
+                    SortedMap<Long, Double> dataPoints = new TreeMap<>();
+                    for (Double[] dataPoint : responseItem.datapoints) {
+                        if (dataPoint[DATA_POINT_VALUE_INDEX] != null) {
+                            dataPoints.put(dataPoint[DATA_POINT_TIMESTAMP_INDEX].longValue(), dataPoint[DATA_POINT_VALUE_INDEX]);
+                        }
+                    }
+                    return dataPoints;
+                }));
+    }
+
+    private GraphiteRenderResponseItem[] render(Map<String, String> metrics, long fromEpochSecond, long toEpochSecond)
     {
         URI uri = buildLoadMetricsURI(metrics, fromEpochSecond, toEpochSecond);
 
@@ -82,9 +113,7 @@ public class GraphiteClient
             throw new BenchmarkExecutionException("Could not load metrics: " + metrics + " - error: " + response);
         }
 
-        return Arrays.stream(response.getBody()).collect(toMap(
-                GraphiteRenderResponseItem::getTarget,
-                responseItem -> parseDataPoints(responseItem.datapoints)));
+        return response.getBody();
     }
 
     private URI buildLoadMetricsURI(Map<String, String> metrics, long fromEpochSecond, long toEpochSecond)
@@ -26,9 +26,11 @@ import org.apache.commons.math3.stat.descriptive.StatisticalSummaryValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -59,8 +61,17 @@ public class GraphiteMetricsLoader
     @Autowired
     private ExecutionSynchronizer executionSynchronizer;
 
+    @Autowired
+    private GraphiteMetricsRetriever graphiteMetricsRetriever;
+
+    @Value("${graphite.batch.enabled:false}")
+    private boolean batchingEnabled;
+
     private Map<String, String> queryMetrics;
 
+    // integral over a window cannot be sliced out of a longer window, so it is computed from sliced network data points
+    private Map<String, String> batchedQueryMetrics;
+
     @PostConstruct
     public void initQueryMetrics()
     {
@@ -71,6 +82,9 @@ public class GraphiteMetricsLoader
         graphiteProperties.getNetworkGraphiteExpr().ifPresent(value -> queryMetrics.put("network_total", format("integral(%s)", value)));
 
         checkState(!queryMetrics.isEmpty(), "No graphite metrics (graphite.metrics.*) provided for measurement collection");
+
+        batchedQueryMetrics = newHashMap(queryMetrics);
+        batchedQueryMetrics.remove("network_total");
     }
 
     @Override
@@ -95,8 +109,15 @@ public class GraphiteMetricsLoader
             return completedFuture(emptyList());
         }
 
+        Instant metricsAvailableAt = to.plus(graphiteProperties.getGraphiteMetricsDelay()).toInstant();
+        if (batchingEnabled) {
+            return graphiteMetricsRetriever.loadMetrics(batchedQueryMetrics, fromEpochSecond, toEpochSecond, metricsAvailableAt)
+                    .thenApply(GraphiteMetricsLoader::withNetworkTotal)
+                    .thenApply(this::toMeasurements);
+        }
+
         return executionSynchronizer.execute(
-                to.plus(graphiteProperties.getGraphiteMetricsDelay()).toInstant(),
+                metricsAvailableAt,
                 () -> doLoadMeasurements(fromEpochSecond, toEpochSecond));
     }
 
@@ -104,8 +125,25 @@ public class GraphiteMetricsLoader
     {
         LOG.debug("Loading metrics {} - from: {}, to: {}", queryMetrics, fromEpochSecond, toEpochSecond);
 
-        Map<String, double[]> loadedMetrics = graphiteClient.loadMetrics(queryMetrics, fromEpochSecond, toEpochSecond);
+        return toMeasurements(graphiteClient.loadMetrics(queryMetrics, fromEpochSecond, toEpochSecond));
+    }
 
+    private static Map<String, double[]> withNetworkTotal(Map<String, double[]> loadedMetrics)
+    {
+        if (!loadedMetrics.containsKey("network")) {
+            return loadedMetrics;
+        }
+        Map<String, double[]> metrics = newHashMap(loadedMetrics);
+        double[] networkTotal = loadedMetrics.get("network").clone();
+        for (int i = 1; i < networkTotal.length; i++) {
+            networkTotal[i] += networkTotal[i - 1];
+        }
+        metrics.put("network_total", networkTotal);
+        return metrics;
+    }
+
+    private List<Measurement> toMeasurements(Map<String, double[]> loadedMetrics)
+    {
         List<Measurement> measurements = newArrayList();
 
         if (graphiteProperties.getCpuGraphiteExpr().isPresent() && loadedMetrics.containsKey("cpu")) {
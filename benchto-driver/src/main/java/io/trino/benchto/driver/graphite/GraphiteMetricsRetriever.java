@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.graphite;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.benchto.driver.graphite.GraphiteClient.IncompleteDataException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Maps.immutableEntry;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Loads Graphite metrics of many windows with few render requests. Windows which become ready within {@code maxDelayMillis}
+ * of each other are loaded with a single request covering all of them, and the data points are cached by target and time,
+ * so windows covered by earlier requests are sliced from the cache without any request. Windows with incomplete data are
+ * loaded again after 5s, 10s and 20s, as with {@link GraphiteClient#loadMetrics}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "graphite", value = "url")
+public class GraphiteMetricsRetriever
+{
+    private static final Logger LOG = LoggerFactory.getLogger(GraphiteMetricsRetriever.class);
+
+    private static final int MAX_ATTEMPTS = 4;
+
+    // all state is accessed from the scheduler thread only
+    private final ScheduledExecutorService scheduler = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("graphite-metrics-%d")
+            .setDaemon(true)
+            .build());
+
+    private final GraphiteClient graphiteClient;
+    private final int resolutionSeconds;
+    private final long maxDelayMillis;
+    private final Duration retryDelay;
+    private final Cache<Map.Entry<String, Long>, Double> dataPoints;
+    private final Map<String, Long> stepSeconds = new LinkedHashMap<>();
+    private final List<Window> pendingWindows = new ArrayList<>();
+
+    @Autowired
+    public GraphiteMetricsRetriever(
+            GraphiteClient graphiteClient,
+            GraphiteProperties graphiteProperties,
+            @Value("${graphite.batch.max-delay-millis:5000}") long maxDelayMillis,
+            @Value("${graphite.batch.retry-delay-millis:5000}") long retryDelayMillis,
+            @Value("${graphite.batch.cache-size:100000}") long cacheSize)
+    {
+        checkArgument(maxDelayMillis >= 0, "maxDelayMillis must not be negative: %s", maxDelayMillis);
+        checkArgument(retryDelayMillis >= 0, "retryDelayMillis must not be negative: %s", retryDelayMillis);
+        this.graphiteClient = requireNonNull(graphiteClient, "graphiteClient is null");
+        this.resolutionSeconds = Math.max(1, graphiteProperties.getGraphiteResolutionSeconds());
+        this.maxDelayMillis = maxDelayMillis;
+        this.retryDelay = Duration.ofMillis(retryDelayMillis);
+        this.dataPoints = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * Loads data points of metrics in {@code (fromEpochSecond, toEpochSecond]}, once they are available in Graphite.
+     *
+     * @param metrics Graphite expressions by metric name
+     * @param availableAt time after which Graphite is expected to have all data points of the window
+     */
+    public CompletableFuture<Map<String, double[]>> loadMetrics(Map<String, String> metrics, long fromEpochSecond, long toEpochSecond, Instant availableAt)
+    {
+        Window window = new Window(ImmutableMap.copyOf(metrics), fromEpochSecond, toEpochSecond);
+        schedule(window, availableAt);
+        return window.loaded;
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        scheduler.shutdown();
+    }
+
+    private void schedule(Window window, Instant when)
+    {
+        long delayMillis = Math.max(0, Instant.now().until(when, ChronoUnit.MILLIS));
+        scheduler.schedule(() -> enqueue(window), delayMillis, MILLISECONDS);
+    }
+
+    private void enqueue(Window window)
+    {
+        Optional<Map<String, double[]>> cached = slice(window);
+        if (cached.isPresent()) {
+            window.loaded.complete(cached.get());
+            return;
+        }
+        pendingWindows.add(window);
+        if (pendingWindows.size() == 1) {
+            scheduler.schedule(this::loadPendingWindows, maxDelayMillis, MILLISECONDS);
+        }
+    }
+
+    private void loadPendingWindows()
+    {
+        Map<Map<String, String>, List<Window>> windowsByMetrics = new LinkedHashMap<>();
+        for (Window window : pendingWindows) {
+            windowsByMetrics.computeIfAbsent(window.metrics, ignored -> new ArrayList<>()).add(window);
+        }
+        pendingWindows.clear();
+
+        windowsByMetrics.forEach((metrics, windows) -> {
+            long fromEpochSecond = windows.stream().mapToLong(window -> window.fromEpochSecond).min().getAsLong();
+            long toEpochSecond = windows.stream().mapToLong(window -> window.toEpochSecond).max().getAsLong();
+            LOG.debug("Loading metrics {} of {} windows - from: {}, to: {}", metrics, windows.size(), fromEpochSecond, toEpochSecond);
+            try {
+                cache(metrics, graphiteClient.loadDataPoints(metrics, fromEpochSecond, toEpochSecond));
+            }
+            catch (RuntimeException e) {
+                windows.forEach(window -> window.loaded.completeExceptionally(e));
+                return;
+            }
+            for (Window window : windows) {
+                Optional<Map<String, double[]>> loaded = slice(window);
+                if (loaded.isPresent()) {
+                    window.loaded.complete(loaded.get());
+                }
+                else if (++window.attempts < MAX_ATTEMPTS) {
+                    schedule(window, Instant.now().plus(retryDelay.multipliedBy(1L << (window.attempts - 1))));
+                }
+                else {
+                    window.loaded.completeExceptionally(new IncompleteDataException("null data point returned from Graphite"));
+                }
+            }
+        });
+    }
+
+    private void cache(Map<String, String> metrics, Map<String, SortedMap<Long, Double>> loadedDataPoints)
+    {
+        loadedDataPoints.forEach((metricName, metricDataPoints) -> {
+            String target = metrics.get(metricName);
+            if (target == null) {
+                return;
+            }
+            if (metricDataPoints.size() >= 2) {
+                List<Long> timestamps = new ArrayList<>(metricDataPoints.keySet());
+                stepSeconds.put(target, timestamps.get(1) - timestamps.get(0));
+            }
+            metricDataPoints.forEach((timestamp, value) -> dataPoints.put(immutableEntry(target, timestamp), value));
+        });
+    }
+
+    /**
+     * @return data points of all buckets of the window, or empty if some are not known yet
+     */
+    private Optional<Map<String, double[]>> slice(Window window)
+    {
+        ImmutableMap.Builder<String, double[]> slices = ImmutableMap.builder();
+        for (Map.Entry<String, String> metric : window.metrics.entrySet()) {
+            long step = stepSeconds.getOrDefault(metric.getValue(), (long) resolutionSeconds);
+            // Graphite buckets are aligned to the step, `from` is exclusive and `until` is inclusive
+            long firstBucket = (window.fromEpochSecond / step + 1) * step;
+            List<Double> values = new ArrayList<>();
+            for (long bucket = firstBucket; bucket <= window.toEpochSecond; bucket += step) {
+                Double value = dataPoints.getIfPresent(immutableEntry(metric.getValue(), bucket));
+                if (value == null) {
+                    return Optional.empty();
+                }
+                values.add(value);
+            }
+            slices.put(metric.getKey(), values.stream().mapToDouble(Double::doubleValue).toArray());
+        }
+        return Optional.of(slices.buildOrThrow());
+    }
+
+    private static class Window
+    {
+        private final Map<String, String> metrics;
+        private final long fromEpochSecond;
+        private final long toEpochSecond;
+        private final CompletableFuture<Map<String, double[]>> loaded = new CompletableFuture<>();
+        private int attempts;
+
+        private Window(Map<String, String> metrics, long fromEpochSecond, long toEpochSecond)
+        {
+            this.metrics = metrics;
+            this.fromEpochSecond = fromEpochSecond;
+            this.toEpochSecond = toEpochSecond;
+        }
+    }
+}
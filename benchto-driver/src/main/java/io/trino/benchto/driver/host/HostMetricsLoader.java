@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.host;
+
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
+import io.trino.benchto.driver.execution.QueryExecutionResult;
+import io.trino.benchto.driver.listeners.measurements.PostExecutionMeasurementProvider;
+import io.trino.benchto.driver.service.Measurement;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Computes CPU, memory and network measurements of the driver host from metrics sampled in memory, without waiting
+ * for Graphite. They describe the host running the driver, not the cluster.
+ */
+@Service
+@ConditionalOnProperty(prefix = "benchmark.feature.host", value = "metrics.collection.enabled")
+public class HostMetricsLoader
+        implements PostExecutionMeasurementProvider
+{
+    @Autowired
+    private HostMetricsSampler hostMetricsSampler;
+
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        if (!shouldLoadHostMetrics(measurable)) {
+            return completedFuture(emptyList());
+        }
+
+        Instant from = measurable.getUtcStart().toInstant();
+        Instant to = measurable.getUtcEnd().toInstant();
+        // the sample covering end of the measurable is taken at most one sampling interval later
+        long delayMillis = Instant.now().until(to.plus(hostMetricsSampler.getSamplingInterval()), ChronoUnit.MILLIS);
+        if (delayMillis <= 0) {
+            return completedFuture(toMeasurements(hostMetricsSampler.getSamples(from, to), from));
+        }
+        return CompletableFuture.supplyAsync(
+                () -> toMeasurements(hostMetricsSampler.getSamples(from, to), from),
+                CompletableFuture.delayedExecutor(delayMillis, MILLISECONDS));
+    }
+
+    static List<Measurement> toMeasurements(List<HostMetricsSample> samples, Instant from)
+    {
+        // the first sample after end of the measurable covers its tail
+        List<HostMetricsSample> windowSamples = samples.stream()
+                .filter(sample -> sample.getTimestampMillis() > from.toEpochMilli())
+                .collect(toList());
+        if (windowSamples.isEmpty()) {
+            return emptyList();
+        }
+
+        List<Measurement> measurements = newArrayList();
+        addMeanMaxMeasurements(windowSamples, measurements, "cpu", "PERCENT", HostMetricsSample::getCpuPercent);
+        addMeanMaxMeasurements(windowSamples, measurements, "memory", "PERCENT", HostMetricsSample::getMemoryPercent);
+        addMeanMaxMeasurements(windowSamples, measurements, "network", "BYTES", HostMetricsSample::getNetworkBytesPerSecond);
+
+        HostMetricsSample first = samples.get(0);
+        HostMetricsSample last = samples.get(samples.size() - 1);
+        // start of a measurable longer than the buffer is no longer sampled, so the total would be understated
+        if (first.getTimestampMillis() <= from.toEpochMilli()) {
+            measurements.add(Measurement.measurement("driver-network_total", "BYTES", last.getNetworkBytes() - first.getNetworkBytes()));
+        }
+        return measurements;
+    }
+
+    private static void addMeanMaxMeasurements(List<HostMetricsSample> samples, List<Measurement> measurements, String metricName, String unit, ToDoubleFunction<HostMetricsSample> metric)
+    {
+        SummaryStatistics statistics = new SummaryStatistics();
+        samples.forEach(sample -> statistics.addValue(metric.applyAsDouble(sample)));
+        measurements.add(Measurement.measurement("driver-" + metricName + "_max", unit, statistics.getMax()));
+        measurements.add(Measurement.measurement("driver-" + metricName + "_mean", unit, statistics.getMean()));
+    }
+
+    private boolean shouldLoadHostMetrics(Measurable measurable)
+    {
+        if (!measurable.isSuccessful()) {
+            return false;
+        }
+        if (measurable instanceof QueryExecutionResult && measurable.getBenchmark().isSerial()) {
+            return true;
+        }
+        return measurable instanceof BenchmarkExecutionResult && measurable.getBenchmark().isConcurrent();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.host;
+
+/**
+ * Host metrics sampled at {@code timestampMillis}. Rates cover the time since the previous sample.
+ */
+final class HostMetricsSample
+{
+    private final long timestampMillis;
+    private final double cpuPercent;
+    private final double memoryPercent;
+    private final double networkBytesPerSecond;
+    private final long networkBytes;
+
+    HostMetricsSample(long timestampMillis, double cpuPercent, double memoryPercent, double networkBytesPerSecond, long networkBytes)
+    {
+        this.timestampMillis = timestampMillis;
+        this.cpuPercent = cpuPercent;
+        this.memoryPercent = memoryPercent;
+        this.networkBytesPerSecond = networkBytesPerSecond;
+        this.networkBytes = networkBytes;
+    }
+
+    long getTimestampMillis()
+    {
+        return timestampMillis;
+    }
+
+    double getCpuPercent()
+    {
+        return cpuPercent;
+    }
+
+    double getMemoryPercent()
+    {
+        return memoryPercent;
+    }
+
+    double getNetworkBytesPerSecond()
+    {
+        return networkBytesPerSecond;
+    }
+
+    /**
+     * Bytes received and transmitted by all interfaces but loopback since they were brought up.
+     */
+    long getNetworkBytes()
+    {
+        return networkBytes;
+    }
+}
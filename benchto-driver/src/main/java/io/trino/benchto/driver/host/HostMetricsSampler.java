@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.host;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Samples CPU, memory and network usage of the driver host from {@code /proc/stat}, {@code /proc/meminfo}
+ * and {@code /proc/net/dev}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "benchmark.feature.host", value = "metrics.collection.enabled")
+public class HostMetricsSampler
+{
+    private static final Logger LOG = LoggerFactory.getLogger(HostMetricsSampler.class);
+
+    private static final Splitter WHITESPACE_SPLITTER = Splitter.on(' ').omitEmptyStrings().trimResults();
+
+    private final Path procDir;
+    private final Duration samplingInterval;
+    private final Clock clock;
+    private final SampleRingBuffer samples;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("host-metrics-%d")
+            .setDaemon(true)
+            .build());
+
+    // accessed by sampling thread only
+    private long previousTimestampMillis = -1;
+    private long previousCpuTotal;
+    private long previousCpuIdle;
+    private long previousNetworkBytes;
+    private boolean samplingFailureLogged;
+
+    public HostMetricsSampler(
+            @Value("${host.metrics.proc-dir:/proc}") String procDir,
+            @Value("${host.metrics.sampling-interval-millis:100}") long samplingIntervalMillis,
+            @Value("${host.metrics.buffer-size:36000}") int bufferSize)
+    {
+        this(Paths.get(procDir), Duration.ofMillis(samplingIntervalMillis), bufferSize, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    HostMetricsSampler(Path procDir, Duration samplingInterval, int bufferSize, Clock clock)
+    {
+        checkArgument(samplingInterval.toMillis() > 0, "host.metrics.sampling-interval-millis must be positive");
+        this.procDir = procDir;
+        this.samplingInterval = samplingInterval;
+        this.clock = clock;
+        this.samples = new SampleRingBuffer(bufferSize);
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        checkState(Files.isReadable(procDir.resolve("stat")), "Cannot read host metrics from %s", procDir);
+        scheduler.scheduleAtFixedRate(this::sample, 0, samplingInterval.toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        scheduler.shutdownNow();
+    }
+
+    public Duration getSamplingInterval()
+    {
+        return samplingInterval;
+    }
+
+    /**
+     * Returns samples taken in {@code (from, to]} window, preceded by the last sample taken up to {@code from}
+     * and followed by the first sample taken after {@code to}, if any, so that the whole window is covered.
+     */
+    List<HostMetricsSample> getSamples(Instant from, Instant to)
+    {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<HostMetricsSample> buffered = samples.getSamples();
+        int first = 0;
+        while (first + 1 < buffered.size() && buffered.get(first + 1).getTimestampMillis() <= fromMillis) {
+            first++;
+        }
+        int last = first;
+        while (last < buffered.size() && buffered.get(last).getTimestampMillis() < toMillis) {
+            last++;
+        }
+        return buffered.subList(first, Math.min(last + 1, buffered.size()));
+    }
+
+    @VisibleForTesting
+    void sample()
+    {
+        try {
+            long timestampMillis = clock.millis();
+            CpuTimes cpuTimes = readCpuTimes();
+            double memoryPercent = readMemoryPercent();
+            long networkBytes = readNetworkBytes();
+
+            if (previousTimestampMillis >= 0 && timestampMillis > previousTimestampMillis) {
+                long cpuTotal = cpuTimes.total - previousCpuTotal;
+                long cpuBusy = cpuTotal - (cpuTimes.idle - previousCpuIdle);
+                double cpuPercent = cpuTotal > 0 ? 100.0 * cpuBusy / cpuTotal : 0;
+                double networkBytesPerSecond = (networkBytes - previousNetworkBytes) * 1000.0 / (timestampMillis - previousTimestampMillis);
+                samples.add(new HostMetricsSample(timestampMillis, cpuPercent, memoryPercent, networkBytesPerSecond, networkBytes));
+            }
+
+            previousTimestampMillis = timestampMillis;
+            previousCpuTotal = cpuTimes.total;
+            previousCpuIdle = cpuTimes.idle;
+            previousNetworkBytes = networkBytes;
+        }
+        catch (IOException | RuntimeException e) {
+            // failing task would cancel further sampling
+            if (!samplingFailureLogged) {
+                LOG.warn("Failed to sample host metrics from {}", procDir, e);
+                samplingFailureLogged = true;
+            }
+        }
+    }
+
+    private CpuTimes readCpuTimes()
+            throws IOException
+    {
+        // cpu  user nice system idle iowait irq softirq steal guest guest_nice
+        String line = Files.readAllLines(procDir.resolve("stat")).stream()
+                .filter(statLine -> statLine.startsWith("cpu "))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No cpu line in " + procDir.resolve("stat")));
+        List<String> fields = WHITESPACE_SPLITTER.splitToList(line);
+        long total = 0;
+        // guest time is already accounted in user time
+        for (int i = 1; i < Math.min(fields.size(), 9); i++) {
+            total += Long.parseLong(fields.get(i));
+        }
+        long idle = Long.parseLong(fields.get(4)) + (fields.size() > 5 ? Long.parseLong(fields.get(5)) : 0);
+        return new CpuTimes(total, idle);
+    }
+
+    private double readMemoryPercent()
+            throws IOException
+    {
+        long total = -1;
+        long available = -1;
+        for (String line : Files.readAllLines(procDir.resolve("meminfo"))) {
+            if (line.startsWith("MemTotal:")) {
+                total = parseMemInfoValue(line);
+            }
+            else if (line.startsWith("MemAvailable:")) {
+                available = parseMemInfoValue(line);
+            }
+        }
+        checkState(total > 0 && available >= 0, "No MemTotal or MemAvailable in %s", procDir.resolve("meminfo"));
+        return 100.0 * (total - available) / total;
+    }
+
+    private static long parseMemInfoValue(String line)
+    {
+        return Long.parseLong(WHITESPACE_SPLITTER.splitToList(line).get(1));
+    }
+
+    private long readNetworkBytes()
+            throws IOException
+    {
+        // two header lines, then "  eth0: rx_bytes rx_packets ... (8 receive fields) tx_bytes ..."
+        long bytes = 0;
+        List<String> lines = Files.readAllLines(procDir.resolve("net/dev"));
+        for (String line : lines.subList(Math.min(2, lines.size()), lines.size())) {
+            int colon = line.indexOf(':');
+            if (colon < 0 || line.substring(0, colon).trim().equals("lo")) {
+                continue;
+            }
+            List<String> fields = WHITESPACE_SPLITTER.splitToList(line.substring(colon + 1));
+            bytes += Long.parseLong(fields.get(0)) + Long.parseLong(fields.get(8));
+        }
+        return bytes;
+    }
+
+    private static class CpuTimes
+    {
+        private final long total;
+        private final long idle;
+
+        private CpuTimes(long total, long idle)
+        {
+            this.total = total;
+            this.idle = idle;
+        }
+    }
+}
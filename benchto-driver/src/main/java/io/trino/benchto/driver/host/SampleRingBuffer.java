@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.host;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed size buffer of the most recent samples, written by a single thread and read without locking.
+ */
+final class SampleRingBuffer
+{
+    private final AtomicReferenceArray<Entry> samples;
+    private final AtomicLong published = new AtomicLong();
+
+    SampleRingBuffer(int capacity)
+    {
+        checkArgument(capacity > 0, "capacity must be positive");
+        samples = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Must not be called concurrently.
+     */
+    void add(HostMetricsSample sample)
+    {
+        long sequence = published.get();
+        samples.set((int) (sequence % samples.length()), new Entry(sequence, sample));
+        published.set(sequence + 1);
+    }
+
+    /**
+     * Returns buffered samples, oldest first.
+     */
+    List<HostMetricsSample> getSamples()
+    {
+        long end = published.get();
+        long start = Math.max(0, end - samples.length());
+        List<HostMetricsSample> result = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = samples.get((int) (sequence % samples.length()));
+            if (entry.sequence != sequence) {
+                // overwritten while copying, drop older samples too so the result stays contiguous
+                result.clear();
+                continue;
+            }
+            result.add(entry.sample);
+        }
+        return result;
+    }
+
+    private static final class Entry
+    {
+        private final long sequence;
+        private final HostMetricsSample sample;
+
+        private Entry(long sequence, HostMetricsSample sample)
+        {
+            this.sequence = sequence;
+            this.sample = sample;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.trino.benchto.driver.utils.PropertiesUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes sure connection pools are large enough and already filled with connections before a benchmark starts,
+ * so that opening physical connections does not affect measured query durations.
+ */
+@Component
+public class ConnectionPoolManager
+        implements EnvironmentAware
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolManager.class);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private MultipleDataSourcesProperties multipleDataSourcesProperties;
+
+    @Override
+    public void setEnvironment(Environment environment)
+    {
+        ConfigurableEnvironment configurableEnvironment = ConfigurableEnvironment.class.cast(environment);
+        multipleDataSourcesProperties = PropertiesUtils.resolveEnvironmentProperties(configurableEnvironment, MultipleDataSourcesProperties.class);
+    }
+
+    /**
+     * Pools of different data sources may be prepared concurrently by benchmark groups executed in parallel.
+     *
+     * @param requiredConnections number of connections used at the same time by a benchmark
+     */
+    public void prepare(String dataSourceName, int requiredConnections)
+            throws SQLException
+    {
+        DataSource dataSource = applicationContext.getBean(dataSourceName, DataSource.class);
+        if (!(dataSource instanceof HikariDataSource pooledDataSource)) {
+            return;
+        }
+        synchronized (pooledDataSource) {
+            prepare(dataSourceName, pooledDataSource, requiredConnections);
+        }
+    }
+
+    private void prepare(String dataSourceName, HikariDataSource pooledDataSource, int requiredConnections)
+            throws SQLException
+    {
+        // one additional connection is used by before and after execution macros
+        int poolSize = requiredConnections + 1;
+        if (pooledDataSource.getMaximumPoolSize() < poolSize) {
+            LOG.info("Growing connection pool of data source {} to {} connections", dataSourceName, poolSize);
+            pooledDataSource.getHikariConfigMXBean().setMaximumPoolSize(poolSize);
+        }
+
+        PooledDataSourceProperties properties = multipleDataSourcesProperties.getDataSources().get(dataSourceName);
+        if (properties == null || !properties.getPool().isPrefill()) {
+            return;
+        }
+        List<Connection> connections = new ArrayList<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                connections.add(pooledDataSource.getConnection());
+            }
+        }
+        finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+}
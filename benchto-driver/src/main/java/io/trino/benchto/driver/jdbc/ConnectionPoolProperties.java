@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jdbc;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+public class ConnectionPoolProperties
+{
+    /**
+     * If disabled, a new physical connection is opened for every query and macro. Pooled connections keep session state
+     * set by previous queries, so pooling has to be enabled explicitly.
+     */
+    private boolean enabled;
+    /**
+     * Pool is grown on demand when a benchmark requires more concurrent connections.
+     */
+    private int maximumPoolSize = 10;
+    private Integer minimumIdle;
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+    private Duration validationTimeout = Duration.ofSeconds(5);
+    /**
+     * Query used to validate connections, JDBC4 {@code Connection.isValid()} is used when not set.
+     */
+    private String connectionTestQuery;
+    /**
+     * Open all connections required by a benchmark before it starts.
+     */
+    private boolean prefill = true;
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public int getMaximumPoolSize()
+    {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize)
+    {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public Optional<Integer> getMinimumIdle()
+    {
+        return Optional.ofNullable(minimumIdle);
+    }
+
+    public void setMinimumIdle(Integer minimumIdle)
+    {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public Duration getConnectionTimeout()
+    {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(Duration connectionTimeout)
+    {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Duration getValidationTimeout()
+    {
+        return validationTimeout;
+    }
+
+    public void setValidationTimeout(Duration validationTimeout)
+    {
+        this.validationTimeout = validationTimeout;
+    }
+
+    public Optional<String> getConnectionTestQuery()
+    {
+        return Optional.ofNullable(connectionTestQuery);
+    }
+
+    public void setConnectionTestQuery(String connectionTestQuery)
+    {
+        this.connectionTestQuery = connectionTestQuery;
+    }
+
+    public boolean isPrefill()
+    {
+        return prefill;
+    }
+
+    public void setPrefill(boolean prefill)
+    {
+        this.prefill = prefill;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("enabled", enabled)
+                .add("maximumPoolSize", maximumPoolSize)
+                .add("minimumIdle", minimumIdle)
+                .add("connectionTimeout", connectionTimeout)
+                .add("validationTimeout", validationTimeout)
+                .add("connectionTestQuery", connectionTestQuery)
+                .add("prefill", prefill)
+                .toString();
+    }
+}
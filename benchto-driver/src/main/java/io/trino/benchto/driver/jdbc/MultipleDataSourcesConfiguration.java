@@ -13,11 +13,12 @@
  */
 package io.trino.benchto.driver.jdbc;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import io.trino.benchto.driver.utils.PropertiesUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
-import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.ConfigurableEnvironment;
@@ -55,11 +56,15 @@ public class MultipleDataSourcesConfiguration
     {
         return multipleDataSourcesProperties.getDataSources()
                 .entrySet().stream()
-                .collect(toMap(Map.Entry::getKey, (entry) -> createDataSource(entry.getValue())));
+                .collect(toMap(Map.Entry::getKey, (entry) -> createDataSource(entry.getKey(), entry.getValue())));
     }
 
-    private DataSource createDataSource(DataSourceProperties properties)
+    private DataSource createDataSource(String name, PooledDataSourceProperties properties)
     {
+        ConnectionPoolProperties pool = properties.getPool();
+        if (pool.isEnabled()) {
+            return createPooledDataSource(name, properties, pool);
+        }
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
         dataSource.setDriverClassName(properties.determineDriverClassName());
         dataSource.setUrl(properties.determineUrl());
@@ -68,6 +73,24 @@ public class MultipleDataSourcesConfiguration
         return dataSource;
     }
 
+    private DataSource createPooledDataSource(String name, PooledDataSourceProperties properties, ConnectionPoolProperties pool)
+    {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setJdbcUrl(properties.determineUrl());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        pool.getMinimumIdle().ifPresent(config::setMinimumIdle);
+        config.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        config.setValidationTimeout(pool.getValidationTimeout().toMillis());
+        pool.getConnectionTestQuery().ifPresent(config::setConnectionTestQuery);
+        // do not fail application startup when the database is not reachable yet
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
     private void register(ConfigurableListableBeanFactory beanFactory, Map<String, DataSource> dataSources)
     {
         for (Map.Entry<String, DataSource> entry : dataSources.entrySet()) {
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jvm;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
+import io.trino.benchto.driver.execution.QueryExecutionResult;
+import io.trino.benchto.driver.listeners.measurements.PostExecutionMeasurementProvider;
+import io.trino.benchto.driver.service.Measurement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reports GC, allocation, safepoint, heap and thread measurements of coordinator and worker JVMs during a measurable,
+ * computed from snapshots taken by {@link JvmRuntimeSampler} right before and right after it.
+ */
+@Service
+@ConditionalOnProperty(prefix = "benchmark.feature.jvm-runtime", value = "enabled", havingValue = "true")
+public class JvmRuntimeMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Autowired
+    private JvmRuntimeSampler jvmRuntimeSampler;
+
+    @Autowired
+    private JvmRuntimeProperties properties;
+
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        if (!shouldLoadJvmRuntimeMeasurements(measurable)) {
+            return completedFuture(emptyList());
+        }
+
+        Instant from = measurable.getUtcStart().toInstant();
+        Instant to = measurable.getUtcEnd().toInstant();
+        // the snapshot following end of the measurable is taken at most one sampling interval later
+        long delayMillis = Instant.now().until(to.plus(properties.getSamplingInterval()), ChronoUnit.MILLIS);
+        if (delayMillis <= 0) {
+            return completedFuture(loadMeasurements(from, to));
+        }
+        return CompletableFuture.supplyAsync(
+                () -> loadMeasurements(from, to),
+                CompletableFuture.delayedExecutor(delayMillis, MILLISECONDS));
+    }
+
+    private List<Measurement> loadMeasurements(Instant from, Instant to)
+    {
+        List<Measurement> measurements = newArrayList();
+        properties.getCoordinator().ifPresent(coordinator ->
+                measurements.addAll(toMeasurements("coordinator", List.of(jvmRuntimeSampler.getSnapshots(coordinator, from, to)), from, to)));
+        List<List<JvmRuntimeSnapshot>> workerSnapshots = properties.getWorkers().stream()
+                .map(worker -> jvmRuntimeSampler.getSnapshots(worker, from, to))
+                .collect(toList());
+        measurements.addAll(toMeasurements("worker", workerSnapshots, from, to));
+        return measurements;
+    }
+
+    /**
+     * Counters are summed over all JVMs of the role, gauges are maxed.
+     */
+    @VisibleForTesting
+    static List<Measurement> toMeasurements(String role, List<List<JvmRuntimeSnapshot>> hostsSnapshots, Instant from, Instant to)
+    {
+        long gcCount = 0;
+        long gcTimeMillis = 0;
+        long allocatedBytes = 0;
+        double allocationRate = 0;
+        long safepointTimeMillis = 0;
+        long heapUsedBytes = 0;
+        int threadCount = 0;
+        boolean allocationsKnown = true;
+        boolean safepointsKnown = true;
+        int hosts = 0;
+
+        for (List<JvmRuntimeSnapshot> snapshots : hostsSnapshots) {
+            if (snapshots.size() < 2) {
+                continue;
+            }
+            JvmRuntimeSnapshot first = snapshots.get(0);
+            JvmRuntimeSnapshot last = snapshots.get(snapshots.size() - 1);
+            if (first.getTimestampMillis() > from.toEpochMilli() || last.getTimestampMillis() < to.toEpochMilli()) {
+                // samples do not cover whole measurable, e.g. the JVM was not reachable
+                continue;
+            }
+            hosts++;
+            gcCount += last.getGcCount() - first.getGcCount();
+            gcTimeMillis += last.getGcTimeMillis() - first.getGcTimeMillis();
+            allocationsKnown &= first.getAllocatedBytes() >= 0 && last.getAllocatedBytes() >= 0;
+            allocatedBytes += last.getAllocatedBytes() - first.getAllocatedBytes();
+            allocationRate += (last.getAllocatedBytes() - first.getAllocatedBytes()) * 1000.0 / (last.getTimestampMillis() - first.getTimestampMillis());
+            safepointsKnown &= first.getSafepointTimeMillis() >= 0 && last.getSafepointTimeMillis() >= 0;
+            safepointTimeMillis += last.getSafepointTimeMillis() - first.getSafepointTimeMillis();
+            for (JvmRuntimeSnapshot snapshot : snapshots) {
+                heapUsedBytes = Math.max(heapUsedBytes, snapshot.getHeapUsedBytes());
+                threadCount = Math.max(threadCount, snapshot.getThreadCount());
+            }
+        }
+
+        if (hosts == 0) {
+            return emptyList();
+        }
+        List<Measurement> measurements = newArrayList();
+        measurements.add(measurement(role + "-gc_count", "NONE", gcCount));
+        measurements.add(measurement(role + "-gc_time", "MILLISECONDS", gcTimeMillis));
+        if (allocationsKnown) {
+            measurements.add(measurement(role + "-allocated_bytes", "BYTES", allocatedBytes));
+            measurements.add(measurement(role + "-allocation_rate", "BYTES_PER_SECOND", allocationRate));
+        }
+        if (safepointsKnown) {
+            measurements.add(measurement(role + "-safepoint_time", "MILLISECONDS", safepointTimeMillis));
+        }
+        measurements.add(measurement(role + "-heap_used_max", "BYTES", heapUsedBytes));
+        measurements.add(measurement(role + "-thread_count_max", "NONE", threadCount));
+        return measurements;
+    }
+
+    private boolean shouldLoadJvmRuntimeMeasurements(Measurable measurable)
+    {
+        if (!measurable.isSuccessful()) {
+            return false;
+        }
+        if (measurable instanceof QueryExecutionResult && measurable.getBenchmark().isSerial()) {
+            return true;
+        }
+        return measurable instanceof BenchmarkExecutionResult && measurable.getBenchmark().isConcurrent();
+    }
+}
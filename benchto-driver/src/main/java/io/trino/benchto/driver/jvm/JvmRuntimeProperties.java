@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jvm;
+
+import io.trino.benchto.driver.listeners.profiler.Jmx;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@ConfigurationProperties(prefix = "benchmark.feature.jvm-runtime")
+@Configuration
+public class JvmRuntimeProperties
+{
+    private boolean enabled;
+    private Jmx jmx = new Jmx();
+    private String coordinator;
+    private List<String> workers = new ArrayList<>();
+    private Duration samplingInterval = Duration.ofSeconds(1);
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private int bufferSize = 3600;
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public Jmx getJmx()
+    {
+        return jmx;
+    }
+
+    public void setJmx(Jmx jmx)
+    {
+        this.jmx = jmx;
+    }
+
+    public Optional<String> getCoordinator()
+    {
+        return Optional.ofNullable(coordinator);
+    }
+
+    public void setCoordinator(String coordinator)
+    {
+        this.coordinator = coordinator;
+    }
+
+    public List<String> getWorkers()
+    {
+        return workers;
+    }
+
+    public void setWorkers(List<String> workers)
+    {
+        this.workers = workers;
+    }
+
+    public Duration getSamplingInterval()
+    {
+        return samplingInterval;
+    }
+
+    public void setSamplingInterval(Duration samplingInterval)
+    {
+        this.samplingInterval = samplingInterval;
+    }
+
+    public Duration getConnectTimeout()
+    {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout)
+    {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize)
+    {
+        this.bufferSize = bufferSize;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jvm;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Periodically snapshots runtime counters of coordinator and worker JVMs over persistent JMX connections. Each host is
+ * sampled by its own thread, so an unresponsive host does not delay sampling of the others.
+ */
+@Component
+@ConditionalOnProperty(prefix = "benchmark.feature.jvm-runtime", value = "enabled", havingValue = "true")
+public class JvmRuntimeSampler
+{
+    private static final Logger LOG = LoggerFactory.getLogger(JvmRuntimeSampler.class);
+
+    private static final ObjectName GARBAGE_COLLECTORS = objectName("java.lang:type=GarbageCollector,name=*");
+    private static final ObjectName THREADING = objectName("java.lang:type=Threading");
+    private static final ObjectName MEMORY = objectName("java.lang:type=Memory");
+    // registered only when HotSpot internal MBeans are enabled on the JVM
+    private static final ObjectName HOTSPOT_RUNTIME = objectName("sun.management:type=HotspotRuntime");
+
+    @Autowired
+    private JvmRuntimeProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    // connecting is not interruptible and has no timeout of its own
+    private final ExecutorService connectExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("jvm-runtime-connect-%d")
+            .setDaemon(true)
+            .build());
+
+    private final Map<String, Deque<JvmRuntimeSnapshot>> snapshots = new ConcurrentHashMap<>();
+
+    private final Map<String, JMXConnector> connectors = new ConcurrentHashMap<>();
+    // an attempt that timed out is awaited again on next sampling instead of starting another one
+    private final Map<String, CompletableFuture<JMXConnector>> pendingConnects = new ConcurrentHashMap<>();
+    private final Set<String> failingHosts = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start()
+    {
+        checkArgument(properties.getSamplingInterval().toMillis() > 0, "benchmark.feature.jvm-runtime.sampling-interval must be positive");
+        checkArgument(properties.getConnectTimeout().toMillis() > 0, "benchmark.feature.jvm-runtime.connect-timeout must be positive");
+        List<String> hosts = ImmutableList.<String>builder()
+                .addAll(properties.getCoordinator().stream().iterator())
+                .addAll(properties.getWorkers())
+                .build();
+        scheduler = Executors.newScheduledThreadPool(Math.max(hosts.size(), 1), new ThreadFactoryBuilder()
+                .setNameFormat("jvm-runtime-%d")
+                .setDaemon(true)
+                .build());
+        for (String host : hosts) {
+            scheduler.scheduleAtFixedRate(() -> sample(host), 0, properties.getSamplingInterval().toMillis(), MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        connectExecutor.shutdownNow();
+        pendingConnects.values().forEach(connecting -> connecting.thenAccept(this::closeQuietly));
+        connectors.values().forEach(this::closeQuietly);
+    }
+
+    /**
+     * Returns snapshots of {@code host} from the last one taken up to {@code from} to the first one taken at or after {@code to}.
+     */
+    List<JvmRuntimeSnapshot> getSnapshots(String host, Instant from, Instant to)
+    {
+        Deque<JvmRuntimeSnapshot> hostSnapshots = snapshots.get(host);
+        if (hostSnapshots == null) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<JvmRuntimeSnapshot> result = ImmutableList.builder();
+        synchronized (hostSnapshots) {
+            JvmRuntimeSnapshot previous = null;
+            for (JvmRuntimeSnapshot snapshot : hostSnapshots) {
+                if (snapshot.getTimestampMillis() <= from.toEpochMilli()) {
+                    previous = snapshot;
+                    continue;
+                }
+                if (previous != null) {
+                    result.add(previous);
+                    previous = null;
+                }
+                result.add(snapshot);
+                if (snapshot.getTimestampMillis() >= to.toEpochMilli()) {
+                    break;
+                }
+            }
+            if (previous != null) {
+                result.add(previous);
+            }
+        }
+        return result.build();
+    }
+
+    private void sample(String host)
+    {
+        try {
+            JMXConnector connector = connectors.get(host);
+            if (connector == null) {
+                connector = connect(host);
+                connectors.put(host, connector);
+            }
+            JvmRuntimeSnapshot snapshot = snapshot(connector.getMBeanServerConnection(), System.currentTimeMillis());
+            Deque<JvmRuntimeSnapshot> hostSnapshots = snapshots.computeIfAbsent(host, ignored -> new ArrayDeque<>());
+            synchronized (hostSnapshots) {
+                hostSnapshots.addLast(snapshot);
+                while (hostSnapshots.size() > properties.getBufferSize()) {
+                    hostSnapshots.removeFirst();
+                }
+            }
+            if (failingHosts.remove(host)) {
+                LOG.info("Sampling JVM runtime of {} recovered", host);
+            }
+        }
+        catch (IOException | JMException | RuntimeException e) {
+            // reconnect on next sampling
+            JMXConnector connector = connectors.remove(host);
+            if (connector != null) {
+                closeQuietly(connector);
+            }
+            if (failingHosts.add(host)) {
+                LOG.warn("Sampling JVM runtime of {} failed", host, e);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    JMXConnector connect(String host)
+            throws IOException
+    {
+        JMXServiceURL url = new JMXServiceURL(format("service:jmx:rmi:///jndi/rmi://%s:%d/jmxrmi", host, properties.getJmx().getPort()));
+        CompletableFuture<JMXConnector> connecting = pendingConnects.computeIfAbsent(host, ignored -> startConnecting(url));
+        try {
+            JMXConnector connector = connecting.get(properties.getConnectTimeout().toMillis(), MILLISECONDS);
+            pendingConnects.remove(host, connecting);
+            return connector;
+        }
+        catch (TimeoutException e) {
+            throw new IOException(format("Connecting to JMX of %s timed out after %s", host, properties.getConnectTimeout()), e);
+        }
+        catch (ExecutionException e) {
+            pendingConnects.remove(host, connecting);
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while connecting to JMX of " + host);
+        }
+    }
+
+    private CompletableFuture<JMXConnector> startConnecting(JMXServiceURL url)
+    {
+        CompletableFuture<JMXConnector> connecting = new CompletableFuture<>();
+        connectExecutor.execute(() -> {
+            try {
+                connecting.complete(JMXConnectorFactory.connect(url, null));
+            }
+            catch (IOException | RuntimeException e) {
+                connecting.completeExceptionally(e);
+            }
+        });
+        return connecting;
+    }
+
+    @VisibleForTesting
+    static JvmRuntimeSnapshot snapshot(MBeanServerConnection connection, long timestampMillis)
+            throws IOException, JMException
+    {
+        long gcCount = 0;
+        long gcTimeMillis = 0;
+        for (ObjectName collector : connection.queryNames(GARBAGE_COLLECTORS, null)) {
+            // undefined values are -1
+            gcCount += Math.max(0, (Long) connection.getAttribute(collector, "CollectionCount"));
+            gcTimeMillis += Math.max(0, (Long) connection.getAttribute(collector, "CollectionTime"));
+        }
+        long allocatedBytes = (Long) connection.getAttribute(THREADING, "TotalThreadAllocatedBytes");
+        int threadCount = (Integer) connection.getAttribute(THREADING, "ThreadCount");
+        long heapUsedBytes = (Long) ((CompositeData) connection.getAttribute(MEMORY, "HeapMemoryUsage")).get("used");
+        long safepointTimeMillis = -1;
+        try {
+            safepointTimeMillis = (Long) connection.getAttribute(HOTSPOT_RUNTIME, "TotalSafepointTime");
+        }
+        catch (InstanceNotFoundException ignored) {
+        }
+        return new JvmRuntimeSnapshot(timestampMillis, gcCount, gcTimeMillis, allocatedBytes, safepointTimeMillis, heapUsedBytes, threadCount);
+    }
+
+    private void closeQuietly(JMXConnector connector)
+    {
+        try {
+            connector.close();
+        }
+        catch (IOException e) {
+            LOG.debug("Closing JMX connection failed", e);
+        }
+    }
+
+    private static ObjectName objectName(String name)
+    {
+        try {
+            return new ObjectName(name);
+        }
+        catch (JMException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jvm;
+
+/**
+ * Cumulative runtime counters and current gauges of a JVM. Counters not exposed by the JVM are negative.
+ */
+final class JvmRuntimeSnapshot
+{
+    private final long timestampMillis;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final long allocatedBytes;
+    private final long safepointTimeMillis;
+    private final long heapUsedBytes;
+    private final int threadCount;
+
+    JvmRuntimeSnapshot(long timestampMillis, long gcCount, long gcTimeMillis, long allocatedBytes, long safepointTimeMillis, long heapUsedBytes, int threadCount)
+    {
+        this.timestampMillis = timestampMillis;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.allocatedBytes = allocatedBytes;
+        this.safepointTimeMillis = safepointTimeMillis;
+        this.heapUsedBytes = heapUsedBytes;
+        this.threadCount = threadCount;
+    }
+
+    long getTimestampMillis()
+    {
+        return timestampMillis;
+    }
+
+    long getGcCount()
+    {
+        return gcCount;
+    }
+
+    long getGcTimeMillis()
+    {
+        return gcTimeMillis;
+    }
+
+    long getAllocatedBytes()
+    {
+        return allocatedBytes;
+    }
+
+    long getSafepointTimeMillis()
+    {
+        return safepointTimeMillis;
+    }
+
+    long getHeapUsedBytes()
+    {
+        return heapUsedBytes;
+    }
+
+    int getThreadCount()
+    {
+        return threadCount;
+    }
+}
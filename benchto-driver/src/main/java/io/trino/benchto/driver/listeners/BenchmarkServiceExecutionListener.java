@@ -14,22 +14,26 @@
 package io.trino.benchto.driver.listeners;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.math.LongMath;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.Measurable;
 import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
 import io.trino.benchto.driver.execution.QueryExecution;
 import io.trino.benchto.driver.execution.QueryExecutionResult;
+import io.trino.benchto.driver.execution.QueryProgressRecorder;
 import io.trino.benchto.driver.listeners.benchmark.BenchmarkExecutionListener;
 import io.trino.benchto.driver.listeners.measurements.PostExecutionMeasurementProvider;
 import io.trino.benchto.driver.listeners.queryinfo.QueryCompletionEventProvider;
 import io.trino.benchto.driver.listeners.queryinfo.QueryInfoProvider;
 import io.trino.benchto.driver.service.BenchmarkServiceClient;
 import io.trino.benchto.driver.service.BenchmarkServiceClient.BenchmarkStartRequest.BenchmarkStartRequestBuilder;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionEventRequest;
 import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionStartRequest;
 import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionStartRequest.ExecutionStartRequestBuilder;
 import io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest;
 import io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.FinishRequestBuilder;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status;
+import io.trino.benchto.driver.service.ClockOffsetEstimator;
+import io.trino.benchto.driver.service.ExecutionEventBatcher;
 import io.trino.benchto.driver.service.Measurement;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,25 +41,27 @@ import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.sql.SQLException;
-import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static io.trino.benchto.driver.loader.BenchmarkDescriptor.RESERVED_KEYWORDS;
 import static io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.ENDED;
 import static io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.FAILED;
+import static io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.TIMED_OUT;
 import static io.trino.benchto.driver.utils.ExceptionUtils.stackTraceToString;
-import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
@@ -64,17 +70,25 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 public class BenchmarkServiceExecutionListener
         implements BenchmarkExecutionListener
 {
-    private static final Duration MAX_CLOCK_DRIFT = Duration.of(1, ChronoUnit.SECONDS);
-
     @Autowired
     private AsyncTaskExecutor taskExecutor;
 
     @Value("${benchmark-service.url}")
     private String serviceUrl;
 
+    @Value("${benchmark.feature.presto.progress.attachment.enabled:false}")
+    private boolean progressAttachmentEnabled;
+
     @Autowired
     private BenchmarkServiceClient benchmarkServiceClient;
 
+    // present only when batching is enabled
+    @Autowired(required = false)
+    private ExecutionEventBatcher executionEventBatcher;
+
+    @Autowired
+    private ClockOffsetEstimator clockOffsetEstimator;
+
     @Autowired
     private List<PostExecutionMeasurementProvider> measurementProviders;
 
@@ -84,6 +98,9 @@ public class BenchmarkServiceExecutionListener
     @Autowired(required = false)
     private QueryCompletionEventProvider queryCompletionEventProvider;
 
+    // last request of each benchmark run which may still be pending, completed once it is sent or added to a batch
+    private final Map<String, CompletableFuture<CompletableFuture<?>>> lastRequests = new ConcurrentHashMap<>();
+
     @Override
     public int getOrder()
     {
@@ -93,9 +110,7 @@ public class BenchmarkServiceExecutionListener
     @Override
     public Future<?> benchmarkStarted(Benchmark benchmark)
     {
-        checkClocksSync();
-
-        return taskExecutor.submit(() -> {
+        CompletableFuture<BenchmarkServiceClient.BenchmarkStartRequest> request = CompletableFuture.supplyAsync(() -> {
             BenchmarkStartRequestBuilder requestBuilder = new BenchmarkStartRequestBuilder(benchmark.getName())
                     .environmentName(benchmark.getEnvironment());
 
@@ -108,39 +123,63 @@ public class BenchmarkServiceExecutionListener
                 }
             }
 
-            BenchmarkServiceClient.BenchmarkStartRequest request = requestBuilder.build();
+            return requestBuilder.build();
+        }, taskExecutor::execute);
 
-            benchmarkServiceClient.startBenchmark(benchmark.getUniqueName(), benchmark.getSequenceId(), request);
-        });
+        return sendInOrder(benchmark, request, startRequest -> benchmarkServiceClient.startBenchmark(benchmark.getUniqueName(), benchmark.getSequenceId(), startRequest));
     }
 
-    private void checkClocksSync()
+    /**
+     * Requests of a benchmark are sent to the service only after its previous request completed, so that for example
+     * an execution is never finished before it is started, even when requests are prepared concurrently.
+     */
+    private <T> CompletableFuture<?> sendInOrder(Benchmark benchmark, CompletableFuture<T> request, Consumer<T> sender)
     {
-        long timeBefore = System.currentTimeMillis();
-        long serviceTime = benchmarkServiceClient.getServiceCurrentTime().toEpochMilli();
-        long timeAfter = System.currentTimeMillis();
-
-        long driftApproximation = Math.abs(LongMath.mean(timeBefore, timeAfter) - serviceTime);
-        long approximationPrecision = timeAfter - LongMath.mean(timeBefore, timeAfter);
-
-        Duration driftLowerBound = Duration.of(driftApproximation - approximationPrecision, ChronoUnit.MILLIS);
+        return enqueueInOrder(benchmark, request, value -> {
+            if (executionEventBatcher != null) {
+                // previous events of the benchmark may still be waiting in a batch
+                executionEventBatcher.flush().join();
+            }
+            sender.accept(value);
+            return completedFuture(null);
+        });
+    }
 
-        if (driftLowerBound.compareTo(MAX_CLOCK_DRIFT) > 0) {
-            throw new RuntimeException(format("Detected driver and service clocks drift of at least %s, assumed sane maximum is %s", driftLowerBound, MAX_CLOCK_DRIFT));
+    /**
+     * Execution events are added to a batch in the order of events, but the next event does not wait for the batch to be sent.
+     */
+    private <T> CompletableFuture<?> sendBatchedInOrder(Benchmark benchmark, CompletableFuture<T> request, Function<T, ExecutionEventRequest> event, Consumer<T> sender)
+    {
+        if (executionEventBatcher == null) {
+            return sendInOrder(benchmark, request, sender);
         }
+        return enqueueInOrder(benchmark, request, value -> executionEventBatcher.add(event.apply(value)));
+    }
+
+    private <T> CompletableFuture<?> enqueueInOrder(Benchmark benchmark, CompletableFuture<T> request, Function<T, CompletableFuture<?>> sender)
+    {
+        String key = benchmark.getUniqueName() + "/" + benchmark.getSequenceId();
+        CompletableFuture<CompletableFuture<?>> enqueued = lastRequests.compute(key, (ignored, previous) -> {
+            // failure of the previous request is reported by its own future
+            CompletableFuture<?> previousEnqueued = previous == null ? completedFuture(null) : previous.handle((result, failure) -> null);
+            return request.thenCombine(previousEnqueued, (value, previousResult) -> value)
+                    .thenApply(sender);
+        });
+        enqueued.whenComplete((result, failure) -> lastRequests.remove(key, enqueued));
+        return enqueued.thenCompose(sent -> sent.thenApply(result -> null));
     }
 
     @Override
     public Future<?> benchmarkFinished(BenchmarkExecutionResult benchmarkExecutionResult)
     {
-        return CompletableFuture.supplyAsync(() -> getMeasurements(benchmarkExecutionResult), taskExecutor::execute)
+        CompletableFuture<FinishRequest> request = CompletableFuture.supplyAsync(() -> getMeasurements(benchmarkExecutionResult), taskExecutor::execute)
                 .thenCompose(future -> future)
                 .thenApply(measurements -> {
                     FinishRequestBuilder builder = new FinishRequestBuilder()
                             .withStatus(benchmarkExecutionResult.isSuccessful() ? ENDED : FAILED)
                             .addMeasurements(measurements);
                     if (benchmarkExecutionResult.getUtcEnd() != null) {
-                        builder.withEndTime(benchmarkExecutionResult.getUtcEnd().toInstant());
+                        builder.withEndTime(clockOffsetEstimator.toServiceTime(benchmarkExecutionResult.getUtcEnd().toInstant()));
                     }
                     // Throughput tests have a different query in every execution, but only one, aggregated execution is saved
                     // so don't save statements for them.
@@ -149,36 +188,38 @@ public class BenchmarkServiceExecutionListener
                                 .findFirst()
                                 .ifPresent(e -> builder.addAttribute("statement", e.getQueryExecution().getStatement()));
                     }
+                    benchmarkExecutionResult.getAttributes().forEach(builder::addAttribute);
                     return builder.build();
-                })
-                .thenAccept(request -> benchmarkServiceClient.finishBenchmark(
-                        benchmarkExecutionResult.getBenchmark().getUniqueName(),
-                        benchmarkExecutionResult.getBenchmark().getSequenceId(),
-                        request));
+                });
+        return sendInOrder(benchmarkExecutionResult.getBenchmark(), request, finishRequest -> benchmarkServiceClient.finishBenchmark(
+                benchmarkExecutionResult.getBenchmark().getUniqueName(),
+                benchmarkExecutionResult.getBenchmark().getSequenceId(),
+                finishRequest));
     }
 
     @Override
     public Future<?> executionStarted(QueryExecution execution)
     {
-        return taskExecutor.submit(() -> {
-            ExecutionStartRequest request = new ExecutionStartRequestBuilder()
-                    .build();
+        CompletableFuture<ExecutionStartRequest> request = CompletableFuture.supplyAsync(() -> new ExecutionStartRequestBuilder()
+                .build(), taskExecutor::execute);
 
-            benchmarkServiceClient.startExecution(execution.getBenchmark().getUniqueName(), execution.getBenchmark().getSequenceId(), executionSequenceId(execution), request);
-        });
+        Benchmark benchmark = execution.getBenchmark();
+        return sendBatchedInOrder(benchmark, request,
+                startRequest -> ExecutionEventRequest.executionStarted(benchmark.getUniqueName(), benchmark.getSequenceId(), executionSequenceId(execution), startRequest),
+                startRequest -> benchmarkServiceClient.startExecution(benchmark.getUniqueName(), benchmark.getSequenceId(), executionSequenceId(execution), startRequest));
     }
 
     @Override
     public Future<?> executionFinished(QueryExecutionResult executionResult)
     {
-        return CompletableFuture.supplyAsync(() -> getMeasurementsWithQueryInfo(executionResult), taskExecutor::execute)
+        CompletableFuture<FinishRequest> request = CompletableFuture.supplyAsync(() -> getMeasurementsWithQueryInfo(executionResult), taskExecutor::execute)
                 .thenCompose(future -> future)
-                .thenApply(measurements -> buildExecutionFinishedRequest(executionResult, measurements))
-                .thenAccept(request -> benchmarkServiceClient.finishExecution(
-                        executionResult.getBenchmark().getUniqueName(),
-                        executionResult.getBenchmark().getSequenceId(),
-                        executionSequenceId(executionResult.getQueryExecution()),
-                        request));
+                .thenApply(measurements -> buildExecutionFinishedRequest(executionResult, measurements));
+        Benchmark benchmark = executionResult.getBenchmark();
+        String executionSequenceId = executionSequenceId(executionResult.getQueryExecution());
+        return sendBatchedInOrder(benchmark, request,
+                finishRequest -> ExecutionEventRequest.executionFinished(benchmark.getUniqueName(), benchmark.getSequenceId(), executionSequenceId, finishRequest),
+                finishRequest -> benchmarkServiceClient.finishExecution(benchmark.getUniqueName(), benchmark.getSequenceId(), executionSequenceId, finishRequest));
     }
 
     @Override
@@ -187,15 +228,15 @@ public class BenchmarkServiceExecutionListener
         if (executions.isEmpty()) {
             return completedFuture(emptyList());
         }
-        return taskExecutor.submit(() -> {
-            FinishRequest finishRequest = new FinishRequestBuilder()
+        CompletableFuture<FinishRequest> request = CompletableFuture.supplyAsync(() -> {
+            FinishRequestBuilder requestBuilder = new FinishRequestBuilder()
                     .withStatus(ENDED)
-                    .withEndTime(
+                    .withEndTime(clockOffsetEstimator.toServiceTime(
                             executions.stream()
                                     .filter(e -> e.getUtcEnd() != null)
                                     .map(e -> e.getUtcEnd().toInstant())
                                     .max(Comparator.comparing(Instant::toEpochMilli))
-                                    .orElseThrow(NoSuchElementException::new))
+                                    .orElseThrow(NoSuchElementException::new)))
                     .addMeasurement(Measurement.measurement(
                             "queries_successful",
                             "NONE",
@@ -203,27 +244,47 @@ public class BenchmarkServiceExecutionListener
                     .addMeasurement(Measurement.measurement(
                             "queries_failed",
                             "NONE",
-                            executions.stream().filter(query -> !query.isSuccessful()).count()))
-                    .addAttribute(
-                            "queries_order",
-                            executions.stream()
-                                    .map(QueryExecutionResult::getQueryName)
-                                    .collect(Collectors.joining(",")))
-                    .build();
-
-            benchmarkServiceClient.finishExecution(
-                    executions.stream().findFirst().orElseThrow(NoSuchElementException::new).getBenchmark().getUniqueName(),
-                    executions.stream().findFirst().orElseThrow(NoSuchElementException::new).getBenchmark().getSequenceId(),
-                    executionSequenceId(executions.stream().findFirst().orElseThrow(NoSuchElementException::new).getQueryExecution()),
-                    finishRequest);
-        });
+                            executions.stream().filter(query -> !query.isSuccessful()).count()));
+            requestBuilder.addAttribute(
+                    "queries_order",
+                    executions.stream()
+                            .map(QueryExecutionResult::getQueryName)
+                            .collect(Collectors.joining(",")));
+            addScheduleDelays(requestBuilder, executions);
+            return requestBuilder.build();
+        }, taskExecutor::execute);
+
+        QueryExecution firstExecution = executions.get(0).getQueryExecution();
+        Benchmark benchmark = firstExecution.getBenchmark();
+        return sendBatchedInOrder(benchmark, request,
+                finishRequest -> ExecutionEventRequest.executionFinished(benchmark.getUniqueName(), benchmark.getSequenceId(), executionSequenceId(firstExecution), finishRequest),
+                finishRequest -> benchmarkServiceClient.finishExecution(benchmark.getUniqueName(), benchmark.getSequenceId(), executionSequenceId(firstExecution), finishRequest));
+    }
+
+    private static void addScheduleDelays(FinishRequestBuilder requestBuilder, List<QueryExecutionResult> executions)
+    {
+        // open-loop throughput tests only
+        if (executions.stream().anyMatch(execution -> execution.getScheduleDelay().isEmpty())) {
+            return;
+        }
+        LongSummaryStatistics delayStatistics = executions.stream()
+                .mapToLong(execution -> execution.getScheduleDelay().get().toMillis())
+                .summaryStatistics();
+        requestBuilder
+                .addMeasurement(Measurement.measurement("schedule_delay_mean", "MILLISECONDS", delayStatistics.getAverage()))
+                .addMeasurement(Measurement.measurement("schedule_delay_max", "MILLISECONDS", delayStatistics.getMax()))
+                .addAttribute(
+                        "queries_schedule_delay",
+                        executions.stream()
+                                .map(execution -> Long.toString(execution.getScheduleDelay().get().toMillis()))
+                                .collect(Collectors.joining(",")));
     }
 
     private FinishRequest buildExecutionFinishedRequest(QueryExecutionResult executionResult, MeasurementsWithQueryInfo measurementsWithQueryInfo)
     {
         FinishRequestBuilder requestBuilder = new FinishRequestBuilder()
-                .withStatus(executionResult.isSuccessful() ? ENDED : FAILED)
-                .withEndTime(executionResult.getUtcEnd().toInstant())
+                .withStatus(executionStatus(executionResult))
+                .withEndTime(clockOffsetEstimator.toServiceTime(executionResult.getUtcEnd().toInstant()))
                 .addMeasurements(measurementsWithQueryInfo.getMeasurements());
         measurementsWithQueryInfo.getQueryInfo()
                 .ifPresent(requestBuilder::addQueryInfo);
@@ -234,6 +295,15 @@ public class BenchmarkServiceExecutionListener
             requestBuilder.addAttribute("prestoQueryId", executionResult.getPrestoQueryId().get());
         }
 
+        executionResult.getUtcIntendedStart()
+                .ifPresent(intendedStart -> requestBuilder.addAttribute("intendedStart", clockOffsetEstimator.toServiceTime(intendedStart.toInstant()).toString()));
+
+        if (progressAttachmentEnabled) {
+            executionResult.getProgress()
+                    .flatMap(QueryProgressRecorder::toCsv)
+                    .ifPresent(progress -> requestBuilder.addAttribute("progress", progress));
+        }
+
         if (!executionResult.isSuccessful()) {
             requestBuilder.addAttribute("failureMessage", executionResult.getFailureCause().getMessage());
             requestBuilder.addAttribute("failureStackTrace", stackTraceToString(executionResult));
@@ -290,6 +360,14 @@ public class BenchmarkServiceExecutionListener
         return queryCompletionEventProvider.loadQueryCompletionEvent(measurable);
     }
 
+    private static Status executionStatus(QueryExecutionResult executionResult)
+    {
+        if (executionResult.isSuccessful()) {
+            return ENDED;
+        }
+        return executionResult.isTimedOut() ? TIMED_OUT : FAILED;
+    }
+
     private String executionSequenceId(QueryExecution execution)
     {
         return Integer.toString(execution.getSequenceId());
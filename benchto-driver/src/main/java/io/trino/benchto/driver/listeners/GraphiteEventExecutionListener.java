@@ -15,7 +15,6 @@ package io.trino.benchto.driver.listeners;
 
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
-import io.trino.benchto.driver.execution.ExecutionSynchronizer;
 import io.trino.benchto.driver.execution.QueryExecution;
 import io.trino.benchto.driver.execution.QueryExecutionResult;
 import io.trino.benchto.driver.graphite.GraphiteClient;
@@ -41,9 +40,6 @@ public class GraphiteEventExecutionListener
     @Autowired
     private AsyncTaskExecutor taskExecutor;
 
-    @Autowired
-    private ExecutionSynchronizer executionSynchronizer;
-
     @Autowired
     private GraphiteClient graphiteClient;
 
@@ -74,11 +70,7 @@ public class GraphiteEventExecutionListener
                 .when(benchmarkExecutionResult.getUtcEnd())
                 .build();
 
-        Future<?> future = taskExecutor.submit(() -> graphiteClient.storeEvent(request));
-
-        executionSynchronizer.awaitAfterBenchmarkExecutionAndBeforeResultReport(benchmarkExecutionResult.getBenchmark());
-
-        return future;
+        return taskExecutor.submit(() -> graphiteClient.storeEvent(request));
     }
 
     @Override
@@ -111,11 +103,7 @@ public class GraphiteEventExecutionListener
                 .when(executionResult.getUtcEnd())
                 .build();
 
-        Future<?> future = taskExecutor.submit(() -> graphiteClient.storeEvent(request));
-
-        executionSynchronizer.awaitAfterQueryExecutionAndBeforeResultReport(executionResult);
-
-        return future;
+        return taskExecutor.submit(() -> graphiteClient.storeEvent(request));
     }
 
     @Override
@@ -14,105 +14,165 @@
 package io.trino.benchto.driver.listeners.benchmark;
 
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Ordering;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
 import io.trino.benchto.driver.execution.QueryExecution;
 import io.trino.benchto.driver.execution.QueryExecutionResult;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayDeque;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
-import static com.google.common.collect.Queues.synchronizedQueue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Fires events to listeners and keeps track of futures they return. Listeners are invoked in the reporting thread, as
+ * the Graphite event listener and the profilers have to stay in step with query execution. Capacity for an event of
+ * all listeners is reserved before it is fired. When too many events are pending, reporting is blocked until the most
+ * lagging listener catches up, so slow listeners can't accumulate an unbounded backlog.
+ * <p>
+ * With asynchronous dispatch enabled, every listener has its own bounded queue of events and a worker thread invoking
+ * the listener with events in the order they were fired, so a slow listener delays neither the reporting thread nor
+ * other listeners.
+ */
 @Component
 public class BenchmarkStatusReporter
 {
     private static final Logger LOG = LoggerFactory.getLogger(BenchmarkStatusReporter.class);
 
-    private final List<BenchmarkExecutionListener> executionListeners;
+    private static final int DEFAULT_MAX_PENDING_EVENTS = 10_000;
+    private static final long LAGGING_LISTENER_POLL_NANOS = MILLISECONDS.toNanos(100);
 
-    private final Queue<Future<?>> pendingFutures = synchronizedQueue(new ArrayDeque<>());
+    private final List<ListenerEvents> listenerEvents;
+    private final int maxPendingEvents;
+    private final Semaphore capacity;
+    private final AtomicInteger peakPendingEventsCount = new AtomicInteger();
 
-    @Autowired
     public BenchmarkStatusReporter(List<BenchmarkExecutionListener> executionListeners)
     {
-        this.executionListeners = ImmutableList.copyOf(
-                Ordering.<Ordered>from(OrderComparator.INSTANCE::compare)
-                        // HACK: listeners have to be sorted to provide tests determinism
-                        .compound(Ordering.usingToString())
-                        .sortedCopy(executionListeners));
+        this(executionListeners, DEFAULT_MAX_PENDING_EVENTS, false);
     }
 
-    public void processCompletedFutures()
+    @Autowired
+    public BenchmarkStatusReporter(
+            List<BenchmarkExecutionListener> executionListeners,
+            @Value("${maxPendingListenerEvents:10000}") int maxPendingEvents,
+            @Value("${asyncListenerDispatch:false}") boolean asyncDispatch)
     {
-        synchronized (pendingFutures) {
-            while (!pendingFutures.isEmpty() && pendingFutures.element().isDone()) {
-                Future<?> doneFuture = pendingFutures.remove();
-                try {
-                    doneFuture.get();
-                }
-                catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted when retrieving result of an already done future", e);
-                }
-                catch (ExecutionException | CancellationException e) {
-                    throw new RuntimeException("Listener failed with: " + e, e);
-                }
+        checkArgument(maxPendingEvents >= executionListeners.size(), "maxPendingEvents must not be lower than number of listeners");
+        this.listenerEvents = Ordering.<Ordered>from(OrderComparator.INSTANCE::compare)
+                // HACK: listeners have to be sorted to provide tests determinism
+                .compound(Ordering.usingToString())
+                .sortedCopy(executionListeners).stream()
+                .map(listener -> new ListenerEvents(listener, asyncDispatch ? Optional.of(maxPendingEvents) : Optional.empty()))
+                .collect(toImmutableList());
+        this.maxPendingEvents = maxPendingEvents;
+        this.capacity = new Semaphore(maxPendingEvents);
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        listenerEvents.forEach(ListenerEvents::shutdown);
+    }
+
+    /**
+     * Number of events which listeners didn't finish processing yet.
+     */
+    public int getPendingEventsCount()
+    {
+        return maxPendingEvents - capacity.availablePermits();
+    }
+
+    /**
+     * Highest number of events which listeners didn't finish processing yet, since the reporter was created.
+     */
+    public int getPeakPendingEventsCount()
+    {
+        return peakPendingEventsCount.get();
+    }
+
+    /**
+     * Age of the oldest event each listener didn't finish processing yet, listeners without pending events are omitted.
+     */
+    public Map<String, Duration> getListenersLag()
+    {
+        long now = System.nanoTime();
+        ImmutableMap.Builder<String, Duration> lags = ImmutableMap.builder();
+        for (ListenerEvents events : listenerEvents) {
+            PendingEvent oldest = events.pending.peek();
+            if (oldest != null) {
+                lags.put(events.getListenerName(), Duration.ofNanos(now - oldest.firedNanos));
             }
         }
+        return lags.buildKeepingLast();
+    }
+
+    public void processCompletedFutures()
+    {
+        for (ListenerEvents events : listenerEvents) {
+            events.processCompleted();
+        }
     }
 
     public void awaitAllFutures(long timeout, TimeUnit unit)
     {
         processCompletedFutures();
-        List<Future<?>> futures = drainFutures();
 
-        LOG.info("Awaiting completion of {} futures", futures.size());
+        LOG.info("Awaiting completion of {} futures, listeners lag: {}", getPendingEventsCount(), getListenersLag());
 
         Stopwatch stopwatch = Stopwatch.createStarted();
-        for (Future<?> future : futures) {
-            long remainingNanos = unit.toNanos(timeout) - stopwatch.elapsed(NANOSECONDS);
-            remainingNanos = Math.max(remainingNanos, 0); // let Future.get handle timeout
+        for (ListenerEvents events : listenerEvents) {
+            for (PendingEvent event : events.drain()) {
+                long remainingNanos = unit.toNanos(timeout) - stopwatch.elapsed(NANOSECONDS);
+                remainingNanos = Math.max(remainingNanos, 0); // let Future.get handle timeout
 
-            try {
-                future.get(remainingNanos, NANOSECONDS);
-            }
-            catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Interrupted when retrieving result of an already done future", e);
-            }
-            catch (ExecutionException | TimeoutException | CancellationException e) {
-                throw new RuntimeException("Failure when waiting for listener completion: " + e, e);
+                try {
+                    event.await(remainingNanos);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted when retrieving result of an already done future", e);
+                }
+                catch (ExecutionException | TimeoutException | CancellationException e) {
+                    throw new RuntimeException("Failure when waiting for listener completion: " + e, e);
+                }
             }
         }
     }
 
-    private List<Future<?>> drainFutures()
-    {
-        synchronized (pendingFutures) {
-            List<Future<?>> futures = new ArrayList<>(pendingFutures);
-            pendingFutures.clear();
-            return futures;
-        }
-    }
-
     public void reportBenchmarkStarted(Benchmark benchmark)
     {
         fireListeners(BenchmarkExecutionListener::benchmarkStarted, benchmark);
@@ -140,10 +200,190 @@ public class BenchmarkStatusReporter
 
     private <T> void fireListeners(BiFunction<BenchmarkExecutionListener, T, Future<?>> invoker, T argument)
     {
-        List<Future<?>> futures = new ArrayList<>();
-        for (BenchmarkExecutionListener listener : executionListeners) {
-            futures.add(invoker.apply(listener, argument));
+        int events = listenerEvents.size();
+        if (!capacity.tryAcquire(events)) {
+            awaitLaggingListeners(events);
+        }
+        peakPendingEventsCount.accumulateAndGet(getPendingEventsCount(), Math::max);
+        for (ListenerEvents listener : listenerEvents) {
+            listener.fire(invoker, argument);
+        }
+    }
+
+    private void awaitLaggingListeners(int events)
+    {
+        LOG.warn("{} events are pending, waiting for listeners to catch up, listeners lag: {}", getPendingEventsCount(), getListenersLag());
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            while (!capacity.tryAcquire(events, 10, MILLISECONDS)) {
+                listenerEvents.stream()
+                        .filter(listener -> !listener.pending.isEmpty())
+                        .min(Comparator.comparingLong(ListenerEvents::getOldestEventFiredNanos))
+                        .ifPresent(listener -> listener.awaitOldest(LAGGING_LISTENER_POLL_NANOS));
+                processCompletedFutures();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted when waiting for listeners to catch up", e);
+        }
+        LOG.info("Listeners caught up after {}", stopwatch);
+    }
+
+    private class ListenerEvents
+    {
+        private final BenchmarkExecutionListener listener;
+        // events fired and not processed yet, in order they were fired
+        private final Queue<PendingEvent> pending = new ConcurrentLinkedQueue<>();
+        // events not passed to the listener yet, absent when listener is invoked by reporting thread
+        private final Optional<BlockingQueue<PendingEvent>> dispatchQueue;
+        private final Optional<Thread> worker;
+
+        private ListenerEvents(BenchmarkExecutionListener listener, Optional<Integer> dispatchQueueCapacity)
+        {
+            this.listener = listener;
+            this.dispatchQueue = dispatchQueueCapacity.map(ArrayBlockingQueue::new);
+            this.worker = dispatchQueue.map(queue -> {
+                Thread thread = new Thread(() -> dispatch(queue), "listener-" + getListenerName());
+                thread.setDaemon(true);
+                thread.start();
+                return thread;
+            });
+        }
+
+        private <T> void fire(BiFunction<BenchmarkExecutionListener, T, Future<?>> invoker, T argument)
+        {
+            PendingEvent event = new PendingEvent(() -> invoker.apply(listener, argument), System.nanoTime());
+            pending.add(event);
+            if (dispatchQueue.isPresent()) {
+                // capacity is reserved before firing, so the queue is never full
+                checkState(dispatchQueue.get().offer(event), "Dispatch queue of %s is full", getListenerName());
+            }
+            else {
+                event.dispatch();
+            }
+        }
+
+        /**
+         * Invokes the listener with queued events one at a time, failures are reported by futures of the events.
+         */
+        private void dispatch(BlockingQueue<PendingEvent> queue)
+        {
+            try {
+                while (true) {
+                    queue.take().dispatch();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void shutdown()
+        {
+            worker.ifPresent(Thread::interrupt);
+        }
+
+        private String getListenerName()
+        {
+            return listener.getClass().getName();
+        }
+
+        private long getOldestEventFiredNanos()
+        {
+            PendingEvent oldest = pending.peek();
+            return oldest == null ? Long.MAX_VALUE : oldest.firedNanos;
+        }
+
+        /**
+         * Removes completed events from the head of the queue, in batch, failing if any of them failed.
+         */
+        private synchronized void processCompleted()
+        {
+            while (!pending.isEmpty() && pending.element().isDone()) {
+                PendingEvent doneEvent = pending.remove();
+                capacity.release();
+                try {
+                    doneEvent.dispatched.join().get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted when retrieving result of an already done future", e);
+                }
+                catch (ExecutionException | CancellationException e) {
+                    throw new RuntimeException("Listener failed with: " + e, e);
+                }
+            }
+        }
+
+        /**
+         * Waits for the oldest event for a limited time, as events of other listeners may complete sooner.
+         */
+        private void awaitOldest(long timeoutNanos)
+        {
+            PendingEvent oldest = pending.peek();
+            if (oldest == null) {
+                return;
+            }
+            try {
+                oldest.await(timeoutNanos);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted when waiting for listener completion", e);
+            }
+            catch (ExecutionException | TimeoutException | CancellationException e) {
+                // failures are reported when completed futures are processed
+            }
+        }
+
+        private synchronized List<PendingEvent> drain()
+        {
+            List<PendingEvent> events = new ArrayList<>();
+            for (PendingEvent event = pending.poll(); event != null; event = pending.poll()) {
+                capacity.release();
+                events.add(event);
+            }
+            return events;
+        }
+    }
+
+    private static class PendingEvent
+    {
+        private final Supplier<Future<?>> invocation;
+        private final long firedNanos;
+        // completed with future returned by the listener, once it was invoked
+        private final CompletableFuture<Future<?>> dispatched = new CompletableFuture<>();
+
+        private PendingEvent(Supplier<Future<?>> invocation, long firedNanos)
+        {
+            this.invocation = invocation;
+            this.firedNanos = firedNanos;
+        }
+
+        private void dispatch()
+        {
+            try {
+                dispatched.complete(requireNonNull(invocation.get(), "listener returned null future"));
+            }
+            catch (Throwable e) {
+                // worker has to survive listener errors, otherwise later events would never be dispatched
+                dispatched.complete(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        private boolean isDone()
+        {
+            Future<?> future = dispatched.getNow(null);
+            return future != null && future.isDone();
+        }
+
+        private void await(long timeoutNanos)
+                throws InterruptedException, ExecutionException, TimeoutException
+        {
+            long deadline = System.nanoTime() + timeoutNanos;
+            Future<?> future = dispatched.get(timeoutNanos, NANOSECONDS);
+            future.get(Math.max(deadline - System.nanoTime(), 0), NANOSECONDS);
         }
-        pendingFutures.addAll(futures);
     }
 }
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
+import io.trino.benchto.driver.execution.ConcurrencySweepStep;
+import io.trino.benchto.driver.execution.LatencyHistogram;
+import io.trino.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Reports throughput curve of a concurrency sweep, as measurements prefixed with the number of the step.
+ */
+@Component
+public class ConcurrencySweepMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        if (!(measurable instanceof BenchmarkExecutionResult benchmarkExecutionResult)) {
+            return completedFuture(ImmutableList.of());
+        }
+
+        ImmutableList.Builder<Measurement> measurements = ImmutableList.builder();
+        for (ConcurrencySweepStep step : benchmarkExecutionResult.getConcurrencySweepSteps()) {
+            String prefix = "sweep_step_" + step.getStep() + "_";
+            measurements.add(measurement(prefix + "concurrency", "NONE", step.getConcurrency()));
+            measurements.add(measurement(prefix + "throughput", "QUERY_PER_SECOND", step.getThroughput()));
+            LatencyHistogram latencyHistogram = step.getLatencyHistogram();
+            if (latencyHistogram.getTotalCount() > 0) {
+                measurements.add(latencyMeasurement(prefix + "latency_p50", latencyHistogram.getValueAtPercentile(50)));
+                measurements.add(latencyMeasurement(prefix + "latency_p99", latencyHistogram.getValueAtPercentile(99)));
+            }
+        }
+        return completedFuture(measurements.build());
+    }
+
+    private static Measurement latencyMeasurement(String name, Duration latency)
+    {
+        return measurement(name, "MILLISECONDS", latency.toNanos() / 1_000_000.0);
+    }
+}
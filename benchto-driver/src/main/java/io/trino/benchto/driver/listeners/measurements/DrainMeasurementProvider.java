@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.DrainMode;
+import io.trino.benchto.driver.execution.QueryExecutionResult;
+import io.trino.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+@Component
+public class DrainMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        ImmutableList.Builder<Measurement> measurements = ImmutableList.builder();
+        if (measurable instanceof QueryExecutionResult executionResult && executionResult.isSuccessful() &&
+                DrainMode.forQuery(executionResult.getQueryExecution().getQuery()) != DrainMode.NONE) {
+            long durationInNanos = executionResult.getQueryDuration().toNanos();
+            if (durationInNanos > 0) {
+                measurements.add(measurement("rows_per_second", "ROWS_PER_SECOND", executionResult.getRowsCount() * 1_000_000_000.0 / durationInNanos));
+            }
+            executionResult.getReceivedBytes()
+                    .ifPresent(receivedBytes -> measurements.add(measurement("received_bytes", "BYTES", receivedBytes)));
+        }
+
+        return completedFuture(measurements.build());
+    }
+}
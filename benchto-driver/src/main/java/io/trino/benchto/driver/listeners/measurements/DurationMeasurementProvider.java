@@ -20,7 +20,9 @@ import io.trino.benchto.driver.execution.QueryExecutionResult;
 import io.trino.benchto.driver.service.Measurement;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static io.trino.benchto.driver.service.Measurement.measurement;
@@ -33,15 +35,24 @@ public class DurationMeasurementProvider
     @Override
     public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
     {
-        List<Measurement> measurements;
+        ImmutableList.Builder<Measurement> measurements = ImmutableList.builder();
         if (shouldMeasureDuration(measurable)) {
-            measurements = ImmutableList.of(measurement("duration", "MILLISECONDS", measurable.getQueryDuration().toMillis()));
+            measurements.add(measurement("duration", "MILLISECONDS", measurable.getQueryDuration().toMillis()));
         }
-        else {
-            measurements = ImmutableList.of();
+        if (measurable instanceof QueryExecutionResult executionResult) {
+            addMillisMeasurement(measurements, "connection_acquisition_time", executionResult.getConnectionAcquisitionTime());
+            addMillisMeasurement(measurements, "macro_time", executionResult.getMacroTime());
+            addMillisMeasurement(measurements, "submission_time", executionResult.getSubmissionTime());
+            addMillisMeasurement(measurements, "time_to_first_row", executionResult.getTimeToFirstRow());
+            addMillisMeasurement(measurements, "fetch_time", executionResult.getFetchTime());
         }
 
-        return completedFuture(measurements);
+        return completedFuture(measurements.build());
+    }
+
+    private static void addMillisMeasurement(ImmutableList.Builder<Measurement> measurements, String name, Optional<Duration> time)
+    {
+        time.ifPresent(value -> measurements.add(measurement(name, "MILLISECONDS", value.toNanos() / 1_000_000.0)));
     }
 
     private boolean shouldMeasureDuration(Measurable measurable)
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
+import io.trino.benchto.driver.execution.LatencyHistogram;
+import io.trino.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+@Component
+public class LatencyMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        Optional<LatencyHistogram> histogram = Optional.empty();
+        if (measurable instanceof BenchmarkExecutionResult benchmarkExecutionResult) {
+            histogram = benchmarkExecutionResult.getLatencyHistogram()
+                    .filter(latencyHistogram -> latencyHistogram.getTotalCount() > 0);
+        }
+        if (histogram.isEmpty()) {
+            return completedFuture(ImmutableList.of());
+        }
+
+        LatencyHistogram latencyHistogram = histogram.get();
+        return completedFuture(ImmutableList.of(
+                latencyMeasurement("latency_p50", latencyHistogram.getValueAtPercentile(50)),
+                latencyMeasurement("latency_p90", latencyHistogram.getValueAtPercentile(90)),
+                latencyMeasurement("latency_p99", latencyHistogram.getValueAtPercentile(99)),
+                latencyMeasurement("latency_p99_9", latencyHistogram.getValueAtPercentile(99.9)),
+                latencyMeasurement("latency_max", latencyHistogram.getMax())));
+    }
+
+    private static Measurement latencyMeasurement(String name, Duration latency)
+    {
+        return measurement(name, "MILLISECONDS", latency.toNanos() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.BenchmarkExecutionResult;
+import io.trino.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
+import io.trino.benchto.driver.service.Measurement;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Reports depth and lag of listener event queues when a benchmark finishes, so a driver falling behind with reporting
+ * can be told apart from a slow benchmark.
+ */
+@Component
+@ConditionalOnProperty(prefix = "benchmark.feature.listener-queue", value = "measurements.enabled")
+public class ListenerQueueMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    // status reporter depends on listeners using measurement providers
+    private final ObjectProvider<BenchmarkStatusReporter> statusReporter;
+
+    @Autowired
+    public ListenerQueueMeasurementProvider(ObjectProvider<BenchmarkStatusReporter> statusReporter)
+    {
+        this.statusReporter = statusReporter;
+    }
+
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        if (!(measurable instanceof BenchmarkExecutionResult)) {
+            return completedFuture(ImmutableList.of());
+        }
+        return completedFuture(toMeasurements(statusReporter.getObject()));
+    }
+
+    static List<Measurement> toMeasurements(BenchmarkStatusReporter statusReporter)
+    {
+        long maxLagMillis = statusReporter.getListenersLag().values().stream()
+                .mapToLong(Duration::toMillis)
+                .max()
+                .orElse(0);
+        return ImmutableList.of(
+                measurement("listener_pending_events", "NONE", statusReporter.getPendingEventsCount()),
+                measurement("listener_pending_events_peak", "NONE", statusReporter.getPeakPendingEventsCount()),
+                measurement("listener_lag_max", "MILLISECONDS", maxLagMillis));
+    }
+}
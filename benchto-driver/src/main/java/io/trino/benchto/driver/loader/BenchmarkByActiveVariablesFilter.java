@@ -19,11 +19,14 @@ import io.trino.benchto.driver.BenchmarkProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.benchto.driver.loader.BenchmarkLoader.VALUE_SUBSTITUTION_PATTERN;
 import static java.util.Objects.requireNonNull;
 
 class BenchmarkByActiveVariablesFilter
@@ -45,6 +48,26 @@ class BenchmarkByActiveVariablesFilter
         variablePatterns = builder.build();
     }
 
+    /**
+     * Removes variables values not matching active variables, so that combinations which would be excluded are not created.
+     * Values substituted from other variables are kept, as they are known only after substitution.
+     */
+    public Map<String, List<String>> filterValues(Map<String, List<String>> variables)
+    {
+        ImmutableMap.Builder<String, List<String>> builder = ImmutableMap.builder();
+        for (Map.Entry<String, List<String>> entry : variables.entrySet()) {
+            Pattern valuePattern = variablePatterns.get(entry.getKey());
+            if (valuePattern == null) {
+                builder.put(entry);
+                continue;
+            }
+            builder.put(entry.getKey(), entry.getValue().stream()
+                    .filter(value -> VALUE_SUBSTITUTION_PATTERN.matcher(value).matches() || valuePattern.matcher(value).matches())
+                    .collect(toImmutableList()));
+        }
+        return builder.buildOrThrow();
+    }
+
     @Override
     public boolean test(Benchmark benchmark)
     {
@@ -14,12 +14,17 @@
 package io.trino.benchto.driver.loader;
 
 import com.google.common.collect.ImmutableSet;
+import io.trino.benchto.driver.concurrent.ArrivalDistribution;
+import io.trino.benchto.driver.concurrent.ExecutorType;
+import io.trino.benchto.driver.execution.ResultsOrder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.trino.benchto.driver.utils.YamlUtils.asStringList;
 
 /**
@@ -34,6 +39,7 @@ public class BenchmarkDescriptor
     public static final String SUITE_PREWARM_RUNS_KEY = "suite-prewarm-runs";
     public static final String BENCHMARK_PREWARM_RUNS_KEY = "benchmark-prewarm-runs";
     public static final String CONCURRENCY_KEY = "concurrency";
+    public static final String EXECUTOR_TYPE_KEY = "executor-type";
     public static final String BEFORE_BENCHMARK_MACROS_KEY = "before-benchmark";
     public static final String AFTER_BENCHMARK_MACROS_KEY = "after-benchmark";
     public static final String BEFORE_EXECUTION_MACROS_KEY = "before-execution";
@@ -43,6 +49,21 @@ public class BenchmarkDescriptor
     public static final String FREQUENCY_KEY = "frequency";
     public static final String THROUGHPUT_TEST_KEY = "throughput-test";
     public static final String QUERY_RESULTS_KEY = "query-results";
+    public static final String QUERY_RESULTS_ORDER_KEY = "query-results-order";
+    public static final String ARRIVAL_RATE_KEY = "arrival-rate";
+    public static final String ARRIVAL_DISTRIBUTION_KEY = "arrival-distribution";
+    public static final String EXPECTED_QUERY_INTERVAL_KEY = "expected-query-interval";
+    public static final String TARGET_PRECISION_KEY = "target-precision";
+    public static final String MAX_RUNS_KEY = "max-runs";
+    public static final String TIME_BUDGET_KEY = "time-budget";
+    public static final String CONFIDENCE_LEVEL_KEY = "confidence-level";
+    public static final String CONCURRENCY_SWEEP_KEY = "concurrency-sweep";
+    public static final String SWEEP_STEP_DURATION_KEY = "sweep-step-duration";
+    public static final String SWEEP_KNEE_THRESHOLD_KEY = "sweep-knee-threshold";
+    public static final String QUERY_TIMEOUT_FACTOR_KEY = "query-timeout-factor";
+    public static final String SAMPLING_KEY = "sampling";
+    public static final String SAMPLING_SIZE_KEY = "sampling-size";
+    public static final String SAMPLING_SEED_KEY = "sampling-seed";
 
     public static final Set<String> RESERVED_KEYWORDS = ImmutableSet.of(
             NAME_KEY,
@@ -52,6 +73,7 @@ public class BenchmarkDescriptor
             SUITE_PREWARM_RUNS_KEY,
             BENCHMARK_PREWARM_RUNS_KEY,
             CONCURRENCY_KEY,
+            EXECUTOR_TYPE_KEY,
             BEFORE_BENCHMARK_MACROS_KEY,
             AFTER_BENCHMARK_MACROS_KEY,
             BEFORE_EXECUTION_MACROS_KEY,
@@ -60,7 +82,22 @@ public class BenchmarkDescriptor
             QUARANTINE_KEY,
             FREQUENCY_KEY,
             THROUGHPUT_TEST_KEY,
-            QUERY_RESULTS_KEY);
+            QUERY_RESULTS_KEY,
+            QUERY_RESULTS_ORDER_KEY,
+            ARRIVAL_RATE_KEY,
+            ARRIVAL_DISTRIBUTION_KEY,
+            EXPECTED_QUERY_INTERVAL_KEY,
+            TARGET_PRECISION_KEY,
+            MAX_RUNS_KEY,
+            TIME_BUDGET_KEY,
+            CONFIDENCE_LEVEL_KEY,
+            CONCURRENCY_SWEEP_KEY,
+            SWEEP_STEP_DURATION_KEY,
+            SWEEP_KNEE_THRESHOLD_KEY,
+            QUERY_TIMEOUT_FACTOR_KEY,
+            SAMPLING_KEY,
+            SAMPLING_SIZE_KEY,
+            SAMPLING_SEED_KEY);
 
     private final Map<String, String> variables;
 
@@ -110,6 +147,11 @@ public class BenchmarkDescriptor
         return getIntegerOptional(CONCURRENCY_KEY);
     }
 
+    public Optional<ExecutorType> getExecutorType()
+    {
+        return getStringOptional(EXECUTOR_TYPE_KEY).map(ExecutorType::fromString);
+    }
+
     public Optional<Integer> getFrequency()
     {
         return getIntegerOptional(FREQUENCY_KEY);
@@ -140,11 +182,73 @@ public class BenchmarkDescriptor
         return variables.getOrDefault(THROUGHPUT_TEST_KEY, "false").equalsIgnoreCase("true");
     }
 
+    public Optional<Double> getArrivalRate()
+    {
+        return getStringOptional(ARRIVAL_RATE_KEY).map(Double::valueOf);
+    }
+
+    public Optional<ArrivalDistribution> getArrivalDistribution()
+    {
+        return getStringOptional(ARRIVAL_DISTRIBUTION_KEY).map(ArrivalDistribution::fromString);
+    }
+
+    public Optional<Duration> getExpectedQueryInterval()
+    {
+        return getStringOptional(EXPECTED_QUERY_INTERVAL_KEY).map(Duration::parse);
+    }
+
+    public Optional<Double> getTargetPrecision()
+    {
+        return getStringOptional(TARGET_PRECISION_KEY).map(Double::valueOf);
+    }
+
+    public Optional<Integer> getMaxRuns()
+    {
+        return getIntegerOptional(MAX_RUNS_KEY);
+    }
+
+    public Optional<Duration> getTimeBudget()
+    {
+        return getStringOptional(TIME_BUDGET_KEY).map(Duration::parse);
+    }
+
+    public Optional<Double> getConfidenceLevel()
+    {
+        return getStringOptional(CONFIDENCE_LEVEL_KEY).map(Double::valueOf);
+    }
+
+    public List<Integer> getConcurrencySweep()
+    {
+        return asStringList(variables.getOrDefault(CONCURRENCY_SWEEP_KEY, "")).stream()
+                .map(Integer::valueOf)
+                .collect(toImmutableList());
+    }
+
+    public Optional<Duration> getSweepStepDuration()
+    {
+        return getStringOptional(SWEEP_STEP_DURATION_KEY).map(Duration::parse);
+    }
+
+    public Optional<Double> getSweepKneeThreshold()
+    {
+        return getStringOptional(SWEEP_KNEE_THRESHOLD_KEY).map(Double::valueOf);
+    }
+
+    public Optional<Double> getQueryTimeoutFactor()
+    {
+        return getStringOptional(QUERY_TIMEOUT_FACTOR_KEY).map(Double::valueOf);
+    }
+
     public Optional<String> getResults()
     {
         return getStringOptional(QUERY_RESULTS_KEY);
     }
 
+    public Optional<ResultsOrder> getResultsOrder()
+    {
+        return getStringOptional(QUERY_RESULTS_ORDER_KEY).map(ResultsOrder::fromString);
+    }
+
     private Optional<Integer> getIntegerOptional(String key)
     {
         if (variables.containsKey(key)) {
@@ -15,15 +15,14 @@ package io.trino.benchto.driver.loader;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.BenchmarkExecutionException;
 import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.concurrent.ArrivalDistribution;
+import io.trino.benchto.driver.execution.ResultsOrder;
 import io.trino.benchto.driver.service.BenchmarkServiceClient;
-import io.trino.benchto.driver.utils.CartesianProductUtils;
 import io.trino.benchto.driver.utils.NaturalOrderComparator;
 import io.trino.benchto.driver.utils.YamlUtils;
 import jakarta.annotation.PostConstruct;
@@ -44,32 +43,31 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static io.trino.benchto.driver.loader.BenchmarkDescriptor.NAME_KEY;
 import static java.lang.String.format;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.Collections.emptyMap;
-import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.io.FilenameUtils.removeExtension;
-import static org.springframework.ui.freemarker.FreeMarkerTemplateUtils.processTemplateIntoString;
 
 @Component
 public class BenchmarkLoader
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkLoader.class);
 
-    private static final Pattern VALUE_SUBSTITUTION_PATTERN = Pattern.compile(".*\\$\\{.+}.*");
+    static final Pattern VALUE_SUBSTITUTION_PATTERN = Pattern.compile(".*\\$\\{.+}.*");
 
     private static final String BENCHMARK_FILE_SUFFIX = "yaml";
 
@@ -77,6 +75,11 @@ public class BenchmarkLoader
     private static final int DEFAULT_CONCURRENCY = 1;
     private static final int DEFAULT_SUITE_PREWARM_RUNS = 0;
     private static final int DEFAULT_BENCHMARK_PREWARM_RUNS = 2;
+    private static final int DEFAULT_MAX_RUNS = 30;
+    private static final double DEFAULT_CONFIDENCE_LEVEL = 0.95;
+    private static final Duration DEFAULT_SWEEP_STEP_DURATION = Duration.ofMinutes(1);
+    private static final double DEFAULT_SWEEP_KNEE_THRESHOLD = 0.1;
+    private static final long DEFAULT_SAMPLING_SEED = 0;
 
     @Autowired
     private Environment environment;
@@ -91,10 +94,13 @@ public class BenchmarkLoader
     private QueryLoader queryLoader;
 
     @Autowired
-    private Configuration freemarkerConfiguration;
+    private TemplateCache templateCache;
 
     private Map<Object, Object> overrides;
 
+    // disabled in tests only, to verify that parallel loading gives the same results
+    private boolean parallelLoading = true;
+
     @PostConstruct
     public void setup()
             throws IOException
@@ -122,6 +128,7 @@ public class BenchmarkLoader
 
             List<Benchmark> allBenchmarks = loadBenchmarks(sequenceId, benchmarkFiles);
             LOGGER.debug("All benchmarks: {}", allBenchmarks);
+            LOGGER.debug("Template cache: {}", templateCache.getStats());
 
             List<Benchmark> includedBenchmarks = allBenchmarks.stream()
                     .filter(new BenchmarkByActiveVariablesFilter(properties))
@@ -199,7 +206,8 @@ public class BenchmarkLoader
 
     private List<Benchmark> loadBenchmarks(String sequenceId, List<Path> benchmarkFiles)
     {
-        return benchmarkFiles.stream()
+        // files are loaded in parallel, the order of results depends only on the order of files and the sorting below
+        return stream(benchmarkFiles)
                 .flatMap(file -> loadBenchmarks(sequenceId, file).stream())
                 .sorted((left, right) -> NaturalOrderComparator.forStrings().compare(left.getName(), right.getName()))
                 .collect(toList());
@@ -217,37 +225,81 @@ public class BenchmarkLoader
             String defaultName = benchmarkName(benchmarkFile);
             List<BenchmarkDescriptor> benchmarkDescriptors = createBenchmarkDescriptors(defaultName, yaml);
 
-            List<Benchmark> benchmarks = newArrayListWithCapacity(benchmarkDescriptors.size());
-            for (BenchmarkDescriptor benchmarkDescriptor : benchmarkDescriptors) {
-                String benchmarkName = benchmarkDescriptor.getName();
-                List<Query> queries = queryLoader.loadFromFiles(benchmarkDescriptor.getQueryNames());
-
-                Benchmark benchmark = new Benchmark.BenchmarkBuilder(benchmarkName, sequenceId, queries)
-                        .withDataSource(benchmarkDescriptor.getDataSource())
-                        .withEnvironment(properties.getEnvironmentName())
-                        .withRuns(benchmarkDescriptor.getRuns().orElse(DEFAULT_RUNS))
-                        .withSuitePrewarmRuns(benchmarkDescriptor.getSuitePrewarmRuns().orElse(DEFAULT_SUITE_PREWARM_RUNS))
-                        .withBenchmarkPrewarmRuns(benchmarkDescriptor.getBenchmarkPrewarmRuns().orElse(DEFAULT_BENCHMARK_PREWARM_RUNS))
-                        .withConcurrency(benchmarkDescriptor.getConcurrency().orElse(DEFAULT_CONCURRENCY))
-                        .withFrequency(benchmarkDescriptor.getFrequency().map(Duration::ofDays))
-                        .withThroughputTest(benchmarkDescriptor.getThroughputTest())
-                        .withBeforeBenchmarkMacros(benchmarkDescriptor.getBeforeBenchmarkMacros())
-                        .withAfterBenchmarkMacros(benchmarkDescriptor.getAfterBenchmarkMacros())
-                        .withBeforeExecutionMacros(benchmarkDescriptor.getBeforeExecutionMacros())
-                        .withAfterExecutionMacros(benchmarkDescriptor.getAfterExecutionMacros())
-                        .withQueryResults(benchmarkDescriptor.getResults())
-                        .withVariables(benchmarkDescriptor.getVariables())
-                        .build();
-                benchmarks.add(benchmark);
-            }
-
-            return benchmarks;
+            return stream(benchmarkDescriptors)
+                    .map(benchmarkDescriptor -> createBenchmark(sequenceId, benchmarkFile, benchmarkDescriptor))
+                    .collect(toList());
         }
         catch (IOException e) {
             throw new BenchmarkExecutionException("Could not load benchmark: " + benchmarkFile, e);
         }
     }
 
+    private <T> Stream<T> stream(List<T> elements)
+    {
+        return stream(elements.stream());
+    }
+
+    private <T> Stream<T> stream(Stream<T> elements)
+    {
+        return parallelLoading ? elements.parallel() : elements.sequential();
+    }
+
+    private Benchmark createBenchmark(String sequenceId, Path benchmarkFile, BenchmarkDescriptor benchmarkDescriptor)
+    {
+        String benchmarkName = benchmarkDescriptor.getName();
+        checkArgument(benchmarkDescriptor.getArrivalRate().isEmpty() || benchmarkDescriptor.getThroughputTest(),
+                "Variable %s requires %s to be enabled in file %s", BenchmarkDescriptor.ARRIVAL_RATE_KEY, BenchmarkDescriptor.THROUGHPUT_TEST_KEY, benchmarkFile);
+        int runs = benchmarkDescriptor.getRuns().orElse(DEFAULT_RUNS);
+        int maxRuns = benchmarkDescriptor.getMaxRuns().orElse(Math.max(runs, DEFAULT_MAX_RUNS));
+        if (benchmarkDescriptor.getTargetPrecision().isPresent()) {
+            checkArgument(!benchmarkDescriptor.getThroughputTest(),
+                    "Variable %s cannot be used with %s in file %s", BenchmarkDescriptor.TARGET_PRECISION_KEY, BenchmarkDescriptor.THROUGHPUT_TEST_KEY, benchmarkFile);
+            checkArgument(runs >= 2, "Variable %s requires at least 2 runs in file %s", BenchmarkDescriptor.TARGET_PRECISION_KEY, benchmarkFile);
+            checkArgument(maxRuns >= runs, "Variable %s must not be lower than %s in file %s", BenchmarkDescriptor.MAX_RUNS_KEY, BenchmarkDescriptor.RUNS_KEY, benchmarkFile);
+        }
+        List<Integer> concurrencySweep = benchmarkDescriptor.getConcurrencySweep();
+        int concurrency = benchmarkDescriptor.getConcurrency().orElse(DEFAULT_CONCURRENCY);
+        if (!concurrencySweep.isEmpty()) {
+            checkArgument(benchmarkDescriptor.getThroughputTest() && benchmarkDescriptor.getArrivalRate().isEmpty(),
+                    "Variable %s requires closed-loop %s in file %s", BenchmarkDescriptor.CONCURRENCY_SWEEP_KEY, BenchmarkDescriptor.THROUGHPUT_TEST_KEY, benchmarkFile);
+            checkArgument(benchmarkDescriptor.getConcurrency().isEmpty(),
+                    "Variables %s and %s cannot be used together in file %s", BenchmarkDescriptor.CONCURRENCY_SWEEP_KEY, BenchmarkDescriptor.CONCURRENCY_KEY, benchmarkFile);
+            // workers of all steps share the executor and the connection pool sized for the last step
+            concurrency = concurrencySweep.get(concurrencySweep.size() - 1);
+        }
+        List<Query> queries = queryLoader.loadFromFiles(benchmarkDescriptor.getQueryNames());
+
+        return new Benchmark.BenchmarkBuilder(benchmarkName, sequenceId, queries)
+                .withDataSource(benchmarkDescriptor.getDataSource())
+                .withEnvironment(properties.getEnvironmentName())
+                .withRuns(runs)
+                .withSuitePrewarmRuns(benchmarkDescriptor.getSuitePrewarmRuns().orElse(DEFAULT_SUITE_PREWARM_RUNS))
+                .withBenchmarkPrewarmRuns(benchmarkDescriptor.getBenchmarkPrewarmRuns().orElse(DEFAULT_BENCHMARK_PREWARM_RUNS))
+                .withConcurrency(concurrency)
+                .withExecutorType(benchmarkDescriptor.getExecutorType().orElse(properties.getExecutorType()))
+                .withFrequency(benchmarkDescriptor.getFrequency().map(Duration::ofDays))
+                .withThroughputTest(benchmarkDescriptor.getThroughputTest())
+                .withArrivalRate(benchmarkDescriptor.getArrivalRate())
+                .withArrivalDistribution(benchmarkDescriptor.getArrivalDistribution().orElse(ArrivalDistribution.CONSTANT))
+                .withExpectedQueryInterval(benchmarkDescriptor.getExpectedQueryInterval())
+                .withTargetPrecision(benchmarkDescriptor.getTargetPrecision())
+                .withMaxRuns(maxRuns)
+                .withTimeBudget(benchmarkDescriptor.getTimeBudget())
+                .withConfidenceLevel(benchmarkDescriptor.getConfidenceLevel().orElse(DEFAULT_CONFIDENCE_LEVEL))
+                .withConcurrencySweep(concurrencySweep)
+                .withSweepStepDuration(benchmarkDescriptor.getSweepStepDuration().orElse(DEFAULT_SWEEP_STEP_DURATION))
+                .withSweepKneeThreshold(benchmarkDescriptor.getSweepKneeThreshold().orElse(DEFAULT_SWEEP_KNEE_THRESHOLD))
+                .withQueryTimeoutFactor(benchmarkDescriptor.getQueryTimeoutFactor())
+                .withBeforeBenchmarkMacros(benchmarkDescriptor.getBeforeBenchmarkMacros())
+                .withAfterBenchmarkMacros(benchmarkDescriptor.getAfterBenchmarkMacros())
+                .withBeforeExecutionMacros(benchmarkDescriptor.getBeforeExecutionMacros())
+                .withAfterExecutionMacros(benchmarkDescriptor.getAfterExecutionMacros())
+                .withQueryResults(benchmarkDescriptor.getResults())
+                .withQueryResultsOrder(benchmarkDescriptor.getResultsOrder().orElse(ResultsOrder.ORDERED))
+                .withVariables(benchmarkDescriptor.getVariables())
+                .build();
+    }
+
     private Map<Object, Object> mergeTopLevelVariables(Map<Object, Object> baseYaml)
     {
         ImmutableMap.Builder<Object, Object> result = ImmutableMap.builder();
@@ -273,21 +325,26 @@ public class BenchmarkLoader
 
     private List<BenchmarkDescriptor> createBenchmarkDescriptors(String defaultName, Map<Object, Object> yaml)
     {
-        List<Map<String, String>> variablesCombinations = extractVariableMapList(yaml);
         Map<String, String> globalVariables = extractGlobalVariables(yaml);
         globalVariables.putIfAbsent(NAME_KEY, defaultName);
 
-        for (Map<String, String> variablesMap : variablesCombinations) {
-            for (Entry<String, String> globalVariableEntry : globalVariables.entrySet()) {
-                variablesMap.putIfAbsent(globalVariableEntry.getKey(), globalVariableEntry.getValue());
-            }
-
-            evaluateValueExpressions(variablesMap);
+        // combinations are created while descriptors are, so that all of them are never kept in memory at once
+        List<BenchmarkDescriptor> benchmarkDescriptors = stream(extractVariableMaps(yaml))
+                .map(variablesMap -> createBenchmarkDescriptor(variablesMap, globalVariables))
+                .collect(toList());
+        if (benchmarkDescriptors.isEmpty()) {
+            return ImmutableList.of(createBenchmarkDescriptor(newHashMap(), globalVariables));
         }
+        return benchmarkDescriptors;
+    }
 
-        return variablesCombinations.stream()
-                .map(BenchmarkDescriptor::new)
-                .collect(toList());
+    private BenchmarkDescriptor createBenchmarkDescriptor(Map<String, String> variablesMap, Map<String, String> globalVariables)
+    {
+        for (Entry<String, String> globalVariableEntry : globalVariables.entrySet()) {
+            variablesMap.putIfAbsent(globalVariableEntry.getKey(), globalVariableEntry.getValue());
+        }
+        evaluateValueExpressions(variablesMap);
+        return new BenchmarkDescriptor(variablesMap);
     }
 
     @SuppressWarnings("unchecked")
@@ -298,8 +355,7 @@ public class BenchmarkLoader
 
             try {
                 if (VALUE_SUBSTITUTION_PATTERN.matcher(variableValue).matches()) {
-                    Template valueTemplate = new Template(randomUUID().toString(), variableValue, freemarkerConfiguration);
-                    String evaluatedValue = processTemplateIntoString(valueTemplate, variablesMap);
+                    String evaluatedValue = templateCache.process(variableValue, variablesMap);
 
                     if (VALUE_SUBSTITUTION_PATTERN.matcher(evaluatedValue).matches()) {
                         throw new BenchmarkExecutionException("Recursive value substitution is not supported, invalid " + variableEntry.getKey() + ": " + variableValue);
@@ -331,20 +387,27 @@ public class BenchmarkLoader
     }
 
     @SuppressWarnings("unchecked")
-    private List<Map<String, String>> extractVariableMapList(Map<Object, Object> yaml)
+    private Stream<Map<String, String>> extractVariableMaps(Map<Object, Object> yaml)
     {
         Map<Object, Map<Object, Object>> variableMaps = (Map) yaml.getOrDefault(BenchmarkDescriptor.VARIABLES_KEY, newHashMap());
-        List<Map<String, String>> variableMapList = variableMaps.values()
+        VariablesSampling sampling = Optional.ofNullable(yaml.get(BenchmarkDescriptor.SAMPLING_KEY))
+                .map(value -> VariablesSampling.fromString(value.toString()))
+                .orElse(VariablesSampling.FULL);
+        int samplingSize = Optional.ofNullable(yaml.get(BenchmarkDescriptor.SAMPLING_SIZE_KEY))
+                .map(value -> Integer.parseInt(value.toString()))
+                .orElse(0);
+        long samplingSeed = Optional.ofNullable(yaml.get(BenchmarkDescriptor.SAMPLING_SEED_KEY))
+                .map(value -> Long.parseLong(value.toString()))
+                .orElse(DEFAULT_SAMPLING_SEED);
+        // values not matching active variables are removed before combinations are created and sampled
+        BenchmarkByActiveVariablesFilter activeVariablesFilter = new BenchmarkByActiveVariablesFilter(properties);
+        // streams are concatenated rather than flat mapped, so that a single large product can be split for parallel loading
+        return variableMaps.values()
                 .stream()
                 .map(YamlUtils::stringifyMultimap)
-                .flatMap(variableMap -> CartesianProductUtils.cartesianProduct(variableMap).stream())
-                .collect(toList());
-
-        if (variableMapList.isEmpty()) {
-            variableMapList.add(newHashMap());
-        }
-
-        return variableMapList;
+                .map(activeVariablesFilter::filterValues)
+                .map(variableMap -> sampling.combinations(variableMap, samplingSize, new Random(samplingSeed)))
+                .reduce(Stream.empty(), Stream::concat);
     }
 
     private Predicate<Path> activeBenchmarks()
@@ -13,6 +13,8 @@
  */
 package io.trino.benchto.driver.loader;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
 import io.trino.benchto.driver.BenchmarkExecutionException;
 import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.Query;
@@ -20,13 +22,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.io.Files.getNameWithoutExtension;
 import static java.lang.String.format;
+import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
+import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.util.stream.Collectors.toList;
 
 @Component
@@ -38,17 +51,36 @@ public class QueryLoader
     @Autowired
     private AnnotatedQueryParser annotatedQueryParser;
 
+    // SQL files are indexed once, files created after the first query is loaded are not visible
+    private final Supplier<Set<Path>> sqlFiles = Suppliers.memoize(this::indexSqlFiles);
+
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+
     /**
-     * Loads query from given {@link Path}
+     * Loads query from given {@link Path}, each query file is parsed only once
      *
      * @param queryName - path to SQL query file
      * @return {@link Query} with the SQL query which can be executed on the destination database
      */
     public Query loadFromFile(String queryName)
     {
+        return queries.computeIfAbsent(queryName, this::parseQuery);
+    }
+
+    public List<Query> loadFromFiles(List<String> queryNames)
+    {
+        return queryNames
+                .stream()
+                .map(this::loadFromFile)
+                .collect(toList());
+    }
+
+    private Query parseQuery(String queryName)
+    {
+        Set<Path> sqlFiles = this.sqlFiles.get();
         List<Path> queryPaths = properties.sqlFilesDirs().stream()
-                .map(sqlFilesDir -> sqlFilesDir.resolve(queryName))
-                .filter(Files::isRegularFile)
+                .map(sqlFilesDir -> sqlFilesDir.resolve(queryName).normalize())
+                .filter(sqlFiles::contains)
                 .collect(toList());
 
         if (queryPaths.isEmpty()) {
@@ -69,11 +101,41 @@ public class QueryLoader
         }
     }
 
-    public List<Query> loadFromFiles(List<String> queryNames)
+    private Set<Path> indexSqlFiles()
     {
-        return queryNames
-                .stream()
-                .map(this::loadFromFile)
-                .collect(toList());
+        ImmutableSet.Builder<Path> sqlFiles = ImmutableSet.builder();
+        for (Path sqlFilesDir : properties.sqlFilesDirs()) {
+            if (!Files.isDirectory(sqlFilesDir)) {
+                continue;
+            }
+            try {
+                Files.walkFileTree(sqlFilesDir, EnumSet.of(FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>()
+                {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+                    {
+                        if (attributes.isRegularFile()) {
+                            sqlFiles.add(file.normalize());
+                        }
+                        return CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e)
+                            throws IOException
+                    {
+                        // symbolic link to one of its parent directories, its files are already indexed
+                        if (e instanceof FileSystemLoopException) {
+                            return CONTINUE;
+                        }
+                        throw e;
+                    }
+                });
+            }
+            catch (IOException e) {
+                throw new BenchmarkExecutionException(format("Error during indexing SQL files in %s", sqlFilesDir), e);
+            }
+        }
+        return sqlFiles.build();
     }
 }
@@ -15,20 +15,15 @@ package io.trino.benchto.driver.loader;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import io.trino.benchto.driver.BenchmarkExecutionException;
 import io.trino.benchto.driver.Query;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @Component
 public class SqlStatementGenerator
@@ -36,7 +31,7 @@ public class SqlStatementGenerator
     private static final Splitter SQL_STATEMENT_SPLITTER = Splitter.on(";").trimResults().omitEmptyStrings();
 
     @Autowired
-    private Configuration freemarkerConfiguration;
+    private TemplateCache templateCache;
 
     public List<String> generateQuerySqlStatement(Query query, Map<String, ?> attributes)
     {
@@ -56,11 +51,7 @@ public class SqlStatementGenerator
     private String generateQuerySqlStatement(String sqlTemplate, Map<String, ?> attributes)
     {
         try {
-            // template name must be unique to ensure correct templates caching
-            String templateName = UUID.randomUUID().toString();
-            Template queryTemplate = new Template(templateName, new StringReader(sqlTemplate), freemarkerConfiguration);
-
-            return FreeMarkerTemplateUtils.processTemplateIntoString(queryTemplate, attributes);
+            return templateCache.process(sqlTemplate, attributes);
         }
         catch (IOException | TemplateException e) {
             throw new BenchmarkExecutionException(e);
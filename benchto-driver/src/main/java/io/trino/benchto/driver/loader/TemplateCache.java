@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.loader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.ui.freemarker.FreeMarkerTemplateUtils.processTemplateIntoString;
+
+/**
+ * Keeps compiled FreeMarker templates by their text, so each distinct template is parsed once.
+ */
+@Component
+public class TemplateCache
+{
+    private final Configuration freemarkerConfiguration;
+    private final Cache<String, Template> templates;
+
+    @Autowired
+    public TemplateCache(Configuration freemarkerConfiguration, @Value("${benchmark.template-cache-size:1000}") long maximumSize)
+    {
+        checkArgument(maximumSize > 0, "template cache size must be positive: %s", maximumSize);
+        this.freemarkerConfiguration = freemarkerConfiguration;
+        this.templates = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public String process(String templateText, Map<String, ?> model)
+            throws IOException, TemplateException
+    {
+        return processTemplateIntoString(getTemplate(templateText), model);
+    }
+
+    public Template getTemplate(String templateText)
+            throws IOException
+    {
+        try {
+            return templates.get(templateText, () -> compile(templateText));
+        }
+        catch (ExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public CacheStats getStats()
+    {
+        return templates.stats();
+    }
+
+    private Template compile(String templateText)
+            throws IOException
+    {
+        // name is derived from the content, so that FreeMarker error messages point to the same template
+        String templateName = Hashing.sha256().hashString(templateText, UTF_8).toString();
+        return new Template(templateName, new StringReader(templateText), freemarkerConfiguration);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.loader;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Maps.newHashMap;
+import static io.trino.benchto.driver.utils.CartesianProductUtils.cartesianProduct;
+import static io.trino.benchto.driver.utils.CartesianProductUtils.cartesianProductSize;
+import static io.trino.benchto.driver.utils.CartesianProductUtils.combination;
+import static io.trino.benchto.driver.utils.CartesianProductUtils.lazyCartesianProduct;
+import static java.util.Locale.ENGLISH;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Selects which combinations of benchmark variables are run. Sampling is deterministic for a given seed,
+ * so that the same benchmarks are selected every time a descriptor is loaded.
+ */
+public enum VariablesSampling
+{
+    /**
+     * All combinations of variables values.
+     */
+    FULL {
+        @Override
+        List<Map<String, String>> sample(Map<String, List<String>> variables, int size, Random random)
+        {
+            return cartesianProduct(variables);
+        }
+
+        @Override
+        Stream<Map<String, String>> combinations(Map<String, List<String>> variables, int size, Random random)
+        {
+            return lazyCartesianProduct(variables);
+        }
+    },
+    /**
+     * Combinations covering every pair of values of any two variables at least once.
+     */
+    PAIRWISE {
+        @Override
+        List<Map<String, String>> sample(Map<String, List<String>> variables, int size, Random random)
+        {
+            List<String> keys = sortedKeys(variables);
+            if (keys.size() < 2 || variables.values().stream().anyMatch(List::isEmpty)) {
+                return cartesianProduct(variables);
+            }
+            return new PairwiseCoverage(variables, keys, random).generate();
+        }
+    },
+    /**
+     * Given number of distinct combinations drawn uniformly at random.
+     */
+    RANDOM {
+        @Override
+        List<Map<String, String>> sample(Map<String, List<String>> variables, int size, Random random)
+        {
+            checkSize(size);
+            long total = cartesianProductSize(variables);
+            if (size >= total) {
+                return cartesianProduct(variables);
+            }
+            // Floyd's algorithm draws distinct indexes without enumerating all combinations
+            Set<Long> indexes = new TreeSet<>();
+            for (long bound = total - size; bound < total; bound++) {
+                long index = random.nextLong(bound + 1);
+                if (!indexes.add(index)) {
+                    indexes.add(bound);
+                }
+            }
+            List<String> keys = sortedKeys(variables);
+            return indexes.stream()
+                    .map(index -> combination(variables, keys, index))
+                    .collect(toList());
+        }
+    },
+    /**
+     * Given number of combinations, in which values of every variable are spread evenly.
+     */
+    LATIN_HYPERCUBE {
+        @Override
+        List<Map<String, String>> sample(Map<String, List<String>> variables, int size, Random random)
+        {
+            checkSize(size);
+            if (size >= cartesianProductSize(variables)) {
+                return cartesianProduct(variables);
+            }
+            List<String> keys = sortedKeys(variables);
+            List<List<Integer>> levels = new ArrayList<>();
+            for (String key : keys) {
+                int valuesCount = variables.get(key).size();
+                List<Integer> keyLevels = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    keyLevels.add((int) ((long) i * valuesCount / size));
+                }
+                Collections.shuffle(keyLevels, random);
+                levels.add(keyLevels);
+            }
+
+            Set<Map<String, String>> combinations = new LinkedHashSet<>();
+            for (int i = 0; i < size; i++) {
+                Map<String, String> combination = newHashMap();
+                for (int key = 0; key < keys.size(); key++) {
+                    combination.put(keys.get(key), variables.get(keys.get(key)).get(levels.get(key).get(i)));
+                }
+                combinations.add(combination);
+            }
+            return new ArrayList<>(combinations);
+        }
+    };
+
+    abstract List<Map<String, String>> sample(Map<String, List<String>> variables, int size, Random random);
+
+    /**
+     * Returns the same combinations as {@link #sample(Map, int, Random)}, creating them lazily when possible.
+     */
+    Stream<Map<String, String>> combinations(Map<String, List<String>> variables, int size, Random random)
+    {
+        return sample(variables, size, random).stream();
+    }
+
+    public static VariablesSampling fromString(String value)
+    {
+        return valueOf(value.trim().toUpperCase(ENGLISH).replace('-', '_'));
+    }
+
+    void checkSize(int size)
+    {
+        checkArgument(size > 0, "Variable %s must be positive for %s sampling", BenchmarkDescriptor.SAMPLING_SIZE_KEY, this);
+    }
+
+    private static List<String> sortedKeys(Map<String, List<String>> variables)
+    {
+        return Ordering.natural().sortedCopy(variables.keySet());
+    }
+
+    private static class PairwiseCoverage
+    {
+        private static final int CANDIDATES = 20;
+
+        private final Map<String, List<String>> variables;
+        private final List<String> keys;
+        private final Random random;
+        private final int[] valuesCounts;
+        private final int maxValuesCount;
+        private final Set<Long> uncoveredPairs = new LinkedHashSet<>();
+
+        PairwiseCoverage(Map<String, List<String>> variables, List<String> keys, Random random)
+        {
+            this.variables = variables;
+            this.keys = keys;
+            this.random = random;
+            this.valuesCounts = keys.stream()
+                    .mapToInt(key -> variables.get(key).size())
+                    .toArray();
+            this.maxValuesCount = Arrays.stream(valuesCounts).max().getAsInt();
+            for (int first = 0; first < keys.size(); first++) {
+                for (int second = first + 1; second < keys.size(); second++) {
+                    for (int firstValue = 0; firstValue < valuesCounts[first]; firstValue++) {
+                        for (int secondValue = 0; secondValue < valuesCounts[second]; secondValue++) {
+                            uncoveredPairs.add(pair(first, firstValue, second, secondValue));
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Map<String, String>> generate()
+        {
+            ImmutableList.Builder<Map<String, String>> combinations = ImmutableList.builder();
+            while (!uncoveredPairs.isEmpty()) {
+                int[] best = null;
+                int bestCovered = -1;
+                for (int candidate = 0; candidate < CANDIDATES; candidate++) {
+                    int[] row = candidateRow();
+                    int covered = countUncovered(row);
+                    if (covered > bestCovered) {
+                        best = row;
+                        bestCovered = covered;
+                    }
+                }
+                cover(best);
+                combinations.add(toCombination(best));
+            }
+            return combinations.build();
+        }
+
+        /**
+         * Greedily builds a combination around the first uncovered pair, so that every combination covers at least one new pair.
+         */
+        private int[] candidateRow()
+        {
+            long seedPair = uncoveredPairs.iterator().next();
+            int[] row = new int[keys.size()];
+            Arrays.fill(row, -1);
+            int pairIndex = (int) (seedPair / (keys.size() * maxValuesCount));
+            int pairSecondIndex = (int) (seedPair % (keys.size() * maxValuesCount));
+            row[pairIndex / maxValuesCount] = pairIndex % maxValuesCount;
+            row[pairSecondIndex / maxValuesCount] = pairSecondIndex % maxValuesCount;
+
+            List<Integer> order = new ArrayList<>();
+            for (int key = 0; key < row.length; key++) {
+                if (row[key] == -1) {
+                    order.add(key);
+                }
+            }
+            Collections.shuffle(order, random);
+
+            for (int key : order) {
+                List<Integer> bestValues = new ArrayList<>();
+                int bestCovered = -1;
+                for (int value = 0; value < valuesCounts[key]; value++) {
+                    row[key] = value;
+                    int covered = countUncoveredWith(row, key);
+                    if (covered > bestCovered) {
+                        bestValues.clear();
+                        bestCovered = covered;
+                    }
+                    if (covered == bestCovered) {
+                        bestValues.add(value);
+                    }
+                }
+                row[key] = bestValues.get(random.nextInt(bestValues.size()));
+            }
+            return row;
+        }
+
+        private int countUncovered(int[] row)
+        {
+            int covered = 0;
+            for (int first = 0; first < row.length; first++) {
+                for (int second = first + 1; second < row.length; second++) {
+                    if (uncoveredPairs.contains(pair(first, row[first], second, row[second]))) {
+                        covered++;
+                    }
+                }
+            }
+            return covered;
+        }
+
+        private int countUncoveredWith(int[] row, int key)
+        {
+            int covered = 0;
+            for (int other = 0; other < row.length; other++) {
+                if (other != key && row[other] != -1) {
+                    int first = Math.min(key, other);
+                    int second = Math.max(key, other);
+                    if (uncoveredPairs.contains(pair(first, row[first], second, row[second]))) {
+                        covered++;
+                    }
+                }
+            }
+            return covered;
+        }
+
+        private void cover(int[] row)
+        {
+            for (int first = 0; first < row.length; first++) {
+                for (int second = first + 1; second < row.length; second++) {
+                    uncoveredPairs.remove(pair(first, row[first], second, row[second]));
+                }
+            }
+        }
+
+        private Map<String, String> toCombination(int[] row)
+        {
+            Map<String, String> combination = newHashMap();
+            for (int key = 0; key < row.length; key++) {
+                combination.put(keys.get(key), variables.get(keys.get(key)).get(row[key]));
+            }
+            return combination;
+        }
+
+        private long pair(int first, int firstValue, int second, int secondValue)
+        {
+            long width = (long) keys.size() * maxValuesCount;
+            return ((long) first * maxValuesCount + firstValue) * width + (long) second * maxValuesCount + secondValue;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.presto;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.Measurable;
+import io.trino.benchto.driver.execution.QueryExecutionResult;
+import io.trino.benchto.driver.execution.QueryProgressRecorder;
+import io.trino.benchto.driver.listeners.measurements.PostExecutionMeasurementProvider;
+import io.trino.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+@Component
+public class PrestoProgressMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        ImmutableList.Builder<Measurement> measurements = ImmutableList.builder();
+        if (measurable instanceof QueryExecutionResult executionResult && executionResult.isSuccessful() && executionResult.getProgress().isPresent()) {
+            QueryProgressRecorder progress = executionResult.getProgress().get();
+            progress.getPeakScanRate()
+                    .ifPresent(rate -> measurements.add(measurement("peak_scan_rate", "BYTES_PER_SECOND", rate)));
+            progress.getAverageScanRate()
+                    .ifPresent(rate -> measurements.add(measurement("average_scan_rate", "BYTES_PER_SECOND", rate)));
+            progress.getSplitCompletionSkew()
+                    .ifPresent(skew -> measurements.add(measurement("split_completion_skew", "NONE", skew)));
+        }
+        return completedFuture(measurements.build());
+    }
+}
@@ -14,12 +14,19 @@
 package io.trino.benchto.driver.service;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.trino.benchto.driver.BenchmarkProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
@@ -27,23 +34,34 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static io.trino.benchto.driver.utils.BenchmarkUniqueNameUtils.generateBenchmarkUniqueName;
+import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 
 @Component
 public class BenchmarkServiceClient
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkServiceClient.class);
+    private static final Duration SPOOL_MIN_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration SPOOL_MAX_RETRY_DELAY = Duration.ofMinutes(1);
+    private static final Duration SPOOL_SEND_TIMEOUT = Duration.ofMinutes(5);
+    private static final int SPOOL_MAX_ATTEMPTS = 10;
 
     @Autowired
     private BenchmarkProperties properties;
@@ -51,9 +69,63 @@ public class BenchmarkServiceClient
     @Autowired
     private RestTemplate restTemplate;
 
+    private RequestSpool spool;
+    private OfflineResultsWriter offlineResultsWriter;
+
+    @PostConstruct
+    public void initialize()
+            throws IOException
+    {
+        Optional<Path> offlineResultsDir = properties.getOfflineResultsDir();
+        if (offlineResultsDir.isPresent()) {
+            offlineResultsWriter = new OfflineResultsWriter(offlineResultsDir.get(), jsonObjectMapper());
+            return;
+        }
+        Optional<Path> spoolDir = properties.getServiceSpoolDir();
+        if (spoolDir.isPresent()) {
+            spool = new RequestSpool(spoolDir.get(), jsonObjectMapper(), this::postJson, SPOOL_MIN_RETRY_DELAY, SPOOL_MAX_RETRY_DELAY, SPOOL_MAX_ATTEMPTS);
+        }
+    }
+
+    @PreDestroy
+    public void close()
+            throws IOException, InterruptedException
+    {
+        if (offlineResultsWriter != null) {
+            offlineResultsWriter.close();
+        }
+        if (spool == null) {
+            return;
+        }
+        if (!spool.awaitSent(SPOOL_SEND_TIMEOUT)) {
+            LOGGER.warn("{} requests to benchmark service were not sent, they will be sent on next run using spool {}",
+                    spool.getPendingRequestsCount(), properties.getServiceSpoolDir().get());
+        }
+        spool.close();
+    }
+
+    /**
+     * Results reported while the spool is enabled are sent to the service in background, so the service may be unavailable.
+     */
+    public boolean isSpoolEnabled()
+    {
+        return spool != null;
+    }
+
+    /**
+     * In offline mode the service is not used, results are written to local files.
+     */
+    public boolean isOffline()
+    {
+        return offlineResultsWriter != null;
+    }
+
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public Instant getServiceCurrentTime()
     {
+        if (isOffline()) {
+            return Instant.now();
+        }
         Long serviceCurrentTime = postForObject("/v1/time/current-time-millis", null, Long.class);
         return Instant.ofEpochMilli(requireNonNull(serviceCurrentTime, "service returned null time"));
     }
@@ -61,6 +133,11 @@ public class BenchmarkServiceClient
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public List<String> generateUniqueBenchmarkNames(List<GenerateUniqueNamesRequestItem> generateUniqueNamesRequestItems)
     {
+        if (isOffline()) {
+            return generateUniqueNamesRequestItems.stream()
+                    .map(item -> generateBenchmarkUniqueName(item.getName(), item.getVariables()))
+                    .collect(toImmutableList());
+        }
         String[] uniqueNames = postForObject("/v1/benchmark/generate-unique-names", generateUniqueNamesRequestItems, String[].class);
         return ImmutableList.copyOf(uniqueNames);
     }
@@ -68,42 +145,102 @@ public class BenchmarkServiceClient
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public List<Duration> getBenchmarkSuccessfulExecutionAges(List<String> benchmarkUniqueNames)
     {
+        if (isOffline()) {
+            // same as for benchmarks never executed
+            return nCopies(benchmarkUniqueNames.size(), Duration.ofDays(Integer.MAX_VALUE));
+        }
         Duration[] ages = postForObject("/v1/benchmark/get-successful-execution-ages", benchmarkUniqueNames, Duration[].class);
         return ImmutableList.copyOf(ages);
     }
 
+    /**
+     * Returns percentile of durations of recent successful executions of benchmarks, empty for benchmarks without any.
+     */
+    @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
+    public List<Optional<Duration>> getBenchmarkSuccessfulExecutionDurationPercentiles(List<String> benchmarkUniqueNames, double percentile)
+    {
+        if (isOffline()) {
+            return nCopies(benchmarkUniqueNames.size(), Optional.empty());
+        }
+        Duration[] durations = postForObject(
+                "/v1/benchmark/get-successful-execution-duration-percentiles/{percentile}",
+                benchmarkUniqueNames,
+                Duration[].class,
+                ImmutableMap.of("percentile", String.valueOf(percentile)));
+        return Arrays.stream(durations)
+                .map(Optional::ofNullable)
+                .collect(toImmutableList());
+    }
+
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public String startBenchmark(String uniqueBenchmarkName, String benchmarkSequenceId, BenchmarkStartRequest request)
     {
+        if (isOffline()) {
+            offlineResultsWriter.benchmarkStarted(uniqueBenchmarkName, benchmarkSequenceId, request);
+            return uniqueBenchmarkName;
+        }
         Map<String, String> requestParams = requestParams(uniqueBenchmarkName, benchmarkSequenceId);
 
+        if (spool != null) {
+            // service responds with the same unique name
+            spool.append("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/start", requestParams, request);
+            return uniqueBenchmarkName;
+        }
         return postForObject("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/start", request, requestParams);
     }
 
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public void finishBenchmark(String uniqueBenchmarkName, String benchmarkSequenceId, FinishRequest request)
     {
+        if (isOffline()) {
+            offlineResultsWriter.benchmarkFinished(uniqueBenchmarkName, benchmarkSequenceId, request);
+            return;
+        }
         Map<String, String> requestParams = requestParams(uniqueBenchmarkName, benchmarkSequenceId);
 
-        postForObject("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/finish", request, requestParams);
+        postResult("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/finish", request, requestParams);
     }
 
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public void startExecution(String uniqueBenchmarkName, String benchmarkSequenceId, String executionSequenceId, ExecutionStartRequest request)
     {
+        if (isOffline()) {
+            offlineResultsWriter.executionStarted(uniqueBenchmarkName, benchmarkSequenceId, executionSequenceId, request);
+            return;
+        }
         Map<String, String> requestParams = requestParams(uniqueBenchmarkName, benchmarkSequenceId);
         requestParams.put("executionSequenceId", executionSequenceId);
 
-        postForObject("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", request, requestParams);
+        postResult("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", request, requestParams);
     }
 
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public void finishExecution(String uniqueBenchmarkName, String benchmarkSequenceId, String executionSequenceId, FinishRequest request)
     {
+        if (isOffline()) {
+            offlineResultsWriter.executionFinished(uniqueBenchmarkName, benchmarkSequenceId, executionSequenceId, request);
+            return;
+        }
         Map<String, String> requestParams = requestParams(uniqueBenchmarkName, benchmarkSequenceId);
         requestParams.put("executionSequenceId", executionSequenceId);
 
-        postForObject("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", request, requestParams);
+        postResult("/v1/benchmark/{uniqueBenchmarkName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", request, requestParams);
+    }
+
+    /**
+     * Starts and finishes executions of possibly many benchmarks in a single request, in the order of the events.
+     */
+    @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
+    public void applyExecutionEvents(List<ExecutionEventRequest> events)
+    {
+        if (isOffline()) {
+            for (ExecutionEventRequest event : events) {
+                event.getStart().ifPresent(start -> startExecution(event.getUniqueName(), event.getBenchmarkSequenceId(), event.getExecutionSequenceId(), start));
+                event.getFinish().ifPresent(finish -> finishExecution(event.getUniqueName(), event.getBenchmarkSequenceId(), event.getExecutionSequenceId(), finish));
+            }
+            return;
+        }
+        postResult("/v1/benchmark/batch", events, ImmutableMap.of());
     }
 
     private Map<String, String> requestParams(String uniqueBenchmarkName, String benchmarkSequenceId)
@@ -115,6 +252,35 @@ public class BenchmarkServiceClient
         return params;
     }
 
+    private void postResult(String url, Object request, Map<String, String> requestParams)
+    {
+        if (spool != null) {
+            spool.append(url, requestParams, request);
+        }
+        else {
+            postForObject(url, request, requestParams);
+        }
+    }
+
+    private void postJson(String url, Map<String, String> requestParams, String jsonBody)
+    {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        postForObject(url, new HttpEntity<>(jsonBody, headers), String.class, requestParams);
+    }
+
+    /**
+     * Spooled requests are serialized the same way as requests sent directly.
+     */
+    private ObjectMapper jsonObjectMapper()
+    {
+        return restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseGet(ObjectMapper::new);
+    }
+
     private String postForObject(String url, Object request, Map<String, String> requestParams)
     {
         return postForObject(url, request, String.class, requestParams);
@@ -175,12 +341,84 @@ public class BenchmarkServiceClient
         }
     }
 
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY)
+    public static class ExecutionEventRequest
+    {
+        private final String uniqueName;
+        private final String benchmarkSequenceId;
+        private final String executionSequenceId;
+        private final ExecutionStartRequest start;
+        private final FinishRequest finish;
+
+        private ExecutionEventRequest(String uniqueName, String benchmarkSequenceId, String executionSequenceId, ExecutionStartRequest start, FinishRequest finish)
+        {
+            this.uniqueName = requireNonNull(uniqueName, "uniqueName is null");
+            this.benchmarkSequenceId = requireNonNull(benchmarkSequenceId, "benchmarkSequenceId is null");
+            this.executionSequenceId = requireNonNull(executionSequenceId, "executionSequenceId is null");
+            this.start = start;
+            this.finish = finish;
+        }
+
+        String getUniqueName()
+        {
+            return uniqueName;
+        }
+
+        String getBenchmarkSequenceId()
+        {
+            return benchmarkSequenceId;
+        }
+
+        String getExecutionSequenceId()
+        {
+            return executionSequenceId;
+        }
+
+        Optional<ExecutionStartRequest> getStart()
+        {
+            return Optional.ofNullable(start);
+        }
+
+        Optional<FinishRequest> getFinish()
+        {
+            return Optional.ofNullable(finish);
+        }
+
+        public static ExecutionEventRequest executionStarted(String uniqueName, String benchmarkSequenceId, String executionSequenceId, ExecutionStartRequest start)
+        {
+            return new ExecutionEventRequest(uniqueName, benchmarkSequenceId, executionSequenceId, requireNonNull(start, "start is null"), null);
+        }
+
+        public static ExecutionEventRequest executionFinished(String uniqueName, String benchmarkSequenceId, String executionSequenceId, FinishRequest finish)
+        {
+            return new ExecutionEventRequest(uniqueName, benchmarkSequenceId, executionSequenceId, null, requireNonNull(finish, "finish is null"));
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("uniqueName", uniqueName)
+                    .add("benchmarkSequenceId", benchmarkSequenceId)
+                    .add("executionSequenceId", executionSequenceId)
+                    .add("start", start)
+                    .add("finish", finish)
+                    .toString();
+        }
+    }
+
     @SuppressWarnings("unused")
     @JsonAutoDetect(fieldVisibility = ANY)
     public abstract static class AttributeRequest
     {
         protected Map<String, String> attributes = newHashMap();
 
+        Map<String, String> getAttributes()
+        {
+            return attributes;
+        }
+
         public abstract static class AttributeRequestBuilder<T extends AttributeRequest>
         {
             protected final T request;
@@ -215,6 +453,21 @@ public class BenchmarkServiceClient
         {
         }
 
+        String getName()
+        {
+            return name;
+        }
+
+        String getEnvironmentName()
+        {
+            return environmentName;
+        }
+
+        Map<String, String> getVariables()
+        {
+            return variables;
+        }
+
         public static class BenchmarkStartRequestBuilder
                 extends AttributeRequestBuilder<BenchmarkStartRequest>
         {
@@ -279,7 +532,7 @@ public class BenchmarkServiceClient
     {
         public enum Status
         {
-            STARTED, ENDED, FAILED
+            STARTED, ENDED, FAILED, TIMED_OUT
         }
 
         private Status status;
@@ -292,6 +545,26 @@ public class BenchmarkServiceClient
         {
         }
 
+        Status getStatus()
+        {
+            return status;
+        }
+
+        Optional<Instant> getEndTime()
+        {
+            return Optional.ofNullable(endTime);
+        }
+
+        List<Measurement> getMeasurements()
+        {
+            return measurements;
+        }
+
+        Optional<String> getQueryInfo()
+        {
+            return Optional.ofNullable(queryInfo);
+        }
+
         public static class FinishRequestBuilder
                 extends AttributeRequestBuilder<FinishRequest>
         {
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Estimates offset of the benchmark service clock from the driver clock in the background, so that benchmark threads never
+ * wait for the service. As in NTP, out of recent samples the one with the shortest round trip is trusted the most, and the
+ * estimate is smoothed over time. Error bound of the estimate is half of that round trip, widened by the distance of the
+ * smoothed estimate from the offset of that sample.
+ */
+@Component
+public class ClockOffsetEstimator
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ClockOffsetEstimator.class);
+
+    private static final Duration MAX_CLOCK_DRIFT = Duration.ofSeconds(1);
+    private static final int SAMPLES_WINDOW = 8;
+    private static final double SMOOTHING_FACTOR = 0.25;
+
+    private final ScheduledExecutorService sampler = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("benchmark-service-clock-%d")
+            .setDaemon(true)
+            .build());
+
+    private final BenchmarkServiceClient benchmarkServiceClient;
+    private final long intervalMillis;
+
+    // guarded by this
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private ClockOffset offset;
+
+    @Autowired
+    public ClockOffsetEstimator(
+            BenchmarkServiceClient benchmarkServiceClient,
+            @Value("${benchmark-service.clock-sync.interval-millis:60000}") long intervalMillis)
+    {
+        checkArgument(intervalMillis >= 0, "intervalMillis must not be negative: %s", intervalMillis);
+        this.benchmarkServiceClient = requireNonNull(benchmarkServiceClient, "benchmarkServiceClient is null");
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        // driver clock is the only clock when results are not sent to the service
+        if (intervalMillis > 0 && !benchmarkServiceClient.isOffline()) {
+            sampler.scheduleWithFixedDelay(this::sample, 0, intervalMillis, MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        sampler.shutdownNow();
+    }
+
+    public synchronized Optional<ClockOffset> getOffset()
+    {
+        return Optional.ofNullable(offset);
+    }
+
+    /**
+     * @return driver clock time converted to benchmark service clock, or unchanged time if no offset was estimated yet
+     */
+    public Instant toServiceTime(Instant driverTime)
+    {
+        return getOffset()
+                .map(offset -> driverTime.plus(offset.getOffset()))
+                .orElse(driverTime);
+    }
+
+    private void sample()
+    {
+        try {
+            long requestTime = System.currentTimeMillis();
+            long serviceTime = benchmarkServiceClient.getServiceCurrentTime().toEpochMilli();
+            long responseTime = System.currentTimeMillis();
+            addSample(requestTime, serviceTime, responseTime);
+        }
+        catch (RestClientException e) {
+            LOG.warn("Could not sample benchmark service clock: {}", e.getMessage());
+        }
+    }
+
+    synchronized void addSample(long requestTime, long serviceTime, long responseTime)
+    {
+        long roundTrip = responseTime - requestTime;
+        samples.addLast(new Sample(serviceTime - (requestTime + roundTrip / 2), roundTrip));
+        if (samples.size() > SAMPLES_WINDOW) {
+            samples.removeFirst();
+        }
+
+        Sample best = samples.stream()
+                .min(Comparator.comparingLong(sample -> sample.roundTrip))
+                .get();
+        long offsetMillis = best.offset;
+        if (offset != null) {
+            offsetMillis = Math.round(offset.getOffset().toMillis() + SMOOTHING_FACTOR * (best.offset - offset.getOffset().toMillis()));
+        }
+        long errorBoundMillis = (best.roundTrip + 1) / 2 + Math.abs(offsetMillis - best.offset);
+        offset = new ClockOffset(Duration.ofMillis(offsetMillis), Duration.ofMillis(errorBoundMillis));
+
+        if (offset.getOffset().abs().minus(offset.getErrorBound()).compareTo(MAX_CLOCK_DRIFT) > 0) {
+            LOG.warn("Benchmark service clock is off by {} (+/- {}) from driver clock, assumed sane maximum is {}, end times of results are corrected",
+                    offset.getOffset(), offset.getErrorBound(), MAX_CLOCK_DRIFT);
+        }
+    }
+
+    public static class ClockOffset
+    {
+        private final Duration offset;
+        private final Duration errorBound;
+
+        public ClockOffset(Duration offset, Duration errorBound)
+        {
+            this.offset = requireNonNull(offset, "offset is null");
+            this.errorBound = requireNonNull(errorBound, "errorBound is null");
+        }
+
+        /**
+         * @return time to add to driver clock to get benchmark service clock
+         */
+        public Duration getOffset()
+        {
+            return offset;
+        }
+
+        public Duration getErrorBound()
+        {
+            return errorBound;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("offset", offset)
+                    .add("errorBound", errorBound)
+                    .toString();
+        }
+    }
+
+    private static class Sample
+    {
+        private final long offset;
+        private final long roundTrip;
+
+        private Sample(long offset, long roundTrip)
+        {
+            this.offset = offset;
+            this.roundTrip = roundTrip;
+        }
+    }
+}
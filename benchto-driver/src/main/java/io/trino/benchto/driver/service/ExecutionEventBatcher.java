@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionEventRequest;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Coalesces execution events into batches sent to the benchmark service when {@code maxBatchSize} events are pending or
+ * {@code maxDelayMillis} after the first pending event, whichever comes first. Batches are sent one at a time, in the
+ * order of events.
+ */
+@Component
+@ConditionalOnProperty(prefix = "benchmark-service.batch", value = "enabled")
+public class ExecutionEventBatcher
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutionEventBatcher.class);
+
+    private final ScheduledExecutorService sender = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("benchmark-service-batch-%d")
+            .setDaemon(true)
+            .build());
+
+    private final BenchmarkServiceClient benchmarkServiceClient;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+
+    // guarded by this
+    private final List<PendingEvent> pendingEvents = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    @Autowired
+    public ExecutionEventBatcher(
+            BenchmarkServiceClient benchmarkServiceClient,
+            @Value("${benchmark-service.batch.max-size:100}") int maxBatchSize,
+            @Value("${benchmark-service.batch.max-delay-millis:200}") long maxDelayMillis)
+    {
+        checkArgument(maxBatchSize > 0, "maxBatchSize must be positive: %s", maxBatchSize);
+        checkArgument(maxDelayMillis >= 0, "maxDelayMillis must not be negative: %s", maxDelayMillis);
+        this.benchmarkServiceClient = requireNonNull(benchmarkServiceClient, "benchmarkServiceClient is null");
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * @return future completed once the batch containing the event was accepted by the service
+     */
+    public synchronized CompletableFuture<?> add(ExecutionEventRequest event)
+    {
+        PendingEvent pendingEvent = new PendingEvent(event);
+        pendingEvents.add(pendingEvent);
+        if (pendingEvents.size() >= maxBatchSize) {
+            flush();
+        }
+        else if (scheduledFlush == null) {
+            scheduledFlush = sender.schedule(this::flush, maxDelayMillis, MILLISECONDS);
+        }
+        return pendingEvent.sent;
+    }
+
+    /**
+     * Sends pending events without waiting for the batch to fill up.
+     *
+     * @return future completed once all events added so far were sent
+     */
+    public synchronized CompletableFuture<?> flush()
+    {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingEvent> batch = ImmutableList.copyOf(pendingEvents);
+        pendingEvents.clear();
+
+        CompletableFuture<?> flushed = new CompletableFuture<>();
+        sender.execute(() -> {
+            send(batch);
+            flushed.complete(null);
+        });
+        return flushed;
+    }
+
+    private void send(List<PendingEvent> batch)
+    {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LOG.debug("Sending batch of {} execution events", batch.size());
+        try {
+            benchmarkServiceClient.applyExecutionEvents(batch.stream()
+                    .map(pendingEvent -> pendingEvent.event)
+                    .collect(toImmutableList()));
+            batch.forEach(pendingEvent -> pendingEvent.sent.complete(null));
+        }
+        catch (RuntimeException e) {
+            batch.forEach(pendingEvent -> pendingEvent.sent.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        flush();
+        sender.shutdown();
+    }
+
+    private static class PendingEvent
+    {
+        private final ExecutionEventRequest event;
+        private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+        private PendingEvent(ExecutionEventRequest event)
+        {
+            this.event = requireNonNull(event, "event is null");
+        }
+    }
+}
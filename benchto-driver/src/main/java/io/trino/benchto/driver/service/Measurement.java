@@ -35,6 +35,21 @@ public class Measurement
         return measurement;
     }
 
+    String getName()
+    {
+        return name;
+    }
+
+    String getUnit()
+    {
+        return unit;
+    }
+
+    double getValue()
+    {
+        return value;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -0,0 +1,296 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.BenchmarkStartRequest;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionStartRequest;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Writes results of benchmark runs to CSV files instead of sending them to the benchmark service, one file per run.
+ * Every file has a row of the benchmark run and a row per execution, rows are appended when they are finished, so only
+ * runs and executions in progress are kept in memory. Measurements of the first written row get a numeric column
+ * each, named {@code name [UNIT]}, as the header is written with the first row. All measurements of every row are also
+ * kept in a JSON object column with the same keys. Files can be imported to the service with its
+ * {@code /v1/benchmark/import} endpoint.
+ */
+public class OfflineResultsWriter
+        implements Closeable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(OfflineResultsWriter.class);
+
+    static final List<String> COLUMNS = ImmutableList.of(
+            "benchmark_name",
+            "unique_name",
+            "sequence_id",
+            "environment",
+            "variables",
+            "execution_sequence_id",
+            "status",
+            "started",
+            "ended",
+            "attributes",
+            "query_info",
+            "measurements");
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    // guarded by this, runs are removed once they and all their executions are finished
+    private final Map<String, BenchmarkRunResults> benchmarkRuns = new LinkedHashMap<>();
+
+    public OfflineResultsWriter(Path directory, ObjectMapper objectMapper)
+            throws IOException
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.objectMapper = requireNonNull(objectMapper, "objectMapper is null");
+        Files.createDirectories(directory);
+    }
+
+    public synchronized void benchmarkStarted(String uniqueName, String sequenceId, BenchmarkStartRequest request)
+    {
+        String key = key(uniqueName, sequenceId);
+        if (benchmarkRuns.containsKey(key)) {
+            return;
+        }
+        Path file = directory.resolve(uniqueName + "-" + sequenceId + ".csv");
+        try {
+            BenchmarkRunResults benchmarkRun = new BenchmarkRunResults(uniqueName, sequenceId, request, Instant.now(), file, Files.newBufferedWriter(file, UTF_8));
+            benchmarkRuns.put(key, benchmarkRun);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write results to " + file, e);
+        }
+    }
+
+    public synchronized void benchmarkFinished(String uniqueName, String sequenceId, FinishRequest request)
+    {
+        BenchmarkRunResults benchmarkRun = benchmarkRun(uniqueName, sequenceId);
+        checkState(benchmarkRun.summary.ended.isEmpty(), "Benchmark %s was already finished", uniqueName);
+        benchmarkRun.summary.finish(request);
+        write(benchmarkRun, benchmarkRun.summary);
+        closeIfFinished(benchmarkRun);
+    }
+
+    public synchronized void executionStarted(String uniqueName, String sequenceId, String executionSequenceId, ExecutionStartRequest request)
+    {
+        ResultRow execution = new ResultRow(Optional.of(executionSequenceId), Instant.now());
+        execution.attributes.putAll(request.getAttributes());
+        benchmarkRun(uniqueName, sequenceId).executions.putIfAbsent(executionSequenceId, execution);
+    }
+
+    public synchronized void executionFinished(String uniqueName, String sequenceId, String executionSequenceId, FinishRequest request)
+    {
+        BenchmarkRunResults benchmarkRun = benchmarkRun(uniqueName, sequenceId);
+        ResultRow execution = benchmarkRun.executions.remove(executionSequenceId);
+        checkState(execution != null, "Execution %s of benchmark %s was not started or was already finished", executionSequenceId, uniqueName);
+        execution.finish(request);
+        write(benchmarkRun, execution);
+        // execution finish may be reported after the benchmark finish
+        closeIfFinished(benchmarkRun);
+    }
+
+    private BenchmarkRunResults benchmarkRun(String uniqueName, String sequenceId)
+    {
+        BenchmarkRunResults benchmarkRun = benchmarkRuns.get(key(uniqueName, sequenceId));
+        checkState(benchmarkRun != null, "Benchmark %s was not started or was already finished", uniqueName);
+        return benchmarkRun;
+    }
+
+    private void closeIfFinished(BenchmarkRunResults benchmarkRun)
+    {
+        if (benchmarkRun.summary.ended.isPresent() && benchmarkRun.executions.isEmpty()) {
+            benchmarkRuns.remove(key(benchmarkRun.uniqueName, benchmarkRun.sequenceId));
+            closeWriter(benchmarkRun);
+        }
+    }
+
+    /**
+     * Writes rows of benchmark runs and executions which were not finished.
+     */
+    @Override
+    public synchronized void close()
+    {
+        for (BenchmarkRunResults benchmarkRun : benchmarkRuns.values()) {
+            benchmarkRun.executions.values().forEach(execution -> write(benchmarkRun, execution));
+            if (benchmarkRun.summary.ended.isEmpty()) {
+                write(benchmarkRun, benchmarkRun.summary);
+            }
+            closeWriter(benchmarkRun);
+        }
+        benchmarkRuns.clear();
+    }
+
+    private void write(BenchmarkRunResults benchmarkRun, ResultRow row)
+    {
+        if (benchmarkRun.measurementColumns == null) {
+            benchmarkRun.measurementColumns = ImmutableList.copyOf(row.measurements.keySet());
+            writeRow(benchmarkRun, ImmutableList.<String>builder()
+                    .addAll(COLUMNS)
+                    .addAll(benchmarkRun.measurementColumns)
+                    .build());
+        }
+        List<String> values = new ArrayList<>();
+        // environment may be null
+        values.addAll(Arrays.asList(
+                benchmarkRun.name,
+                benchmarkRun.uniqueName,
+                benchmarkRun.sequenceId,
+                benchmarkRun.environment,
+                toJson(benchmarkRun.variables),
+                row.executionSequenceId.orElse(""),
+                row.status,
+                row.started.toString(),
+                row.ended.map(Instant::toString).orElse(""),
+                toJson(row.attributes),
+                row.queryInfo.orElse(""),
+                toJson(row.measurements)));
+        for (String column : benchmarkRun.measurementColumns) {
+            values.add(Optional.ofNullable(row.measurements.get(column))
+                    .map(String::valueOf)
+                    .orElse(""));
+        }
+        writeRow(benchmarkRun, values);
+    }
+
+    private void writeRow(BenchmarkRunResults benchmarkRun, List<String> values)
+    {
+        try {
+            benchmarkRun.writer.write(values.stream()
+                    .map(OfflineResultsWriter::csvValue)
+                    .collect(joining(",")));
+            benchmarkRun.writer.write('\n');
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write results to " + benchmarkRun.file, e);
+        }
+    }
+
+    private void closeWriter(BenchmarkRunResults benchmarkRun)
+    {
+        try {
+            benchmarkRun.writer.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write results to " + benchmarkRun.file, e);
+        }
+        LOG.info("Results of benchmark {} written to {}", benchmarkRun.uniqueName, benchmarkRun.file);
+    }
+
+    private String toJson(Map<String, ?> values)
+    {
+        try {
+            return objectMapper.writeValueAsString(values);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String csvValue(String value)
+    {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String key(String uniqueName, String sequenceId)
+    {
+        return uniqueName + "/" + sequenceId;
+    }
+
+    private static class BenchmarkRunResults
+    {
+        private final String name;
+        private final String uniqueName;
+        private final String sequenceId;
+        private final String environment;
+        private final Map<String, String> variables;
+        private final ResultRow summary;
+        // executions which were started and not finished yet
+        private final Map<String, ResultRow> executions = new LinkedHashMap<>();
+        private final Path file;
+        private final Writer writer;
+        // set when the header is written
+        private List<String> measurementColumns;
+
+        private BenchmarkRunResults(String uniqueName, String sequenceId, BenchmarkStartRequest request, Instant started, Path file, Writer writer)
+        {
+            this.name = request.getName();
+            this.uniqueName = uniqueName;
+            this.sequenceId = sequenceId;
+            this.environment = request.getEnvironmentName();
+            this.variables = request.getVariables();
+            this.summary = new ResultRow(Optional.empty(), started);
+            summary.attributes.putAll(request.getAttributes());
+            this.file = file;
+            this.writer = writer;
+        }
+    }
+
+    private static class ResultRow
+    {
+        private final Optional<String> executionSequenceId;
+        private final Instant started;
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+        private final Map<String, Double> measurements = new LinkedHashMap<>();
+        private String status = "STARTED";
+        private Optional<Instant> ended = Optional.empty();
+        private Optional<String> queryInfo = Optional.empty();
+
+        private ResultRow(Optional<String> executionSequenceId, Instant started)
+        {
+            this.executionSequenceId = executionSequenceId;
+            this.started = started;
+        }
+
+        private void finish(FinishRequest request)
+        {
+            status = request.getStatus().name();
+            ended = Optional.of(request.getEndTime().orElseGet(Instant::now));
+            queryInfo = request.getQueryInfo();
+            attributes.putAll(request.getAttributes());
+            for (Measurement measurement : request.getMeasurements()) {
+                measurements.put(measurement.getName() + " [" + measurement.getUnit() + "]", measurement.getValue());
+            }
+        }
+    }
+}
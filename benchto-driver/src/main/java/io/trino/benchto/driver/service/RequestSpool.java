@@ -0,0 +1,412 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+/**
+ * Append-only local spool of requests to the benchmark service. Requests are written to the spool file and sent by a
+ * background thread in the order they were appended, retrying while the service is unavailable, so reporting never
+ * waits for the service. Requests not sent before the driver stopped are replayed when the spool is opened again.
+ * <p>
+ * Requests rejected by the service, or failing {@code maxAttempts} times while the service is available, are moved
+ * to a dead-letter file next to the spool file, so they do not block the following requests.
+ * <p>
+ * Every request has a sequence number, the last one accepted by the service is stored next to the spool file. Replayed
+ * requests are safe to send again, as the service ignores repeated starts and identical repeated finishes of benchmarks and
+ * executions.
+ */
+public class RequestSpool
+        implements Closeable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(RequestSpool.class);
+
+    static final String SPOOL_FILE_NAME = "requests.spool";
+    static final String ACKNOWLEDGED_FILE_NAME = "requests.acknowledged";
+    static final String DEAD_LETTER_FILE_NAME = "requests.dead";
+    private static final int ACKNOWLEDGE_BATCH_SIZE = 100;
+
+    public interface RequestSender
+    {
+        void send(String path, Map<String, String> params, String jsonBody);
+    }
+
+    private final Path spoolFile;
+    private final Path acknowledgedFile;
+    private final Path deadLetterFile;
+    private final ObjectMapper objectMapper;
+    private final RequestSender sender;
+    private final Duration minRetryDelay;
+    private final Duration maxRetryDelay;
+    private final int maxAttempts;
+    private final ExecutorService senderExecutor = newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("benchmark-service-spool-%d")
+            .setDaemon(true)
+            .build());
+
+    // guarded by this
+    private final FileChannel channel;
+    private final Deque<SpooledRequest> pendingRequests = new ArrayDeque<>();
+    private long lastSequence;
+    private boolean unsynced;
+    private boolean closed;
+    private long acknowledgedSequence;
+    private int unsavedAcknowledgements;
+
+    public RequestSpool(Path directory, ObjectMapper objectMapper, RequestSender sender, Duration minRetryDelay, Duration maxRetryDelay, int maxAttempts)
+            throws IOException
+    {
+        checkArgument(!minRetryDelay.isNegative() && minRetryDelay.compareTo(maxRetryDelay) <= 0, "Invalid retry delays: %s, %s", minRetryDelay, maxRetryDelay);
+        checkArgument(maxAttempts > 0, "maxAttempts must be positive");
+        this.spoolFile = directory.resolve(SPOOL_FILE_NAME);
+        this.acknowledgedFile = directory.resolve(ACKNOWLEDGED_FILE_NAME);
+        this.deadLetterFile = directory.resolve(DEAD_LETTER_FILE_NAME);
+        this.objectMapper = requireNonNull(objectMapper, "objectMapper is null");
+        this.sender = requireNonNull(sender, "sender is null");
+        this.minRetryDelay = minRetryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.maxAttempts = maxAttempts;
+
+        Files.createDirectories(directory);
+        acknowledgedSequence = Files.exists(acknowledgedFile) ? Long.parseLong(Files.readString(acknowledgedFile, UTF_8).trim()) : 0;
+        lastSequence = acknowledgedSequence;
+        loadPendingRequests();
+        if (!pendingRequests.isEmpty()) {
+            LOG.info("Replaying {} requests to benchmark service from spool {}", pendingRequests.size(), spoolFile);
+        }
+        channel = FileChannel.open(spoolFile, CREATE, WRITE, APPEND);
+        senderExecutor.execute(this::sendRequests);
+    }
+
+    private void loadPendingRequests()
+            throws IOException
+    {
+        if (!Files.exists(spoolFile)) {
+            return;
+        }
+        List<String> pendingLines = new ArrayList<>();
+        for (String line : Files.readAllLines(spoolFile, UTF_8)) {
+            SpooledRequest request;
+            try {
+                request = parse(line);
+            }
+            catch (IOException e) {
+                // the last request may be partially written if the driver was killed
+                LOG.warn("Skipping malformed request in spool {}: {}", spoolFile, line);
+                continue;
+            }
+            if (request.sequence > acknowledgedSequence) {
+                pendingRequests.add(request);
+                pendingLines.add(line);
+                lastSequence = Math.max(lastSequence, request.sequence);
+            }
+        }
+        // rewrite the spool without requests which were already sent
+        Path compactedFile = spoolFile.resolveSibling(SPOOL_FILE_NAME + ".tmp");
+        Files.write(compactedFile, pendingLines, UTF_8);
+        try (FileChannel compacted = FileChannel.open(compactedFile, WRITE)) {
+            compacted.force(true);
+        }
+        Files.move(compactedFile, spoolFile, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the request to the spool, it is sent to the service in background.
+     */
+    public synchronized void append(String path, Map<String, String> params, Object request)
+    {
+        checkState(!closed, "Spool is closed");
+        try {
+            SpooledRequest spooledRequest = new SpooledRequest(lastSequence + 1, path, params, objectMapper.writeValueAsString(request));
+            ByteBuffer buffer = ByteBuffer.wrap(serialize(spooledRequest).getBytes(UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            lastSequence = spooledRequest.sequence;
+            unsynced = true;
+            pendingRequests.add(spooledRequest);
+            notifyAll();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write request to spool " + spoolFile, e);
+        }
+    }
+
+    public synchronized int getPendingRequestsCount()
+    {
+        return pendingRequests.size();
+    }
+
+    /**
+     * @return true if all appended requests were sent to the service within the timeout
+     */
+    public synchronized boolean awaitSent(Duration timeout)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!pendingRequests.isEmpty()) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        return true;
+    }
+
+    private void sendRequests()
+    {
+        Duration retryDelay = minRetryDelay;
+        int attempts = 0;
+        while (true) {
+            try {
+                SpooledRequest request = nextRequest();
+                if (request == null) {
+                    return;
+                }
+                try {
+                    sender.send(request.path, request.params, request.body);
+                }
+                catch (RuntimeException e) {
+                    if (isServiceUnavailable(e)) {
+                        LOG.warn("Could not send request {} to benchmark service, retrying in {}: {}", request.sequence, retryDelay, e.getMessage());
+                    }
+                    else if (!isRetryable(e) || ++attempts >= maxAttempts) {
+                        deadLetter(request, e);
+                        attempts = 0;
+                        retryDelay = minRetryDelay;
+                        continue;
+                    }
+                    else {
+                        LOG.warn("Request {} to benchmark service failed (attempt {} of {}), retrying in {}: {}", request.sequence, attempts, maxAttempts, retryDelay, e.getMessage());
+                    }
+                    Thread.sleep(retryDelay.toMillis());
+                    retryDelay = nextRetryDelay(retryDelay);
+                    continue;
+                }
+                acknowledge(request);
+                attempts = 0;
+                retryDelay = minRetryDelay;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (IOException | RuntimeException e) {
+                LOG.error("Sending requests from spool {} failed, retrying in {}", spoolFile, retryDelay, e);
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                }
+                catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryDelay = nextRetryDelay(retryDelay);
+            }
+        }
+    }
+
+    /**
+     * Service is not reachable or overloaded, the request should be sent again until it is available.
+     */
+    private static boolean isServiceUnavailable(RuntimeException e)
+    {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        return e instanceof HttpServerErrorException serverError && (
+                serverError.getStatusCode().isSameCodeAs(HttpStatus.BAD_GATEWAY) ||
+                        serverError.getStatusCode().isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE) ||
+                        serverError.getStatusCode().isSameCodeAs(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    private static boolean isRetryable(RuntimeException e)
+    {
+        // sending it again would not help
+        if (e instanceof HttpClientErrorException) {
+            return false;
+        }
+        return !(e instanceof HttpServerErrorException serverError) || (
+                !serverError.getStatusCode().isSameCodeAs(HttpStatus.NOT_IMPLEMENTED) &&
+                        !serverError.getStatusCode().isSameCodeAs(HttpStatus.HTTP_VERSION_NOT_SUPPORTED));
+    }
+
+    private Duration nextRetryDelay(Duration retryDelay)
+    {
+        return retryDelay.multipliedBy(2).compareTo(maxRetryDelay) < 0 ? retryDelay.multipliedBy(2) : maxRetryDelay;
+    }
+
+    private void deadLetter(SpooledRequest request, RuntimeException e)
+            throws IOException
+    {
+        LOG.error("Benchmark service did not accept request {} to {}, moving it to {}: {}", request.sequence, request.path, deadLetterFile, e.getMessage());
+        Files.writeString(deadLetterFile, serialize(request), UTF_8, CREATE, WRITE, APPEND);
+        acknowledge(request);
+    }
+
+    private synchronized SpooledRequest nextRequest()
+            throws InterruptedException, IOException
+    {
+        while (pendingRequests.isEmpty() && !closed) {
+            wait();
+        }
+        if (pendingRequests.isEmpty()) {
+            return null;
+        }
+        if (unsynced) {
+            // single sync for all requests appended since the previous one
+            channel.force(false);
+            unsynced = false;
+        }
+        return pendingRequests.peekFirst();
+    }
+
+    private synchronized void acknowledge(SpooledRequest request)
+            throws IOException
+    {
+        try {
+            pendingRequests.removeFirst();
+            acknowledgedSequence = request.sequence;
+            unsavedAcknowledgements++;
+            if (pendingRequests.isEmpty()) {
+                saveAcknowledgedSequence();
+                channel.truncate(0);
+            }
+            else if (unsavedAcknowledgements >= ACKNOWLEDGE_BATCH_SIZE) {
+                saveAcknowledgedSequence();
+            }
+        }
+        finally {
+            notifyAll();
+        }
+    }
+
+    private synchronized void saveAcknowledgedSequence()
+            throws IOException
+    {
+        Path temporaryFile = acknowledgedFile.resolveSibling(ACKNOWLEDGED_FILE_NAME + ".tmp");
+        Files.writeString(temporaryFile, Long.toString(acknowledgedSequence), UTF_8);
+        Files.move(temporaryFile, acknowledgedFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        unsavedAcknowledgements = 0;
+    }
+
+    /**
+     * Stops sending requests, those not sent yet are replayed when the spool is opened again.
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        senderExecutor.shutdownNow();
+        try {
+            senderExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (unsavedAcknowledgements > 0) {
+                saveAcknowledgedSequence();
+            }
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private String serialize(SpooledRequest request)
+            throws IOException
+    {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("sequence", request.sequence)
+                .put("path", request.path)
+                .put("body", request.body);
+        node.set("params", objectMapper.valueToTree(request.params));
+        return objectMapper.writeValueAsString(node) + "\n";
+    }
+
+    private SpooledRequest parse(String line)
+            throws IOException
+    {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.hasNonNull("sequence") || !node.hasNonNull("path") || !node.hasNonNull("body")) {
+            throw new IOException("Incomplete request");
+        }
+        JavaType paramsType = objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class);
+        return new SpooledRequest(
+                node.get("sequence").asLong(),
+                node.get("path").asText(),
+                objectMapper.convertValue(node.get("params"), paramsType),
+                node.get("body").asText());
+    }
+
+    private static class SpooledRequest
+    {
+        private final long sequence;
+        private final String path;
+        private final Map<String, String> params;
+        private final String body;
+
+        private SpooledRequest(long sequence, String path, Map<String, String> params, String body)
+        {
+            this.sequence = sequence;
+            this.path = requireNonNull(path, "path is null");
+            this.params = params == null ? Map.of() : params;
+            this.body = requireNonNull(body, "body is null");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.utils;
+
+import com.google.common.collect.Ordering;
+
+import java.util.Map;
+
+/**
+ * Generates unique benchmark names locally, the same way as benchto-service does.
+ */
+public final class BenchmarkUniqueNameUtils
+{
+    public static String generateBenchmarkUniqueName(String benchmarkName, Map<String, String> benchmarkVariables)
+    {
+        StringBuilder generatedName = new StringBuilder(benchmarkName);
+
+        for (String variableName : Ordering.natural().sortedCopy(benchmarkVariables.keySet())) {
+            generatedName.append('_');
+            generatedName.append(variableName);
+            generatedName.append('=');
+            generatedName.append(benchmarkVariables.get(variableName));
+        }
+
+        // leaves in benchmark name only alphanumerics, underscores and dashes
+        return generatedName.toString().replaceAll("[^A-Za-z0-9_=-]", "_");
+    }
+
+    private BenchmarkUniqueNameUtils()
+    {
+    }
+}
@@ -13,11 +13,17 @@
  */
 package io.trino.benchto.driver.utils;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.LongMath;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.stream.Collectors.toCollection;
 
 /**
  * Utility class for computing cartesian product form a map of lists (multimap).
@@ -29,32 +35,45 @@ public final class CartesianProductUtils
      */
     public static <K, V> List<Map<K, V>> cartesianProduct(Map<K, List<V>> map)
     {
-        List<Map<K, V>> cartesianProducts = newArrayList();
+        return lazyCartesianProduct(map).collect(toCollection(ArrayList::new));
+    }
 
-        if (map.size() > 0) {
-            cartesianProductRecursion(map, newArrayList(map.keySet()), 0, newHashMap(), cartesianProducts);
-        }
+    /**
+     * Returns cartesian product from a multimap in the same order as {@link #cartesianProduct(Map)},
+     * creating each combination map only when it is consumed.
+     */
+    public static <K, V> Stream<Map<K, V>> lazyCartesianProduct(Map<K, List<V>> map)
+    {
+        List<K> keys = ImmutableList.copyOf(map.keySet());
+        return LongStream.range(0, cartesianProductSize(map))
+                .mapToObj(index -> combination(map, keys, index));
+    }
 
-        return cartesianProducts;
+    public static <K, V> long cartesianProductSize(Map<K, List<V>> map)
+    {
+        if (map.isEmpty()) {
+            return 0;
+        }
+        long size = 1;
+        for (List<V> values : map.values()) {
+            size = LongMath.checkedMultiply(size, values.size());
+        }
+        return size;
     }
 
-    private static <K, V> void cartesianProductRecursion(
-            Map<K, List<V>> map, List<K> keys, int index,
-            Map<K, V> accumulator, List<Map<K, V>> cartesianProducts)
+    /**
+     * Returns combination with given index in cartesian product of a multimap, values of the first key change the least often.
+     */
+    public static <K, V> Map<K, V> combination(Map<K, List<V>> map, List<K> keys, long index)
     {
-        K key = keys.get(index);
-        List<V> values = map.get(key);
-
-        for (V value : values) {
-            accumulator.put(key, value);
-
-            if (index == keys.size() - 1) {
-                cartesianProducts.add(newHashMap(accumulator));
-            }
-            else {
-                cartesianProductRecursion(map, keys, index + 1, accumulator, cartesianProducts);
-            }
+        Map<K, V> combination = newHashMap();
+        long remainder = index;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            List<V> values = map.get(keys.get(i));
+            combination.put(keys.get(i), values.get((int) (remainder % values.size())));
+            remainder /= values.size();
         }
+        return combination;
     }
 
     private CartesianProductUtils()
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.utils;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sorts strings in bounded memory. When buffered strings exceed the memory limit, they are sorted
+ * and spilled to a temporary file. Sorted runs are lazily merged when sorted strings are iterated.
+ */
+final class ExternalSorter
+        implements Closeable
+{
+    // approximate memory used by a String object and its reference in the buffer, excluding characters
+    private static final long STRING_OVERHEAD_BYTES = 64;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final long memoryLimitBytes;
+    private final List<String> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<DataInputStream> openedRuns = new ArrayList<>();
+
+    ExternalSorter(long memoryLimitBytes)
+    {
+        checkArgument(memoryLimitBytes > 0, "memoryLimitBytes must be positive");
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+
+    void add(String value)
+            throws IOException
+    {
+        buffer.add(value);
+        bufferedBytes += STRING_OVERHEAD_BYTES + 2L * value.length();
+        if (bufferedBytes >= memoryLimitBytes) {
+            spill();
+        }
+    }
+
+    int getSpilledRunsCount()
+    {
+        return runs.size();
+    }
+
+    /**
+     * Returns added strings in natural order. Must be called once, after all strings were added.
+     */
+    Iterator<String> sorted()
+            throws IOException
+    {
+        buffer.sort(Comparator.naturalOrder());
+        if (runs.isEmpty()) {
+            return buffer.iterator();
+        }
+        ImmutableList.Builder<Iterator<String>> iterators = ImmutableList.builder();
+        iterators.add(buffer.iterator());
+        for (Path run : runs) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), IO_BUFFER_SIZE));
+            openedRuns.add(input);
+            iterators.add(runIterator(input));
+        }
+        return Iterators.mergeSorted(iterators.build(), Comparator.naturalOrder());
+    }
+
+    private void spill()
+            throws IOException
+    {
+        buffer.sort(Comparator.naturalOrder());
+        Path run = Files.createTempFile("benchto-sort-run", ".tmp");
+        runs.add(run);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER_SIZE))) {
+            for (String value : buffer) {
+                // length prefixed, as values may contain line breaks
+                byte[] bytes = value.getBytes(UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        }
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    private static Iterator<String> runIterator(DataInputStream input)
+    {
+        return new AbstractIterator<>()
+        {
+            @Override
+            protected String computeNext()
+            {
+                try {
+                    int length;
+                    try {
+                        length = input.readInt();
+                    }
+                    catch (EOFException e) {
+                        return endOfData();
+                    }
+                    byte[] bytes = new byte[length];
+                    input.readFully(bytes);
+                    return new String(bytes, UTF_8);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        for (DataInputStream input : openedRuns) {
+            input.close();
+        }
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads lines of a file through a sliding memory-mapped window, so that files larger than the heap
+ * (or larger than 2GB which is the limit of a single mapping) can be read without copying them to the heap.
+ */
+final class MappedLineReader
+        implements Closeable
+{
+    private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    MappedLineReader(Path file)
+            throws IOException
+    {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineReader(Path file, int windowSize)
+            throws IOException
+    {
+        checkArgument(windowSize > 0, "windowSize must be positive");
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(file, READ);
+        try {
+            this.size = channel.size();
+            map(0);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return next line without line terminator, or null at the end of the file
+     */
+    String readLine()
+            throws IOException
+    {
+        while (true) {
+            int lineStart = window.position();
+            for (int i = lineStart; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    String line = decode(lineStart, i);
+                    window.position(i + 1);
+                    return line;
+                }
+            }
+            if (windowStart + window.limit() == size) {
+                if (lineStart == window.limit()) {
+                    return null;
+                }
+                String line = decode(lineStart, window.limit());
+                window.position(window.limit());
+                return line;
+            }
+            if (lineStart == 0) {
+                throw new IOException("Line is longer than " + windowSize + " bytes");
+            }
+            // line crosses end of the window, move the window to the start of the line
+            map(windowStart + lineStart);
+        }
+    }
+
+    void reset()
+            throws IOException
+    {
+        map(0);
+    }
+
+    private void map(long position)
+            throws IOException
+    {
+        windowStart = position;
+        window = channel.map(READ_ONLY, position, Math.min(windowSize, size - position));
+    }
+
+    private String decode(int start, int end)
+    {
+        if (end > start && window.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        channel.close();
+    }
+}
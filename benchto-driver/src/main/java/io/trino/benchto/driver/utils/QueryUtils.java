@@ -13,36 +13,59 @@
  */
 package io.trino.benchto.driver.utils;
 
+import com.google.common.collect.AbstractIterator;
 import io.trino.benchto.driver.execution.ResultComparisonException;
+import io.trino.benchto.driver.execution.ResultDigest;
+import io.trino.benchto.driver.execution.ResultsOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.StringJoiner;
 import java.util.stream.IntStream;
 
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.util.stream.Collectors.joining;
 
 public final class QueryUtils
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryUtils.class);
     private static final int LOGGED_ROWS = 10;
+    private static final String DIGEST_FILE_EXTENSION = ".digest";
+    private static final long UNORDERED_COMPARISON_MEMORY_LIMIT_BYTES = 64 * 1024 * 1024;
 
     public static int fetchRows(String sqlStatement, ResultSet resultSet)
             throws SQLException
+    {
+        return fetchRows(sqlStatement, resultSet, () -> {});
+    }
+
+    /**
+     * @param onFirstRow run when the first row is received, the same applies to other methods reading a result set
+     */
+    public static int fetchRows(String sqlStatement, ResultSet resultSet, Runnable onFirstRow)
+            throws SQLException
     {
         LOGGER.info("First {} rows for query: {}", LOGGED_ROWS, sqlStatement);
 
         int rowsCount = 0;
         while (resultSet.next()) {
+            if (rowsCount == 0) {
+                onFirstRow.run();
+            }
             if (rowsCount < LOGGED_ROWS) {
                 logRow(rowsCount + 1, resultSet);
             }
@@ -57,6 +80,12 @@ public final class QueryUtils
 
     public static int compareRows(Path resultFile, ResultSet resultSet)
             throws SQLException
+    {
+        return compareRows(resultFile, resultSet, () -> {});
+    }
+
+    public static int compareRows(Path resultFile, ResultSet resultSet, Runnable onFirstRow)
+            throws SQLException
     {
         LOGGER.info("Comparing result with {}", resultFile);
 
@@ -66,6 +95,9 @@ public final class QueryUtils
                 lineCount++;
                 String resultRow = reader.readLine();
                 boolean hasRows = resultSet.next();
+                if (hasRows && lineCount == 1) {
+                    onFirstRow.run();
+                }
                 if (resultRow == null && !hasRows) {
                     break;
                 }
@@ -90,6 +122,167 @@ public final class QueryUtils
         }
     }
 
+    /**
+     * Compares rows regardless of their order. Both actual rows and lines of the result file are sorted in bounded memory,
+     * spilling sorted runs to temporary files, and then compared in order.
+     */
+    public static int compareRowsUnordered(Path resultFile, ResultSet resultSet, Runnable onFirstRow)
+            throws SQLException
+    {
+        return compareRowsUnordered(resultFile, resultSet, UNORDERED_COMPARISON_MEMORY_LIMIT_BYTES, onFirstRow);
+    }
+
+    static int compareRowsUnordered(Path resultFile, ResultSet resultSet, long memoryLimitBytes, Runnable onFirstRow)
+            throws SQLException
+    {
+        LOGGER.info("Comparing unordered result with {}", resultFile);
+
+        MappedLineReader expectedReader;
+        try {
+            expectedReader = new MappedLineReader(resultFile);
+        }
+        catch (IOException e) {
+            throw new ResultComparisonException("Error opening result file", e);
+        }
+
+        try (expectedReader;
+                ExternalSorter actualSorter = new ExternalSorter(memoryLimitBytes);
+                ExternalSorter expectedSorter = new ExternalSorter(memoryLimitBytes)) {
+            int rowsCount = 0;
+            while (resultSet.next()) {
+                if (rowsCount == 0) {
+                    onFirstRow.run();
+                }
+                actualSorter.add(resultRowToString(resultSet));
+                rowsCount++;
+            }
+            Iterator<String> actualRows = actualSorter.sorted();
+            Iterator<String> expectedRows = sortedLines(expectedReader, expectedSorter);
+
+            int rowNumber = 0;
+            while (true) {
+                rowNumber++;
+                boolean hasExpected = expectedRows.hasNext();
+                boolean hasActual = actualRows.hasNext();
+                if (!hasExpected && !hasActual) {
+                    break;
+                }
+                if (!hasExpected) {
+                    throw new ResultComparisonException(format("Result file has %d lines, actual result has more rows, first unexpected row %s",
+                            rowNumber - 1,
+                            actualRows.next()));
+                }
+                if (!hasActual) {
+                    throw new ResultComparisonException(format("Actual result has %d rows, result file has more lines, first missing row %s",
+                            rowNumber - 1,
+                            expectedRows.next()));
+                }
+                String expectedRow = expectedRows.next();
+                String actualRow = actualRows.next();
+                if (!expectedRow.equals(actualRow)) {
+                    throw new ResultComparisonException(format("Incorrect result at row %d of sorted results, expected %s, got %s",
+                            rowNumber,
+                            expectedRow,
+                            actualRow));
+                }
+            }
+            return rowsCount;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Error while sorting results", e);
+        }
+    }
+
+    /**
+     * Returns lines of the result file in sorted order, the file is read directly if it is already sorted.
+     */
+    private static Iterator<String> sortedLines(MappedLineReader reader, ExternalSorter sorter)
+            throws IOException
+    {
+        boolean sorted = true;
+        String previous = null;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (previous != null && previous.compareTo(line) > 0) {
+                sorted = false;
+                break;
+            }
+            previous = line;
+        }
+        reader.reset();
+
+        if (!sorted) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                sorter.add(line);
+            }
+            return sorter.sorted();
+        }
+        return new AbstractIterator<>()
+        {
+            @Override
+            protected String computeNext()
+            {
+                try {
+                    String line = reader.readLine();
+                    return line == null ? endOfData() : line;
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    public static boolean isDigestFile(Path resultFile)
+    {
+        return resultFile.getFileName().toString().endsWith(DIGEST_FILE_EXTENSION);
+    }
+
+    public static int compareDigest(Path digestFile, ResultSet resultSet, Runnable onFirstRow)
+            throws SQLException
+    {
+        LOGGER.info("Comparing result digest with {}", digestFile);
+
+        ResultDigest expected;
+        try {
+            expected = ResultDigest.parse(Files.readString(digestFile, UTF_8));
+        }
+        catch (IOException e) {
+            throw new ResultComparisonException("Error opening result digest file", e);
+        }
+        catch (IllegalArgumentException e) {
+            throw new ResultComparisonException("Invalid result digest file", e);
+        }
+
+        ResultDigest actual = ResultDigest.compute(resultSet, expected.getOrder(), onFirstRow);
+        if (actual.getRowsCount() != expected.getRowsCount()) {
+            throw new ResultComparisonException(format("Incorrect row count, expected %d, got %d", expected.getRowsCount(), actual.getRowsCount()));
+        }
+        if (!actual.equals(expected)) {
+            throw new ResultComparisonException(format("Incorrect result digest, expected %s, got %s", expected.getHash(), actual.getHash()));
+        }
+        return toIntExact(actual.getRowsCount());
+    }
+
+    public static int writeDigest(Path digestFile, ResultSet resultSet, ResultsOrder order, Runnable onFirstRow)
+            throws SQLException
+    {
+        LOGGER.info("Generating result digest {}", digestFile);
+
+        ResultDigest digest = ResultDigest.compute(resultSet, order, onFirstRow);
+        try {
+            Path parent = digestFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            // concurrent runs of the same query may generate the same file
+            Path temporaryFile = Files.createTempFile(parent, digestFile.getFileName().toString(), ".tmp");
+            Files.writeString(temporaryFile, digest + "\n", UTF_8);
+            Files.move(temporaryFile, digestFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write result digest file " + digestFile, e);
+        }
+        return toIntExact(digest.getRowsCount());
+    }
+
     public static void compareCount(Path resultFile, int rowCount)
     {
         LOGGER.info("Comparing result count with {}", resultFile);
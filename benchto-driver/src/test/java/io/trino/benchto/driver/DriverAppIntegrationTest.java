@@ -91,7 +91,7 @@ public class DriverAppIntegrationTest
     @Test
     public void testConcurrentBenchmark()
     {
-        ImmutableList<String> concurrentQueryMeasurementName = ImmutableList.of("duration");
+        ImmutableList<String> concurrentQueryMeasurementName = ImmutableList.of("duration", "connection_acquisition_time", "macro_time", "submission_time", "time_to_first_row", "fetch_time");
         ImmutableList<String> concurrentBenchmarkMeasurementNames = ImmutableList.<String>builder()
                 .addAll(GRAPHITE_MEASUREMENT_NAMES)
                 .add("throughput")
@@ -190,11 +190,6 @@ public class DriverAppIntegrationTest
 
         List<String> startingUrls = uniqueBenchmarkNames.stream().map("http://benchmark-service:8080/v1/benchmark/%s/BEN_SEQ_ID/start"::formatted).toList();
         for (int i = 0; i < uniqueBenchmarkNames.size(); i++) {
-            restServiceServer.expect(matchAll(
-                    requestTo("http://benchmark-service:8080/v1/time/current-time-millis"),
-                    method(HttpMethod.POST))
-            ).andRespond(request -> withSuccess().contentType(APPLICATION_JSON).body("" + System.currentTimeMillis()).createResponse(request));
-
             restServiceServer.expect(matchAll(
                     requestTo(is(in(startingUrls))),
                     method(HttpMethod.POST),
@@ -238,6 +233,11 @@ public class DriverAppIntegrationTest
         ImmutableList<String> serialQueryMeasurementNames = ImmutableList.<String>builder()
                 .addAll(GRAPHITE_MEASUREMENT_NAMES)
                 .add("duration")
+                .add("connection_acquisition_time")
+                .add("macro_time")
+                .add("submission_time")
+                .add("time_to_first_row")
+                .add("fetch_time")
                 .build();
         verifySerialExecutionStarted(uniqueBenchmarkName, queryName, executionNumber);
         verifyGetGraphiteMeasurements();
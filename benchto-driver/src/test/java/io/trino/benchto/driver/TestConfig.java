@@ -16,6 +16,7 @@ package io.trino.benchto.driver;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.trino.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.trino.benchto.driver.concurrent.ExecutorType;
 import io.trino.benchto.driver.execution.QueryExecution;
 import io.trino.benchto.driver.execution.QueryExecutionDriver;
 import io.trino.benchto.driver.execution.QueryExecutionResult;
@@ -29,6 +30,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
@@ -62,7 +64,7 @@ public class TestConfig
         return new ExecutorServiceFactory()
         {
             @Override
-            public ListeningExecutorService create(int concurrency)
+            public ListeningExecutorService create(int concurrency, ExecutorType executorType)
             {
                 // no concurrency in tests
                 return listeningDecorator(newDirectExecutorService());
@@ -77,10 +79,10 @@ public class TestConfig
         return new QueryExecutionDriver()
         {
             @Override
-            public QueryExecutionResult execute(QueryExecution queryExecution, Connection connection, Optional<Path> resultFile)
+            public QueryExecutionResult execute(QueryExecution queryExecution, Connection connection, Optional<Path> resultFile, Optional<Duration> timeout)
                     throws SQLException
             {
-                QueryExecutionResult executionResult = super.execute(queryExecution, connection, resultFile);
+                QueryExecutionResult executionResult = super.execute(queryExecution, connection, resultFile, timeout);
 
                 // Queries in tests need to seemingly take non-zero duration (measured with seconds precision), even if Graphite precision is subtracted.
                 ZonedDateTime newStart = ((ZonedDateTime) ReflectionTestUtils.getField(executionResult, "utcStart"))
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.concurrent;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.trino.benchto.driver.concurrent.ArrivalDistribution.CONSTANT;
+import static io.trino.benchto.driver.concurrent.ArrivalDistribution.POISSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+
+public class ArrivalScheduleTest
+{
+    @Test
+    public void constantArrivals()
+    {
+        ArrivalSchedule schedule = new ArrivalSchedule(CONSTANT, 3, 1000, new Random(0));
+
+        assertThat(schedule.nextArrival()).isEqualTo(1000);
+        assertThat(schedule.nextArrival()).isEqualTo(1000 + 333_333_333);
+        assertThat(schedule.nextArrival()).isEqualTo(1000 + 666_666_666);
+        assertThat(schedule.nextArrival()).isEqualTo(1000 + 1_000_000_000);
+    }
+
+    @Test
+    public void poissonArrivals()
+    {
+        int arrivals = 100_000;
+        ArrivalSchedule schedule = new ArrivalSchedule(POISSON, 100, 0, new Random(0));
+
+        long previous = schedule.nextArrival();
+        double sumOfSquares = 0;
+        for (int i = 0; i < arrivals; i++) {
+            long arrival = schedule.nextArrival();
+            assertThat(arrival).isGreaterThanOrEqualTo(previous);
+            sumOfSquares += Math.pow(arrival - previous, 2);
+            previous = arrival;
+        }
+
+        // exponentially distributed intervals have the same mean and standard deviation
+        double mean = (double) previous / arrivals;
+        double standardDeviation = Math.sqrt(sumOfSquares / arrivals - mean * mean);
+        assertThat(mean).isCloseTo(10_000_000, offset(200_000.0));
+        assertThat(standardDeviation).isCloseTo(10_000_000, offset(300_000.0));
+    }
+
+    @Test
+    public void parseDistribution()
+    {
+        assertThat(ArrivalDistribution.fromString("poisson")).isEqualTo(POISSON);
+        assertThatThrownBy(() -> ArrivalDistribution.fromString("uniform"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.concurrent;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.benchto.driver.concurrent.ExecutorType.PLATFORM;
+import static io.trino.benchto.driver.concurrent.ExecutorType.VIRTUAL;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutorServiceFactoryTest
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutorServiceFactoryTest.class);
+
+    private static final int CONCURRENCY = 1000;
+
+    private final ExecutorServiceFactory executorServiceFactory = new ExecutorServiceFactory();
+
+    @Test
+    public void parseExecutorType()
+    {
+        assertThat(ExecutorType.fromString("virtual")).isEqualTo(VIRTUAL);
+        assertThat(ExecutorType.fromString(" PLATFORM ")).isEqualTo(PLATFORM);
+    }
+
+    @Test
+    public void virtualThreadsDoNotRequirePlatformThreadPerWorker()
+            throws Exception
+    {
+        int platformThreads = runBlockedWorkers(PLATFORM);
+        int virtualThreads = runBlockedWorkers(VIRTUAL);
+
+        assertThat(platformThreads).isGreaterThanOrEqualTo(CONCURRENCY);
+        assertThat(virtualThreads).isLessThan(CONCURRENCY / 2);
+    }
+
+    @Test
+    public void virtualExecutorBoundsConcurrency()
+            throws Exception
+    {
+        ListeningExecutorService executorService = executorServiceFactory.create(2, VIRTUAL);
+        try {
+            CountDownLatch started = new CountDownLatch(3);
+            CountDownLatch release = new CountDownLatch(1);
+            range(0, 3).forEach(i -> executorService.submit(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            }));
+
+            assertThat(started.await(200, TimeUnit.MILLISECONDS)).isFalse();
+            assertThat(started.getCount()).isEqualTo(1);
+            release.countDown();
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs {@link #CONCURRENCY} workers blocked at the same time and returns number of additional platform threads needed for that.
+     */
+    private int runBlockedWorkers(ExecutorType executorType)
+            throws Exception
+    {
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        OptionalLong rssBefore = residentSetSizeKb();
+
+        ListeningExecutorService executorService = executorServiceFactory.create(CONCURRENCY, executorType);
+        try {
+            CountDownLatch started = new CountDownLatch(CONCURRENCY);
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<?>> futures = range(0, CONCURRENCY)
+                    .mapToObj(i -> executorService.submit(() -> {
+                        started.countDown();
+                        release.await();
+                        return null;
+                    }))
+                    .collect(toImmutableList());
+            assertThat(started.await(1, TimeUnit.MINUTES)).isTrue();
+
+            int additionalThreads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+            OptionalLong rssAfter = residentSetSizeKb();
+            LOG.info("{} executor with {} blocked workers: {} additional platform threads, RSS {} kB -> {} kB",
+                    executorType, CONCURRENCY, additionalThreads, rssBefore, rssAfter);
+
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            return additionalThreads;
+        }
+        finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static OptionalLong residentSetSizeKb()
+    {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return OptionalLong.empty();
+        }
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                    .findFirst();
+        }
+        catch (IOException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
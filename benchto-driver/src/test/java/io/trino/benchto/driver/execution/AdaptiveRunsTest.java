@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.execution.AdaptiveRuns.StopReason;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveRunsTest
+{
+    private static final Query STABLE_QUERY = new Query("stable", "SELECT 1", emptyMap());
+    private static final Query NOISY_QUERY = new Query("noisy", "SELECT 2", emptyMap());
+
+    @Test
+    public void stopsWhenAllQueriesConverge()
+    {
+        AdaptiveRuns adaptiveRuns = new AdaptiveRuns(benchmark(20, Optional.empty()), () -> 0);
+        recordRun(adaptiveRuns, 100, 150);
+        recordRun(adaptiveRuns, 101, 160);
+        recordRun(adaptiveRuns, 99, 140);
+
+        // stable query is already precise enough, only noisy query is repeated
+        assertThat(adaptiveRuns.nextQueries()).containsExactly(NOISY_QUERY);
+        adaptiveRuns.record(NOISY_QUERY.getName(), Duration.ofMillis(150));
+
+        assertThat(adaptiveRuns.nextQueries()).isEmpty();
+        assertThat(adaptiveRuns.getStopReason()).contains(StopReason.CONVERGED);
+        assertThat(adaptiveRuns.getPrecision()).isLessThanOrEqualTo(0.1);
+        assertThat(adaptiveRuns.getAttributes())
+                .containsEntry("adaptive_runs_stop_reason", "converged")
+                .containsEntry("adaptive_runs", "4");
+    }
+
+    @Test
+    public void stopsAfterMaxRuns()
+    {
+        AdaptiveRuns adaptiveRuns = new AdaptiveRuns(benchmark(4, Optional.empty()), () -> 0);
+        recordRun(adaptiveRuns, 100, 100);
+        recordRun(adaptiveRuns, 100, 300);
+        recordRun(adaptiveRuns, 100, 50);
+        assertThat(adaptiveRuns.nextQueries()).containsExactly(NOISY_QUERY);
+
+        adaptiveRuns.record(NOISY_QUERY.getName(), Duration.ofMillis(500));
+        assertThat(adaptiveRuns.nextQueries()).isEmpty();
+        assertThat(adaptiveRuns.getStopReason()).contains(StopReason.MAX_RUNS);
+        assertThat(adaptiveRuns.getPrecision()).isGreaterThan(0.1);
+    }
+
+    @Test
+    public void stopsWhenTimeBudgetIsExhausted()
+    {
+        long[] now = {0};
+        AdaptiveRuns adaptiveRuns = new AdaptiveRuns(benchmark(20, Optional.of(Duration.ofMinutes(1))), () -> now[0]);
+        recordRun(adaptiveRuns, 100, 100);
+        recordRun(adaptiveRuns, 100, 300);
+        assertThat(adaptiveRuns.nextQueries()).containsExactly(NOISY_QUERY);
+
+        now[0] = Duration.ofMinutes(2).toNanos();
+        assertThat(adaptiveRuns.nextQueries()).isEmpty();
+        assertThat(adaptiveRuns.getStopReason()).contains(StopReason.TIME_BUDGET);
+    }
+
+    @Test
+    public void relativeHalfWidth()
+    {
+        AdaptiveRuns adaptiveRuns = new AdaptiveRuns(benchmark(20, Optional.empty()), () -> 0);
+        adaptiveRuns.record(STABLE_QUERY.getName(), Duration.ofMillis(90));
+        adaptiveRuns.record(STABLE_QUERY.getName(), Duration.ofMillis(110));
+        adaptiveRuns.record(NOISY_QUERY.getName(), Duration.ofMillis(90));
+        adaptiveRuns.record(NOISY_QUERY.getName(), Duration.ofMillis(110));
+        adaptiveRuns.nextQueries();
+
+        // t(0.975, 1) * stddev / sqrt(n) / mean = 12.706 * 14.142 / 1.414 / 100
+        assertThat(adaptiveRuns.getPrecision()).isBetween(1.27, 1.271);
+    }
+
+    private static void recordRun(AdaptiveRuns adaptiveRuns, long stableMillis, long noisyMillis)
+    {
+        adaptiveRuns.record(STABLE_QUERY.getName(), Duration.ofMillis(stableMillis));
+        adaptiveRuns.record(NOISY_QUERY.getName(), Duration.ofMillis(noisyMillis));
+    }
+
+    private static Benchmark benchmark(int maxRuns, Optional<Duration> timeBudget)
+    {
+        return new Benchmark.BenchmarkBuilder("adaptive", "sequenceId", List.of(STABLE_QUERY, NOISY_QUERY))
+                .withRuns(3)
+                .withTargetPrecision(Optional.of(0.1))
+                .withMaxRuns(maxRuns)
+                .withTimeBudget(timeBudget)
+                .build();
+    }
+}
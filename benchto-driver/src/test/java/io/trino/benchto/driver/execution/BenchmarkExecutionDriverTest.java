@@ -18,6 +18,7 @@ import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.Query;
 import io.trino.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.trino.benchto.driver.jdbc.ConnectionPoolManager;
 import io.trino.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.trino.benchto.driver.loader.SqlStatementGenerator;
 import io.trino.benchto.driver.macro.MacroService;
@@ -63,6 +64,12 @@ public class BenchmarkExecutionDriverTest
     @Mock
     BenchmarkProperties benchmarkProperties;
 
+    @Mock
+    ConnectionPoolManager connectionPoolManager;
+
+    @Mock
+    QueryTimeouts queryTimeouts;
+
     @InjectMocks
     BenchmarkExecutionDriver driver;
 
@@ -72,7 +79,7 @@ public class BenchmarkExecutionDriverTest
     @Before
     public void setUp()
     {
-        when(executorServiceFactory.create(anyInt())).thenReturn(executorService);
+        when(executorServiceFactory.create(anyInt(), any())).thenReturn(executorService);
         when(benchmarkProperties.isWarmup())
                 .thenReturn(false);
         when(sqlStatementGenerator.generateQuerySqlStatement(any(Query.class), anyMap())).thenReturn(List.of("SELECT 1"));
@@ -113,7 +120,7 @@ public class BenchmarkExecutionDriverTest
     {
         IllegalArgumentException executorServiceException = new IllegalArgumentException();
         doThrow(executorServiceException)
-                .when(executorServiceFactory).create(anyInt());
+                .when(executorServiceFactory).create(anyInt(), any());
 
         List<BenchmarkExecutionResult> results = driver.execute(List.of(mock(Benchmark.class)), 0, 0, Optional.empty());
 
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.execution.ConcurrencySweep.StopReason;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencySweepTest
+{
+    private static final Duration STEP_DURATION = Duration.ofSeconds(10);
+
+    @Test
+    public void stopsAtKnee()
+    {
+        ConcurrencySweep concurrencySweep = new ConcurrencySweep(benchmark(List.of(1, 2, 4, 8, 16)));
+
+        // 10 queries per second per worker up to 4 workers, 8 workers add only 0.5 queries per second each
+        assertThat(concurrencySweep.nextConcurrency()).isEqualTo(1);
+        assertThat(recordStep(concurrencySweep, 10)).isTrue();
+        assertThat(concurrencySweep.nextConcurrency()).isEqualTo(2);
+        assertThat(recordStep(concurrencySweep, 20)).isTrue();
+        assertThat(recordStep(concurrencySweep, 40)).isTrue();
+        assertThat(recordStep(concurrencySweep, 42)).isFalse();
+
+        assertThat(concurrencySweep.getStopReason()).contains(StopReason.KNEE);
+        assertThat(concurrencySweep.getKneeConcurrency()).contains(4);
+        assertThat(concurrencySweep.getSteps())
+                .extracting(ConcurrencySweepStep::getConcurrency)
+                .containsExactly(1, 2, 4, 8);
+        assertThat(concurrencySweep.getSteps().get(2).getThroughput()).isEqualTo(40.0);
+        assertThat(concurrencySweep.getAttributes())
+                .containsEntry("sweep_stop_reason", "knee")
+                .containsEntry("sweep_knee_concurrency", "4")
+                .containsEntry("sweep_steps", "4");
+    }
+
+    @Test
+    public void throughputDropIsKnee()
+    {
+        ConcurrencySweep concurrencySweep = new ConcurrencySweep(benchmark(List.of(2, 4, 8)));
+
+        assertThat(recordStep(concurrencySweep, 20)).isTrue();
+        assertThat(recordStep(concurrencySweep, 15)).isFalse();
+        assertThat(concurrencySweep.getKneeConcurrency()).contains(2);
+    }
+
+    @Test
+    public void stopsAfterLastStep()
+    {
+        ConcurrencySweep concurrencySweep = new ConcurrencySweep(benchmark(List.of(1, 2, 4)));
+
+        assertThat(recordStep(concurrencySweep, 10)).isTrue();
+        assertThat(recordStep(concurrencySweep, 20)).isTrue();
+        assertThat(recordStep(concurrencySweep, 40)).isFalse();
+
+        assertThat(concurrencySweep.getStopReason()).contains(StopReason.LAST_STEP);
+        assertThat(concurrencySweep.getKneeConcurrency()).isEmpty();
+        assertThat(concurrencySweep.getAttributes())
+                .containsEntry("sweep_stop_reason", "last_step")
+                .containsEntry("sweep_knee_concurrency", "none");
+    }
+
+    private static boolean recordStep(ConcurrencySweep concurrencySweep, double throughput)
+    {
+        long queries = Math.round(throughput * STEP_DURATION.toSeconds());
+        return concurrencySweep.recordStep(queries, STEP_DURATION, new LatencyHistogram());
+    }
+
+    private static Benchmark benchmark(List<Integer> concurrencySweep)
+    {
+        Query query = new Query("query", "SELECT 1", emptyMap());
+        return new Benchmark.BenchmarkBuilder("sweep", "sequenceId", List.of(query))
+                .withThroughputTest(true)
+                .withConcurrencySweep(concurrencySweep)
+                .withSweepKneeThreshold(0.1)
+                .build();
+    }
+}
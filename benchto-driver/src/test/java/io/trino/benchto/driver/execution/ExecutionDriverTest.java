@@ -17,6 +17,8 @@ import com.google.common.collect.ImmutableList;
 import io.trino.benchto.driver.Benchmark;
 import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.trino.benchto.driver.graphite.GraphiteProperties;
+import io.trino.benchto.driver.jdbc.ConnectionPoolManager;
 import io.trino.benchto.driver.listeners.benchmark.BenchmarkExecutionListener;
 import io.trino.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.trino.benchto.driver.listeners.benchmark.DefaultBenchmarkExecutionListener;
@@ -34,17 +36,24 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static io.trino.benchto.driver.concurrent.ExecutorType.PLATFORM;
 import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -67,6 +76,9 @@ public class ExecutionDriverTest
     @Mock
     BenchmarkStatusReporter benchmarkStatusReporter;
 
+    @Mock
+    GraphiteProperties graphiteProperties;
+
     @InjectMocks
     ExecutionDriver driver;
 
@@ -76,6 +88,7 @@ public class ExecutionDriverTest
         Benchmark benchmark = mock(Benchmark.class);
         when(benchmark.getName()).thenReturn("mock");
         when(benchmark.getConcurrency()).thenReturn(1);
+        lenient().when(benchmark.getExecutorType()).thenReturn(PLATFORM);
 
         when(benchmarkLoader.loadBenchmarks(anyString()))
                 .thenReturn(ImmutableList.of(benchmark));
@@ -127,6 +140,83 @@ public class ExecutionDriverTest
         verifyNoMoreInteractions(benchmarkExecutionDriver);
     }
 
+    @Test
+    public void groupsOnDifferentDataSourcesAreExecutedConcurrently()
+    {
+        List<Benchmark> benchmarks = ImmutableList.of(benchmark("first", "presto"), benchmark("second", "teradata"), benchmark("third", "presto"));
+        when(benchmarkLoader.loadBenchmarks(anyString()))
+                .thenReturn(benchmarks);
+        when(benchmarkProperties.getMaxParallelBenchmarkGroups())
+                .thenReturn(2);
+
+        // first and second group can finish only when both are running
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<String> finishedGroups = new CopyOnWriteArrayList<>();
+        doAnswer(invocationOnMock -> {
+            List<Benchmark> group = invocationOnMock.getArgument(0);
+            String name = group.get(0).getName();
+            if (!name.equals("third")) {
+                bothStarted.countDown();
+                assertThat(bothStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            finishedGroups.add(name + ":" + invocationOnMock.getArgument(1));
+            return successfulBenchmarkExecution();
+        }).when(benchmarkExecutionDriver).execute(anyList(), anyInt(), anyInt(), any());
+
+        driver.execute();
+
+        assertThat(finishedGroups).containsExactlyInAnyOrder("first:1", "second:2", "third:3");
+        // groups using the same data source are executed in order
+        assertThat(finishedGroups.indexOf("third:3")).isGreaterThan(finishedGroups.indexOf("first:1"));
+    }
+
+    @Test
+    public void overlappingGroupsRunHealthChecksOncePerDataSource()
+    {
+        List<Benchmark> benchmarks = ImmutableList.of(benchmark("first", "presto"), benchmark("first", "presto"), benchmark("second", "teradata"));
+        when(benchmarkLoader.loadBenchmarks(anyString()))
+                .thenReturn(benchmarks);
+        when(benchmarkProperties.getMaxParallelBenchmarkGroups())
+                .thenReturn(2);
+
+        AtomicInteger runningHealthChecks = new AtomicInteger();
+        List<String> healthCheckedDataSources = new CopyOnWriteArrayList<>();
+        doAnswer(invocationOnMock -> {
+            assertThat(runningHealthChecks.incrementAndGet()).as("concurrent health checks").isEqualTo(1);
+            Benchmark benchmark = invocationOnMock.getArgument(1);
+            healthCheckedDataSources.add(benchmark.getDataSource());
+            TimeUtils.sleep(100, TimeUnit.MILLISECONDS);
+            runningHealthChecks.decrementAndGet();
+            return null;
+        }).when(macroService).runBenchmarkMacros(anyList(), any(Benchmark.class));
+
+        // groups can finish only when both are running
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        doAnswer(invocationOnMock -> {
+            bothStarted.countDown();
+            assertThat(bothStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            return successfulBenchmarkExecution();
+        }).when(benchmarkExecutionDriver).execute(anyList(), anyInt(), anyInt(), any());
+
+        driver.execute();
+
+        assertThat(healthCheckedDataSources).containsExactlyInAnyOrder("presto", "teradata");
+    }
+
+    @Test
+    public void graphiteMetricsCannotBeCollectedWithConcurrentGroups()
+    {
+        when(benchmarkProperties.getMaxParallelBenchmarkGroups())
+                .thenReturn(2);
+        when(graphiteProperties.isGraphiteMetricsCollectionEnabled())
+                .thenReturn(true);
+
+        assertThatThrownBy(() -> driver.execute())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Graphite metrics collection cannot be enabled when maxParallelBenchmarkGroups is greater than 1");
+        verify(benchmarkExecutionDriver, never()).execute(anyList(), anyInt(), anyInt(), any());
+    }
+
     @Test
     public void failOnListenerFailure()
     {
@@ -150,6 +240,8 @@ public class ExecutionDriverTest
         ReflectionTestUtils.setField(benchmarkExecutionDriver, "executionSynchronizer", mock(ExecutionSynchronizer.class));
         ReflectionTestUtils.setField(benchmarkExecutionDriver, "statusReporter", statusReporter);
         ReflectionTestUtils.setField(benchmarkExecutionDriver, "properties", benchmarkProperties);
+        ReflectionTestUtils.setField(benchmarkExecutionDriver, "connectionPoolManager", mock(ConnectionPoolManager.class));
+        ReflectionTestUtils.setField(benchmarkExecutionDriver, "queryTimeouts", mock(QueryTimeouts.class));
         ReflectionTestUtils.setField(driver, "benchmarkExecutionDriver", benchmarkExecutionDriver);
         ReflectionTestUtils.setField(driver, "benchmarkStatusReporter", statusReporter);
 
@@ -157,6 +249,14 @@ public class ExecutionDriverTest
                 .hasMessageContaining("programmatic listener failure in testFailingListener");
     }
 
+    private static Benchmark benchmark(String name, String dataSource)
+    {
+        Benchmark benchmark = mock(Benchmark.class);
+        when(benchmark.getName()).thenReturn(name);
+        when(benchmark.getDataSource()).thenReturn(dataSource);
+        return benchmark;
+    }
+
     private void sleepOnSecondDuringMacroExecution()
     {
         doAnswer(invocationOnMock -> {
@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.graphite.GraphiteProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExecutionSynchronizerTest
+{
+    private final ExecutionSynchronizer executionSynchronizer = new ExecutionSynchronizer();
+
+    @Before
+    public void setUp()
+    {
+        GraphiteProperties properties = new GraphiteProperties();
+        ReflectionTestUtils.setField(properties, "graphiteResolutionSeconds", 10);
+        ReflectionTestUtils.setField(properties, "graphiteMetricsCollectionEnabled", true);
+        ReflectionTestUtils.setField(executionSynchronizer, "properties", properties);
+        ReflectionTestUtils.setField(executionSynchronizer, "bucketAlignedWait", true);
+    }
+
+    @Test
+    public void testNextBucketBoundary()
+    {
+        assertThat(executionSynchronizer.nextBucketBoundary(Instant.ofEpochSecond(1000))).isEqualTo(Instant.ofEpochSecond(1010));
+        assertThat(executionSynchronizer.nextBucketBoundary(Instant.ofEpochMilli(1_003_250))).isEqualTo(Instant.ofEpochSecond(1010));
+        assertThat(executionSynchronizer.nextBucketBoundary(Instant.ofEpochMilli(1_009_999))).isEqualTo(Instant.ofEpochSecond(1010));
+    }
+
+    @Test
+    public void testNoWaitWhenBoundaryPassed()
+    {
+        Benchmark benchmark = mock(Benchmark.class);
+        when(benchmark.isSerial()).thenReturn(true);
+        QueryExecutionResult result = mock(QueryExecutionResult.class);
+        when(result.getBenchmark()).thenReturn(benchmark);
+        when(result.getUtcEnd()).thenReturn(Instant.now().minusSeconds(10).atZone(ZoneOffset.UTC));
+
+        long start = System.nanoTime();
+        executionSynchronizer.awaitAfterQueryExecutionAndBeforeResultReport(result);
+
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+        assertThat(executionSynchronizer.getSavedMillis()).isEqualTo(20_000);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void bucketsAreContiguous()
+    {
+        int previousIndex = -1;
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index).isBetween(previousIndex, previousIndex + 1);
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    public void percentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 10_000).forEach(millis -> histogram.record(Duration.ofMillis(millis)));
+
+        assertThat(histogram.getTotalCount()).isEqualTo(10_000);
+        assertThat(histogram.getValueAtPercentile(50).toMillis()).isCloseTo(5_000, withPercentage(2));
+        assertThat(histogram.getValueAtPercentile(90).toMillis()).isCloseTo(9_000, withPercentage(2));
+        assertThat(histogram.getValueAtPercentile(99).toMillis()).isCloseTo(9_900, withPercentage(2));
+        assertThat(histogram.getValueAtPercentile(99.9).toMillis()).isCloseTo(9_990, withPercentage(2));
+        assertThat(histogram.getMax()).isEqualTo(Duration.ofMillis(10_000));
+    }
+
+    @Test
+    public void emptyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(Duration.ZERO);
+        assertThat(histogram.getMax()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void merge()
+    {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            (millis % 2 == 0 ? first : second).record(Duration.ofMillis(millis));
+            all.record(Duration.ofMillis(millis));
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(first);
+        merged.add(second);
+
+        assertThat(merged.getTotalCount()).isEqualTo(all.getTotalCount());
+        assertThat(merged.getMax()).isEqualTo(all.getMax());
+        for (double percentile : new double[] {0, 25, 50, 90, 99, 99.9, 100}) {
+            assertThat(merged.getValueAtPercentile(percentile)).isEqualTo(all.getValueAtPercentile(percentile));
+        }
+    }
+
+    @Test
+    public void coordinatedOmissionCorrection()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 99 fast queries and a stall which prevented 9 other queries from being issued
+        for (int i = 0; i < 99; i++) {
+            histogram.recordWithExpectedInterval(Duration.ofMillis(10), Duration.ofMillis(100));
+        }
+        histogram.recordWithExpectedInterval(Duration.ofSeconds(1), Duration.ofMillis(100));
+
+        assertThat(histogram.getTotalCount()).isEqualTo(109);
+        assertThat(histogram.getValueAtPercentile(90).toMillis()).isCloseTo(10, withPercentage(2));
+        assertThat(histogram.getValueAtPercentile(95).toMillis()).isCloseTo(500, withPercentage(2));
+        assertThat(histogram.getMax()).isEqualTo(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.loader.SqlStatementGenerator;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LatencyRecorderTest
+{
+    @Test
+    public void testFailedAndTimedOutQueriesAreRecorded()
+    {
+        Benchmark benchmark = mock(Benchmark.class);
+        when(benchmark.getExpectedQueryInterval()).thenReturn(Optional.empty());
+        LatencyRecorder recorder = new LatencyRecorder(benchmark);
+
+        recorder.record(result(benchmark, Optional.empty()));
+        recorder.record(result(benchmark, Optional.of(new RuntimeException("failed"))));
+        recorder.record(result(benchmark, Optional.of(new QueryTimeoutException("timed out", null))));
+
+        assertThat(recorder.merge().getTotalCount()).isEqualTo(3);
+    }
+
+    private static QueryExecutionResult result(Benchmark benchmark, Optional<Exception> failure)
+    {
+        QueryExecution queryExecution = new QueryExecution(benchmark, mock(Query.class), 0, new SqlStatementGenerator()
+        {
+            @Override
+            public List<String> generateQuerySqlStatement(Query query, Map<String, ?> attributes)
+            {
+                return Collections.singletonList(query.getSqlTemplate());
+            }
+        });
+        QueryExecutionResult.QueryExecutionResultBuilder builder = new QueryExecutionResult.QueryExecutionResultBuilder(queryExecution)
+                .startTimer()
+                .endTimer();
+        failure.ifPresent(builder::failed);
+        return builder.build();
+    }
+}
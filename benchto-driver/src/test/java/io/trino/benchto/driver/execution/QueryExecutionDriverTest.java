@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.loader.SqlStatementGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryExecutionDriverTest
+{
+    private static final int ROWS = 1_000_000;
+    private static final String VALUE = "0123456789";
+    private static final int COLUMNS = 3;
+
+    private final QueryExecutionDriver driver = new QueryExecutionDriver();
+    private final Multiset<String> resultSetCalls = ConcurrentHashMultiset.create();
+    private Statement statement;
+    private Connection connection;
+
+    @Before
+    public void setUp()
+            throws SQLException
+    {
+        statement = mock(Statement.class);
+        when(statement.executeQuery("SELECT * FROM large_table")).thenReturn(syntheticResultSet());
+        connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    public void fetchesValuesWithoutDrainMode()
+            throws SQLException
+    {
+        QueryExecutionResult result = driver.execute(queryExecution(ImmutableMap.of()), connection, Optional.empty());
+
+        assertThat(result.getRowsCount()).isEqualTo(ROWS);
+        assertThat(result.getReceivedBytes()).isEmpty();
+        assertThat(result.getTimeToFirstRow()).isPresent();
+        assertThat(resultSetCalls.count("getObject")).isGreaterThan(0);
+        verify(statement, never()).setFetchSize(10_000);
+    }
+
+    @Test
+    public void countDrainDoesNotReadValues()
+            throws SQLException
+    {
+        QueryExecutionResult result = driver.execute(queryExecution(ImmutableMap.of("drain", "count")), connection, Optional.empty());
+
+        assertThat(result.getRowsCount()).isEqualTo(ROWS);
+        assertThat(result.getReceivedBytes()).isEmpty();
+        assertThat(resultSetCalls.count("next")).isEqualTo(ROWS + 1);
+        // neither values nor metadata are read, only the cursor is moved
+        assertThat(resultSetCalls.elementSet())
+                .noneMatch(method -> method.startsWith("get") || method.equals("wasNull"));
+        verify(statement).setFetchSize(10_000);
+    }
+
+    @Test
+    public void bytesDrainApproximatesReceivedBytes()
+            throws SQLException
+    {
+        QueryExecutionResult result = driver.execute(queryExecution(ImmutableMap.of("drain", "bytes", "fetch-size", "500")), connection, Optional.empty());
+
+        assertThat(result.getRowsCount()).isEqualTo(ROWS);
+        assertThat(result.getReceivedBytes()).contains((long) ROWS * COLUMNS * VALUE.length());
+        assertThat(resultSetCalls.count("getObject")).isZero();
+        assertThat(resultSetCalls.count("getMetaData")).isEqualTo(1);
+        verify(statement).setFetchSize(500);
+    }
+
+    @Test
+    public void bytesDrainCountsEncodedBytes()
+            throws SQLException
+    {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+        when(metaData.getColumnType(2)).thenReturn(Types.VARBINARY);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenReturn(true, true, false);
+        // 10 and 9 bytes in UTF-8, 3 and 0 bytes of binary values
+        when(resultSet.getString(1)).thenReturn("zażółć", "日本語");
+        when(resultSet.getBytes(2)).thenReturn(new byte[] {1, 2, 3}, (byte[]) null);
+        when(statement.executeQuery("SELECT * FROM multi_byte_table")).thenReturn(resultSet);
+
+        QueryExecutionResult result = driver.execute(queryExecution("SELECT * FROM multi_byte_table", ImmutableMap.of("drain", "bytes")), connection, Optional.empty());
+
+        assertThat(result.getRowsCount()).isEqualTo(2);
+        assertThat(result.getReceivedBytes()).contains(22L);
+        verify(resultSet, never()).getString(2);
+    }
+
+    @Test
+    public void recordsQueryPhases()
+            throws SQLException
+    {
+        QueryExecutionResult result = driver.execute(queryExecution(ImmutableMap.of("drain", "count")), connection, Optional.empty());
+
+        assertThat(result.getSubmissionTime()).isPresent();
+        assertThat(result.getTimeToFirstRow()).isPresent();
+        assertThat(result.getFetchTime()).isPresent();
+        assertThat(result.getSubmissionTime().get()).isLessThanOrEqualTo(result.getTimeToFirstRow().get());
+        assertThat(result.getTimeToFirstRow().get().plus(result.getFetchTime().get())).isLessThanOrEqualTo(result.getQueryDuration());
+        assertThat(resultSetCalls.count("next")).isEqualTo(ROWS + 1);
+    }
+
+    @Test
+    public void doesNotRecordFirstRowOfEmptyResult()
+            throws SQLException
+    {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(statement.executeQuery("SELECT * FROM empty_table")).thenReturn(resultSet);
+
+        QueryExecutionResult result = driver.execute(queryExecution("SELECT * FROM empty_table", ImmutableMap.of("drain", "count")), connection, Optional.empty());
+
+        assertThat(result.getRowsCount()).isZero();
+        assertThat(result.getSubmissionTime()).isPresent();
+        assertThat(result.getTimeToFirstRow()).isEmpty();
+        assertThat(result.getFetchTime()).isPresent();
+    }
+
+    @Test
+    public void doesNotRecordSubmissionOfUpdate()
+            throws SQLException
+    {
+        when(statement.executeUpdate("INSERT INTO t VALUES 1")).thenReturn(1);
+
+        QueryExecutionResult result = driver.execute(queryExecution("INSERT INTO t VALUES 1", ImmutableMap.of()), connection, Optional.empty());
+
+        assertThat(result.getRowsCount()).isEqualTo(1);
+        assertThat(result.getSubmissionTime()).isEmpty();
+        assertThat(result.getFetchTime()).isEmpty();
+    }
+
+    @Test
+    public void cancelsQueryAfterTimeout()
+            throws SQLException
+    {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        when(statement.executeQuery("SELECT * FROM slow_table")).thenAnswer(invocation -> {
+            assertThat(cancelled.await(10, TimeUnit.SECONDS)).isTrue();
+            throw new SQLException("Query was canceled");
+        });
+
+        assertThatThrownBy(() -> driver.execute(queryExecution("SELECT * FROM slow_table", ImmutableMap.of()), connection, Optional.empty(), Optional.of(Duration.ofMillis(100))))
+                .isInstanceOf(QueryTimeoutException.class)
+                .hasMessage("Query large_query was cancelled after timeout of PT0.1S");
+    }
+
+    @Test
+    public void doesNotCancelQueryFinishedBeforeTimeout()
+            throws SQLException
+    {
+        QueryExecutionResult result = driver.execute(queryExecution(ImmutableMap.of("drain", "count")), connection, Optional.empty(), Optional.of(Duration.ofMinutes(1)));
+
+        assertThat(result.getRowsCount()).isEqualTo(ROWS);
+        verify(statement, never()).cancel();
+    }
+
+    private QueryExecution queryExecution(Map<String, String> properties)
+    {
+        return queryExecution("SELECT * FROM large_table", properties);
+    }
+
+    private QueryExecution queryExecution(String sql, Map<String, String> properties)
+    {
+        Query query = new Query("large_query", sql, properties);
+        return new QueryExecution(mock(Benchmark.class), query, 0, new SqlStatementGenerator()
+        {
+            @Override
+            public List<String> generateQuerySqlStatement(Query query, Map<String, ?> attributes)
+            {
+                return Collections.singletonList(query.getSqlTemplate());
+            }
+        });
+    }
+
+    /**
+     * Result set producing {@link #ROWS} rows without keeping them in memory, counting calls of its methods.
+     */
+    private ResultSet syntheticResultSet()
+    {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> COLUMNS;
+                    case "getColumnName" -> "column_" + args[0];
+                    case "getColumnType" -> Types.VARCHAR;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        int[] currentRow = {0};
+        return (ResultSet) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    resultSetCalls.add(method.getName());
+                    return switch (method.getName()) {
+                        case "next" -> ++currentRow[0] <= ROWS;
+                        case "getMetaData" -> metaData;
+                        case "getObject", "getString" -> VALUE;
+                        case "isWrapperFor" -> false;
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class QueryProgressRecorderTest
+{
+    private static final long SECOND = 1_000_000_000L;
+
+    private final QueryProgressRecorder progress = new QueryProgressRecorder(Duration.ofSeconds(1));
+
+    @Test
+    public void keepsSamplesSamplingIntervalApart()
+    {
+        progress.record(0, 0, 0, 0, 0, 10);
+        progress.record(SECOND / 2, 50, 500, 5, 1, 10);
+        progress.record(SECOND, 100, 1000, 10, 2, 10);
+        progress.record(SECOND + SECOND / 2, 150, 1500, 15, 3, 10);
+        progress.record(SECOND + SECOND / 2 + 1, 160, 1600, 16, 4, 10);
+
+        assertThat(progress.getSamplesCount()).isEqualTo(3);
+        assertThat(progress.toCsv()).contains("""
+                elapsed_ms,processed_rows,processed_bytes,cpu_ms,completed_splits,total_splits
+                0,0,0,0,0,10
+                1000,100,1000,10,2,10
+                1500,160,1600,16,4,10
+                """);
+    }
+
+    @Test
+    public void derivesScanRates()
+    {
+        progress.record(0, 0, 0, 0, 0, 10);
+        progress.record(SECOND, 0, 1000, 0, 0, 10);
+        progress.record(2 * SECOND, 0, 4000, 0, 0, 10);
+        // closer than sampling interval, ignored by the peak rate
+        progress.record(2 * SECOND + SECOND / 10, 0, 5000, 0, 0, 10);
+
+        assertThat(progress.getPeakScanRate().getAsDouble()).isCloseTo(3000, within(0.001));
+        assertThat(progress.getAverageScanRate().getAsDouble()).isCloseTo(5000 / 2.1, within(0.001));
+    }
+
+    @Test
+    public void derivesSplitCompletionSkew()
+    {
+        progress.record(0, 0, 0, 0, 0, 10);
+        progress.record(SECOND, 0, 0, 0, 0, 10);
+        progress.record(2 * SECOND, 0, 0, 0, 5, 10);
+        progress.record(3 * SECOND, 0, 0, 0, 9, 10);
+        progress.record(9 * SECOND, 0, 0, 0, 9, 10);
+        progress.record(11 * SECOND, 0, 0, 0, 10, 10);
+
+        // splits completed between 1s and 3s, the last one took another 8s
+        assertThat(progress.getSplitCompletionSkew().getAsDouble()).isCloseTo(0.8, within(0.001));
+    }
+
+    @Test
+    public void noDerivedValuesWithoutEnoughSamples()
+    {
+        assertThat(progress.toCsv()).isEmpty();
+
+        progress.record(0, 0, 0, 0, 0, 10);
+
+        assertThat(progress.getPeakScanRate()).isEmpty();
+        assertThat(progress.getAverageScanRate()).isEmpty();
+        assertThat(progress.getSplitCompletionSkew()).isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.execution;
+
+import io.trino.benchto.driver.Benchmark;
+import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.loader.SqlStatementGenerator;
+import io.trino.benchto.driver.service.BenchmarkServiceClient;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueryTimeoutsTest
+{
+    @Mock
+    BenchmarkServiceClient benchmarkServiceClient;
+
+    @InjectMocks
+    QueryTimeouts queryTimeouts;
+
+    @Test
+    public void timeoutDerivedFromHistoricalDuration()
+    {
+        Benchmark benchmark = benchmark("benchmark", Optional.of(3.0));
+        Benchmark withoutHistory = benchmark("new-benchmark", Optional.of(3.0));
+        when(benchmarkServiceClient.getBenchmarkSuccessfulExecutionDurationPercentiles(List.of("benchmark", "new-benchmark"), 99))
+                .thenReturn(List.of(Optional.of(Duration.ofSeconds(10)), Optional.empty()));
+
+        queryTimeouts.prepare(List.of(benchmark, withoutHistory));
+        // durations are fetched only once
+        queryTimeouts.prepare(List.of(benchmark));
+
+        verify(benchmarkServiceClient).getBenchmarkSuccessfulExecutionDurationPercentiles(List.of("benchmark", "new-benchmark"), 99);
+        assertThat(queryTimeouts.getTimeout(queryExecution(benchmark, Map.of()))).contains(Duration.ofSeconds(30));
+        assertThat(queryTimeouts.getTimeout(queryExecution(withoutHistory, Map.of()))).isEmpty();
+    }
+
+    @Test
+    public void queryTimeoutPropertyTakesPrecedence()
+    {
+        Benchmark benchmark = benchmark("benchmark", Optional.empty());
+
+        queryTimeouts.prepare(List.of(benchmark));
+
+        verifyNoInteractions(benchmarkServiceClient);
+        assertThat(queryTimeouts.getTimeout(queryExecution(benchmark, Map.of("timeout", "PT5M")))).contains(Duration.ofMinutes(5));
+        assertThat(queryTimeouts.getTimeout(queryExecution(benchmark, Map.of()))).isEmpty();
+    }
+
+    private static Benchmark benchmark(String uniqueName, Optional<Double> queryTimeoutFactor)
+    {
+        Benchmark benchmark = new Benchmark.BenchmarkBuilder(uniqueName, "sequenceId", List.of())
+                .withVariables(Map.of())
+                .withQueryTimeoutFactor(queryTimeoutFactor)
+                .build();
+        benchmark.setUniqueName(uniqueName);
+        return benchmark;
+    }
+
+    private static QueryExecution queryExecution(Benchmark benchmark, Map<String, String> properties)
+    {
+        return new QueryExecution(benchmark, new Query("query", "SELECT 1", properties), 0, new SqlStatementGenerator()
+        {
+            @Override
+            public List<String> generateQuerySqlStatement(Query query, Map<String, ?> attributes)
+            {
+                return List.of(query.getSqlTemplate());
+            }
+        });
+    }
+}
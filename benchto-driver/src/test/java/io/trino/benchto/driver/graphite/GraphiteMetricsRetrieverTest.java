@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.graphite;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.benchto.driver.graphite.GraphiteClient.IncompleteDataException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GraphiteMetricsRetrieverTest
+{
+    private static final Map<String, String> METRICS = ImmutableMap.of("cpu", "TARGET_CPU", "network", "TARGET_NETWORK");
+
+    private LocalGraphiteServer graphite;
+    private GraphiteMetricsRetriever retriever;
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        graphite = new LocalGraphiteServer(10);
+
+        GraphiteClient graphiteClient = new GraphiteClient();
+        ReflectionTestUtils.setField(graphiteClient, "graphiteURL", graphite.getUrl());
+        ReflectionTestUtils.setField(graphiteClient, "restTemplate", new RestTemplate());
+        GraphiteProperties graphiteProperties = new GraphiteProperties();
+        ReflectionTestUtils.setField(graphiteProperties, "graphiteResolutionSeconds", 10);
+
+        retriever = new GraphiteMetricsRetriever(graphiteClient, graphiteProperties, 200, 10, 1000);
+    }
+
+    @After
+    public void tearDown()
+    {
+        retriever.shutdown();
+        graphite.close();
+    }
+
+    @Test
+    public void testWindowsAreLoadedWithSingleRequest()
+            throws Exception
+    {
+        CompletableFuture<Map<String, double[]>> first = retriever.loadMetrics(METRICS, 1000, 1100, Instant.now());
+        CompletableFuture<Map<String, double[]>> second = retriever.loadMetrics(METRICS, 1105, 1200, Instant.now());
+        CompletableFuture<Map<String, double[]>> third = retriever.loadMetrics(METRICS, 1250, 1300, Instant.now().plusMillis(50));
+
+        assertThat(first.get().get("cpu")).containsExactly(dataPoints(1010, 1100));
+        assertThat(first.get().get("network")).containsExactly(dataPoints(1010, 1100));
+        assertThat(second.get().get("cpu")).containsExactly(dataPoints(1110, 1200));
+        assertThat(third.get().get("cpu")).containsExactly(dataPoints(1260, 1300));
+        assertThat(graphite.getRenderRequests())
+                .hasSize(1)
+                .allSatisfy(request -> assertThat(request).contains("from=1000&until=1300"));
+
+        // covered by previous request
+        assertThat(retriever.loadMetrics(METRICS, 1050, 1150, Instant.now()).get().get("network")).containsExactly(dataPoints(1060, 1150));
+        assertThat(graphite.getRenderRequests()).hasSize(1);
+    }
+
+    @Test
+    public void testIncompleteDataIsLoadedAgain()
+            throws Exception
+    {
+        graphite.returnIncompleteData(1);
+
+        assertThat(retriever.loadMetrics(METRICS, 1000, 1100, Instant.now()).get().get("cpu")).containsExactly(dataPoints(1010, 1100));
+        assertThat(graphite.getRenderRequests()).hasSize(2);
+    }
+
+    @Test
+    public void testIncompleteDataFailsAfterRetries()
+    {
+        graphite.returnIncompleteData(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> retriever.loadMetrics(METRICS, 1000, 1100, Instant.now()).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IncompleteDataException.class);
+        assertThat(graphite.getRenderRequests()).hasSize(4);
+    }
+
+    private static double[] dataPoints(long from, long to)
+    {
+        return LongStream.iterate(from, timestamp -> timestamp <= to, timestamp -> timestamp + 10)
+                .mapToDouble(timestamp -> timestamp)
+                .toArray();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.graphite;
+
+import com.google.common.base.Splitter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stand-in for Graphite render API. Every target has a data point for each {@code resolutionSeconds} aligned second, with
+ * value equal to that second.
+ */
+class LocalGraphiteServer
+        implements Closeable
+{
+    private static final Pattern ALIAS_TARGET = Pattern.compile("alias\\((.+),'(.+)'\\)");
+
+    private final HttpServer server;
+    private final int resolutionSeconds;
+    private final List<String> renderRequests = new ArrayList<>();
+    private final AtomicInteger incompleteResponses = new AtomicInteger();
+
+    LocalGraphiteServer(int resolutionSeconds)
+            throws IOException
+    {
+        this.resolutionSeconds = resolutionSeconds;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/render", this::render);
+        server.start();
+    }
+
+    String getUrl()
+    {
+        return format("http://localhost:%d", server.getAddress().getPort());
+    }
+
+    synchronized List<String> getRenderRequests()
+    {
+        return new ArrayList<>(renderRequests);
+    }
+
+    /**
+     * Last data point of every target is null in the next {@code count} responses.
+     */
+    void returnIncompleteData(int count)
+    {
+        incompleteResponses.set(count);
+    }
+
+    private void render(HttpExchange exchange)
+            throws IOException
+    {
+        String query = exchange.getRequestURI().getRawQuery();
+        synchronized (this) {
+            renderRequests.add(query);
+        }
+        long from = 0;
+        long until = 0;
+        List<String> targets = new ArrayList<>();
+        for (String parameter : Splitter.on('&').split(query)) {
+            List<String> keyValue = Splitter.on('=').limit(2).splitToList(parameter);
+            String value = URLDecoder.decode(keyValue.get(1), UTF_8);
+            switch (keyValue.get(0)) {
+                case "from" -> from = Long.parseLong(value);
+                case "until" -> until = Long.parseLong(value);
+                case "target" -> targets.add(value);
+                default -> {}
+            }
+        }
+        boolean incomplete = incompleteResponses.getAndDecrement() > 0;
+
+        StringBuilder response = new StringBuilder("[");
+        for (String target : targets) {
+            Matcher matcher = ALIAS_TARGET.matcher(target);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Unsupported target: " + target);
+            }
+            if (response.length() > 1) {
+                response.append(',');
+            }
+            response.append(format("{\"target\":\"%s\",\"datapoints\":[", matcher.group(2)));
+            long last = until - until % resolutionSeconds;
+            for (long timestamp = (from / resolutionSeconds + 1) * resolutionSeconds; timestamp <= last; timestamp += resolutionSeconds) {
+                String value = incomplete && timestamp == last ? "null" : Long.toString(timestamp);
+                response.append(format("[%s,%d]", value, timestamp));
+                if (timestamp < last) {
+                    response.append(',');
+                }
+            }
+            response.append("]}");
+        }
+        response.append(']');
+
+        byte[] body = response.toString().getBytes(UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+    }
+}
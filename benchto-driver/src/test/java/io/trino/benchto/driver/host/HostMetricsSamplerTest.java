@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.host;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HostMetricsSamplerTest
+{
+    private Path procDir;
+    private HostMetricsSampler sampler;
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        procDir = Files.createTempDirectory("proc");
+        Files.createDirectory(procDir.resolve("net"));
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L, 1100L, 1200L);
+        sampler = new HostMetricsSampler(procDir, Duration.ofMillis(100), 10, clock);
+    }
+
+    @Test
+    public void testSampleProcFiles()
+            throws IOException
+    {
+        writeProcFiles("cpu  100 0 100 800 0 0 0 0 0 0", 1000, 500);
+        sampler.sample();
+        assertThat(sampler.getSamples(Instant.EPOCH, Instant.ofEpochSecond(10))).isEmpty();
+
+        writeProcFiles("cpu  200 0 200 1300 100 0 0 0 0 0", 2000, 1000);
+        sampler.sample();
+
+        List<HostMetricsSample> samples = sampler.getSamples(Instant.EPOCH, Instant.ofEpochSecond(10));
+        assertThat(samples).hasSize(1);
+        HostMetricsSample sample = samples.get(0);
+        assertThat(sample.getTimestampMillis()).isEqualTo(1100);
+        assertThat(sample.getCpuPercent()).isCloseTo(25, within(0.001));
+        assertThat(sample.getMemoryPercent()).isCloseTo(75, within(0.001));
+        assertThat(sample.getNetworkBytesPerSecond()).isCloseTo(15000, within(0.001));
+        assertThat(sample.getNetworkBytes()).isEqualTo(3000);
+    }
+
+    @Test
+    public void testSamplesWindow()
+            throws IOException
+    {
+        writeProcFiles("cpu  100 0 100 800 0 0 0 0 0 0", 1000, 500);
+        sampler.sample();
+        sampler.sample();
+        sampler.sample();
+
+        assertThat(sampler.getSamples(Instant.ofEpochMilli(1150), Instant.ofEpochMilli(1200)))
+                .extracting(HostMetricsSample::getTimestampMillis)
+                .containsExactly(1100L, 1200L);
+        assertThat(sampler.getSamples(Instant.ofEpochMilli(1000), Instant.ofEpochMilli(1150)))
+                .extracting(HostMetricsSample::getTimestampMillis)
+                .containsExactly(1100L, 1200L);
+        assertThat(sampler.getSamples(Instant.ofEpochMilli(1000), Instant.ofEpochMilli(1100)))
+                .extracting(HostMetricsSample::getTimestampMillis)
+                .containsExactly(1100L);
+        assertThat(sampler.getSamples(Instant.ofEpochMilli(1150), Instant.ofEpochMilli(1250)))
+                .extracting(HostMetricsSample::getTimestampMillis)
+                .containsExactly(1100L, 1200L);
+    }
+
+    @Test
+    public void testRingBufferKeepsMostRecentSamples()
+    {
+        SampleRingBuffer buffer = new SampleRingBuffer(3);
+        for (long timestamp = 0; timestamp < 5; timestamp++) {
+            buffer.add(new HostMetricsSample(timestamp, 0, 0, 0, 0));
+        }
+
+        assertThat(buffer.getSamples())
+                .extracting(HostMetricsSample::getTimestampMillis)
+                .containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    public void testRingBufferReadConcurrentlyWithWrites()
+            throws InterruptedException
+    {
+        SampleRingBuffer buffer = new SampleRingBuffer(4);
+        Thread writer = new Thread(() -> {
+            for (long timestamp = 0; timestamp < 1_000_000; timestamp++) {
+                buffer.add(new HostMetricsSample(timestamp, 0, 0, 0, 0));
+            }
+        });
+        writer.start();
+        try {
+            while (writer.isAlive()) {
+                List<HostMetricsSample> samples = buffer.getSamples();
+                // a sample overwritten while copying would break the sequence
+                for (int i = 1; i < samples.size(); i++) {
+                    assertThat(samples.get(i).getTimestampMillis()).isEqualTo(samples.get(i - 1).getTimestampMillis() + 1);
+                }
+            }
+        }
+        finally {
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testMeasurements()
+    {
+        List<HostMetricsSample> samples = List.of(
+                new HostMetricsSample(1000, 90, 50, 0, 1000),
+                new HostMetricsSample(1100, 10, 40, 20000, 3000),
+                new HostMetricsSample(1200, 30, 60, 30000, 6000));
+
+        assertThat(HostMetricsLoader.toMeasurements(samples, Instant.ofEpochMilli(1000))).containsExactly(
+                measurement("driver-cpu_max", "PERCENT", 30),
+                measurement("driver-cpu_mean", "PERCENT", 20),
+                measurement("driver-memory_max", "PERCENT", 60),
+                measurement("driver-memory_mean", "PERCENT", 50),
+                measurement("driver-network_max", "BYTES", 30000),
+                measurement("driver-network_mean", "BYTES", 25000),
+                measurement("driver-network_total", "BYTES", 5000));
+    }
+
+    @Test
+    public void testNoNetworkTotalWhenStartIsNoLongerBuffered()
+    {
+        List<HostMetricsSample> samples = List.of(
+                new HostMetricsSample(1100, 10, 40, 20000, 3000),
+                new HostMetricsSample(1200, 30, 60, 30000, 6000));
+
+        assertThat(HostMetricsLoader.toMeasurements(samples, Instant.ofEpochMilli(1000)))
+                .extracting("name")
+                .contains("driver-network_mean")
+                .doesNotContain("driver-network_total");
+    }
+
+    private void writeProcFiles(String cpuLine, long receivedBytes, long transmittedBytes)
+            throws IOException
+    {
+        Files.writeString(procDir.resolve("stat"), cpuLine + "\ncpu0 1 2 3 4 5 6 7 8 9 10\nintr 12345\n");
+        Files.writeString(procDir.resolve("meminfo"), "MemTotal:        1000 kB\nMemFree:          100 kB\nMemAvailable:     250 kB\n");
+        Files.writeString(procDir.resolve("net/dev"), "Inter-|   Receive                                                |  Transmit\n" +
+                " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop fifo colls carrier compressed\n" +
+                "    lo: 99999 10 0 0 0 0 0 0 99999 10 0 0 0 0 0 0\n" +
+                format("  eth0: %d 10 0 0 0 0 0 0 %d 10 0 0 0 0 0 0\n", receivedBytes, transmittedBytes));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jdbc;
+
+import com.google.common.base.Stopwatch;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConnectionPoolManagerTest
+{
+    private static final String DATA_SOURCE = "pool_test";
+    private static final long CONNECTION_TIMEOUT_MILLIS = 30_000;
+    private static final long SHORT_CONNECTION_TIMEOUT_MILLIS = 1_000;
+
+    private GenericApplicationContext applicationContext;
+
+    @After
+    public void tearDown()
+    {
+        if (applicationContext != null) {
+            applicationContext.getBean(DATA_SOURCE, HikariDataSource.class).close();
+            applicationContext.close();
+        }
+    }
+
+    @Test
+    public void poolIsGrownAndPrefilled()
+            throws SQLException
+    {
+        ConnectionPoolManager connectionPoolManager = connectionPoolManager(true, CONNECTION_TIMEOUT_MILLIS);
+        HikariDataSource dataSource = applicationContext.getBean(DATA_SOURCE, HikariDataSource.class);
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(2);
+
+        connectionPoolManager.prepare(DATA_SOURCE, 4);
+
+        // one additional connection is used by macros
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isEqualTo(5);
+        assertThat(dataSource.getHikariPoolMXBean().getIdleConnections()).isEqualTo(5);
+
+        // prefilled connections are acquired without opening new ones
+        List<Connection> connections = acquire(dataSource, 5);
+        assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(5);
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isEqualTo(5);
+        close(connections);
+
+        // pool is never shrunk
+        connectionPoolManager.prepare(DATA_SOURCE, 1);
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+    }
+
+    @Test
+    public void poolIsNotPrefilledWhenDisabled()
+            throws SQLException
+    {
+        ConnectionPoolManager connectionPoolManager = connectionPoolManager(false, CONNECTION_TIMEOUT_MILLIS);
+        HikariDataSource dataSource = applicationContext.getBean(DATA_SOURCE, HikariDataSource.class);
+
+        connectionPoolManager.prepare(DATA_SOURCE, 4);
+
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isZero();
+    }
+
+    @Test
+    public void acquisitionWaitsForConnectionTimeoutWhenPoolIsExhausted()
+            throws SQLException
+    {
+        ConnectionPoolManager connectionPoolManager = connectionPoolManager(true, SHORT_CONNECTION_TIMEOUT_MILLIS);
+        HikariDataSource dataSource = applicationContext.getBean(DATA_SOURCE, HikariDataSource.class);
+        connectionPoolManager.prepare(DATA_SOURCE, 1);
+        List<Connection> connections = acquire(dataSource, 2);
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(stopwatch.elapsed(MILLISECONDS)).isGreaterThanOrEqualTo(SHORT_CONNECTION_TIMEOUT_MILLIS);
+
+        // connection returned to the pool is acquired immediately
+        connections.remove(0).close();
+        stopwatch.reset().start();
+        connections.add(dataSource.getConnection());
+        assertThat(stopwatch.elapsed(MILLISECONDS)).isLessThan(SHORT_CONNECTION_TIMEOUT_MILLIS);
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isEqualTo(2);
+        close(connections);
+    }
+
+    private ConnectionPoolManager connectionPoolManager(boolean prefill, long connectionTimeoutMillis)
+    {
+        String prefix = "data-sources." + DATA_SOURCE + ".";
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(prefix + "url", "jdbc:hsqldb:mem:" + DATA_SOURCE);
+        properties.put(prefix + "username", "sa");
+        properties.put(prefix + "password", "");
+        properties.put(prefix + "driver-class-name", "org.hsqldb.jdbc.JDBCDriver");
+        properties.put(prefix + "pool.enabled", "true");
+        properties.put(prefix + "pool.maximum-pool-size", "2");
+        properties.put(prefix + "pool.minimum-idle", "0");
+        properties.put(prefix + "pool.connection-timeout", connectionTimeoutMillis + "ms");
+        properties.put(prefix + "pool.prefill", String.valueOf(prefill));
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+
+        MultipleDataSourcesConfiguration dataSourcesConfiguration = new MultipleDataSourcesConfiguration();
+        dataSourcesConfiguration.setEnvironment(environment);
+        applicationContext = new GenericApplicationContext();
+        dataSourcesConfiguration.postProcessBeanFactory(applicationContext.getBeanFactory());
+        applicationContext.refresh();
+
+        ConnectionPoolManager connectionPoolManager = new ConnectionPoolManager();
+        connectionPoolManager.setEnvironment(environment);
+        ReflectionTestUtils.setField(connectionPoolManager, "applicationContext", applicationContext);
+        return connectionPoolManager;
+    }
+
+    private static List<Connection> acquire(HikariDataSource dataSource, int count)
+            throws SQLException
+    {
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            connections.add(dataSource.getConnection());
+        }
+        return connections;
+    }
+
+    private static void close(List<Connection> connections)
+            throws SQLException
+    {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+}
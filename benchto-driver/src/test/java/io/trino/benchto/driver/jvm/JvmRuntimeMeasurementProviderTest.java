@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.jvm;
+
+import com.google.common.base.Stopwatch;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JvmRuntimeMeasurementProviderTest
+{
+    @Test
+    public void testSnapshotOfLocalJvm()
+            throws Exception
+    {
+        JvmRuntimeSnapshot snapshot = JvmRuntimeSampler.snapshot(ManagementFactory.getPlatformMBeanServer(), 1000);
+
+        assertThat(snapshot.getTimestampMillis()).isEqualTo(1000);
+        assertThat(snapshot.getGcCount()).isNotNegative();
+        assertThat(snapshot.getGcTimeMillis()).isNotNegative();
+        assertThat(snapshot.getAllocatedBytes()).isPositive();
+        assertThat(snapshot.getHeapUsedBytes()).isPositive();
+        assertThat(snapshot.getThreadCount()).isPositive();
+    }
+
+    @Test
+    public void testConnectTimeout()
+            throws Exception
+    {
+        JvmRuntimeProperties properties = new JvmRuntimeProperties();
+        properties.setConnectTimeout(Duration.ofMillis(500));
+        JvmRuntimeSampler sampler = new JvmRuntimeSampler();
+        ReflectionTestUtils.setField(sampler, "properties", properties);
+
+        // connection is established, but never answered
+        try (ServerSocket unresponsiveHost = new ServerSocket(0)) {
+            properties.getJmx().setPort(unresponsiveHost.getLocalPort());
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            assertThatThrownBy(() -> sampler.connect("localhost"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("timed out");
+            assertThat(stopwatch.elapsed()).isLessThan(Duration.ofSeconds(10));
+
+            // next sampling waits for the same attempt instead of starting another one
+            assertThatThrownBy(() -> sampler.connect("localhost"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("timed out");
+            ThreadPoolExecutor connectExecutor = (ThreadPoolExecutor) ReflectionTestUtils.getField(sampler, "connectExecutor");
+            assertThat(connectExecutor.getTaskCount()).isEqualTo(1);
+        }
+        finally {
+            sampler.shutdown();
+        }
+    }
+
+    @Test
+    public void testMeasurements()
+    {
+        List<JvmRuntimeSnapshot> firstWorker = List.of(
+                new JvmRuntimeSnapshot(1000, 10, 100, 1000, 50, 500, 20),
+                new JvmRuntimeSnapshot(2000, 12, 150, 3000, 60, 900, 30),
+                new JvmRuntimeSnapshot(3000, 13, 170, 5000, 65, 700, 25));
+        List<JvmRuntimeSnapshot> secondWorker = List.of(
+                new JvmRuntimeSnapshot(1500, 0, 0, 0, 0, 100, 10),
+                new JvmRuntimeSnapshot(3500, 1, 30, 2000, 5, 1000, 10));
+        // did not respond during the execution
+        List<JvmRuntimeSnapshot> thirdWorker = List.of(
+                new JvmRuntimeSnapshot(1000, 0, 0, 0, 0, 5000, 100));
+
+        assertThat(JvmRuntimeMeasurementProvider.toMeasurements("worker", List.of(firstWorker, secondWorker, thirdWorker), Instant.ofEpochMilli(1500), Instant.ofEpochMilli(2500)))
+                .containsExactly(
+                        measurement("worker-gc_count", "NONE", 4),
+                        measurement("worker-gc_time", "MILLISECONDS", 100),
+                        measurement("worker-allocated_bytes", "BYTES", 6000),
+                        measurement("worker-allocation_rate", "BYTES_PER_SECOND", 3000),
+                        measurement("worker-safepoint_time", "MILLISECONDS", 20),
+                        measurement("worker-heap_used_max", "BYTES", 1000),
+                        measurement("worker-thread_count_max", "NONE", 30));
+    }
+
+    @Test
+    public void testUnknownCountersAreNotReported()
+    {
+        List<JvmRuntimeSnapshot> coordinator = List.of(
+                new JvmRuntimeSnapshot(1000, 0, 0, -1, -1, 100, 10),
+                new JvmRuntimeSnapshot(2000, 1, 10, -1, -1, 200, 10));
+
+        assertThat(JvmRuntimeMeasurementProvider.toMeasurements("coordinator", List.of(coordinator), Instant.ofEpochMilli(1000), Instant.ofEpochMilli(2000)))
+                .containsExactly(
+                        measurement("coordinator-gc_count", "NONE", 1),
+                        measurement("coordinator-gc_time", "MILLISECONDS", 10),
+                        measurement("coordinator-heap_used_max", "BYTES", 200),
+                        measurement("coordinator-thread_count_max", "NONE", 10));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.listeners.benchmark;
+
+import io.trino.benchto.driver.execution.QueryExecution;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+public class BenchmarkStatusReporterTest
+{
+    private final List<CompletableFuture<?>> listenerFutures = new CopyOnWriteArrayList<>();
+    private final BenchmarkExecutionListener listener = new DefaultBenchmarkExecutionListener()
+    {
+        @Override
+        public Future<?> executionStarted(QueryExecution queryExecution)
+        {
+            CompletableFuture<?> future = new CompletableFuture<>();
+            listenerFutures.add(future);
+            return future;
+        }
+    };
+
+    @Test
+    public void reportingWaitsForLaggingListener()
+            throws Exception
+    {
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(singletonList(listener), 2, true);
+        statusReporter.reportExecutionStarted(null);
+        statusReporter.reportExecutionStarted(null);
+        awaitInvocations(2);
+
+        assertThat(statusReporter.getPendingEventsCount()).isEqualTo(2);
+        assertThat(statusReporter.getListenersLag()).containsOnlyKeys(listener.getClass().getName());
+
+        CompletableFuture<Void> reported = CompletableFuture.runAsync(() -> statusReporter.reportExecutionStarted(null));
+        assertThatThrownBy(() -> reported.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+
+        listenerFutures.get(0).complete(null);
+        reported.get(10, TimeUnit.SECONDS);
+        awaitInvocations(3);
+
+        assertThat(statusReporter.getPendingEventsCount()).isEqualTo(2);
+        assertThat(statusReporter.getPeakPendingEventsCount()).isEqualTo(2);
+        statusReporter.shutdown();
+    }
+
+    @Test
+    public void completedEventsAreProcessedInBatch()
+            throws Exception
+    {
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(singletonList(listener));
+        statusReporter.reportExecutionStarted(null);
+        statusReporter.reportExecutionStarted(null);
+        statusReporter.reportExecutionStarted(null);
+        awaitInvocations(3);
+        listenerFutures.get(0).complete(null);
+        listenerFutures.get(1).complete(null);
+
+        statusReporter.processCompletedFutures();
+
+        assertThat(statusReporter.getPendingEventsCount()).isEqualTo(1);
+
+        listenerFutures.get(2).completeExceptionally(new IllegalStateException("listener failure"));
+
+        assertThatThrownBy(statusReporter::processCompletedFutures)
+                .hasMessageContaining("listener failure");
+        assertThat(statusReporter.getPendingEventsCount()).isZero();
+        assertThat(statusReporter.getListenersLag()).isEmpty();
+    }
+
+    @Test
+    public void slowListenerDoesNotBlockOtherListeners()
+            throws Exception
+    {
+        CountDownLatch slowListenerReleased = new CountDownLatch(1);
+        List<QueryExecution> slowListenerExecutions = new CopyOnWriteArrayList<>();
+        BenchmarkExecutionListener slowListener = new DefaultBenchmarkExecutionListener()
+        {
+            @Override
+            public Future<?> executionStarted(QueryExecution queryExecution)
+            {
+                try {
+                    slowListenerReleased.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                slowListenerExecutions.add(queryExecution);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(List.of(slowListener, listener), 10, true);
+
+        List<QueryExecution> executions = List.of(
+                mock(QueryExecution.class),
+                mock(QueryExecution.class),
+                mock(QueryExecution.class));
+        executions.forEach(statusReporter::reportExecutionStarted);
+        awaitInvocations(3);
+        listenerFutures.forEach(future -> future.complete(null));
+        statusReporter.processCompletedFutures();
+
+        assertThat(statusReporter.getPendingEventsCount()).isEqualTo(3);
+        assertThat(statusReporter.getListenersLag()).containsOnlyKeys(slowListener.getClass().getName());
+
+        slowListenerReleased.countDown();
+        statusReporter.awaitAllFutures(10, TimeUnit.SECONDS);
+
+        assertThat(slowListenerExecutions).containsExactlyElementsOf(executions);
+        assertThat(statusReporter.getPendingEventsCount()).isZero();
+        statusReporter.shutdown();
+    }
+
+    @Test
+    public void capacityIsReservedForAllListeners()
+            throws Exception
+    {
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(List.of(listener, listener), 3, true);
+        statusReporter.reportExecutionStarted(null);
+        awaitInvocations(2);
+
+        // second event needs capacity of both listeners, it can't be reported partially
+        CompletableFuture<Void> reported = CompletableFuture.runAsync(() -> statusReporter.reportExecutionStarted(null));
+        assertThatThrownBy(() -> reported.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+        assertThat(listenerFutures).hasSize(2);
+        assertThat(statusReporter.getPendingEventsCount()).isEqualTo(2);
+
+        listenerFutures.get(0).complete(null);
+        reported.get(10, TimeUnit.SECONDS);
+        awaitInvocations(4);
+
+        assertThat(statusReporter.getPendingEventsCount()).isEqualTo(3);
+        statusReporter.shutdown();
+    }
+
+    @Test
+    public void synchronousDispatchInvokesListenersInReportingThread()
+    {
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(singletonList(listener), 10, false);
+        statusReporter.reportExecutionStarted(null);
+
+        assertThat(listenerFutures).hasSize(1);
+        listenerFutures.get(0).complete(null);
+        statusReporter.awaitAllFutures(1, TimeUnit.SECONDS);
+        assertThat(statusReporter.getPendingEventsCount()).isZero();
+    }
+
+    @Test
+    public void listenerFailureIsReported()
+    {
+        BenchmarkExecutionListener failingListener = new DefaultBenchmarkExecutionListener()
+        {
+            @Override
+            public Future<?> executionStarted(QueryExecution queryExecution)
+            {
+                throw new IllegalStateException("listener invocation failure");
+            }
+        };
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(singletonList(failingListener), 10, true);
+        statusReporter.reportExecutionStarted(null);
+
+        assertThatThrownBy(() -> statusReporter.awaitAllFutures(10, TimeUnit.SECONDS))
+                .hasMessageContaining("listener invocation failure");
+        statusReporter.shutdown();
+    }
+
+    @Test
+    public void listenerErrorDoesNotStopDispatch()
+            throws Exception
+    {
+        AtomicBoolean failed = new AtomicBoolean();
+        BenchmarkExecutionListener erroringListener = new DefaultBenchmarkExecutionListener()
+        {
+            @Override
+            public Future<?> executionStarted(QueryExecution queryExecution)
+            {
+                if (failed.compareAndSet(false, true)) {
+                    throw new AssertionError("listener error");
+                }
+                return listener.executionStarted(queryExecution);
+            }
+        };
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(singletonList(erroringListener), 10, true);
+        statusReporter.reportExecutionStarted(null);
+        statusReporter.reportExecutionStarted(null);
+        awaitInvocations(1);
+        listenerFutures.get(0).complete(null);
+
+        assertThatThrownBy(() -> statusReporter.awaitAllFutures(10, TimeUnit.SECONDS))
+                .hasMessageContaining("listener error");
+        statusReporter.shutdown();
+    }
+
+    private void awaitInvocations(int count)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (listenerFutures.size() < count) {
+            assertThat(System.nanoTime()).as("listener invocations").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+        assertThat(listenerFutures).hasSize(count);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.listeners.measurements;
+
+import io.trino.benchto.driver.execution.QueryExecution;
+import io.trino.benchto.driver.listeners.benchmark.BenchmarkExecutionListener;
+import io.trino.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
+import io.trino.benchto.driver.listeners.benchmark.DefaultBenchmarkExecutionListener;
+import io.trino.benchto.driver.service.Measurement;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ListenerQueueMeasurementProviderTest
+{
+    @Test
+    public void reportsPendingEvents()
+    {
+        BenchmarkExecutionListener listener = new DefaultBenchmarkExecutionListener()
+        {
+            @Override
+            public Future<?> executionStarted(QueryExecution queryExecution)
+            {
+                return new CompletableFuture<>();
+            }
+        };
+        BenchmarkStatusReporter statusReporter = new BenchmarkStatusReporter(singletonList(listener), 10, false);
+        statusReporter.reportExecutionStarted(null);
+        statusReporter.reportExecutionStarted(null);
+
+        List<Measurement> measurements = ListenerQueueMeasurementProvider.toMeasurements(statusReporter);
+
+        assertThat(measurements).startsWith(
+                measurement("listener_pending_events", "NONE", 2),
+                measurement("listener_pending_events_peak", "NONE", 2));
+        assertThat(measurements).hasSize(3)
+                .last()
+                .hasFieldOrPropertyWithValue("name", "listener_lag_max")
+                .hasFieldOrPropertyWithValue("unit", "MILLISECONDS");
+    }
+}
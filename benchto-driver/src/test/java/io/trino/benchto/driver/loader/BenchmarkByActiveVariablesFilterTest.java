@@ -13,6 +13,7 @@
  */
 package io.trino.benchto.driver.loader;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.trino.benchto.driver.Benchmark;
 import org.junit.Test;
@@ -37,6 +38,19 @@ public class BenchmarkByActiveVariablesFilterTest
         assertThat(filter.test(benchmarkWithVariable("tola", "pies"))).isFalse();
     }
 
+    @Test
+    public void filterValues()
+    {
+        BenchmarkByActiveVariablesFilter filter = new BenchmarkByActiveVariablesFilter(benchmarkPropertiesWithActiveVariables("ala=k.t"));
+
+        assertThat(filter.filterValues(ImmutableMap.of(
+                "ala", ImmutableList.of("pies", "kot", "kat", "katar", "${zwierze}"),
+                "tola", ImmutableList.of("pies", "kot"))))
+                .isEqualTo(ImmutableMap.of(
+                        "ala", ImmutableList.of("kot", "kat", "${zwierze}"),
+                        "tola", ImmutableList.of("pies", "kot")));
+    }
+
     private Benchmark benchmarkWithVariable(String key, String value)
     {
         Benchmark benchmark = mock(Benchmark.class);
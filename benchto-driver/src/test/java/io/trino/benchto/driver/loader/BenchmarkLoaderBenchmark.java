@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.loader;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import io.trino.benchto.driver.BenchmarkProperties;
+import io.trino.benchto.driver.DriverApp;
+import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.service.BenchmarkServiceClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares loading of a benchmark with 10k variable combinations with and without {@link TemplateCache}.
+ * Run only when {@code benchto.benchmarks} system property is set, e.g.
+ * {@code mvn test -Dbenchto.benchmarks=true -Dtest=BenchmarkLoaderBenchmark}.
+ */
+public class BenchmarkLoaderBenchmark
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BenchmarkLoaderBenchmark.class);
+
+    private static final int ITERATIONS = 5;
+
+    private Configuration freemarkerConfiguration;
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        assumeTrue("Benchmarks are run only with -Dbenchto.benchmarks=true", Boolean.getBoolean("benchto.benchmarks"));
+        freemarkerConfiguration = new DriverApp().freemarkerConfiguration().createConfiguration();
+    }
+
+    @Test
+    public void compareLoadingWithAndWithoutTemplateCache()
+            throws IOException
+    {
+        TemplateCache cached = new TemplateCache(freemarkerConfiguration, 1000);
+        TemplateCache uncached = new UncachedTemplates(freemarkerConfiguration);
+
+        // warm up both variants before measuring
+        load(cached);
+        load(uncached);
+
+        Duration withCache = Duration.ZERO;
+        Duration withoutCache = Duration.ZERO;
+        for (int i = 0; i < ITERATIONS; i++) {
+            withCache = withCache.plus(load(cached));
+            withoutCache = withoutCache.plus(load(uncached));
+        }
+
+        LOG.info("Loading 10k variable combinations took {} ms with template cache and {} ms without it (average of {} runs)",
+                withCache.toMillis() / ITERATIONS,
+                withoutCache.toMillis() / ITERATIONS,
+                ITERATIONS);
+    }
+
+    private Duration load(TemplateCache templateCache)
+            throws IOException
+    {
+        BenchmarkLoader loader = createLoader(templateCache);
+        long start = System.nanoTime();
+        int loaded = loader.loadBenchmarks("sequenceId").size();
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        if (loaded != 10_000) {
+            throw new IllegalStateException("Expected 10000 benchmarks, loaded " + loaded);
+        }
+        return duration;
+    }
+
+    private static BenchmarkLoader createLoader(TemplateCache templateCache)
+            throws IOException
+    {
+        BenchmarkProperties properties = new BenchmarkProperties();
+        ReflectionTestUtils.setField(properties, "benchmarksDirs", "src/test/resources/unit-benchmarks-large");
+        ReflectionTestUtils.setField(properties, "activeBenchmarks", "large-benchmark");
+        ReflectionTestUtils.setField(properties, "frequencyCheckEnabled", "false");
+
+        BenchmarkLoader loader = new BenchmarkLoader();
+        ReflectionTestUtils.setField(loader, "properties", properties);
+        ReflectionTestUtils.setField(loader, "queryLoader", new QueryLoader()
+        {
+            @Override
+            public Query loadFromFile(String queryName)
+            {
+                return new Query(queryName, "test query", ImmutableMap.of());
+            }
+        });
+        ReflectionTestUtils.setField(loader, "benchmarkServiceClient", new BenchmarkServiceClient()
+        {
+            @Override
+            public List<String> generateUniqueBenchmarkNames(List<GenerateUniqueNamesRequestItem> generateUniqueNamesRequestItems)
+            {
+                return generateUniqueNamesRequestItems.stream()
+                        .map(requestItem -> requestItem.getName() + "_" + Joiner.on("_").withKeyValueSeparator("=").join(requestItem.getVariables().entrySet()))
+                        .collect(toList());
+            }
+        });
+        ReflectionTestUtils.setField(loader, "templateCache", templateCache);
+        loader.setup();
+        return loader;
+    }
+
+    /**
+     * Parses every template again, as loading did before templates were cached.
+     */
+    private static class UncachedTemplates
+            extends TemplateCache
+    {
+        private final Configuration freemarkerConfiguration;
+
+        UncachedTemplates(Configuration freemarkerConfiguration)
+        {
+            super(freemarkerConfiguration, 1);
+            this.freemarkerConfiguration = freemarkerConfiguration;
+        }
+
+        @Override
+        public Template getTemplate(String templateText)
+                throws IOException
+        {
+            return new Template("template", new StringReader(templateText), freemarkerConfiguration);
+        }
+    }
+}
@@ -14,6 +14,7 @@
 package io.trino.benchto.driver.loader;
 
 import com.google.common.base.Joiner;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import freemarker.template.Configuration;
@@ -52,6 +53,8 @@ public class BenchmarkLoaderTest
 
     private BenchmarkLoader loader;
 
+    private TemplateCache templateCache;
+
     private Duration benchmarkExecutionAge = Duration.ofDays(Integer.MAX_VALUE);
 
     @Before
@@ -67,7 +70,8 @@ public class BenchmarkLoaderTest
         ReflectionTestUtils.setField(loader, "properties", benchmarkProperties);
         ReflectionTestUtils.setField(loader, "queryLoader", queryLoader);
         ReflectionTestUtils.setField(loader, "benchmarkServiceClient", benchmarkServiceClient);
-        ReflectionTestUtils.setField(loader, "freemarkerConfiguration", freemarkerConfiguration);
+        templateCache = new TemplateCache(freemarkerConfiguration, 1000);
+        ReflectionTestUtils.setField(loader, "templateCache", templateCache);
 
         withBenchmarksDirs("unit-benchmarks");
         withFrequencyCheckEnabled(true);
@@ -232,6 +236,73 @@ public class BenchmarkLoaderTest
         loader.loadBenchmarks("sequenceId");
     }
 
+    @Test
+    public void shouldParseEachValueTemplateOnce()
+            throws IOException
+    {
+        withBenchmarksDirs("unit-benchmarks-templates");
+        withActiveBenchmarks("templated-benchmark");
+
+        List<Benchmark> benchmarks = assertLoadedBenchmarksCount(9);
+
+        assertThat(benchmarks)
+                .extracting(benchmark -> benchmark.getVariables().get("pattern"))
+                .doesNotHaveDuplicates()
+                .contains("1-2");
+        // benchmarks are evaluated in parallel and a lookup waiting for a template being parsed counts as a miss
+        CacheStats stats = templateCache.getStats();
+        assertThat(stats.loadSuccessCount()).isEqualTo(2);
+        assertThat(stats.hitCount() + stats.missCount()).isEqualTo(2 * 9);
+        assertThat(stats.hitCount()).isGreaterThan(0);
+    }
+
+    @Test
+    public void parallelLoadingKeepsSequentialOrder()
+            throws IOException
+    {
+        withBenchmarksDirs("unit-benchmarks", "unit-benchmarks-templates");
+        withActiveBenchmarks("simple-benchmark,multi-variables-benchmark,concurrent-benchmark,templated-benchmark");
+
+        ReflectionTestUtils.setField(loader, "parallelLoading", false);
+        loader.setup();
+        List<Benchmark> sequential = loader.loadBenchmarks("sequenceId");
+
+        ReflectionTestUtils.setField(loader, "parallelLoading", true);
+        List<Benchmark> parallel = loader.loadBenchmarks("sequenceId");
+
+        assertThat(sequential).hasSizeGreaterThan(10);
+        assertThat(parallel)
+                .extracting(Benchmark::getUniqueName)
+                .containsExactlyElementsOf(sequential.stream().map(Benchmark::getUniqueName).collect(toList()));
+        assertThat(parallel)
+                .extracting(Benchmark::getVariables)
+                .containsExactlyElementsOf(sequential.stream().map(Benchmark::getVariables).collect(toList()));
+    }
+
+    @Test
+    public void shouldSampleVariablesCombinations()
+            throws IOException
+    {
+        withBenchmarksDirs("unit-benchmarks-sampling");
+        withActiveBenchmarks("sampled-benchmark");
+        withActiveVariables("c=[0-4]");
+
+        List<Benchmark> benchmarks = assertLoadedBenchmarksCount(20);
+        assertThat(benchmarks)
+                .extracting(Benchmark::getVariables)
+                .doesNotHaveDuplicates()
+                .allSatisfy(variables -> {
+                    assertThat(Integer.parseInt(variables.get("c"))).isLessThan(5);
+                    assertThat(variables.get("pattern")).isEqualTo(variables.get("a") + "-" + variables.get("b"));
+                });
+        assertThat(benchmarks.get(0).getNonReservedKeywordVariables()).containsOnlyKeys("a", "b", "c", "pattern");
+
+        // the same combinations are sampled every time
+        assertThat(assertLoadedBenchmarksCount(20))
+                .extracting(Benchmark::getVariables)
+                .isEqualTo(benchmarks.stream().map(Benchmark::getVariables).collect(toList()));
+    }
+
     @Test
     public void quarantineBenchmark_no_quarantine_filtering()
             throws IOException
@@ -14,9 +14,11 @@
 package io.trino.benchto.driver.loader;
 
 import com.google.common.collect.ImmutableMap;
+import io.trino.benchto.driver.DriverApp;
 import io.trino.benchto.driver.Query;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 
@@ -26,10 +28,15 @@ public class SqlStatementGeneratorTest
 {
     private SqlStatementGenerator sqlStatementGenerator;
 
+    private TemplateCache templateCache;
+
     @Before
     public void setUp()
+            throws Exception
     {
+        templateCache = new TemplateCache(new DriverApp().freemarkerConfiguration().createConfiguration(), 10);
         sqlStatementGenerator = new SqlStatementGenerator();
+        ReflectionTestUtils.setField(sqlStatementGenerator, "templateCache", templateCache);
     }
 
     @Test
@@ -51,4 +58,14 @@ public class SqlStatementGeneratorTest
         List<String> queries = sqlStatementGenerator.generateQuerySqlStatement(query, ImmutableMap.of("concurrency_level", 2));
         assertThat(queries).containsExactly("CREATE TABLE 0", "CREATE TABLE 1");
     }
+
+    @Test
+    public void testTemplateParsedOnce()
+    {
+        Query query = new Query("templateQuery", "select * from ${table}", ImmutableMap.of());
+        assertThat(sqlStatementGenerator.generateQuerySqlStatement(query, ImmutableMap.of("table", "nation"))).containsExactly("select * from nation");
+        assertThat(sqlStatementGenerator.generateQuerySqlStatement(query, ImmutableMap.of("table", "region"))).containsExactly("select * from region");
+        assertThat(templateCache.getStats().missCount()).isEqualTo(1);
+        assertThat(templateCache.getStats().hitCount()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.loader;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static io.trino.benchto.driver.utils.CartesianProductUtils.cartesianProduct;
+import static io.trino.benchto.driver.utils.CartesianProductUtils.cartesianProductSize;
+import static io.trino.benchto.driver.utils.CartesianProductUtils.combination;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class VariablesSamplingTest
+{
+    private static final List<String> VALUES = ImmutableList.of("0", "1", "2", "3", "4");
+    private static final Map<String, List<String>> VARIABLES = ImmutableMap.<String, List<String>>builder()
+            .put("a", VALUES)
+            .put("b", VALUES)
+            .put("c", VALUES)
+            .put("d", VALUES)
+            .put("e", VALUES)
+            .put("f", VALUES)
+            .put("g", VALUES)
+            .put("h", VALUES)
+            .build();
+
+    @Test
+    public void testFull()
+    {
+        assertThat(cartesianProductSize(VARIABLES)).isEqualTo(390_625);
+        List<String> keys = ImmutableList.copyOf(VARIABLES.keySet());
+        assertThat(VariablesSampling.FULL.combinations(VARIABLES, 0, new Random(0)).limit(3))
+                .containsExactly(combination(VARIABLES, keys, 0), combination(VARIABLES, keys, 1), combination(VARIABLES, keys, 2));
+    }
+
+    @Test
+    public void testPairwise()
+    {
+        List<Map<String, String>> combinations = VariablesSampling.PAIRWISE.sample(VARIABLES, 0, new Random(0));
+
+        assertThat(combinations.size()).isBetween(25, 60);
+        for (String first : VARIABLES.keySet()) {
+            for (String second : VARIABLES.keySet()) {
+                if (first.compareTo(second) >= 0) {
+                    continue;
+                }
+                for (String firstValue : VALUES) {
+                    for (String secondValue : VALUES) {
+                        assertThat(combinations)
+                                .anyMatch(combination -> combination.get(first).equals(firstValue) && combination.get(second).equals(secondValue));
+                    }
+                }
+            }
+        }
+        assertThat(VariablesSampling.PAIRWISE.sample(VARIABLES, 0, new Random(0))).isEqualTo(combinations);
+    }
+
+    @Test
+    public void testRandom()
+    {
+        List<Map<String, String>> combinations = VariablesSampling.RANDOM.sample(VARIABLES, 100, new Random(42));
+
+        assertThat(combinations)
+                .hasSize(100)
+                .doesNotHaveDuplicates()
+                .allSatisfy(combination -> assertThat(combination).containsOnlyKeys(VARIABLES.keySet()));
+        assertThat(VariablesSampling.RANDOM.sample(VARIABLES, 100, new Random(42))).isEqualTo(combinations);
+        assertThat(VariablesSampling.RANDOM.sample(VARIABLES, 100, new Random(7))).isNotEqualTo(combinations);
+
+        Map<String, List<String>> small = ImmutableMap.of("a", VALUES, "b", ImmutableList.of("x", "y"));
+        assertThat(VariablesSampling.RANDOM.sample(small, 100, new Random(42))).isEqualTo(cartesianProduct(small));
+        assertThat(VariablesSampling.RANDOM.sample(small, 9, new Random(42))).hasSize(9).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void testLatinHypercube()
+    {
+        List<Map<String, String>> combinations = VariablesSampling.LATIN_HYPERCUBE.sample(VARIABLES, 10, new Random(42));
+
+        assertThat(combinations).hasSize(10);
+        for (String key : VARIABLES.keySet()) {
+            for (String value : VALUES) {
+                assertThat(combinations.stream().filter(combination -> combination.get(key).equals(value)).count())
+                        .isEqualTo(2);
+            }
+        }
+    }
+
+    @Test
+    public void testSamplingSizeRequired()
+    {
+        assertThatThrownBy(() -> VariablesSampling.RANDOM.sample(VARIABLES, 0, new Random(0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Variable sampling-size must be positive for RANDOM sampling");
+    }
+
+    @Test
+    public void testFromString()
+    {
+        assertThat(VariablesSampling.fromString("latin-hypercube")).isEqualTo(VariablesSampling.LATIN_HYPERCUBE);
+        assertThat(VariablesSampling.fromString(" Pairwise ")).isEqualTo(VariablesSampling.PAIRWISE);
+    }
+}
@@ -15,15 +15,22 @@ package io.trino.benchto.driver.queries;
 
 import com.google.common.collect.ImmutableMap;
 import io.trino.benchto.driver.BenchmarkExecutionException;
+import io.trino.benchto.driver.BenchmarkProperties;
 import io.trino.benchto.driver.IntegrationTest;
 import io.trino.benchto.driver.Query;
+import io.trino.benchto.driver.loader.AnnotatedQueryParser;
 import io.trino.benchto.driver.loader.QueryLoader;
 import io.trino.benchto.driver.loader.SqlStatementGenerator;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
@@ -36,6 +43,9 @@ public class QueryLoaderTest
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Autowired
     private QueryLoader queryLoader;
 
@@ -57,6 +67,34 @@ public class QueryLoaderTest
         assertThat(sqlStatements).containsExactly("SELECT " + rowValue + " FROM \"schema\".SYSTEM_USERS");
     }
 
+    @Test
+    public void shouldParseQueryFileOnce()
+    {
+        Query query = queryLoader.loadFromFile("presto/simple_select.sql");
+        assertThat(queryLoader.loadFromFile("presto/simple_select.sql")).isSameAs(query);
+        assertThat(queryLoader.loadFromFile("presto/../presto/simple_select.sql").getSqlTemplate()).isEqualTo(query.getSqlTemplate());
+    }
+
+    @Test
+    public void shouldSkipSymbolicLinkCycles()
+            throws IOException
+    {
+        Path sqlDir = temporaryFolder.newFolder("sql").toPath();
+        Files.createDirectories(sqlDir.resolve("nested"));
+        Files.writeString(sqlDir.resolve("nested/linked_select.sql"), "SELECT 1");
+        Files.createSymbolicLink(sqlDir.resolve("nested/parent"), sqlDir);
+        Files.createSymbolicLink(sqlDir.resolve("linked"), sqlDir.resolve("nested"));
+
+        BenchmarkProperties properties = new BenchmarkProperties();
+        ReflectionTestUtils.setField(properties, "sqlDirs", sqlDir.toString());
+        QueryLoader cycleQueryLoader = new QueryLoader();
+        ReflectionTestUtils.setField(cycleQueryLoader, "properties", properties);
+        ReflectionTestUtils.setField(cycleQueryLoader, "annotatedQueryParser", new AnnotatedQueryParser());
+
+        assertThat(cycleQueryLoader.loadFromFile("nested/linked_select.sql").getSqlTemplate()).isEqualTo("SELECT 1");
+        assertThat(cycleQueryLoader.loadFromFile("linked/linked_select.sql").getSqlTemplate()).isEqualTo("SELECT 1");
+    }
+
     @Test
     public void shouldFailWhenNoQueryFile()
     {
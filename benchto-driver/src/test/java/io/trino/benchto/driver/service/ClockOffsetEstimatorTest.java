@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ClockOffsetEstimatorTest
+{
+    private final ClockOffsetEstimator estimator = new ClockOffsetEstimator(mock(BenchmarkServiceClient.class), 0);
+
+    @Test
+    public void testNoEstimate()
+    {
+        assertThat(estimator.getOffset()).isEmpty();
+        assertThat(estimator.toServiceTime(Instant.ofEpochMilli(1000))).isEqualTo(Instant.ofEpochMilli(1000));
+    }
+
+    @Test
+    public void testMinimalRoundTripSampleIsTrusted()
+    {
+        estimator.addSample(1000, 6010, 1020);
+        assertThat(estimator.getOffset().get().getOffset()).isEqualTo(Duration.ofMillis(5000));
+        assertThat(estimator.getOffset().get().getErrorBound()).isEqualTo(Duration.ofMillis(10));
+
+        // slow response with asymmetric delays does not move the estimate
+        estimator.addSample(2000, 8000, 2400);
+        assertThat(estimator.getOffset().get().getOffset()).isEqualTo(Duration.ofMillis(5000));
+        assertThat(estimator.toServiceTime(Instant.ofEpochMilli(3000))).isEqualTo(Instant.ofEpochMilli(8000));
+
+        // more precise sample is smoothed in, the error bound covers the offset of that sample
+        estimator.addSample(3000, 8402, 3004);
+        assertThat(estimator.getOffset().get().getOffset()).isEqualTo(Duration.ofMillis(5100));
+        assertThat(estimator.getOffset().get().getErrorBound()).isEqualTo(Duration.ofMillis(302));
+    }
+
+    @Test
+    public void testOldSamplesAreForgotten()
+    {
+        estimator.addSample(0, 0, 0);
+        for (int i = 1; i <= 8; i++) {
+            estimator.addSample(i * 1000, i * 1000 + 100, i * 1000 + 100);
+        }
+        // the exact sample left the window, the estimate converges to newer samples
+        assertThat(estimator.getOffset().get().getOffset()).isEqualTo(Duration.ofMillis(13));
+        assertThat(estimator.getOffset().get().getErrorBound()).isEqualTo(Duration.ofMillis(87));
+    }
+}
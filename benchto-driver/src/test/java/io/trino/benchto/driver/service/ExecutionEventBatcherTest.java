@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionEventRequest;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionStartRequest.ExecutionStartRequestBuilder;
+import org.junit.Test;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExecutionEventBatcherTest
+{
+    private final List<List<ExecutionEventRequest>> sentBatches = new CopyOnWriteArrayList<>();
+    private final BenchmarkServiceClient client = new BenchmarkServiceClient()
+    {
+        @Override
+        public void applyExecutionEvents(List<ExecutionEventRequest> events)
+        {
+            sentBatches.add(events);
+        }
+    };
+
+    @Test
+    public void sendsBatchOnceFull()
+            throws Exception
+    {
+        ExecutionEventBatcher batcher = new ExecutionEventBatcher(client, 3, 60_000);
+        ExecutionEventRequest first = event(0);
+        ExecutionEventRequest second = event(1);
+        CompletableFuture<?> firstSent = batcher.add(first);
+        CompletableFuture<?> secondSent = batcher.add(second);
+        assertThat(firstSent).isNotDone();
+
+        ExecutionEventRequest third = event(2);
+        batcher.add(third).get(10, TimeUnit.SECONDS);
+
+        assertThat(firstSent).isDone();
+        assertThat(secondSent).isDone();
+        assertThat(sentBatches).containsExactly(List.of(first, second, third));
+        batcher.shutdown();
+    }
+
+    @Test
+    public void sendsPartialBatchAfterDelay()
+            throws Exception
+    {
+        ExecutionEventBatcher batcher = new ExecutionEventBatcher(client, 100, 10);
+        ExecutionEventRequest event = event(0);
+        batcher.add(event).get(10, TimeUnit.SECONDS);
+
+        assertThat(sentBatches).containsExactly(List.of(event));
+        batcher.shutdown();
+    }
+
+    @Test
+    public void flushWaitsForPreviousBatches()
+            throws Exception
+    {
+        ExecutionEventBatcher batcher = new ExecutionEventBatcher(client, 2, 60_000);
+        batcher.add(event(0));
+        batcher.add(event(1));
+        batcher.add(event(2));
+        batcher.flush().get(10, TimeUnit.SECONDS);
+
+        assertThat(sentBatches).hasSize(2);
+        assertThat(sentBatches.get(0)).hasSize(2);
+        assertThat(sentBatches.get(1)).hasSize(1);
+        batcher.shutdown();
+    }
+
+    @Test
+    public void failedBatchFailsAllItsEvents()
+    {
+        BenchmarkServiceClient failingClient = new BenchmarkServiceClient()
+        {
+            @Override
+            public void applyExecutionEvents(List<ExecutionEventRequest> events)
+            {
+                throw new RestClientException("service unavailable");
+            }
+        };
+        ExecutionEventBatcher batcher = new ExecutionEventBatcher(failingClient, 2, 60_000);
+        CompletableFuture<?> firstSent = batcher.add(event(0));
+        CompletableFuture<?> secondSent = batcher.add(event(1));
+
+        assertThatThrownBy(() -> firstSent.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("service unavailable");
+        assertThatThrownBy(() -> secondSent.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("service unavailable");
+        batcher.shutdown();
+    }
+
+    private static ExecutionEventRequest event(int executionSequenceId)
+    {
+        return ExecutionEventRequest.executionStarted("benchmark", "sequence", Integer.toString(executionSequenceId), new ExecutionStartRequestBuilder().build());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.BenchmarkStartRequest.BenchmarkStartRequestBuilder;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.ExecutionStartRequest.ExecutionStartRequestBuilder;
+import io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.FinishRequestBuilder;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.ENDED;
+import static io.trino.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.FAILED;
+import static io.trino.benchto.driver.service.Measurement.measurement;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OfflineResultsWriterTest
+{
+    @Test
+    public void appendsRowPerFinishedExecution()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("offline");
+        OfflineResultsWriter writer = new OfflineResultsWriter(directory, new ObjectMapper());
+
+        writer.benchmarkStarted("simple_k=v", "seq", new BenchmarkStartRequestBuilder("simple")
+                .environmentName("env")
+                .addVariable("k", "v")
+                .build());
+        writer.executionStarted("simple_k=v", "seq", "0", new ExecutionStartRequestBuilder().build());
+        writer.executionStarted("simple_k=v", "seq", "1", new ExecutionStartRequestBuilder().build());
+        writer.executionFinished("simple_k=v", "seq", "0", new FinishRequestBuilder()
+                .withStatus(ENDED)
+                .withEndTime(Instant.parse("2024-01-01T00:00:01Z"))
+                .addMeasurement(measurement("duration", "MILLISECONDS", 12.5))
+                .addMeasurement(measurement("output_rows", "NONE", 3))
+                .build());
+        writer.executionFinished("simple_k=v", "seq", "1", new FinishRequestBuilder()
+                .withStatus(FAILED)
+                .withEndTime(Instant.parse("2024-01-01T00:00:02Z"))
+                .addMeasurement(measurement("duration", "MILLISECONDS", 2))
+                .addAttribute("failureMessage", "line 1:1: mismatched input, expected SELECT")
+                .build());
+        writer.benchmarkFinished("simple_k=v", "seq", new FinishRequestBuilder()
+                .withStatus(ENDED)
+                .withEndTime(Instant.parse("2024-01-01T00:00:03Z"))
+                .build());
+
+        // finished run is written completely and no longer kept
+        List<String> lines = Files.readAllLines(directory.resolve("simple_k=v-seq.csv"), UTF_8);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("benchmark_name,unique_name,sequence_id,environment,variables,execution_sequence_id,status,started,ended,attributes,query_info,measurements," +
+                "duration [MILLISECONDS],output_rows [NONE]");
+        assertThat(lines.get(1)).startsWith("simple,simple_k=v,seq,env,\"{\"\"k\"\":\"\"v\"\"}\",0,ENDED,")
+                .endsWith(",2024-01-01T00:00:01Z,{},,\"{\"\"duration [MILLISECONDS]\"\":12.5,\"\"output_rows [NONE]\"\":3.0}\",12.5,3.0");
+        assertThat(lines.get(2)).contains(",1,FAILED,")
+                .endsWith(",2024-01-01T00:00:02Z,\"{\"\"failureMessage\"\":\"\"line 1:1: mismatched input, expected SELECT\"\"}\",,\"{\"\"duration [MILLISECONDS]\"\":2.0}\",2.0,");
+        assertThat(lines.get(3)).startsWith("simple,simple_k=v,seq,env,\"{\"\"k\"\":\"\"v\"\"}\",,ENDED,").endsWith(",2024-01-01T00:00:03Z,{},,{},,");
+        assertThatThrownBy(() -> writer.executionStarted("simple_k=v", "seq", "2", new ExecutionStartRequestBuilder().build()))
+                .hasMessage("Benchmark simple_k=v was not started or was already finished");
+
+        writer.close();
+        assertThat(Files.readAllLines(directory.resolve("simple_k=v-seq.csv"), UTF_8)).isEqualTo(lines);
+    }
+
+    @Test
+    public void writesUnfinishedRowsOnClose()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("offline");
+        OfflineResultsWriter writer = new OfflineResultsWriter(directory, new ObjectMapper());
+
+        writer.benchmarkStarted("simple", "seq", new BenchmarkStartRequestBuilder("simple").build());
+        writer.executionStarted("simple", "seq", "0", new ExecutionStartRequestBuilder().build());
+        writer.executionStarted("simple", "seq", "1", new ExecutionStartRequestBuilder().build());
+        writer.benchmarkFinished("simple", "seq", new FinishRequestBuilder()
+                .withStatus(FAILED)
+                .build());
+        // execution finish reported after the benchmark finish
+        writer.executionFinished("simple", "seq", "0", new FinishRequestBuilder()
+                .withStatus(ENDED)
+                .build());
+        writer.close();
+
+        List<String> lines = Files.readAllLines(directory.resolve("simple-seq.csv"), UTF_8);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(1)).contains(",,FAILED,");
+        assertThat(lines.get(2)).contains(",0,ENDED,");
+        assertThat(lines.get(3)).contains(",1,STARTED,");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestSpoolTest
+{
+    private static final Duration RETRY_DELAY = Duration.ofMillis(10);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> sentRequests = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void sendsRequestsInOrderRetryingFailures()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("spool");
+        AtomicInteger failures = new AtomicInteger(2);
+        try (RequestSpool spool = new RequestSpool(directory, objectMapper, (path, params, body) -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new ResourceAccessException("service unavailable");
+            }
+            sentRequests.add(path + " " + params.get("id") + " " + body);
+        }, RETRY_DELAY, RETRY_DELAY, MAX_ATTEMPTS)) {
+            spool.append("/first/{id}", Map.of("id", "1"), Map.of("value", 1));
+            spool.append("/second/{id}", Map.of("id", "2"), Map.of("value", 2));
+
+            assertThat(spool.awaitSent(TIMEOUT)).isTrue();
+        }
+
+        assertThat(sentRequests).containsExactly("/first/{id} 1 {\"value\":1}", "/second/{id} 2 {\"value\":2}");
+        assertThat(Files.size(directory.resolve(RequestSpool.SPOOL_FILE_NAME))).isZero();
+        assertThat(Files.readString(directory.resolve(RequestSpool.ACKNOWLEDGED_FILE_NAME), UTF_8)).isEqualTo("2");
+    }
+
+    @Test
+    public void replaysRequestsNotSentBeforeClose()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("spool");
+        try (RequestSpool spool = new RequestSpool(directory, objectMapper, (path, params, body) -> {
+            throw new ResourceAccessException("service unavailable");
+        }, RETRY_DELAY, RETRY_DELAY, MAX_ATTEMPTS)) {
+            spool.append("/first", Map.of(), Map.of("value", 1));
+            spool.append("/second", Map.of(), Map.of("value", 2));
+
+            assertThat(spool.awaitSent(Duration.ofMillis(50))).isFalse();
+        }
+        // partially written request of a killed driver
+        Files.writeString(directory.resolve(RequestSpool.SPOOL_FILE_NAME), "{\"sequence\": 3, \"pa", UTF_8, APPEND);
+
+        try (RequestSpool spool = new RequestSpool(directory, objectMapper, (path, params, body) -> sentRequests.add(path), RETRY_DELAY, RETRY_DELAY, MAX_ATTEMPTS)) {
+            assertThat(spool.awaitSent(TIMEOUT)).isTrue();
+            spool.append("/third", Map.of(), Map.of("value", 3));
+            assertThat(spool.awaitSent(TIMEOUT)).isTrue();
+        }
+        assertThat(sentRequests).containsExactly("/first", "/second", "/third");
+        assertThat(Files.readString(directory.resolve(RequestSpool.ACKNOWLEDGED_FILE_NAME), UTF_8)).isEqualTo("3");
+    }
+
+    @Test
+    public void dropsRejectedRequests()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("spool");
+        try (RequestSpool spool = new RequestSpool(directory, objectMapper, (path, params, body) -> {
+            if (path.equals("/rejected")) {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }
+            sentRequests.add(path);
+        }, RETRY_DELAY, RETRY_DELAY, MAX_ATTEMPTS)) {
+            spool.append("/rejected", Map.of(), Map.of());
+            spool.append("/accepted", Map.of(), Map.of());
+
+            assertThat(spool.awaitSent(TIMEOUT)).isTrue();
+        }
+        assertThat(sentRequests).containsExactly("/accepted");
+        assertThat(Files.readString(directory.resolve(RequestSpool.DEAD_LETTER_FILE_NAME), UTF_8)).contains("\"path\":\"/rejected\"");
+    }
+
+    @Test
+    public void deadLettersRequestsFailingTooManyTimes()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("spool");
+        AtomicInteger failingAttempts = new AtomicInteger();
+        try (RequestSpool spool = new RequestSpool(directory, objectMapper, (path, params, body) -> {
+            if (path.equals("/failing")) {
+                failingAttempts.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            sentRequests.add(path);
+        }, RETRY_DELAY, RETRY_DELAY, MAX_ATTEMPTS)) {
+            spool.append("/failing", Map.of(), Map.of());
+            spool.append("/accepted", Map.of(), Map.of());
+
+            assertThat(spool.awaitSent(TIMEOUT)).isTrue();
+        }
+        assertThat(failingAttempts).hasValue(MAX_ATTEMPTS);
+        assertThat(sentRequests).containsExactly("/accepted");
+        assertThat(Files.readAllLines(directory.resolve(RequestSpool.DEAD_LETTER_FILE_NAME), UTF_8))
+                .singleElement()
+                .satisfies(line -> assertThat(line).contains("\"path\":\"/failing\""));
+        assertThat(Files.readString(directory.resolve(RequestSpool.ACKNOWLEDGED_FILE_NAME), UTF_8)).isEqualTo("2");
+    }
+
+    @Test
+    public void keepsSendingAfterUnexpectedFailure()
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("spool");
+        AtomicInteger failures = new AtomicInteger(1);
+        try (RequestSpool spool = new RequestSpool(directory, objectMapper, (path, params, body) -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("unexpected");
+            }
+            sentRequests.add(path);
+        }, RETRY_DELAY, RETRY_DELAY, MAX_ATTEMPTS)) {
+            spool.append("/first", Map.of(), Map.of());
+            spool.append("/second", Map.of(), Map.of());
+
+            assertThat(spool.awaitSent(TIMEOUT)).isTrue();
+        }
+        assertThat(sentRequests).containsExactly("/first", "/second");
+        assertThat(directory.resolve(RequestSpool.DEAD_LETTER_FILE_NAME)).doesNotExist();
+    }
+}
@@ -42,6 +42,20 @@ public class CartesianProductUtilsTest
                 ImmutableMap.of(1, "3", 2, "bar"));
     }
 
+    @Test
+    public void shouldComputeCartesianProductLazily()
+    {
+        Map<Integer, List<String>> variables = ImmutableMap.<Integer, List<String>>builder()
+                .put(1, newArrayList("1", "2", "3"))
+                .put(2, newArrayList("foo", "bar"))
+                .build();
+
+        assertThat(CartesianProductUtils.cartesianProductSize(variables)).isEqualTo(6);
+        assertThat(CartesianProductUtils.lazyCartesianProduct(variables).skip(3).findFirst())
+                .contains(ImmutableMap.of(1, "2", 2, "bar"));
+        assertThat(CartesianProductUtils.cartesianProductSize(ImmutableMap.of(1, newArrayList(), 2, newArrayList("foo")))).isZero();
+    }
+
     @Test
     public void shouldComputeEmptyCartesianProduct()
     {
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.driver.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MappedLineReaderTest
+{
+    @Test
+    public void readLinesCrossingWindows()
+            throws IOException
+    {
+        Path file = Files.createTempFile("lines", ".result");
+        Files.writeString(file, "first line\r\nsecond\n\nlast line without terminator");
+
+        try (MappedLineReader reader = new MappedLineReader(file, 12)) {
+            assertThat(reader.readLine()).isEqualTo("first line");
+            assertThat(reader.readLine()).isEqualTo("second");
+            assertThat(reader.readLine()).isEmpty();
+            assertThatThrownBy(reader::readLine)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Line is longer than 12 bytes");
+        }
+
+        try (MappedLineReader reader = new MappedLineReader(file, 30)) {
+            assertThat(reader.readLine()).isEqualTo("first line");
+            assertThat(reader.readLine()).isEqualTo("second");
+            assertThat(reader.readLine()).isEmpty();
+            assertThat(reader.readLine()).isEqualTo("last line without terminator");
+            assertThat(reader.readLine()).isNull();
+
+            reader.reset();
+            assertThat(reader.readLine()).isEqualTo("first line");
+        }
+        Files.delete(file);
+    }
+}
@@ -15,19 +15,28 @@ package io.trino.benchto.driver.utils;
 
 import com.google.common.io.Resources;
 import io.trino.benchto.driver.execution.ResultComparisonException;
+import io.trino.benchto.driver.execution.ResultDigest;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 
+import static io.trino.benchto.driver.execution.ResultsOrder.ORDERED;
+import static io.trino.benchto.driver.execution.ResultsOrder.UNORDERED;
 import static io.trino.benchto.driver.utils.QueryUtils.compareCount;
+import static io.trino.benchto.driver.utils.QueryUtils.compareDigest;
 import static io.trino.benchto.driver.utils.QueryUtils.compareRows;
+import static io.trino.benchto.driver.utils.QueryUtils.compareRowsUnordered;
 import static io.trino.benchto.driver.utils.QueryUtils.isSelectQuery;
+import static io.trino.benchto.driver.utils.QueryUtils.writeDigest;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
@@ -242,4 +251,119 @@ public class QueryUtilsTest
                 .isInstanceOf(ResultComparisonException.class)
                 .hasMessageContaining("Error opening result file");
     }
+
+    @Test
+    public void digestDependsOnOrderOfRowsOnlyForOrderedResults()
+            throws SQLException
+    {
+        Object[][] rows = {{1L, "a"}, {2L, null}, {3L, "c"}};
+        Object[][] reversedRows = {{3L, "c"}, {2L, null}, {1L, "a"}};
+
+        assertThat(ResultDigest.compute(resultSet(rows), ORDERED))
+                .isNotEqualTo(ResultDigest.compute(resultSet(reversedRows), ORDERED));
+        assertThat(ResultDigest.compute(resultSet(rows), UNORDERED))
+                .isEqualTo(ResultDigest.compute(resultSet(reversedRows), UNORDERED));
+        assertThat(ResultDigest.compute(resultSet(rows), UNORDERED))
+                .isNotEqualTo(ResultDigest.compute(resultSet(new Object[][] {{1L, "a"}, {2L, ""}, {3L, "c"}}), UNORDERED));
+        assertThat(ResultDigest.compute(resultSet(rows), ORDERED).getRowsCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void generatedDigestIsVerified()
+            throws SQLException, IOException
+    {
+        Path digestFile = Files.createTempDirectory("digest").resolve("query.digest");
+        Object[][] rows = {{1L, "a"}, {2L, "b"}};
+
+        assertThat(writeDigest(digestFile, resultSet(rows), UNORDERED, () -> {})).isEqualTo(2);
+        assertThat(Files.readString(digestFile)).startsWith("unordered 2 ");
+
+        assertThat(compareDigest(digestFile, resultSet(new Object[][] {{2L, "b"}, {1L, "a"}}), () -> {})).isEqualTo(2);
+        assertThatThrownBy(() -> compareDigest(digestFile, resultSet(new Object[][] {{1L, "a"}}), () -> {}))
+                .isInstanceOf(ResultComparisonException.class)
+                .hasMessageContaining("Incorrect row count, expected 2, got 1");
+        assertThatThrownBy(() -> compareDigest(digestFile, resultSet(new Object[][] {{1L, "a"}, {2L, "c"}}), () -> {}))
+                .isInstanceOf(ResultComparisonException.class)
+                .hasMessageContaining("Incorrect result digest");
+        assertThatThrownBy(() -> compareDigest(digestFile.resolveSibling("missing.digest"), resultSet(rows), () -> {}))
+                .isInstanceOf(ResultComparisonException.class)
+                .hasMessageContaining("Error opening result digest file");
+    }
+
+    @Test
+    public void unorderedComparisonSpillsToDisk()
+            throws SQLException, IOException
+    {
+        int rowsCount = 10_000;
+        Path resultFile = Files.createTempFile("unordered", ".result");
+        StringBuilder expected = new StringBuilder();
+        Object[][] rows = new Object[rowsCount][];
+        for (int i = 0; i < rowsCount; i++) {
+            // expected file in different order than actual rows
+            expected.append((i * 7919) % rowsCount).append(",x\n");
+            rows[i] = new Object[] {(long) i, "x"};
+        }
+        Files.writeString(resultFile, expected);
+
+        // limit memory to a few hundreds of rows, so that multiple sorted runs are spilled
+        assertThat(compareRowsUnordered(resultFile, objectResultSet(rows), 32 * 1024, () -> {})).isEqualTo(rowsCount);
+
+        rows[5000] = new Object[] {5000L, "y"};
+        assertThatThrownBy(() -> compareRowsUnordered(resultFile, objectResultSet(rows), 32 * 1024, () -> {}))
+                .isInstanceOf(ResultComparisonException.class)
+                .hasMessageContaining("Incorrect result at row 4449 of sorted results, expected 5000,x, got 5000,y");
+    }
+
+    @Test
+    public void unorderedComparisonOfDifferentRowCounts()
+            throws SQLException
+    {
+        Path path = Paths.get(Resources.getResource("comparing/test1.result").getPath());
+        assertThat(compareRowsUnordered(path, objectResultSet(new Object[][] {{1, 2, 3, 4}, {1, 2, 3, 4}}), () -> {})).isEqualTo(2);
+        assertThatThrownBy(() -> compareRowsUnordered(path, objectResultSet(new Object[][] {{1, 2, 3, 4}}), () -> {}))
+                .isInstanceOf(ResultComparisonException.class)
+                .hasMessageContaining("Actual result has 1 rows, result file has more lines, first missing row 1,2,3,4");
+        assertThatThrownBy(() -> compareRowsUnordered(path, objectResultSet(new Object[][] {{9, 9, 9, 9}, {1, 2, 3, 4}, {1, 2, 3, 4}}), () -> {}))
+                .isInstanceOf(ResultComparisonException.class)
+                .hasMessageContaining("Result file has 2 lines, actual result has more rows, first unexpected row 9,9,9,9");
+    }
+
+    private static ResultSet resultSet(Object[][] rows)
+            throws SQLException
+    {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+        when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+
+        int[] row = {-1};
+        Object[] lastValue = {null};
+        when(resultSet.next()).thenAnswer(invocation -> ++row[0] < rows.length);
+        when(resultSet.getLong(1)).thenAnswer(invocation -> {
+            lastValue[0] = rows[row[0]][0];
+            return lastValue[0];
+        });
+        when(resultSet.getString(2)).thenAnswer(invocation -> {
+            lastValue[0] = rows[row[0]][1];
+            return lastValue[0];
+        });
+        when(resultSet.wasNull()).thenAnswer(invocation -> lastValue[0] == null);
+        return resultSet;
+    }
+
+    private static ResultSet objectResultSet(Object[][] rows)
+            throws SQLException
+    {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(rows[0].length);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+
+        int[] row = {-1};
+        when(resultSet.next()).thenAnswer(invocation -> ++row[0] < rows.length);
+        when(resultSet.getObject(Mockito.anyInt())).thenAnswer(invocation -> rows[row[0]][invocation.<Integer>getArgument(0) - 1]);
+        return resultSet;
+    }
 }
@@ -0,0 +1,292 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import io.trino.benchto.service.model.Measurement;
+import io.trino.benchto.service.model.MeasurementUnit;
+import io.trino.benchto.service.model.Status;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.benchto.service.model.Status.STARTED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Results of a benchmark run read from a CSV file written by the driver in offline mode: a header, a row of the
+ * benchmark run (with empty execution sequence id) and a row per execution, in any order. Measurements are read from
+ * the JSON object column, with keys named {@code name [UNIT]}. Numeric measurement columns following it repeat some of
+ * these values for analysis tools and are ignored.
+ */
+public class BenchmarkRunImport
+{
+    private static final List<String> COLUMNS = ImmutableList.of(
+            "benchmark_name",
+            "unique_name",
+            "sequence_id",
+            "environment",
+            "variables",
+            "execution_sequence_id",
+            "status",
+            "started",
+            "ended",
+            "attributes",
+            "query_info",
+            "measurements");
+    private static final int BENCHMARK_NAME = 0;
+    private static final int UNIQUE_NAME = 1;
+    private static final int SEQUENCE_ID = 2;
+    private static final int ENVIRONMENT = 3;
+    private static final int VARIABLES = 4;
+    private static final int EXECUTION_SEQUENCE_ID = 5;
+    private static final int STATUS = 6;
+    private static final int STARTED_TIME = 7;
+    private static final int ENDED_TIME = 8;
+    private static final int ATTRIBUTES = 9;
+    private static final int QUERY_INFO = 10;
+    private static final int MEASUREMENTS = 11;
+
+    private static final Pattern MEASUREMENT_PATTERN = Pattern.compile("(.+) \\[([A-Z_]+)]");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {};
+    private static final TypeReference<LinkedHashMap<String, Double>> DOUBLE_MAP = new TypeReference<>() {};
+
+    private final String name;
+    private final String uniqueName;
+    private final String sequenceId;
+    private final Optional<String> environmentName;
+    private final Map<String, String> variables;
+    private final Map<String, String> attributes;
+    private final Status status;
+    private final Instant started;
+    private final Optional<Instant> ended;
+    private final List<Measurement> measurements;
+    private final List<ExecutionEvent> executionEvents;
+
+    private BenchmarkRunImport(List<String> benchmarkRow, List<Measurement> measurements, List<ExecutionEvent> executionEvents)
+    {
+        this.name = benchmarkRow.get(BENCHMARK_NAME);
+        this.uniqueName = benchmarkRow.get(UNIQUE_NAME);
+        this.sequenceId = benchmarkRow.get(SEQUENCE_ID);
+        this.environmentName = optionalValue(benchmarkRow.get(ENVIRONMENT));
+        this.variables = parseMap(benchmarkRow.get(VARIABLES));
+        this.attributes = parseMap(benchmarkRow.get(ATTRIBUTES));
+        this.status = Status.valueOf(benchmarkRow.get(STATUS));
+        this.started = Instant.parse(benchmarkRow.get(STARTED_TIME));
+        this.ended = optionalValue(benchmarkRow.get(ENDED_TIME)).map(Instant::parse);
+        this.measurements = requireNonNull(measurements, "measurements is null");
+        this.executionEvents = requireNonNull(executionEvents, "executionEvents is null");
+    }
+
+    public static BenchmarkRunImport fromCsv(String csv)
+    {
+        List<List<String>> records = parseCsv(csv);
+        checkArgument(!records.isEmpty(), "Missing header");
+        List<String> header = records.get(0);
+        checkArgument(header.size() >= COLUMNS.size() && header.subList(0, COLUMNS.size()).equals(COLUMNS), "Expected columns %s, got %s", COLUMNS, header);
+        for (String measurementColumn : header.subList(COLUMNS.size(), header.size())) {
+            checkArgument(MEASUREMENT_PATTERN.matcher(measurementColumn).matches(), "Invalid measurement column: %s", measurementColumn);
+        }
+
+        List<String> benchmarkRow = null;
+        List<ExecutionEvent> executionEvents = new ArrayList<>();
+        for (List<String> row : records.subList(1, records.size())) {
+            checkArgument(row.size() == header.size(), "Expected %s values, got %s: %s", header.size(), row.size(), row);
+            if (row.get(EXECUTION_SEQUENCE_ID).isEmpty()) {
+                checkArgument(benchmarkRow == null, "Multiple benchmark rows");
+                benchmarkRow = row;
+                continue;
+            }
+            Status executionStatus = Status.valueOf(row.get(STATUS));
+            executionEvents.add(ExecutionEvent.executionStarted(row.get(UNIQUE_NAME), row.get(SEQUENCE_ID), row.get(EXECUTION_SEQUENCE_ID),
+                    Optional.of(Instant.parse(row.get(STARTED_TIME))), Map.of()));
+            if (executionStatus != STARTED) {
+                executionEvents.add(ExecutionEvent.executionFinished(row.get(UNIQUE_NAME), row.get(SEQUENCE_ID), row.get(EXECUTION_SEQUENCE_ID), executionStatus,
+                        optionalValue(row.get(ENDED_TIME)).map(Instant::parse),
+                        measurements(row),
+                        parseMap(row.get(ATTRIBUTES)),
+                        optionalValue(row.get(QUERY_INFO)).orElse(null),
+                        null));
+            }
+        }
+        checkArgument(benchmarkRow != null, "Missing benchmark row");
+        for (ExecutionEvent event : executionEvents) {
+            checkArgument(event.getUniqueName().equals(benchmarkRow.get(UNIQUE_NAME)) && event.getBenchmarkSequenceId().equals(benchmarkRow.get(SEQUENCE_ID)),
+                    "Execution %s does not belong to benchmark %s", event.getExecutionSequenceId(), benchmarkRow.get(UNIQUE_NAME));
+        }
+        return new BenchmarkRunImport(benchmarkRow, measurements(benchmarkRow), executionEvents);
+    }
+
+    private static List<Measurement> measurements(List<String> row)
+    {
+        String json = row.get(MEASUREMENTS);
+        if (json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, Double> values;
+        try {
+            values = OBJECT_MAPPER.readValue(json, DOUBLE_MAP);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid measurements: " + json, e);
+        }
+        List<Measurement> measurements = new ArrayList<>();
+        values.forEach((key, value) -> {
+            Matcher matcher = MEASUREMENT_PATTERN.matcher(key);
+            checkArgument(matcher.matches(), "Invalid measurement name: %s", key);
+            Measurement measurement = new Measurement();
+            measurement.setName(matcher.group(1));
+            measurement.setUnit(MeasurementUnit.valueOf(matcher.group(2)));
+            measurement.setValue(value);
+            measurements.add(measurement);
+        });
+        return measurements;
+    }
+
+    private static Map<String, String> parseMap(String json)
+    {
+        if (json.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, STRING_MAP);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON object: " + json, e);
+        }
+    }
+
+    private static Optional<String> optionalValue(String value)
+    {
+        return value.isEmpty() ? Optional.empty() : Optional.of(value);
+    }
+
+    /**
+     * Parses RFC 4180 CSV, values may be quoted and contain commas, quotes doubled and line breaks.
+     */
+    static List<List<String>> parseCsv(String csv)
+    {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                }
+                else if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                }
+                else {
+                    quoted = false;
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                record.add(value.toString());
+                value.setLength(0);
+            }
+            else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                record.add(value.toString());
+                value.setLength(0);
+                records.add(record);
+                record = new ArrayList<>();
+            }
+            else {
+                value.append(c);
+            }
+        }
+        checkArgument(!quoted, "Unterminated quoted value");
+        if (value.length() > 0 || !record.isEmpty()) {
+            record.add(value.toString());
+            records.add(record);
+        }
+        return records;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getUniqueName()
+    {
+        return uniqueName;
+    }
+
+    public String getSequenceId()
+    {
+        return sequenceId;
+    }
+
+    public Optional<String> getEnvironmentName()
+    {
+        return environmentName;
+    }
+
+    public Map<String, String> getVariables()
+    {
+        return variables;
+    }
+
+    public Map<String, String> getAttributes()
+    {
+        return attributes;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    public Instant getStarted()
+    {
+        return started;
+    }
+
+    public Optional<Instant> getEnded()
+    {
+        return ended;
+    }
+
+    public List<Measurement> getMeasurements()
+    {
+        return measurements;
+    }
+
+    public List<ExecutionEvent> getExecutionEvents()
+    {
+        return executionEvents;
+    }
+}
@@ -37,9 +37,12 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -51,6 +54,7 @@ import static io.trino.benchto.service.utils.TimeUtils.currentDateTime;
 public class BenchmarkService
 {
     private static final Logger LOG = LoggerFactory.getLogger(BenchmarkService.class);
+    private static final int DURATION_PERCENTILE_RUNS = 10;
 
     @Autowired
     private BenchmarkRunRepo benchmarkRunRepo;
@@ -62,6 +66,12 @@ public class BenchmarkService
     @Transactional
     public String startBenchmarkRun(String uniqueName, String name, String sequenceId, Optional<String> environmentName, Map<String, String> variables,
             Map<String, String> attributes)
+    {
+        return startBenchmarkRun(uniqueName, name, sequenceId, environmentName, variables, attributes, Optional.empty());
+    }
+
+    private String startBenchmarkRun(String uniqueName, String name, String sequenceId, Optional<String> environmentName, Map<String, String> variables,
+            Map<String, String> attributes, Optional<Instant> startTime)
     {
         String generatedUniqueName = generateBenchmarkUniqueName(name, variables);
         checkArgument(uniqueName.equals(generatedUniqueName), "Passed unique benchmark name (%s) does not match generated one: (%s) - name: %s, variables: %s",
@@ -74,7 +84,7 @@ public class BenchmarkService
             benchmarkRun.setStatus(STARTED);
             benchmarkRun.setEnvironment(environment);
             benchmarkRun.getAttributes().putAll(attributes);
-            benchmarkRun.setStarted(currentDateTime());
+            benchmarkRun.setStarted(fromInstantOrCurrentDateTime(startTime));
             benchmarkRunRepo.save(benchmarkRun);
         }
         LOG.debug("Starting benchmark - {}", benchmarkRun);
@@ -87,6 +97,11 @@ public class BenchmarkService
     public void finishBenchmarkRun(String uniqueName, String sequenceId, Status status, Optional<Instant> endTime, List<Measurement> measurements, Map<String, String> attributes)
     {
         BenchmarkRun benchmarkRun = findBenchmarkRun(uniqueName, sequenceId);
+        if (benchmarkRun.getStatus() != STARTED && isReplayedFinish(benchmarkRun.getStatus(), benchmarkRun.getEnded(), status, endTime)) {
+            // finish replayed by the driver, e.g. from its spool after a restart
+            LOG.debug("Benchmark already finished - {}", benchmarkRun);
+            return;
+        }
         benchmarkRun.getMeasurements().addAll(measurements);
         benchmarkRun.getAttributes().putAll(attributes);
         benchmarkRun.setEnded(fromInstantOrCurrentDateTime(endTime));
@@ -109,8 +124,11 @@ public class BenchmarkService
     @Transactional
     public void startExecution(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Map<String, String> attributes)
     {
-        BenchmarkRun benchmarkRun = findBenchmarkRun(uniqueName, benchmarkSequenceId);
+        startExecution(findBenchmarkRun(uniqueName, benchmarkSequenceId), executionSequenceId, Optional.empty(), attributes);
+    }
 
+    private void startExecution(BenchmarkRun benchmarkRun, String executionSequenceId, Optional<Instant> startTime, Map<String, String> attributes)
+    {
         boolean executionPresent = benchmarkRun.getExecutions().stream()
                 .anyMatch(e -> executionSequenceId.equals(e.getSequenceId()));
         if (executionPresent) {
@@ -122,7 +140,7 @@ public class BenchmarkService
         BenchmarkRunExecution execution = new BenchmarkRunExecution();
         execution.setSequenceId(executionSequenceId);
         execution.setStatus(STARTED);
-        execution.setStarted(currentDateTime());
+        execution.setStarted(fromInstantOrCurrentDateTime(startTime));
         execution.setBenchmarkRun(benchmarkRun);
         execution.getAttributes().putAll(attributes);
         benchmarkRun.getExecutions().add(execution);
@@ -133,13 +151,23 @@ public class BenchmarkService
     public void finishExecution(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Status status,
             Optional<Instant> endTime, List<Measurement> measurements, Map<String, String> attributes, String queryInfo, String queryCompletionEvent)
     {
-        BenchmarkRun benchmarkRun = findBenchmarkRun(uniqueName, benchmarkSequenceId);
+        finishExecution(findBenchmarkRun(uniqueName, benchmarkSequenceId), executionSequenceId, status, endTime, measurements, attributes, queryInfo, queryCompletionEvent);
+    }
 
+    private void finishExecution(BenchmarkRun benchmarkRun, String executionSequenceId, Status status, Optional<Instant> endTime, List<Measurement> measurements,
+            Map<String, String> attributes, String queryInfo, String queryCompletionEvent)
+    {
         BenchmarkRunExecution execution = benchmarkRun.getExecutions().stream()
                 .filter(e -> executionSequenceId.equals(e.getSequenceId()))
                 .findAny().orElseThrow(() -> new IllegalStateException("Execution cannot be found"));
 
-        checkState(execution.getStatus() == STARTED, "Wrong execution status: %s", execution.getStatus());
+        if (execution.getStatus() != STARTED) {
+            checkState(isReplayedFinish(execution.getStatus(), execution.getEnded(), status, endTime),
+                    "Execution %s already finished with status %s at %s", executionSequenceId, execution.getStatus(), execution.getEnded());
+            // finish replayed by the driver, e.g. from its spool after a restart
+            LOG.debug("Execution already finished - {}", execution);
+            return;
+        }
 
         execution.getMeasurements().addAll(measurements);
         execution.getAttributes().putAll(attributes);
@@ -166,6 +194,56 @@ public class BenchmarkService
         LOG.debug("Finishing execution - {}", execution);
     }
 
+    /**
+     * Applies events of many executions in a single transaction, locking each benchmark run once. Runs are locked in
+     * the order of their names, so that concurrent batches cannot deadlock.
+     */
+    @Retryable(value = {TransientDataAccessException.class, DataIntegrityViolationException.class})
+    @Transactional
+    public void applyExecutionEvents(List<ExecutionEvent> events)
+    {
+        SortedMap<String, ExecutionEvent> benchmarkRunKeys = new TreeMap<>();
+        for (ExecutionEvent event : events) {
+            benchmarkRunKeys.putIfAbsent(benchmarkRunKey(event), event);
+        }
+        Map<String, BenchmarkRun> benchmarkRuns = new HashMap<>();
+        benchmarkRunKeys.forEach((key, event) -> benchmarkRuns.put(key, findBenchmarkRun(event.getUniqueName(), event.getBenchmarkSequenceId())));
+
+        for (ExecutionEvent event : events) {
+            BenchmarkRun benchmarkRun = benchmarkRuns.get(benchmarkRunKey(event));
+            if (event.isFinish()) {
+                finishExecution(benchmarkRun, event.getExecutionSequenceId(), event.getFinishStatus(), event.getEndTime(), event.getMeasurements(),
+                        event.getAttributes(), event.getQueryInfo(), event.getQueryCompletionEvent());
+            }
+            else {
+                startExecution(benchmarkRun, event.getExecutionSequenceId(), event.getStartTime(), event.getAttributes());
+            }
+        }
+        LOG.debug("Applied {} execution events of {} benchmark runs", events.size(), benchmarkRuns.size());
+    }
+
+    /**
+     * Imports results of a benchmark run executed without the service, e.g. written by the driver in offline mode.
+     */
+    @Retryable(value = {TransientDataAccessException.class, DataIntegrityViolationException.class})
+    @Transactional
+    public String importBenchmarkRun(BenchmarkRunImport runImport)
+    {
+        String uniqueName = startBenchmarkRun(runImport.getUniqueName(), runImport.getName(), runImport.getSequenceId(), runImport.getEnvironmentName(),
+                runImport.getVariables(), runImport.getAttributes(), Optional.of(runImport.getStarted()));
+        applyExecutionEvents(runImport.getExecutionEvents());
+        if (runImport.getStatus() != STARTED) {
+            finishBenchmarkRun(uniqueName, runImport.getSequenceId(), runImport.getStatus(), runImport.getEnded(), runImport.getMeasurements(), runImport.getAttributes());
+        }
+        LOG.debug("Imported benchmark {} with {} execution events", uniqueName, runImport.getExecutionEvents().size());
+        return uniqueName;
+    }
+
+    private static String benchmarkRunKey(ExecutionEvent event)
+    {
+        return event.getUniqueName() + "/" + event.getBenchmarkSequenceId();
+    }
+
     @Transactional
     public BenchmarkRun findBenchmarkRun(String uniqueName, String sequenceId)
     {
@@ -215,6 +293,28 @@ public class BenchmarkService
         return Duration.between(endedAsZDT, currentDateTime());
     }
 
+    /**
+     * Percentile of durations of successful executions of the latest successful runs, empty if there are none.
+     */
+    public Optional<Duration> getSuccessfulExecutionDurationPercentile(String uniqueName, double percentile)
+    {
+        checkArgument(percentile > 0 && percentile <= 100, "percentile must be between 0 and 100: %s", percentile);
+        Double millis = benchmarkRunRepo.findSuccessfulExecutionDurationPercentile(uniqueName, percentile / 100, DURATION_PERCENTILE_RUNS);
+        return Optional.ofNullable(millis)
+                .map(value -> Duration.ofNanos(Math.round(value * 1_000_000)));
+    }
+
+    /**
+     * Finish is a replay of the one already applied if it has the same status and end time. Finishes without end time
+     * are matched by status only.
+     */
+    private static boolean isReplayedFinish(Status finishedStatus, ZonedDateTime ended, Status status, Optional<Instant> endTime)
+    {
+        return finishedStatus == status && endTime
+                .map(time -> ended != null && ended.toInstant().toEpochMilli() == time.toEpochMilli())
+                .orElse(true);
+    }
+
     private ZonedDateTime fromInstantOrCurrentDateTime(Optional<Instant> instant)
     {
         ZonedDateTime currentDateTime = currentDateTime();
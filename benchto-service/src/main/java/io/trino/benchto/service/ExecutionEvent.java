@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.service;
+
+import io.trino.benchto.service.model.Measurement;
+import io.trino.benchto.service.model.Status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Start or finish of a benchmark execution applied by {@link BenchmarkService#applyExecutionEvents(List)}.
+ */
+public class ExecutionEvent
+{
+    private final String uniqueName;
+    private final String benchmarkSequenceId;
+    private final String executionSequenceId;
+    private final Optional<Instant> startTime;
+    private final Optional<Status> finishStatus;
+    private final Optional<Instant> endTime;
+    private final List<Measurement> measurements;
+    private final Map<String, String> attributes;
+    private final String queryInfo;
+    private final String queryCompletionEvent;
+
+    private ExecutionEvent(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Optional<Instant> startTime, Optional<Status> finishStatus,
+            Optional<Instant> endTime, List<Measurement> measurements, Map<String, String> attributes, String queryInfo, String queryCompletionEvent)
+    {
+        this.uniqueName = requireNonNull(uniqueName, "uniqueName is null");
+        this.benchmarkSequenceId = requireNonNull(benchmarkSequenceId, "benchmarkSequenceId is null");
+        this.executionSequenceId = requireNonNull(executionSequenceId, "executionSequenceId is null");
+        this.startTime = requireNonNull(startTime, "startTime is null");
+        this.finishStatus = requireNonNull(finishStatus, "finishStatus is null");
+        this.endTime = requireNonNull(endTime, "endTime is null");
+        this.measurements = requireNonNull(measurements, "measurements is null");
+        this.attributes = requireNonNull(attributes, "attributes is null");
+        this.queryInfo = queryInfo;
+        this.queryCompletionEvent = queryCompletionEvent;
+    }
+
+    /**
+     * @param startTime time the execution started, current time if empty
+     */
+    public static ExecutionEvent executionStarted(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Optional<Instant> startTime,
+            Map<String, String> attributes)
+    {
+        return new ExecutionEvent(uniqueName, benchmarkSequenceId, executionSequenceId, startTime, Optional.empty(), Optional.empty(), List.of(), attributes, null, null);
+    }
+
+    public static ExecutionEvent executionFinished(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Status status,
+            Optional<Instant> endTime, List<Measurement> measurements, Map<String, String> attributes, String queryInfo, String queryCompletionEvent)
+    {
+        return new ExecutionEvent(uniqueName, benchmarkSequenceId, executionSequenceId, Optional.empty(), Optional.of(requireNonNull(status, "status is null")), endTime,
+                measurements, attributes, queryInfo, queryCompletionEvent);
+    }
+
+    public String getUniqueName()
+    {
+        return uniqueName;
+    }
+
+    public String getBenchmarkSequenceId()
+    {
+        return benchmarkSequenceId;
+    }
+
+    public String getExecutionSequenceId()
+    {
+        return executionSequenceId;
+    }
+
+    public Optional<Instant> getStartTime()
+    {
+        return startTime;
+    }
+
+    public boolean isFinish()
+    {
+        return finishStatus.isPresent();
+    }
+
+    public Status getFinishStatus()
+    {
+        return finishStatus.orElseThrow(() -> new IllegalStateException("Not a finish event"));
+    }
+
+    public Optional<Instant> getEndTime()
+    {
+        return endTime;
+    }
+
+    public List<Measurement> getMeasurements()
+    {
+        return measurements;
+    }
+
+    public Map<String, String> getAttributes()
+    {
+        return attributes;
+    }
+
+    public String getQueryInfo()
+    {
+        return queryInfo;
+    }
+
+    public String getQueryCompletionEvent()
+    {
+        return queryCompletionEvent;
+    }
+}
@@ -19,5 +19,7 @@ public enum MeasurementUnit
     BYTES,
     PERCENT,
     QUERY_PER_SECOND,
+    ROWS_PER_SECOND,
+    BYTES_PER_SECOND,
     NONE
 }
@@ -17,5 +17,6 @@ public enum Status
 {
     STARTED,
     ENDED,
-    FAILED
+    FAILED,
+    TIMED_OUT
 }
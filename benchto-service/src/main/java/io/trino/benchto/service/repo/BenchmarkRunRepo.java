@@ -77,6 +77,19 @@ public interface BenchmarkRunRepo
             nativeQuery = true)
     Timestamp findTimeOfLatestSuccessfulExecution(@Param("uniqueName") String uniqueName);
 
+    @Query(value = "" +
+            "SELECT percentile_cont(:fraction) WITHIN GROUP (ORDER BY m.value) " +
+            "FROM (SELECT id FROM benchmark_runs " +
+            "      WHERE unique_name = :uniqueName AND status = 'ENDED' " +
+            "      ORDER BY ended DESC " +
+            "      LIMIT :runs) br " +
+            "  INNER JOIN executions e ON br.id = e.benchmark_run_id " +
+            "  INNER JOIN execution_measurements em ON e.id = em.execution_id " +
+            "  INNER JOIN measurements m ON m.id = em.measurement_id " +
+            "WHERE m.name = 'duration' AND e.status = 'ENDED'",
+            nativeQuery = true)
+    Double findSuccessfulExecutionDurationPercentile(@Param("uniqueName") String uniqueName, @Param("fraction") double fraction, @Param("runs") int runs);
+
     @Modifying
     @Query("UPDATE BenchmarkRun br SET br.ended = :ended, br.status = 'FAILED' WHERE br.id = :id")
     void markAsFailed(@Param(value = "id") long id, @Param(value = "ended") ZonedDateTime ended);
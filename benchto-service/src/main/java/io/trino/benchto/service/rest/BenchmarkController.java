@@ -13,9 +13,12 @@
  */
 package io.trino.benchto.service.rest;
 
+import io.trino.benchto.service.BenchmarkRunImport;
 import io.trino.benchto.service.BenchmarkService;
+import io.trino.benchto.service.ExecutionEvent;
 import io.trino.benchto.service.model.BenchmarkRun;
 import io.trino.benchto.service.rest.requests.BenchmarkStartRequest;
+import io.trino.benchto.service.rest.requests.ExecutionEventRequest;
 import io.trino.benchto.service.rest.requests.ExecutionStartRequest;
 import io.trino.benchto.service.rest.requests.FinishRequest;
 import io.trino.benchto.service.rest.requests.GenerateBenchmarkNamesRequestItem;
@@ -31,6 +34,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.trino.benchto.service.utils.CollectionUtils.failSafeEmpty;
 import static java.util.stream.Collectors.toList;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
@@ -58,6 +62,15 @@ public class BenchmarkController
                 .collect(toList());
     }
 
+    @RequestMapping(value = "/v1/benchmark/get-successful-execution-duration-percentiles/{percentile}", method = POST)
+    public List<Duration> getExecutionDurationPercentiles(@PathVariable("percentile") double percentile, @RequestBody List<String> uniqueBenchmarkNames)
+    {
+        // null for benchmarks without successful executions
+        return uniqueBenchmarkNames.stream()
+                .map(uniqueName -> benchmarkService.getSuccessfulExecutionDurationPercentile(uniqueName, percentile).orElse(null))
+                .collect(toList());
+    }
+
     @RequestMapping(value = "/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/start", method = POST)
     public String startBenchmark(
             @PathVariable("uniqueName") String uniqueName,
@@ -117,6 +130,50 @@ public class BenchmarkController
                 finishRequest.getQueryCompletionEvent());
     }
 
+    /**
+     * Starts and finishes executions of many benchmarks in a single transaction, in the order of the events.
+     */
+    @RequestMapping(value = "/v1/benchmark/batch", method = POST)
+    public void applyExecutionEvents(@RequestBody @Valid List<ExecutionEventRequest> eventRequests)
+    {
+        benchmarkService.applyExecutionEvents(eventRequests.stream()
+                .map(BenchmarkController::toExecutionEvent)
+                .collect(toList()));
+    }
+
+    private static ExecutionEvent toExecutionEvent(ExecutionEventRequest request)
+    {
+        checkArgument((request.getStart() == null) != (request.getFinish() == null),
+                "Exactly one of start and finish must be set for execution %s of %s", request.getExecutionSequenceId(), request.getUniqueName());
+        if (request.getStart() != null) {
+            return ExecutionEvent.executionStarted(request.getUniqueName(),
+                    request.getBenchmarkSequenceId(),
+                    request.getExecutionSequenceId(),
+                    Optional.empty(),
+                    failSafeEmpty(request.getStart().getAttributes()));
+        }
+        FinishRequest finishRequest = request.getFinish();
+        checkArgument(finishRequest.getStatus() != null, "Finish status must be set for execution %s of %s", request.getExecutionSequenceId(), request.getUniqueName());
+        return ExecutionEvent.executionFinished(request.getUniqueName(),
+                request.getBenchmarkSequenceId(),
+                request.getExecutionSequenceId(),
+                finishRequest.getStatus(),
+                Optional.ofNullable(finishRequest.getEndTime()),
+                failSafeEmpty(finishRequest.getMeasurements()),
+                failSafeEmpty(finishRequest.getAttributes()),
+                finishRequest.getQueryInfo(),
+                finishRequest.getQueryCompletionEvent());
+    }
+
+    /**
+     * Imports a benchmark run from a CSV file written by the driver in offline mode.
+     */
+    @RequestMapping(value = "/v1/benchmark/import", method = POST, consumes = "text/csv")
+    public String importBenchmarkRun(@RequestBody String csv)
+    {
+        return benchmarkService.importBenchmarkRun(BenchmarkRunImport.fromCsv(csv));
+    }
+
     @RequestMapping(value = "/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", method = GET)
     public BenchmarkRun findBenchmark(
             @PathVariable("uniqueName") String uniqueName,
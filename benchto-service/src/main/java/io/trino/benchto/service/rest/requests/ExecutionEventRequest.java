@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.service.rest.requests;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Start or finish of a single benchmark execution, sent in batches of events of many executions.
+ */
+public class ExecutionEventRequest
+{
+    @NotNull
+    private final String uniqueName;
+    @NotNull
+    private final String benchmarkSequenceId;
+    @NotNull
+    private final String executionSequenceId;
+    @Valid
+    private final ExecutionStartRequest start;
+    @Valid
+    private final FinishRequest finish;
+
+    @JsonCreator
+    public ExecutionEventRequest(@JsonProperty("uniqueName") String uniqueName,
+            @JsonProperty("benchmarkSequenceId") String benchmarkSequenceId,
+            @JsonProperty("executionSequenceId") String executionSequenceId,
+            @JsonProperty("start") ExecutionStartRequest start,
+            @JsonProperty("finish") FinishRequest finish)
+    {
+        this.uniqueName = uniqueName;
+        this.benchmarkSequenceId = benchmarkSequenceId;
+        this.executionSequenceId = executionSequenceId;
+        this.start = start;
+        this.finish = finish;
+    }
+
+    public String getUniqueName()
+    {
+        return uniqueName;
+    }
+
+    public String getBenchmarkSequenceId()
+    {
+        return benchmarkSequenceId;
+    }
+
+    public String getExecutionSequenceId()
+    {
+        return executionSequenceId;
+    }
+
+    public ExecutionStartRequest getStart()
+    {
+        return start;
+    }
+
+    public FinishRequest getFinish()
+    {
+        return finish;
+    }
+}
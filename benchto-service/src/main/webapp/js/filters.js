@@ -72,6 +72,14 @@
                     outputValueText += numberFilter(value, 2);
                     outputUnitText = 'query/sec';
                 }
+                else if (unit === 'ROWS_PER_SECOND') {
+                    outputValueText += numberFilter(value, 2);
+                    outputUnitText = 'rows/sec';
+                }
+                else if (unit === 'BYTES_PER_SECOND') {
+                    outputValueText += numberFilter(value, 2);
+                    outputUnitText = 'B/sec';
+                }
                 else {
                     outputValueText += numberFilter(value, 2);
                     outputUnitText = unit;
@@ -13,6 +13,7 @@
  */
 package io.trino.benchto.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.trino.benchto.service.category.IntegrationTest;
 import io.trino.benchto.service.model.BenchmarkRun;
 import io.trino.benchto.service.model.BenchmarkRunExecution;
@@ -26,12 +27,18 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -52,6 +59,9 @@ public class BenchmarkControllerTest
     @Autowired
     private EnvironmentRepo environmentRepo;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     public void testBenchmarkStartEndHappyPath()
             throws Exception
@@ -253,6 +263,232 @@ public class BenchmarkControllerTest
         });
     }
 
+    @Test
+    public void testReplayedExecutionFinish()
+            throws Exception
+    {
+        String uniqueName = "replayedFinish";
+        String benchmarkSequenceId = "benchmarkSequenceId";
+        createEnvironmentAndStartBenchmark("replay-env", uniqueName, benchmarkSequenceId);
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", uniqueName, benchmarkSequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"attributes\": {}}"))
+                .andExpect(status().isOk());
+
+        String finish = "{\"measurements\": [], \"attributes\": {}, \"status\": \"ENDED\", \"endTime\": 1700000000.123}";
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, benchmarkSequenceId, "0")
+                    .contentType(APPLICATION_JSON)
+                    .content(finish))
+                    .andExpect(status().isOk());
+        }
+
+        // conflicting finish
+        assertThatThrownBy(() -> mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, benchmarkSequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"measurements\": [], \"attributes\": {}, \"status\": \"FAILED\", \"endTime\": 1700000000.123}")))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        withinTransaction(() -> {
+            BenchmarkRunExecution execution = benchmarkRunRepo.findByUniqueNameAndSequenceId(uniqueName, benchmarkSequenceId).getExecutions().iterator().next();
+            assertThat(execution.getStatus()).isEqualTo(Status.ENDED);
+            assertThat(execution.getEnded().toInstant()).isEqualTo(Instant.ofEpochMilli(1_700_000_000_123L));
+        });
+    }
+
+    @Test
+    public void testExecutionEventsBatch()
+            throws Exception
+    {
+        String environmentName = "batch-env";
+        String uniqueName = "batchBenchmark";
+        String benchmarkSequenceId = "benchmarkSequenceId";
+        createEnvironmentAndStartBenchmark(environmentName, uniqueName, benchmarkSequenceId);
+
+        // start and finish of the same execution can be sent in a single batch
+        mvc.perform(post("/v1/benchmark/batch")
+                .contentType(APPLICATION_JSON)
+                .content("[" +
+                        startEventJson(uniqueName, benchmarkSequenceId, "0") + "," +
+                        finishEventJson(uniqueName, benchmarkSequenceId, "0", "ENDED") + "," +
+                        startEventJson(uniqueName, benchmarkSequenceId, "1") +
+                        "]"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/batch")
+                .contentType(APPLICATION_JSON)
+                .content("[" + finishEventJson(uniqueName, benchmarkSequenceId, "1", "FAILED") + "]"))
+                .andExpect(status().isOk());
+
+        withinTransaction(() -> {
+            BenchmarkRun benchmarkRun = benchmarkRunRepo.findByUniqueNameAndSequenceId(uniqueName, benchmarkSequenceId);
+            assertThat(benchmarkRun.getExecutions())
+                    .extracting("sequenceId", "status")
+                    .containsExactlyInAnyOrder(tuple("0", Status.ENDED), tuple("1", Status.FAILED));
+            for (BenchmarkRunExecution execution : benchmarkRun.getExecutions()) {
+                assertThat(execution.getMeasurements())
+                        .extracting("name").containsExactly("duration");
+                assertThat(execution.getAttributes()).containsEntry("attribute1", "value1");
+            }
+        });
+    }
+
+    @Test
+    public void testSingleAndBatchedExecutionEventsIngestion()
+            throws Exception
+    {
+        int executions = 200;
+        String environmentName = "ingestion-env";
+        String benchmarkSequenceId = "benchmarkSequenceId";
+
+        createEnvironmentAndStartBenchmark(environmentName, "singleRequests", benchmarkSequenceId);
+        for (int i = 0; i < executions; i++) {
+            String executionSequenceId = Integer.toString(i);
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", "singleRequests", benchmarkSequenceId, executionSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content("{\"attributes\": {}}"))
+                    .andExpect(status().isOk());
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", "singleRequests", benchmarkSequenceId, executionSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content(finishJson("ENDED")))
+                    .andExpect(status().isOk());
+        }
+
+        createEnvironmentAndStartBenchmark(environmentName, "batchedRequests", benchmarkSequenceId);
+        int batchSize = 50;
+        for (int batchStart = 0; batchStart < executions; batchStart += batchSize) {
+            List<String> events = new ArrayList<>();
+            for (int i = batchStart; i < batchStart + batchSize; i++) {
+                events.add(startEventJson("batchedRequests", benchmarkSequenceId, Integer.toString(i)));
+                events.add(finishEventJson("batchedRequests", benchmarkSequenceId, Integer.toString(i), "ENDED"));
+            }
+            mvc.perform(post("/v1/benchmark/batch")
+                    .contentType(APPLICATION_JSON)
+                    .content("[" + String.join(",", events) + "]"))
+                    .andExpect(status().isOk());
+        }
+
+        withinTransaction(() -> {
+            assertThat(benchmarkRunRepo.findByUniqueNameAndSequenceId("singleRequests", benchmarkSequenceId).getExecutions())
+                    .hasSize(executions)
+                    .extracting("status").containsOnly(Status.ENDED);
+            assertThat(benchmarkRunRepo.findByUniqueNameAndSequenceId("batchedRequests", benchmarkSequenceId).getExecutions())
+                    .hasSize(executions)
+                    .extracting("status").containsOnly(Status.ENDED);
+        });
+    }
+
+    @Test
+    public void testSuccessfulExecutionDurationPercentiles()
+            throws Exception
+    {
+        String uniqueName = "percentiles";
+        String benchmarkSequenceId = "benchmarkSequenceId";
+        createEnvironmentAndStartBenchmark("percentiles-env", uniqueName, benchmarkSequenceId);
+        double[] durations = {10, 20, 30, 40, 1000};
+        for (int i = 0; i < durations.length; i++) {
+            String executionSequenceId = Integer.toString(i);
+            // failed execution is not taken into account
+            String status = i == durations.length - 1 ? "FAILED" : "ENDED";
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", uniqueName, benchmarkSequenceId, executionSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content("{\"attributes\": {}}"))
+                    .andExpect(status().isOk());
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, benchmarkSequenceId, executionSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content("{\"measurements\":[{\"name\": \"duration\", \"value\": " + durations[i] + ", \"unit\": \"MILLISECONDS\"}]," +
+                            "\"attributes\":{}, \"status\": \"" + status + "\"}"))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/finish", uniqueName, benchmarkSequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"measurements\":[], \"attributes\":{}, \"status\": \"ENDED\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(getDurationPercentiles(50, uniqueName, "unknownBenchmark"))
+                .containsExactly(Duration.ofMillis(25), null);
+        assertThat(getDurationPercentiles(100, uniqueName))
+                .containsExactly(Duration.ofMillis(40));
+
+        assertThatThrownBy(() -> getDurationPercentiles(0, uniqueName))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Duration> getDurationPercentiles(double percentile, String... uniqueNames)
+            throws Exception
+    {
+        String response = mvc.perform(post("/v1/benchmark/get-successful-execution-duration-percentiles/{percentile}", percentile)
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(uniqueNames)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Arrays.asList(objectMapper.readValue(response, Duration[].class));
+    }
+
+    @Test
+    public void testImportOfflineResults()
+            throws Exception
+    {
+        String environmentName = "import-env";
+        mvc.perform(post("/v1/environment/{environmentName}", environmentName)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isOk());
+
+        String csv = "benchmark_name,unique_name,sequence_id,environment,variables,execution_sequence_id,status,started,ended,attributes,query_info,measurements\n" +
+                "imported,imported,seq,import-env,{},0,ENDED,2024-01-01T00:00:01Z,2024-01-01T00:00:02Z,{},,\"{\"\"duration [MILLISECONDS]\"\":12.5}\"\n" +
+                "imported,imported,seq,import-env,{},,ENDED,2024-01-01T00:00:00Z,2024-01-01T00:00:03Z,{},,{}\n";
+        mvc.perform(post("/v1/benchmark/import")
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().string("imported"));
+
+        withinTransaction(() -> {
+            BenchmarkRun benchmarkRun = benchmarkRunRepo.findByUniqueNameAndSequenceId("imported", "seq");
+            assertThat(benchmarkRun.getStatus()).isEqualTo(Status.ENDED);
+            assertThat(benchmarkRun.getEnvironment().getName()).isEqualTo(environmentName);
+            assertThat(benchmarkRun.getStarted().toInstant()).isEqualTo(Instant.parse("2024-01-01T00:00:00Z"));
+            assertThat(benchmarkRun.getExecutions()).hasSize(1);
+            BenchmarkRunExecution execution = benchmarkRun.getExecutions().iterator().next();
+            assertThat(execution.getStatus()).isEqualTo(Status.ENDED);
+            assertThat(execution.getStarted().toInstant()).isEqualTo(Instant.parse("2024-01-01T00:00:01Z"));
+            assertThat(execution.getMeasurements())
+                    .extracting("name", "value")
+                    .containsExactly(tuple("duration", 12.5));
+        });
+    }
+
+    private void createEnvironmentAndStartBenchmark(String environmentName, String benchmarkName, String benchmarkSequenceId)
+            throws Exception
+    {
+        mvc.perform(post("/v1/environment/{environmentName}", environmentName)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{benchmarkName}/{benchmarkSequenceId}/start", benchmarkName, benchmarkSequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"name\": \"" + benchmarkName + "\",\"environmentName\": \"" + environmentName + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private static String startEventJson(String uniqueName, String benchmarkSequenceId, String executionSequenceId)
+    {
+        return format("{\"uniqueName\": \"%s\", \"benchmarkSequenceId\": \"%s\", \"executionSequenceId\": \"%s\", \"start\": {\"attributes\": {}}}",
+                uniqueName, benchmarkSequenceId, executionSequenceId);
+    }
+
+    private static String finishEventJson(String uniqueName, String benchmarkSequenceId, String executionSequenceId, String status)
+    {
+        return format("{\"uniqueName\": \"%s\", \"benchmarkSequenceId\": \"%s\", \"executionSequenceId\": \"%s\", \"finish\": %s}",
+                uniqueName, benchmarkSequenceId, executionSequenceId, finishJson(status));
+    }
+
+    private static String finishJson(String status)
+    {
+        return "{\"measurements\":[{\"name\": \"duration\", \"value\": 12.34, \"unit\": \"MILLISECONDS\"}]," +
+                "\"attributes\":{\"attribute1\": \"value1\"}, \"status\": \"" + status + "\"}";
+    }
+
     private static String toJsonRepresentation(Instant instant)
     {
         return format("%d.%03d", instant.getEpochSecond(), instant.toEpochMilli() % 1000);
@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.service;
+
+import io.trino.benchto.service.model.MeasurementUnit;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static io.trino.benchto.service.model.Status.ENDED;
+import static io.trino.benchto.service.model.Status.FAILED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class BenchmarkRunImportTest
+{
+    private static final String HEADER = "benchmark_name,unique_name,sequence_id,environment,variables,execution_sequence_id,status,started,ended,attributes,query_info,measurements\n";
+
+    @Test
+    public void testImportFromCsv()
+    {
+        BenchmarkRunImport runImport = BenchmarkRunImport.fromCsv(HEADER +
+                "simple,simple_k=v,seq,env,\"{\"\"k\"\":\"\"v\"\"}\",0,ENDED,2024-01-01T00:00:00Z,2024-01-01T00:00:01Z,{},\"{\"\"query\"\": \"\"a,\n b\"\"}\"," +
+                "\"{\"\"duration [MILLISECONDS]\"\":12.5,\"\"output_rows [NONE]\"\":3.0}\"\n" +
+                "simple,simple_k=v,seq,env,\"{\"\"k\"\":\"\"v\"\"}\",1,FAILED,2024-01-01T00:00:01Z,2024-01-01T00:00:02Z,\"{\"\"failureMessage\"\":\"\"x\"\"}\",,\"{\"\"duration [MILLISECONDS]\"\":2.0}\"\n" +
+                "simple,simple_k=v,seq,env,\"{\"\"k\"\":\"\"v\"\"}\",,ENDED,2024-01-01T00:00:00Z,2024-01-01T00:00:03Z,{},,{}\n" +
+                "simple,simple_k=v,seq,env,\"{\"\"k\"\":\"\"v\"\"}\",2,STARTED,2024-01-01T00:00:02Z,,{},,{}\n");
+
+        assertThat(runImport.getName()).isEqualTo("simple");
+        assertThat(runImport.getUniqueName()).isEqualTo("simple_k=v");
+        assertThat(runImport.getSequenceId()).isEqualTo("seq");
+        assertThat(runImport.getEnvironmentName()).contains("env");
+        assertThat(runImport.getVariables()).containsExactly(entry("k", "v"));
+        assertThat(runImport.getStatus()).isEqualTo(ENDED);
+        assertThat(runImport.getStarted()).isEqualTo(Instant.parse("2024-01-01T00:00:00Z"));
+        assertThat(runImport.getEnded()).contains(Instant.parse("2024-01-01T00:00:03Z"));
+        assertThat(runImport.getMeasurements()).isEmpty();
+
+        List<ExecutionEvent> events = runImport.getExecutionEvents();
+        assertThat(events)
+                .extracting(ExecutionEvent::getExecutionSequenceId, ExecutionEvent::isFinish)
+                .containsExactly(tuple("0", false), tuple("0", true), tuple("1", false), tuple("1", true), tuple("2", false));
+        assertThat(events.get(0).getStartTime()).contains(Instant.parse("2024-01-01T00:00:00Z"));
+
+        ExecutionEvent finished = events.get(1);
+        assertThat(finished.getFinishStatus()).isEqualTo(ENDED);
+        assertThat(finished.getEndTime()).isEqualTo(Optional.of(Instant.parse("2024-01-01T00:00:01Z")));
+        assertThat(finished.getQueryInfo()).isEqualTo("{\"query\": \"a,\n b\"}");
+        assertThat(finished.getMeasurements())
+                .extracting("name", "unit", "value")
+                .containsExactly(tuple("duration", MeasurementUnit.MILLISECONDS, 12.5), tuple("output_rows", MeasurementUnit.NONE, 3.0));
+
+        ExecutionEvent failed = events.get(3);
+        assertThat(failed.getFinishStatus()).isEqualTo(FAILED);
+        assertThat(failed.getAttributes()).containsEntry("failureMessage", "x");
+        assertThat(failed.getMeasurements()).extracting("name").containsExactly("duration");
+    }
+
+    @Test
+    public void testMeasurementColumnsAreIgnored()
+    {
+        BenchmarkRunImport runImport = BenchmarkRunImport.fromCsv(HEADER.trim() + ",duration [MILLISECONDS]\n" +
+                "simple,simple,seq,env,{},0,ENDED,2024-01-01T00:00:00Z,2024-01-01T00:00:01Z,{},,\"{\"\"duration [MILLISECONDS]\"\":12.5}\",12.5\n" +
+                "simple,simple,seq,env,{},,ENDED,2024-01-01T00:00:00Z,2024-01-01T00:00:03Z,{},,{},\n");
+
+        assertThat(runImport.getExecutionEvents().get(1).getMeasurements())
+                .extracting("name", "unit", "value")
+                .containsExactly(tuple("duration", MeasurementUnit.MILLISECONDS, 12.5));
+        assertThatThrownBy(() -> BenchmarkRunImport.fromCsv(HEADER.trim() + ",duration\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid measurement column: duration");
+    }
+
+    @Test
+    public void testInvalidCsv()
+    {
+        assertThatThrownBy(() -> BenchmarkRunImport.fromCsv("benchmark_name,unique_name\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Expected columns");
+        assertThatThrownBy(() -> BenchmarkRunImport.fromCsv(HEADER))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing benchmark row");
+        assertThatThrownBy(() -> BenchmarkRunImport.fromCsv(HEADER + "simple,simple,seq,env,{},,ENDED,2024-01-01T00:00:00Z,,{},,\"{\"\"duration\"\":1.0}\"\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid measurement name: duration");
+        assertThatThrownBy(() -> BenchmarkRunImport.fromCsv(HEADER + "simple,simple,seq,env,{},,ENDED,\"2024-01-01T00:00:00Z\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated quoted value");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.service;
+
+import io.trino.benchto.service.category.IntegrationTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.String.format;
+import static org.junit.Assume.assumeTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares ingestion throughput of execution events sent one per request and in batches. Run only when
+ * {@code benchto.benchmarks} system property is set, e.g. {@code mvn verify -Dbenchto.benchmarks=true -Dit.test=ExecutionEventsIngestionBenchmark}.
+ */
+@Category(IntegrationTest.class)
+public class ExecutionEventsIngestionBenchmark
+        extends IntegrationTestBase
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutionEventsIngestionBenchmark.class);
+
+    private static final int EXECUTIONS = 2000;
+    private static final int BATCH_SIZE = 100;
+    private static final String ENVIRONMENT = "ingestion-benchmark-env";
+    private static final String SEQUENCE_ID = "benchmarkSequenceId";
+    private static final String FINISH_JSON = "{\"measurements\":[{\"name\": \"duration\", \"value\": 12.34, \"unit\": \"MILLISECONDS\"}]," +
+            "\"attributes\":{\"attribute1\": \"value1\"}, \"status\": \"ENDED\"}";
+
+    @Before
+    public void checkEnabled()
+    {
+        assumeTrue("Benchmarks are run only with -Dbenchto.benchmarks=true", Boolean.getBoolean("benchto.benchmarks"));
+    }
+
+    @Test
+    public void compareSingleAndBatchedRequests()
+            throws Exception
+    {
+        mvc.perform(post("/v1/environment/{environmentName}", ENVIRONMENT)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isOk());
+
+        // warm up both endpoints before measuring
+        ingestSingleRequests("warmupSingle", EXECUTIONS / 10);
+        ingestBatches("warmupBatched", EXECUTIONS / 10);
+
+        Duration single = ingestSingleRequests("singleRequests", EXECUTIONS);
+        Duration batched = ingestBatches("batchedRequests", EXECUTIONS);
+
+        LOG.info("Ingested {} executions: {} executions/s with single requests, {} executions/s with batches of {}",
+                EXECUTIONS,
+                EXECUTIONS * 1000 / Math.max(single.toMillis(), 1),
+                EXECUTIONS * 1000 / Math.max(batched.toMillis(), 1),
+                BATCH_SIZE);
+    }
+
+    private Duration ingestSingleRequests(String uniqueName, int executions)
+            throws Exception
+    {
+        startBenchmark(uniqueName);
+        long start = System.nanoTime();
+        for (int i = 0; i < executions; i++) {
+            String executionSequenceId = Integer.toString(i);
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", uniqueName, SEQUENCE_ID, executionSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content("{\"attributes\": {}}"))
+                    .andExpect(status().isOk());
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, SEQUENCE_ID, executionSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content(FINISH_JSON))
+                    .andExpect(status().isOk());
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private Duration ingestBatches(String uniqueName, int executions)
+            throws Exception
+    {
+        startBenchmark(uniqueName);
+        long start = System.nanoTime();
+        for (int batchStart = 0; batchStart < executions; batchStart += BATCH_SIZE) {
+            List<String> events = new ArrayList<>();
+            for (int i = batchStart; i < Math.min(batchStart + BATCH_SIZE, executions); i++) {
+                events.add(format("{\"uniqueName\": \"%s\", \"benchmarkSequenceId\": \"%s\", \"executionSequenceId\": \"%s\", \"start\": {\"attributes\": {}}}",
+                        uniqueName, SEQUENCE_ID, i));
+                events.add(format("{\"uniqueName\": \"%s\", \"benchmarkSequenceId\": \"%s\", \"executionSequenceId\": \"%s\", \"finish\": %s}",
+                        uniqueName, SEQUENCE_ID, i, FINISH_JSON));
+            }
+            mvc.perform(post("/v1/benchmark/batch")
+                    .contentType(APPLICATION_JSON)
+                    .content("[" + String.join(",", events) + "]"))
+                    .andExpect(status().isOk());
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private void startBenchmark(String uniqueName)
+            throws Exception
+    {
+        mvc.perform(post("/v1/benchmark/{benchmarkName}/{benchmarkSequenceId}/start", uniqueName, SEQUENCE_ID)
+                .contentType(APPLICATION_JSON)
+                .content("{\"name\": \"" + uniqueName + "\",\"environmentName\": \"" + ENVIRONMENT + "\"}"))
+                .andExpect(status().isOk());
+    }
+}
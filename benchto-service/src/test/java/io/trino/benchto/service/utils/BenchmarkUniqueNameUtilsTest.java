@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.benchto.service.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import static io.trino.benchto.service.utils.BenchmarkUniqueNameUtils.generateBenchmarkUniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BenchmarkUniqueNameUtilsTest
+{
+    /**
+     * The driver generates unique names in offline mode and is tested with the same fixtures.
+     */
+    @Test
+    public void testGenerateBenchmarkUniqueName()
+            throws IOException
+    {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode fixtures;
+        try (InputStream input = getClass().getResourceAsStream("/benchmark-unique-names.json")) {
+            fixtures = objectMapper.readTree(input);
+        }
+        assertThat(fixtures).isNotEmpty();
+        for (JsonNode fixture : fixtures) {
+            Map<String, String> variables = objectMapper.convertValue(fixture.get("variables"), objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class));
+            assertThat(generateBenchmarkUniqueName(fixture.get("name").asText(), variables))
+                    .as("unique name of %s", fixture)
+                    .isEqualTo(fixture.get("uniqueName").asText());
+        }
+    }
+}